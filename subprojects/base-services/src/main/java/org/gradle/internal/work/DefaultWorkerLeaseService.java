@@ -383,6 +383,31 @@ public class DefaultWorkerLeaseService implements WorkerLeaseService, Parallelis
             return getWorkerLease(this).start();
         }
 
+        @Override
+        public WorkerLeaseCompletion startChildren(int count) {
+            final List<DefaultWorkerLease> children = Lists.newArrayListWithCapacity(count);
+            // Only wait for the first lease. The parent keeps its own lease while waiting, so waiting for all of them could deadlock with other parents doing the same
+            DefaultWorkerLease first = getWorkerLease(this);
+            first.start();
+            children.add(first);
+            for (int i = 1; i < count; i++) {
+                DefaultWorkerLease child = getWorkerLease(this);
+                if (!coordinationService.withStateLock(DefaultResourceLockCoordinationService.tryLock(child))) {
+                    break;
+                }
+                children.add(child);
+            }
+            if (children.size() < count && LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Started {} of {} child worker leases of {}.", children.size(), count, getDisplayName());
+            }
+            return new WorkerLeaseCompletion() {
+                @Override
+                public void leaseFinish() {
+                    coordinationService.withStateLock(DefaultResourceLockCoordinationService.unlock(children));
+                }
+            };
+        }
+
         @Override
         public void leaseFinish() {
             coordinationService.withStateLock(DefaultResourceLockCoordinationService.unlock(this));
@@ -61,6 +61,15 @@ public interface WorkerLeaseRegistry {
          * <p>Note that the caller must call {@link WorkerLeaseCompletion#leaseFinish()} to mark the completion of the lease and to release the lease for other threads to use.
          */
         WorkerLeaseCompletion startChild();
+
+        /**
+         * Starts up to the given number of child leases of the current worker lease, for work that uses several workers. Blocks until the first lease is available,
+         * as for {@link #startChild()}, so that one of the children borrows the parent's lease. The other leases are only started when they are available straight away.
+         * Waiting for them as well could deadlock, as the parent keeps its own lease while waiting, and so does any other parent starting several children.
+         *
+         * <p>Note that the caller must call {@link WorkerLeaseCompletion#leaseFinish()} to mark the completion of the leases and to release all of them for other threads to use.
+         */
+        WorkerLeaseCompletion startChildren(int count);
     }
 
     interface WorkerLeaseCompletion {
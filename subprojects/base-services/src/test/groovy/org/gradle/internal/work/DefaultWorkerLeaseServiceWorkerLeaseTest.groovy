@@ -161,6 +161,92 @@ class DefaultWorkerLeaseServiceWorkerLeaseTest extends ConcurrentSpec {
     }
 
 
+    def "child operations started together borrow parent lease"() {
+        def registry = workerLeaseService(2)
+
+        expect:
+        async {
+            start {
+                def cl = registry.getWorkerLease().start()
+                def op = registry.currentWorkerLease
+                start {
+                    def children = op.startChildren(2)
+                    children.leaseFinish()
+                    instant.childrenFinished
+                }
+                thread.blockUntil.childrenFinished
+                cl.leaseFinish()
+            }
+        }
+
+        cleanup:
+        registry?.stop()
+    }
+
+    def "child operations started together block until the first lease is available"() {
+        def registry = workerLeaseService(1)
+
+        when:
+        async {
+            start {
+                def cl = registry.getWorkerLease().start()
+                def op = registry.currentWorkerLease
+                start {
+                    def child = op.startChild()
+                    instant.child1Started
+                    thread.block()
+                    instant.child1Finished
+                    child.leaseFinish()
+                }
+                start {
+                    thread.blockUntil.child1Started
+                    def children = op.startChildren(2)
+                    instant.childrenStarted
+                    children.leaseFinish()
+                    instant.childrenFinished
+                }
+                thread.blockUntil.childrenFinished
+                cl.leaseFinish()
+            }
+        }
+
+        then:
+        instant.childrenStarted > instant.child1Finished
+
+        cleanup:
+        registry?.stop()
+    }
+
+    def "child operations started together by several parents do not wait for the leases held by each other"() {
+        def registry = workerLeaseService(4)
+
+        expect:
+        async {
+            2.times { i ->
+                start {
+                    def cl = registry.getWorkerLease().start()
+                    def op = registry.currentWorkerLease
+                    instant."parent${i}Started"
+                    start {
+                        thread.blockUntil.parent0Started
+                        thread.blockUntil.parent1Started
+                        def children = op.startChildren(4)
+                        instant."children${i}Started"
+                        thread.blockUntil.children0Started
+                        thread.blockUntil.children1Started
+                        children.leaseFinish()
+                        instant."children${i}Finished"
+                    }
+                    thread.blockUntil."children${i}Finished"
+                    cl.leaseFinish()
+                }
+            }
+        }
+
+        cleanup:
+        registry?.stop()
+    }
+
     def "action with shared lease borrows parent lease"() {
         def registry = workerLeaseService(1)
 
@@ -0,0 +1,394 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Reads the entries of a ZIP file from its central directory with a single read, rather than reading the local header of every entry when the file is opened,
+ * and streams the content of an entry directly from the file.
+ *
+ * <p>Entries are described the same way as by Ant's {@link org.apache.tools.zip.ZipFile}, which is used for the archives this class cannot read, such as ZIP64 archives.</p>
+ */
+final class NioZipFile implements Closeable {
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int CENTRAL_DIRECTORY_ENTRY_SIGNATURE = 0x02014b50;
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_LENGTH = 22;
+    private static final int ZIP64_LOCATOR_LENGTH = 20;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+    private static final int CENTRAL_DIRECTORY_ENTRY_LENGTH = 46;
+    private static final int LOCAL_HEADER_LENGTH = 30;
+    private static final int UTF8_FLAG = 1 << 11;
+    private static final int UNICODE_PATH_EXTRA_FIELD = 0x7075;
+    private static final int PLATFORM_UNIX = 3;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+    private static final long ZIP64_MARKER = 0xFFFFFFFFL;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final List<Entry> entries;
+
+    private NioZipFile(RandomAccessFile file, List<Entry> entries) {
+        this.file = file;
+        this.channel = file.getChannel();
+        this.entries = entries;
+    }
+
+    /**
+     * Opens the given ZIP file, or returns null when it uses features this class does not support.
+     */
+    @Nullable
+    static NioZipFile open(File zipFile) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(zipFile, "r");
+        try {
+            List<Entry> entries = readCentralDirectory(file.getChannel());
+            if (entries == null) {
+                file.close();
+                return null;
+            }
+            return new NioZipFile(file, entries);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        } catch (RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the entries of this file, in alphabetical order of their names. When several entries have the same name, only the last of them is returned.
+     */
+    List<Entry> getEntries() {
+        return entries;
+    }
+
+    InputStream getInputStream(Entry entry) throws IOException {
+        ByteBuffer header = read(channel, entry.localHeaderOffset, LOCAL_HEADER_LENGTH);
+        if (header.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+            throw new ZipException(String.format("Invalid local header for entry '%s'.", entry.name));
+        }
+        long dataOffset = entry.localHeaderOffset + LOCAL_HEADER_LENGTH + unsignedShort(header, 26) + unsignedShort(header, 28);
+        InputStream content = new ChannelRangeInputStream(channel, dataOffset, entry.compressedSize);
+        switch (entry.method) {
+            case STORED:
+                return content;
+            case DEFLATED:
+                return new EntryInflaterInputStream(content);
+            default:
+                throw new ZipException(String.format("Unsupported compression method %d for entry '%s'.", entry.method, entry.name));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    @Nullable
+    private static List<Entry> readCentralDirectory(FileChannel channel) throws IOException {
+        long fileLength = channel.size();
+        int tailLength = (int) Math.min(fileLength, END_OF_CENTRAL_DIRECTORY_LENGTH + MAX_COMMENT_LENGTH + ZIP64_LOCATOR_LENGTH);
+        long tailOffset = fileLength - tailLength;
+        ByteBuffer tail = read(channel, tailOffset, tailLength);
+
+        int endOfCentralDirectory = -1;
+        for (int pos = tailLength - END_OF_CENTRAL_DIRECTORY_LENGTH; pos >= 0; pos--) {
+            if (tail.getInt(pos) == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                endOfCentralDirectory = pos;
+                break;
+            }
+        }
+        if (endOfCentralDirectory < 0) {
+            throw new ZipException("Archive is not a ZIP archive.");
+        }
+        if (endOfCentralDirectory >= ZIP64_LOCATOR_LENGTH && tail.getInt(endOfCentralDirectory - ZIP64_LOCATOR_LENGTH) == ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE) {
+            return null;
+        }
+
+        int diskNumber = unsignedShort(tail, endOfCentralDirectory + 4);
+        int centralDirectoryDisk = unsignedShort(tail, endOfCentralDirectory + 6);
+        int entryCount = unsignedShort(tail, endOfCentralDirectory + 10);
+        long centralDirectoryLength = unsignedInt(tail, endOfCentralDirectory + 12);
+        long centralDirectoryOffset = unsignedInt(tail, endOfCentralDirectory + 16);
+        if (diskNumber != 0 || centralDirectoryDisk != 0 || entryCount == 0xFFFF || centralDirectoryLength == ZIP64_MARKER || centralDirectoryOffset == ZIP64_MARKER) {
+            return null;
+        }
+        if (centralDirectoryOffset + centralDirectoryLength != tailOffset + endOfCentralDirectory) {
+            // Data has been prepended to the archive, such as for a self-extracting archive, or appended to the central directory
+            return null;
+        }
+
+        ByteBuffer centralDirectory = read(channel, centralDirectoryOffset, (int) centralDirectoryLength);
+        List<Entry> entries = new ArrayList<Entry>(entryCount);
+        int pos = 0;
+        for (int i = 0; i < entryCount; i++) {
+            if (pos + CENTRAL_DIRECTORY_ENTRY_LENGTH > centralDirectoryLength || centralDirectory.getInt(pos) != CENTRAL_DIRECTORY_ENTRY_SIGNATURE) {
+                throw new ZipException("Invalid central directory.");
+            }
+            int versionMadeBy = unsignedShort(centralDirectory, pos + 4);
+            int flags = unsignedShort(centralDirectory, pos + 8);
+            int method = unsignedShort(centralDirectory, pos + 10);
+            long dosTime = unsignedInt(centralDirectory, pos + 12);
+            long compressedSize = unsignedInt(centralDirectory, pos + 20);
+            long size = unsignedInt(centralDirectory, pos + 24);
+            int nameLength = unsignedShort(centralDirectory, pos + 28);
+            int extraLength = unsignedShort(centralDirectory, pos + 30);
+            int commentLength = unsignedShort(centralDirectory, pos + 32);
+            long externalAttributes = unsignedInt(centralDirectory, pos + 38);
+            long localHeaderOffset = unsignedInt(centralDirectory, pos + 42);
+            if (compressedSize == ZIP64_MARKER || size == ZIP64_MARKER || localHeaderOffset == ZIP64_MARKER) {
+                return null;
+            }
+
+            byte[] rawName = bytes(centralDirectory, pos + CENTRAL_DIRECTORY_ENTRY_LENGTH, nameLength);
+            String name;
+            if ((flags & UTF8_FLAG) != 0) {
+                name = new String(rawName, UTF8);
+            } else {
+                name = unicodePath(centralDirectory, pos + CENTRAL_DIRECTORY_ENTRY_LENGTH + nameLength, extraLength, rawName);
+                if (name == null) {
+                    name = new String(rawName, Charset.defaultCharset());
+                }
+            }
+            int unixMode = (versionMadeBy >> 8) == PLATFORM_UNIX ? (int) ((externalAttributes >> 16) & 0xFFFF) : 0;
+            entries.add(new Entry(name, method, dosToJavaTime(dosTime), compressedSize, size, unixMode, localHeaderOffset));
+
+            pos += CENTRAL_DIRECTORY_ENTRY_LENGTH + nameLength + extraLength + commentLength;
+        }
+
+        // The sort is stable, so the last of several entries with the same name is the one that was added last, as when they are collected by name
+        Collections.sort(entries, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry o1, Entry o2) {
+                return o1.name.compareTo(o2.name);
+            }
+        });
+        return withoutDuplicateNames(entries);
+    }
+
+    private static List<Entry> withoutDuplicateNames(List<Entry> sortedEntries) {
+        List<Entry> entries = new ArrayList<Entry>(sortedEntries.size());
+        for (Entry entry : sortedEntries) {
+            int last = entries.size() - 1;
+            if (last >= 0 && entries.get(last).name.equals(entry.name)) {
+                entries.set(last, entry);
+            } else {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the name from the Info-ZIP Unicode path extra field, when present and still describing the entry's name.
+     */
+    @Nullable
+    private static String unicodePath(ByteBuffer buffer, int extraOffset, int extraLength, byte[] rawName) {
+        int pos = extraOffset;
+        int end = extraOffset + extraLength;
+        while (pos + 4 <= end) {
+            int id = unsignedShort(buffer, pos);
+            int length = unsignedShort(buffer, pos + 2);
+            if (id == UNICODE_PATH_EXTRA_FIELD && length >= 5 && pos + 4 + length <= end) {
+                CRC32 crc = new CRC32();
+                crc.update(rawName);
+                if (unsignedInt(buffer, pos + 5) == crc.getValue()) {
+                    return new String(bytes(buffer, pos + 9, length - 5), UTF8);
+                }
+                return null;
+            }
+            pos += 4 + length;
+        }
+        return null;
+    }
+
+    private static long dosToJavaTime(long dosTime) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.YEAR, (int) ((dosTime >> 25) & 0x7f) + 1980);
+        calendar.set(Calendar.MONTH, (int) ((dosTime >> 21) & 0x0f) - 1);
+        calendar.set(Calendar.DATE, (int) (dosTime >> 16) & 0x1f);
+        calendar.set(Calendar.HOUR_OF_DAY, (int) (dosTime >> 11) & 0x1f);
+        calendar.set(Calendar.MINUTE, (int) (dosTime >> 5) & 0x3f);
+        calendar.set(Calendar.SECOND, (int) (dosTime << 1) & 0x3e);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTime().getTime();
+    }
+
+    private static ByteBuffer read(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of ZIP archive.");
+            }
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return bytes;
+    }
+
+    private static int unsignedShort(ByteBuffer buffer, int offset) {
+        return buffer.getShort(offset) & 0xFFFF;
+    }
+
+    private static long unsignedInt(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset) & 0xFFFFFFFFL;
+    }
+
+    static final class Entry {
+        private final String name;
+        private final int method;
+        private final long time;
+        private final long compressedSize;
+        private final long size;
+        private final int unixMode;
+        private final long localHeaderOffset;
+
+        Entry(String name, int method, long time, long compressedSize, long size, int unixMode, long localHeaderOffset) {
+            this.name = name;
+            this.method = method;
+            this.time = time;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.unixMode = unixMode;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        boolean isDirectory() {
+            return name.endsWith("/");
+        }
+
+        long getTime() {
+            return time;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        int getUnixMode() {
+            return unixMode;
+        }
+    }
+
+    /**
+     * Reads a range of the file using positional reads, so that the streams of several entries can be open at the same time.
+     */
+    private static class ChannelRangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private long position;
+        private long remaining;
+
+        ChannelRangeInputStream(FileChannel channel, long position, long length) {
+            this.channel = channel;
+            this.position = position;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] buffer = new byte[1];
+            int count = read(buffer, 0, 1);
+            return count < 0 ? -1 : buffer[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            if (length == 0) {
+                return 0;
+            }
+            int count = channel.read(ByteBuffer.wrap(buffer, offset, (int) Math.min(length, remaining)), position);
+            if (count < 0) {
+                throw new EOFException("Unexpected end of ZIP archive.");
+            }
+            position += count;
+            remaining -= count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(remaining, Integer.MAX_VALUE);
+        }
+    }
+
+    private static class EntryInflaterInputStream extends InflaterInputStream {
+        private boolean eof;
+
+        EntryInflaterInputStream(InputStream content) {
+            super(content, new Inflater(true), 8192);
+        }
+
+        @Override
+        protected void fill() throws IOException {
+            if (eof) {
+                throw new EOFException("Unexpected end of ZIP entry.");
+            }
+            len = in.read(buf, 0, buf.length);
+            if (len == -1) {
+                // The inflater needs an extra byte after the compressed data when no header or trailer is used
+                buf[0] = 0;
+                len = 1;
+                eof = true;
+            }
+            inf.setInput(buf, 0, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            inf.end();
+        }
+    }
+}
@@ -75,10 +75,29 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
         }
 
         AtomicBoolean stopFlag = new AtomicBoolean();
+        // Hashing the zip is only required when an entry is extracted, which many visitors never do
+        ExpandedDir expandedDir = new ExpandedDir();
 
         try {
+            NioZipFile nioZip = NioZipFile.open(zipFile);
+            if (nioZip != null) {
+                try {
+                    Iterator<NioZipFile.Entry> sortedEntries = nioZip.getEntries().iterator();
+                    while (!stopFlag.get() && sortedEntries.hasNext()) {
+                        NioZipFile.Entry entry = sortedEntries.next();
+                        if (entry.isDirectory()) {
+                            visitor.visitDir(new NioDetailsImpl(zipFile, expandedDir, entry, nioZip, stopFlag, chmod));
+                        } else {
+                            visitor.visitFile(new NioDetailsImpl(zipFile, expandedDir, entry, nioZip, stopFlag, chmod));
+                        }
+                    }
+                } finally {
+                    nioZip.close();
+                }
+                return;
+            }
+
             ZipFile zip = new ZipFile(zipFile);
-            File expandedDir = getExpandedDir();
             try {
                 // The iteration order of zip.getEntries() is based on the hash of the zip entry. This isn't much use
                 // to us. So, collect the entries in a map and iterate over them in alphabetical order.
@@ -92,9 +111,9 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
                 while (!stopFlag.get() && sortedEntries.hasNext()) {
                     ZipEntry entry = sortedEntries.next();
                     if (entry.isDirectory()) {
-                        visitor.visitDir(new DetailsImpl(zipFile, expandedDir, entry, zip, stopFlag, chmod));
+                        visitor.visitDir(new AntDetailsImpl(zipFile, expandedDir, entry, zip, stopFlag, chmod));
                     } else {
-                        visitor.visitFile(new DetailsImpl(zipFile, expandedDir, entry, zip, stopFlag, chmod));
+                        visitor.visitFile(new AntDetailsImpl(zipFile, expandedDir, entry, zip, stopFlag, chmod));
                     }
                 }
             } finally {
@@ -114,25 +133,39 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
         return new File(tmpDir, expandedDirName);
     }
 
-    private static class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails {
+    /**
+     * Calculates the directory entries are extracted to on first use during a visit.
+     */
+    private class ExpandedDir {
+        private File dir;
+
+        File get() {
+            if (dir == null) {
+                dir = getExpandedDir();
+            }
+            return dir;
+        }
+    }
+
+    private static abstract class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails {
         private final File originalFile;
-        private final File expandedDir;
-        private final ZipEntry entry;
-        private final ZipFile zip;
+        private final ExpandedDir expandedDir;
         private final AtomicBoolean stopFlag;
         private File file;
 
-        public DetailsImpl(File originalFile, File expandedDir, ZipEntry entry, ZipFile zip, AtomicBoolean stopFlag, Chmod chmod) {
+        DetailsImpl(File originalFile, ExpandedDir expandedDir, AtomicBoolean stopFlag, Chmod chmod) {
             super(chmod);
             this.originalFile = originalFile;
             this.expandedDir = expandedDir;
-            this.entry = entry;
-            this.zip = zip;
             this.stopFlag = stopFlag;
         }
 
+        protected abstract String getEntryName();
+
+        protected abstract int getUnixMode();
+
         public String getDisplayName() {
-            return String.format("zip entry %s!%s", originalFile, entry.getName());
+            return String.format("zip entry %s!%s", originalFile, getEntryName());
         }
 
         public void stopVisiting() {
@@ -141,7 +174,7 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
 
         public File getFile() {
             if (file == null) {
-                file = new File(expandedDir, entry.getName());
+                file = new File(expandedDir.get(), getEntryName());
                 if (!file.exists()) {
                     copyTo(file);
                 }
@@ -149,6 +182,44 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
             return file;
         }
 
+        public RelativePath getRelativePath() {
+            return new RelativePath(!isDirectory(), getEntryName().split("/"));
+        }
+
+        public int getMode() {
+            int unixMode = getUnixMode() & 0777;
+            if (unixMode == 0) {
+                //no mode infos available - fall back to defaults
+                if (isDirectory()) {
+                    unixMode = FileSystem.DEFAULT_DIR_MODE;
+                } else {
+                    unixMode = FileSystem.DEFAULT_FILE_MODE;
+                }
+            }
+            return unixMode;
+        }
+    }
+
+    private static class NioDetailsImpl extends DetailsImpl {
+        private final NioZipFile.Entry entry;
+        private final NioZipFile zip;
+
+        NioDetailsImpl(File originalFile, ExpandedDir expandedDir, NioZipFile.Entry entry, NioZipFile zip, AtomicBoolean stopFlag, Chmod chmod) {
+            super(originalFile, expandedDir, stopFlag, chmod);
+            this.entry = entry;
+            this.zip = zip;
+        }
+
+        @Override
+        protected String getEntryName() {
+            return entry.getName();
+        }
+
+        @Override
+        protected int getUnixMode() {
+            return entry.getUnixMode();
+        }
+
         public long getLastModified() {
             return entry.getTime();
         }
@@ -168,22 +239,46 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
                 throw new UncheckedIOException(e);
             }
         }
+    }
 
-        public RelativePath getRelativePath() {
-            return new RelativePath(!entry.isDirectory(), entry.getName().split("/"));
+    private static class AntDetailsImpl extends DetailsImpl {
+        private final ZipEntry entry;
+        private final ZipFile zip;
+
+        AntDetailsImpl(File originalFile, ExpandedDir expandedDir, ZipEntry entry, ZipFile zip, AtomicBoolean stopFlag, Chmod chmod) {
+            super(originalFile, expandedDir, stopFlag, chmod);
+            this.entry = entry;
+            this.zip = zip;
         }
 
-        public int getMode() {
-            int unixMode = entry.getUnixMode() & 0777;
-            if (unixMode == 0) {
-                //no mode infos available - fall back to defaults
-                if (isDirectory()) {
-                    unixMode = FileSystem.DEFAULT_DIR_MODE;
-                } else {
-                    unixMode = FileSystem.DEFAULT_FILE_MODE;
-                }
+        @Override
+        protected String getEntryName() {
+            return entry.getName();
+        }
+
+        @Override
+        protected int getUnixMode() {
+            return entry.getUnixMode();
+        }
+
+        public long getLastModified() {
+            return entry.getTime();
+        }
+
+        public boolean isDirectory() {
+            return entry.isDirectory();
+        }
+
+        public long getSize() {
+            return entry.getSize();
+        }
+
+        public InputStream open() {
+            try {
+                return zip.getInputStream(entry);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-            return unixMode;
         }
     }
 
@@ -17,6 +17,7 @@
 package org.gradle.internal.resource.local;
 
 import org.gradle.api.Action;
+import org.gradle.internal.hash.HashValue;
 
 import java.io.File;
 import java.util.Set;
@@ -33,6 +34,10 @@ public class PathNormalisingKeyFileStore implements FileStore<String>, FileStore
         return delegate.move(normalizePath(key), source);
     }
 
+    public LocallyAvailableResource move(String key, File source, HashValue sha1) {
+        return delegate.move(normalizePath(key), source, sha1);
+    }
+
     protected String normalizePath(String path) {
         return path.replaceAll("[^\\d\\w\\./]", "_");
     }
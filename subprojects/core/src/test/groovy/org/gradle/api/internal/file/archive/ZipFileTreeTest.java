@@ -15,16 +15,28 @@
  */
 package org.gradle.api.internal.file.archive;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.tools.zip.ZipEntry;
+import org.apache.tools.zip.ZipOutputStream;
 import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
 import org.gradle.test.fixtures.file.TestFile;
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider;
 import org.gradle.util.Resources;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.gradle.api.file.FileVisitorUtil.*;
@@ -32,6 +44,8 @@ import static org.gradle.api.internal.file.TestFiles.*;
 import static org.gradle.api.tasks.AntBuilderAwareUtil.assertSetContainsForAllTypes;
 import static org.gradle.util.WrapUtil.toList;
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
@@ -135,4 +149,92 @@ public class ZipFileTreeTest {
         assertVisits(tree, toList("file1.txt"), new ArrayList<String>());
         content.assertHasNotChangedSince(snapshot);
     }
+
+    @Test
+    public void readsEntriesWithoutExtractingThem() {
+        rootDir.file("file1.txt").write("content 1");
+        rootDir.file("subdir/file2.txt").write("content 2");
+        rootDir.zipTo(zipFile);
+
+        final Map<String, String> contents = new HashMap<String, String>();
+        tree.visit(new FileVisitor() {
+            public void visitDir(FileVisitDetails dirDetails) {
+            }
+
+            public void visitFile(FileVisitDetails fileDetails) {
+                InputStream inputStream = fileDetails.open();
+                try {
+                    contents.put(fileDetails.getPath(), IOUtils.toString(inputStream, "UTF-8"));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    IOUtils.closeQuietly(inputStream);
+                }
+            }
+        });
+
+        assertThat(contents.get("file1.txt"), equalTo("content 1"));
+        assertThat(contents.get("subdir/file2.txt"), equalTo("content 2"));
+        assertFalse(expandDir.exists());
+    }
+
+    @Test
+    public void visitsLastOfEntriesWithTheSameName() throws IOException {
+        ZipOutputStream outputStream = new ZipOutputStream(zipFile);
+        try {
+            writeEntry(outputStream, "file1.txt", "first content");
+            writeEntry(outputStream, "file2.txt", "content 2");
+            writeEntry(outputStream, "file1.txt", "last content");
+        } finally {
+            outputStream.close();
+        }
+
+        final List<String> paths = new ArrayList<String>();
+        final Map<String, String> contents = new HashMap<String, String>();
+        tree.visit(new FileVisitor() {
+            public void visitDir(FileVisitDetails dirDetails) {
+            }
+
+            public void visitFile(FileVisitDetails fileDetails) {
+                paths.add(fileDetails.getPath());
+                contents.put(fileDetails.getPath(), readText(fileDetails));
+            }
+        });
+
+        assertThat(paths, equalTo(toList("file1.txt", "file2.txt")));
+        assertThat(contents.get("file1.txt"), equalTo("last content"));
+    }
+
+    @Test
+    public void doesNotReadArchiveWithPrependedDataWithoutAnt() throws IOException {
+        rootDir.file("file1.txt").write("content 1");
+        TestFile originalZip = tmpDir.getTestDirectory().file("original.zip");
+        rootDir.zipTo(originalZip);
+        OutputStream outputStream = new FileOutputStream(zipFile);
+        try {
+            outputStream.write("#!/bin/sh\nexit 0\n".getBytes("UTF-8"));
+            FileUtils.copyFile(originalZip, outputStream);
+        } finally {
+            outputStream.close();
+        }
+
+        assertNull(NioZipFile.open(zipFile));
+    }
+
+    private static void writeEntry(ZipOutputStream outputStream, String name, String content) throws IOException {
+        outputStream.putNextEntry(new ZipEntry(name));
+        outputStream.write(content.getBytes("UTF-8"));
+        outputStream.closeEntry();
+    }
+
+    private static String readText(FileVisitDetails fileDetails) {
+        InputStream inputStream = fileDetails.open();
+        try {
+            return IOUtils.toString(inputStream, "UTF-8");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            IOUtils.closeQuietly(inputStream);
+        }
+    }
 }
@@ -72,6 +72,13 @@ testFilesCleanup {
     policy.set(WhenNotEmpty.REPORT)
 }
 
+jmh {
+    withGroovyBuilder {
+        // Report allocation rates alongside timings
+        setProperty("profilers", listOf("gc"))
+    }
+}
+
 val classpathManifest by tasks.getting(ClasspathManifest::class) {
     additionalProjects = listOf(project(":runtimeApiInfo"))
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
+
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.attributes.HasAttributes;
+import org.gradle.api.internal.attributes.DefaultAttributesSchema;
+import org.gradle.api.internal.attributes.ImmutableAttributes;
+import org.gradle.api.internal.attributes.ImmutableAttributesFactory;
+import org.gradle.internal.component.model.AttributeMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures selecting a variant by attributes, for components with many variants, separately from graph traversal.
+ */
+@Fork(2)
+@Warmup(iterations = 10)
+@State(Scope.Benchmark)
+public class AttributeMatchingBenchmark {
+    private static final Attribute<String> USAGE = Attribute.of("usage", String.class);
+    private static final Attribute<String> FORMAT = Attribute.of("format", String.class);
+    private static final Attribute<String> PLATFORM = Attribute.of("platform", String.class);
+    private static final Attribute<String> FLAVOR = Attribute.of("flavor", String.class);
+
+    private static final String[] USAGES = {"api", "runtime"};
+    private static final String[] FORMATS = {"jar", "classes", "resources"};
+    private static final String[] PLATFORMS = {"jvm", "android", "native", "js"};
+
+    @Param({"2", "10", "50"})
+    int variantCount;
+
+    private final List<Variant> variants = new ArrayList<Variant>();
+    private final List<ImmutableAttributes> requests = new ArrayList<ImmutableAttributes>();
+    private AttributeMatcher matcher;
+
+    @Setup(Level.Trial)
+    public void generateVariants() {
+        DefaultAttributesSchema schema = AttributesFixture.attributesSchema();
+        schema.attribute(USAGE);
+        schema.attribute(FORMAT);
+        schema.attribute(PLATFORM);
+        schema.attribute(FLAVOR);
+        matcher = schema.matcher();
+
+        ImmutableAttributesFactory attributesFactory = AttributesFixture.attributesFactory();
+        for (int i = 0; i < variantCount; i++) {
+            ImmutableAttributes attributes = attributesFactory.of(USAGE, USAGES[i % USAGES.length]);
+            attributes = attributesFactory.concat(attributes, FORMAT, FORMATS[i % FORMATS.length]);
+            // Leave some variants without a value, which is compatible with every requested value and so needs disambiguation
+            if (i % 5 != 0) {
+                attributes = attributesFactory.concat(attributes, PLATFORM, PLATFORMS[i % PLATFORMS.length]);
+            }
+            attributes = attributesFactory.concat(attributes, FLAVOR, "flavor" + i);
+            variants.add(new Variant(attributes));
+        }
+        for (String usage : USAGES) {
+            for (String format : FORMATS) {
+                for (String platform : PLATFORMS) {
+                    ImmutableAttributes requested = attributesFactory.of(USAGE, usage);
+                    requested = attributesFactory.concat(requested, FORMAT, format);
+                    requests.add(attributesFactory.concat(requested, PLATFORM, platform));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void matchVariants(Blackhole blackhole) {
+        for (ImmutableAttributes requested : requests) {
+            blackhole.consume(matcher.matches(variants, requested));
+        }
+    }
+
+    private static class Variant implements HasAttributes {
+        private final ImmutableAttributes attributes;
+
+        Variant(ImmutableAttributes attributes) {
+            this.attributes = attributes;
+        }
+
+        @Override
+        public AttributeContainer getAttributes() {
+            return attributes;
+        }
+    }
+}
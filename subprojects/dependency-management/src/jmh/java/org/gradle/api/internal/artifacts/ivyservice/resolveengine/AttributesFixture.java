@@ -0,0 +1,54 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
+
+import org.gradle.api.internal.AsmBackedClassGenerator;
+import org.gradle.api.internal.DefaultInstantiatorFactory;
+import org.gradle.api.internal.attributes.DefaultAttributesSchema;
+import org.gradle.api.internal.attributes.DefaultImmutableAttributesFactory;
+import org.gradle.api.internal.attributes.ImmutableAttributesFactory;
+import org.gradle.api.internal.changedetection.state.ValueSnapshotter;
+import org.gradle.api.internal.model.NamedObjectInstantiator;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
+import org.gradle.internal.component.model.ComponentAttributeMatcher;
+import org.gradle.internal.event.DefaultListenerManager;
+import org.gradle.internal.hash.HashCode;
+
+/**
+ * Creates the attribute services used by the resolve engine, without a build to provide them.
+ */
+final class AttributesFixture {
+    private static final ValueSnapshotter VALUE_SNAPSHOTTER = new ValueSnapshotter(new ClassLoaderHierarchyHasher() {
+        @Override
+        public HashCode getClassLoaderHash(ClassLoader classLoader) {
+            return HashCode.fromInt(classLoader.hashCode());
+        }
+    }, NamedObjectInstantiator.INSTANCE);
+
+    private AttributesFixture() {
+    }
+
+    static ImmutableAttributesFactory attributesFactory() {
+        return new DefaultImmutableAttributesFactory(VALUE_SNAPSHOTTER, NamedObjectInstantiator.INSTANCE);
+    }
+
+    static DefaultAttributesSchema attributesSchema() {
+        DefaultInstantiatorFactory instantiatorFactory = new DefaultInstantiatorFactory(new AsmBackedClassGenerator(), new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()));
+        return new DefaultAttributesSchema(new ComponentAttributeMatcher(), instantiatorFactory, VALUE_SNAPSHOTTER);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
+
+import org.gradle.api.Action;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.artifacts.DependencySubstitution;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.internal.artifacts.ComponentSelectorConverter;
+import org.gradle.api.internal.artifacts.DefaultImmutableModuleIdentifierFactory;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleVersionSelector;
+import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData;
+import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.DefaultDependencySubstitutionApplicator;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusions;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder.DependencyGraphBuilder;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.conflicts.DefaultCapabilitiesConflictHandler;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.conflicts.DefaultConflictHandler;
+import org.gradle.api.internal.attributes.DefaultAttributesSchema;
+import org.gradle.api.specs.Specs;
+import org.gradle.internal.Actions;
+import org.gradle.internal.operations.BuildOperation;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.BuildOperationRef;
+import org.gradle.internal.operations.BuildOperationWorker;
+import org.gradle.internal.operations.CallableBuildOperation;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures graph traversal and conflict resolution of {@link DependencyGraphBuilder} over generated graphs.
+ * The exclusion caches are shared between invocations, as they are between the resolutions of a build.
+ */
+@Fork(2)
+@Warmup(iterations = 10)
+@State(Scope.Benchmark)
+public class DependencyGraphBuilderBenchmark {
+
+    @Param({"DEEP", "WIDE", "CONFLICTS", "EXCLUDES"})
+    SyntheticComponentGraph.Shape shape;
+
+    private SyntheticComponentGraph graph;
+    private DefaultAttributesSchema attributesSchema;
+    private ModuleExclusions moduleExclusions;
+
+    @Setup(Level.Trial)
+    public void generateGraph() {
+        attributesSchema = AttributesFixture.attributesSchema();
+        graph = SyntheticComponentGraph.generate(shape, attributesSchema);
+        moduleExclusions = new ModuleExclusions(new DefaultImmutableModuleIdentifierFactory());
+    }
+
+    @Benchmark
+    public void resolve() {
+        createBuilder().resolve(graph, DependencyGraphVisitor.NO_OP);
+    }
+
+    private DependencyGraphBuilder createBuilder() {
+        ModuleConflictResolver conflictResolver = new LatestModuleConflictResolver(new DefaultVersionComparator(), new VersionParser());
+        return new DependencyGraphBuilder(graph, graph, graph,
+            new DefaultConflictHandler(conflictResolver, ModuleReplacementsData.NO_OP),
+            new DefaultCapabilitiesConflictHandler(),
+            Specs.satisfyAll(),
+            attributesSchema,
+            moduleExclusions,
+            new UnsupportedBuildOperationExecutor(),
+            ModuleReplacementsData.NO_OP,
+            new DefaultDependencySubstitutionApplicator(Actions.<DependencySubstitution>doNothing()),
+            new ModuleComponentSelectorConverter(),
+            AttributesFixture.attributesFactory(),
+            new DefaultVersionSelectorScheme(new DefaultVersionComparator()));
+    }
+
+    private static class ModuleComponentSelectorConverter implements ComponentSelectorConverter {
+        @Override
+        public ModuleIdentifier getModule(ComponentSelector selector) {
+            ModuleComponentSelector moduleSelector = (ModuleComponentSelector) selector;
+            return DefaultModuleIdentifier.newId(moduleSelector.getGroup(), moduleSelector.getModule());
+        }
+
+        @Override
+        public ModuleVersionSelector getSelector(ComponentSelector selector) {
+            return DefaultModuleVersionSelector.newSelector((ModuleComponentSelector) selector);
+        }
+    }
+
+    /**
+     * The generated metadata is always cheap to fetch, so the graph builder never schedules any operations.
+     */
+    private static class UnsupportedBuildOperationExecutor implements BuildOperationExecutor {
+        @Override
+        public void run(RunnableBuildOperation buildOperation) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> T call(CallableBuildOperation<T> buildOperation) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <O extends RunnableBuildOperation> void runAll(Action<BuildOperationQueue<O>> schedulingAction) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <O extends BuildOperation> void runAll(BuildOperationWorker<O> worker, Action<BuildOperationQueue<O>> schedulingAction) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BuildOperationRef getCurrentOperation() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier;
+import org.gradle.api.internal.artifacts.ResolveContext;
+import org.gradle.api.internal.artifacts.ResolvedVersionConstraint;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.attributes.AttributesSchemaInternal;
+import org.gradle.api.internal.attributes.ImmutableAttributes;
+import org.gradle.internal.component.external.descriptor.DefaultExclude;
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector;
+import org.gradle.internal.component.external.model.ImmutableCapabilities;
+import org.gradle.internal.component.local.model.BuildableLocalConfigurationMetadata;
+import org.gradle.internal.component.local.model.DefaultLocalComponentMetadata;
+import org.gradle.internal.component.local.model.RootLocalComponentMetadata;
+import org.gradle.internal.component.model.ComponentOverrideMetadata;
+import org.gradle.internal.component.model.ComponentResolveMetadata;
+import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.component.model.ExcludeMetadata;
+import org.gradle.internal.component.model.IvyArtifactName;
+import org.gradle.internal.component.model.LocalComponentDependencyMetadata;
+import org.gradle.internal.locking.NoOpDependencyLockingProvider;
+import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver;
+import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver;
+import org.gradle.internal.resolve.resolver.ResolveContextToComponentResolver;
+import org.gradle.internal.resolve.result.BuildableComponentIdResolveResult;
+import org.gradle.internal.resolve.result.BuildableComponentResolveResult;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A generated module repository held in memory, together with the resolvers that serve it to the resolve engine.
+ * Metadata is served without any parsing or IO, so that a benchmark only measures graph traversal.
+ */
+class SyntheticComponentGraph implements DependencyToComponentIdResolver, ComponentMetaDataResolver, ResolveContextToComponentResolver, ResolveContext {
+    private static final String GROUP = "org.gradle.benchmark";
+    private static final String CONFIGURATION = "default";
+    private static final Set<String> HIERARCHY = Collections.singleton(CONFIGURATION);
+
+    enum Shape {
+        /**
+         * Many layers of a few modules, where every module depends on every module of the next layer.
+         */
+        DEEP {
+            @Override
+            void generate(SyntheticComponentGraph graph) {
+                graph.layers("deep", 40, 5, 0);
+            }
+        },
+        /**
+         * Many direct dependencies that share a small set of transitive dependencies.
+         */
+        WIDE {
+            @Override
+            void generate(SyntheticComponentGraph graph) {
+                for (int i = 0; i < 50; i++) {
+                    graph.module("common-" + i, "1.0");
+                }
+                for (int i = 0; i < 2000; i++) {
+                    BuildableLocalConfigurationMetadata module = graph.module("wide-" + i, "1.0");
+                    graph.dependsOn(graph.rootConfiguration, "wide-" + i, "1.0");
+                    graph.dependsOn(module, "common-" + (i % 50), "1.0");
+                    graph.dependsOn(module, "common-" + ((i * 7) % 50), "1.0");
+                }
+            }
+        },
+        /**
+         * Many modules that each request one of several versions of a chain of libraries, so that most selections conflict.
+         */
+        CONFLICTS {
+            @Override
+            void generate(SyntheticComponentGraph graph) {
+                int libraries = 20;
+                int versions = 10;
+                for (int lib = 0; lib < libraries; lib++) {
+                    for (int version = 0; version < versions; version++) {
+                        BuildableLocalConfigurationMetadata module = graph.module("lib-" + lib, "1." + version);
+                        if (lib + 1 < libraries) {
+                            graph.dependsOn(module, "lib-" + (lib + 1), "1." + version);
+                        }
+                    }
+                }
+                for (int i = 0; i < 500; i++) {
+                    BuildableLocalConfigurationMetadata consumer = graph.module("consumer-" + i, "1.0");
+                    graph.dependsOn(graph.rootConfiguration, "consumer-" + i, "1.0");
+                    graph.dependsOn(consumer, "lib-" + (i % libraries), "1." + (i % versions));
+                }
+            }
+        },
+        /**
+         * The same layering as {@link #DEEP}, where every dependency declares excludes and a few of them exclude part of the next layer.
+         */
+        EXCLUDES {
+            @Override
+            void generate(SyntheticComponentGraph graph) {
+                graph.layers("excl", 20, 5, 12);
+            }
+        };
+
+        abstract void generate(SyntheticComponentGraph graph);
+    }
+
+    private final AttributesSchemaInternal attributesSchema;
+    private final Map<ComponentIdentifier, ComponentResolveMetadata> components = new HashMap<ComponentIdentifier, ComponentResolveMetadata>();
+    private final RootLocalComponentMetadata root;
+    private final BuildableLocalConfigurationMetadata rootConfiguration;
+    private final Map<String, BuildableLocalConfigurationMetadata> configurations = new HashMap<String, BuildableLocalConfigurationMetadata>();
+
+    private SyntheticComponentGraph(AttributesSchemaInternal attributesSchema) {
+        this.attributesSchema = attributesSchema;
+        this.root = new RootLocalComponentMetadata(DefaultModuleVersionIdentifier.newId(GROUP, "root", "1.0"), DefaultModuleComponentIdentifier.newId(GROUP, "root", "1.0"), "release", attributesSchema, NoOpDependencyLockingProvider.getInstance());
+        this.rootConfiguration = addDefaultConfiguration(root);
+    }
+
+    static SyntheticComponentGraph generate(Shape shape, AttributesSchemaInternal attributesSchema) {
+        SyntheticComponentGraph graph = new SyntheticComponentGraph(attributesSchema);
+        shape.generate(graph);
+        return graph;
+    }
+
+    private void layers(String prefix, int depth, int width, int excludesPerDependency) {
+        for (int layer = 0; layer < depth; layer++) {
+            for (int i = 0; i < width; i++) {
+                module(prefix + "-" + layer + "-" + i, "1.0");
+            }
+        }
+        for (int i = 0; i < width; i++) {
+            dependsOn(rootConfiguration, prefix + "-0-" + i, "1.0");
+        }
+        for (int layer = 0; layer + 1 < depth; layer++) {
+            for (int i = 0; i < width; i++) {
+                BuildableLocalConfigurationMetadata from = configurations.get(prefix + "-" + layer + "-" + i);
+                for (int j = 0; j < width; j++) {
+                    dependsOn(from, prefix + "-" + (layer + 1) + "-" + j, "1.0", excludes(prefix, layer, i, excludesPerDependency));
+                }
+            }
+        }
+    }
+
+    private static List<ExcludeMetadata> excludes(String prefix, int layer, int index, int count) {
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        ImmutableList.Builder<ExcludeMetadata> excludes = ImmutableList.builder();
+        for (int i = 0; i < count - 2; i++) {
+            excludes.add(new DefaultExclude(DefaultModuleIdentifier.newId(GROUP, "absent-" + layer + "-" + i)));
+        }
+        excludes.add(new DefaultExclude(DefaultModuleIdentifier.newId("org.absent." + (layer % 3), "*")));
+        // Only some paths exclude the module, so that it is still reachable and the exclusions of each path must be merged
+        excludes.add(new DefaultExclude(DefaultModuleIdentifier.newId(GROUP, prefix + "-" + (layer + 2) + "-" + index)));
+        return excludes.build();
+    }
+
+    private BuildableLocalConfigurationMetadata module(String name, String version) {
+        ModuleComponentIdentifier id = DefaultModuleComponentIdentifier.newId(GROUP, name, version);
+        DefaultLocalComponentMetadata metadata = new DefaultLocalComponentMetadata(DefaultModuleVersionIdentifier.newId(id), id, "release", attributesSchema);
+        components.put(id, metadata);
+        BuildableLocalConfigurationMetadata configuration = addDefaultConfiguration(metadata);
+        configurations.put(name, configuration);
+        return configuration;
+    }
+
+    private void dependsOn(BuildableLocalConfigurationMetadata from, String name, String version) {
+        dependsOn(from, name, version, Collections.<ExcludeMetadata>emptyList());
+    }
+
+    private void dependsOn(BuildableLocalConfigurationMetadata from, String name, String version, List<ExcludeMetadata> excludes) {
+        LocalComponentDependencyMetadata dependency = new LocalComponentDependencyMetadata(from.getComponentId(), DefaultModuleComponentSelector.newSelector(GROUP, name, version),
+            CONFIGURATION, null, ImmutableAttributes.EMPTY, CONFIGURATION, Collections.<IvyArtifactName>emptyList(),
+            excludes, false, false, true, false, null);
+        from.addDependency(dependency);
+    }
+
+    private static BuildableLocalConfigurationMetadata addDefaultConfiguration(DefaultLocalComponentMetadata metadata) {
+        return metadata.addConfiguration(CONFIGURATION, null, Collections.<String>emptySet(), HIERARCHY, true, true, ImmutableAttributes.EMPTY, true, true, ImmutableCapabilities.EMPTY);
+    }
+
+    @Override
+    public void resolve(DependencyMetadata dependency, ResolvedVersionConstraint versionConstraint, BuildableComponentIdResolveResult result) {
+        ModuleComponentSelector selector = (ModuleComponentSelector) dependency.getSelector();
+        ModuleComponentIdentifier id = DefaultModuleComponentIdentifier.newId(selector.getGroup(), selector.getModule(), selector.getVersion());
+        ModuleVersionIdentifier moduleVersionId = DefaultModuleVersionIdentifier.newId(id);
+        result.resolved(id, moduleVersionId);
+    }
+
+    @Override
+    public void resolve(ComponentIdentifier identifier, ComponentOverrideMetadata componentOverrideMetadata, BuildableComponentResolveResult result) {
+        result.resolved(components.get(identifier));
+    }
+
+    @Override
+    public boolean isFetchingMetadataCheap(ComponentIdentifier identifier) {
+        return true;
+    }
+
+    @Override
+    public void resolve(ResolveContext resolveContext, BuildableComponentResolveResult result) {
+        result.resolved(root);
+    }
+
+    @Override
+    public String getName() {
+        return "benchmark";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "benchmark graph";
+    }
+
+    @Override
+    public ResolutionStrategyInternal getResolutionStrategy() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ComponentResolveMetadata toRootComponentMetaData() {
+        return root;
+    }
+
+    @Override
+    public AttributeContainer getAttributes() {
+        return ImmutableAttributes.EMPTY;
+    }
+}
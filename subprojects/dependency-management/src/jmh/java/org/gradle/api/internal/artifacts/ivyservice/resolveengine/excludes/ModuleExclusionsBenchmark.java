@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.internal.artifacts.DefaultImmutableModuleIdentifierFactory;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.internal.component.external.descriptor.DefaultExclude;
+import org.gradle.internal.component.model.DefaultIvyArtifactName;
+import org.gradle.internal.component.model.ExcludeMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures building and combining exclude rules, and matching modules against the combined rules, separately from graph traversal.
+ */
+@Fork(2)
+@Warmup(iterations = 10)
+@State(Scope.Benchmark)
+public class ModuleExclusionsBenchmark {
+    private static final int MODULE_COUNT = 500;
+    private static final int PATH_LENGTH = 10;
+
+    @Param({"1", "10", "50"})
+    int rulesPerDependency;
+
+    private final List<ImmutableList<ExcludeMetadata>> dependencyExcludes = new ArrayList<ImmutableList<ExcludeMetadata>>();
+    private final List<ModuleIdentifier> modules = new ArrayList<ModuleIdentifier>();
+    private ModuleExclusion combined;
+
+    @Setup(Level.Trial)
+    public void generateRules() {
+        Random random = new Random(42);
+        for (int i = 0; i < MODULE_COUNT; i++) {
+            modules.add(DefaultModuleIdentifier.newId("org.group" + (i % 20), "module" + i));
+        }
+        for (int dependency = 0; dependency < 100; dependency++) {
+            ImmutableList.Builder<ExcludeMetadata> rules = ImmutableList.builder();
+            for (int i = 0; i < rulesPerDependency; i++) {
+                rules.add(randomRule(random));
+            }
+            dependencyExcludes.add(rules.build());
+        }
+        combined = combine(new ModuleExclusions(new DefaultImmutableModuleIdentifierFactory()));
+    }
+
+    private ExcludeMetadata randomRule(Random random) {
+        int group = random.nextInt(40);
+        int module = random.nextInt(MODULE_COUNT * 2);
+        switch (random.nextInt(4)) {
+            case 0:
+                return new DefaultExclude(DefaultModuleIdentifier.newId("org.group" + group, "module" + module));
+            case 1:
+                return new DefaultExclude(DefaultModuleIdentifier.newId("*", "module" + module));
+            case 2:
+                return new DefaultExclude(DefaultModuleIdentifier.newId("org.group" + group, "*"));
+            default:
+                return new DefaultExclude(DefaultModuleIdentifier.newId("org.group" + group, "module" + module), new DefaultIvyArtifactName("module" + module, "jar", "jar"), new String[0], null);
+        }
+    }
+
+    /**
+     * Combines the rules the way the graph builder does: the excludes along a path are intersected, and the paths into a node are unioned.
+     */
+    private ModuleExclusion combine(ModuleExclusions moduleExclusions) {
+        ModuleExclusion result = null;
+        ModuleExclusion path = null;
+        for (int i = 0; i < dependencyExcludes.size(); i++) {
+            ModuleExclusion edge = moduleExclusions.excludeAny(dependencyExcludes.get(i));
+            path = i % PATH_LENGTH == 0 ? edge : moduleExclusions.intersect(path, edge);
+            result = result == null ? path : moduleExclusions.union(result, path);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public ModuleExclusion combineRules() {
+        // A new instance per invocation, so that the caches are as cold as for the first resolution of a build
+        return combine(new ModuleExclusions(new DefaultImmutableModuleIdentifierFactory()));
+    }
+
+    @Benchmark
+    public void excludeModule(Blackhole blackhole) {
+        for (ModuleIdentifier module : modules) {
+            blackhole.consume(combined.excludeModule(module));
+        }
+    }
+}
@@ -27,9 +27,13 @@ import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheMetadata;
 import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ComponentResolvers;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ConnectionFailureRepositoryBlacklister;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.DynamicVersionResolver;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.RepositoryBlacklister;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.RepositoryModuleIndex;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ResolveIvyFactory;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ResolverProviderFactory;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.DefaultPomModelCache;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.PomModelCache;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.StartParameterResolutionOverride;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.CachingVersionSelectorScheme;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme;
@@ -38,6 +42,8 @@ import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionP
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
 import org.gradle.api.internal.artifacts.ivyservice.modulecache.DefaultModuleMetadataCache;
 import org.gradle.api.internal.artifacts.ivyservice.modulecache.InMemoryModuleMetadataCache;
+import org.gradle.api.internal.artifacts.ivyservice.modulecache.InMemoryModuleMetadataStore;
+import org.gradle.api.internal.artifacts.ivyservice.modulecache.ModuleMetadataSerializer;
 import org.gradle.api.internal.artifacts.ivyservice.modulecache.ModuleRepositoryCacheProvider;
 import org.gradle.api.internal.artifacts.ivyservice.modulecache.ModuleRepositoryCaches;
 import org.gradle.api.internal.artifacts.ivyservice.modulecache.SuppliedComponentMetadataSerializer;
@@ -75,7 +81,7 @@ import org.gradle.api.internal.attributes.ImmutableAttributesFactory;
 import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory;
 import org.gradle.api.internal.changedetection.state.ValueSnapshotter;
 import org.gradle.api.internal.file.FileLookup;
-import org.gradle.api.internal.file.TemporaryFileProvider;
+import org.gradle.api.internal.file.DefaultTemporaryFileProvider;
 import org.gradle.api.internal.file.TmpDirTemporaryFileProvider;
 import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
 import org.gradle.api.internal.filestore.ivy.ArtifactIdentifierFileStore;
@@ -91,9 +97,11 @@ import org.gradle.api.internal.runtimeshaded.RuntimeShadedJarFactory;
 import org.gradle.authentication.Authentication;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.internal.GeneratedGradleJarCache;
+import org.gradle.cache.internal.HeapProportionalCacheSizer;
 import org.gradle.cache.internal.ProducerGuard;
 import org.gradle.initialization.NestedBuildFactory;
 import org.gradle.initialization.ProjectAccessListener;
+import org.gradle.internal.Factories;
 import org.gradle.internal.build.BuildState;
 import org.gradle.internal.build.BuildStateRegistry;
 import org.gradle.internal.component.external.model.ModuleComponentArtifactMetadata;
@@ -118,6 +126,7 @@ import org.gradle.vcs.internal.VcsResolver;
 import org.gradle.vcs.internal.VcsWorkingDirectoryRoot;
 import org.gradle.vcs.internal.VersionControlSystemFactory;
 
+import java.io.File;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -185,6 +194,12 @@ class DependencyManagementBuildScopeServices {
 
     ModuleRepositoryCacheProvider createModuleRepositoryCacheProvider(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager, ImmutableModuleIdentifierFactory moduleIdentifierFactory,
                                                                       ArtifactCacheMetadata artifactCacheMetadata, AttributeContainerSerializer attributeContainerSerializer, MavenMutableModuleMetadataFactory mavenMetadataFactory, IvyMutableModuleMetadataFactory ivyMetadataFactory, SimpleMapInterner stringInterner) {
+        InMemoryModuleMetadataStore serializedMetadataCache = new InMemoryModuleMetadataStore(
+            new ModuleMetadataSerializer(attributeContainerSerializer, mavenMetadataFactory, ivyMetadataFactory),
+            moduleIdentifierFactory,
+            stringInterner,
+            timeProvider,
+            new HeapProportionalCacheSizer());
         ModuleRepositoryCaches caches = new ModuleRepositoryCaches(
             new DefaultModuleVersionsCache(
                 timeProvider,
@@ -198,7 +213,8 @@ class DependencyManagementBuildScopeServices {
                 attributeContainerSerializer,
                 mavenMetadataFactory,
                 ivyMetadataFactory,
-                stringInterner),
+                stringInterner,
+                serializedMetadataCache),
             new DefaultModuleArtifactsCache(
                 timeProvider,
                 cacheLockingManager
@@ -211,7 +227,7 @@ class DependencyManagementBuildScopeServices {
         );
         ModuleRepositoryCaches inMemoryCaches = new ModuleRepositoryCaches(
             new InMemoryModuleVersionsCache(timeProvider),
-            new InMemoryModuleMetadataCache(timeProvider),
+            new InMemoryModuleMetadataCache(timeProvider, serializedMetadataCache),
             new InMemoryModuleArtifactsCache(timeProvider),
             new InMemoryModuleArtifactCache(timeProvider)
         );
@@ -226,6 +242,10 @@ class DependencyManagementBuildScopeServices {
         );
     }
 
+    PomModelCache createPomModelCache(CacheLockingManager cacheLockingManager) {
+        return new DefaultPomModelCache(cacheLockingManager);
+    }
+
     ArtifactIdentifierFileStore createArtifactRevisionIdFileStore(ArtifactCacheMetadata artifactCacheMetadata) {
         return new ArtifactIdentifierFileStore(artifactCacheMetadata.getFileStoreDirectory(), new TmpDirTemporaryFileProvider());
     }
@@ -259,7 +279,7 @@ class DependencyManagementBuildScopeServices {
 
     RepositoryTransportFactory createRepositoryTransportFactory(StartParameter startParameter,
                                                                 ProgressLoggerFactory progressLoggerFactory,
-                                                                TemporaryFileProvider temporaryFileProvider,
+                                                                ArtifactCacheMetadata artifactCacheMetadata,
                                                                 ByUrlCachedExternalResourceIndex externalResourceIndex,
                                                                 BuildCommencedTimeProvider buildCommencedTimeProvider,
                                                                 CacheLockingManager cacheLockingManager,
@@ -268,10 +288,12 @@ class DependencyManagementBuildScopeServices {
                                                                 ProducerGuard<ExternalResourceName> producerGuard,
                                                                 FileResourceRepository fileResourceRepository) {
         StartParameterResolutionOverride startParameterResolutionOverride = new StartParameterResolutionOverride(startParameter);
+        // Download into the cache directory, so that moving a download into the file store is a rename rather than a copy
+        File downloadDir = artifactCacheMetadata.getDownloadsDirectory();
         return new RepositoryTransportFactory(
             resourceConnectorFactories,
             progressLoggerFactory,
-            temporaryFileProvider,
+            new DefaultTemporaryFileProvider(Factories.constant(downloadDir)),
             externalResourceIndex,
             buildCommencedTimeProvider,
             cacheLockingManager,
@@ -291,8 +313,11 @@ class DependencyManagementBuildScopeServices {
                                               VersionComparator versionComparator,
                                               ImmutableModuleIdentifierFactory moduleIdentifierFactory,
                                               RepositoryBlacklister repositoryBlacklister,
-                                              VersionParser versionParser) {
+                                              VersionParser versionParser,
+                                              RepositoryModuleIndex repositoryModuleIndex,
+                                              BuildOperationExecutor buildOperationExecutor) {
         StartParameterResolutionOverride startParameterResolutionOverride = new StartParameterResolutionOverride(startParameter);
+        boolean skipUnlikelyRepositories = Boolean.getBoolean(RepositoryModuleIndex.SKIP_UNLIKELY_REPOSITORIES_PROPERTY) && !startParameter.isRefreshDependencies();
         return new ResolveIvyFactory(
             moduleRepositoryCacheProvider,
             startParameterResolutionOverride,
@@ -301,7 +326,11 @@ class DependencyManagementBuildScopeServices {
             versionComparator,
             moduleIdentifierFactory,
             repositoryBlacklister,
-            versionParser);
+            versionParser,
+            repositoryModuleIndex,
+            skipUnlikelyRepositories,
+            buildOperationExecutor,
+            Boolean.getBoolean(DynamicVersionResolver.PARALLEL_VERSION_LISTING_PROPERTY));
     }
 
     ArtifactDependencyResolver createArtifactDependencyResolver(ResolveIvyFactory resolveIvyFactory,
@@ -19,8 +19,19 @@ package org.gradle.api.internal.artifacts;
 import org.gradle.api.internal.artifacts.ivyservice.DefaultArtifactCacheMetadata;
 import org.gradle.cache.internal.CacheScopeMapping;
 
+import java.io.File;
+
 public class DependencyManagementGradleUserHomeScopeServices {
+    /**
+     * Points at the caches directory of a pre-populated, read-only dependency cache, for example one baked into a CI container image.
+     *
+     * <p>Only the {@code files-2.1} file store of this cache is used, as a source of candidate files that are verified against the repository checksum.
+     * Module metadata, cached external resource lookups and cache locking still use the writable cache only, so each module is still looked up in its repository once.</p>
+     */
+    public static final String READ_ONLY_CACHE_ENV_VAR = "GRADLE_RO_DEP_CACHE";
+
     DefaultArtifactCacheMetadata createArtifactCacheMetaData(CacheScopeMapping cacheScopeMapping) {
-        return new DefaultArtifactCacheMetadata(cacheScopeMapping);
+        String readOnlyCache = System.getenv(READ_ONLY_CACHE_ENV_VAR);
+        return new DefaultArtifactCacheMetadata(cacheScopeMapping, readOnlyCache == null || readOnlyCache.isEmpty() ? null : new File(readOnlyCache));
     }
 }
@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice;
 
+import javax.annotation.Nullable;
 import java.io.File;
 
 public interface ArtifactCacheMetadata {
@@ -30,6 +31,15 @@ public interface ArtifactCacheMetadata {
      */
     File getFileStoreDirectory();
 
+    /**
+     * Returns the root directory for the module artifacts file store of a pre-populated, read-only cache, if one is configured.
+     * Files in this store are never written to or locked, and are only used as candidates for artifacts that are not yet in the writable file store.
+     *
+     * @return Read-only file store location, or null when there is no read-only cache.
+     */
+    @Nullable
+    File getReadOnlyFileStoreDirectory();
+
     /**
      * Returns the root directory for the external resources file store.
      *
@@ -44,6 +54,11 @@ public interface ArtifactCacheMetadata {
      */
     File getMetaDataStoreDirectory();
 
+    /**
+     * Returns the directory that downloads are written to before they are moved into a file store.
+     */
+    File getDownloadsDirectory();
+
     /**
      * Returns the root directory for the transforms cache.
      */
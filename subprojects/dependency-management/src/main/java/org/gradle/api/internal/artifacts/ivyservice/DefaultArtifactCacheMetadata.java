@@ -20,8 +20,9 @@ import org.gradle.cache.internal.VersionStrategy;
 import org.gradle.internal.classpath.CachedJarFileStore;
 import org.gradle.util.VersionNumber;
 
+import javax.annotation.Nullable;
 import java.io.File;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 
 public class DefaultArtifactCacheMetadata implements ArtifactCacheMetadata, CachedJarFileStore {
@@ -29,10 +30,19 @@ public class DefaultArtifactCacheMetadata implements ArtifactCacheMetadata, Cach
     public static final VersionNumber CACHE_LAYOUT_VERSION = CacheLayout.META_DATA.getVersion();
     private final File cacheDir;
     private final File transformsDir;
+    private final File readOnlyCacheDir;
 
     public DefaultArtifactCacheMetadata(CacheScopeMapping cacheScopeMapping) {
+        this(cacheScopeMapping, null);
+    }
+
+    /**
+     * @param readOnlyCachesDir A directory laid out like the caches directory of a Gradle user home, holding a pre-populated {@code modules-2} cache that must not be written to.
+     */
+    public DefaultArtifactCacheMetadata(CacheScopeMapping cacheScopeMapping, @Nullable File readOnlyCachesDir) {
         cacheDir = cacheScopeMapping.getBaseDirectory(null, CacheLayout.ROOT.getKey(), VersionStrategy.SharedCache);
         transformsDir = cacheScopeMapping.getBaseDirectory(null, CacheLayout.TRANSFORMS.getKey(), VersionStrategy.SharedCache);
+        readOnlyCacheDir = readOnlyCachesDir == null ? null : CacheLayout.ROOT.getPath(readOnlyCachesDir);
     }
 
     @Override
@@ -47,7 +57,14 @@ public class DefaultArtifactCacheMetadata implements ArtifactCacheMetadata, Cach
 
     @Override
     public List<File> getFileStoreRoots() {
-        return Arrays.asList(getFileStoreDirectory(), getTransformsStoreDirectory());
+        List<File> roots = new ArrayList<File>(3);
+        roots.add(getFileStoreDirectory());
+        roots.add(getTransformsStoreDirectory());
+        File readOnlyFileStore = getReadOnlyFileStoreDirectory();
+        if (readOnlyFileStore != null) {
+            roots.add(readOnlyFileStore);
+        }
+        return roots;
     }
 
     @Override
@@ -55,6 +72,12 @@ public class DefaultArtifactCacheMetadata implements ArtifactCacheMetadata, Cach
         return createCacheRelativeDir(CacheLayout.FILE_STORE);
     }
 
+    @Nullable
+    @Override
+    public File getReadOnlyFileStoreDirectory() {
+        return readOnlyCacheDir == null ? null : CacheLayout.FILE_STORE.getPath(readOnlyCacheDir);
+    }
+
     @Override
     public File getExternalResourcesStoreDirectory() {
         return createCacheRelativeDir(CacheLayout.RESOURCES);
@@ -65,6 +88,11 @@ public class DefaultArtifactCacheMetadata implements ArtifactCacheMetadata, Cach
         return new File(createCacheRelativeDir(CacheLayout.META_DATA), "descriptors");
     }
 
+    @Override
+    public File getDownloadsDirectory() {
+        return new File(getCacheDir(), "tmp");
+    }
+
     private File createCacheRelativeDir(CacheLayout cacheLayout) {
         return cacheLayout.getPath(getCacheDir());
     }
@@ -40,6 +40,8 @@ public class DefaultCacheLockingManager implements CacheLockingManager, Closeabl
                 .withDisplayName("artifact cache")
                 .withLockOptions(mode(FileLockManager.LockMode.None)) // Don't need to lock anything until we use the caches
                 .open();
+        // Remove stale downloads when the cache is opened. Registering a cleanup action instead would make the cache rebuild itself whenever a build was killed
+        new StaleDownloadsCleanup(cacheMetaData.getDownloadsDirectory()).clean(cache);
     }
 
     @Override
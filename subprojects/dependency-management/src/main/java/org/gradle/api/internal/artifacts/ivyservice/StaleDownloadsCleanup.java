@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.gradle.cache.CleanupAction;
+import org.gradle.cache.PersistentCache;
+import org.gradle.util.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes the partial downloads that builds which were killed while downloading left behind in the downloads directory of the artifact cache.
+ *
+ * <p>A download in progress keeps writing to its file, so only files that have not been modified for a day are removed.</p>
+ */
+public class StaleDownloadsCleanup implements CleanupAction {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StaleDownloadsCleanup.class);
+    private static final long DEFAULT_MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final File downloadsDirectory;
+    private final long maxAgeMillis;
+
+    public StaleDownloadsCleanup(File downloadsDirectory) {
+        this(downloadsDirectory, DEFAULT_MAX_AGE_MILLIS);
+    }
+
+    @VisibleForTesting
+    StaleDownloadsCleanup(File downloadsDirectory, long maxAgeMillis) {
+        this.downloadsDirectory = downloadsDirectory;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    @Override
+    public void clean(PersistentCache persistentCache) {
+        File[] downloads = downloadsDirectory.listFiles();
+        if (downloads == null) {
+            return;
+        }
+        long modifiedNoLaterThan = System.currentTimeMillis() - maxAgeMillis;
+        int removed = 0;
+        for (File download : downloads) {
+            if (download.lastModified() <= modifiedNoLaterThan && GFileUtils.deleteQuietly(download)) {
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            LOGGER.info("{} removed {} stale downloads.", persistentCache, removed);
+        }
+    }
+}
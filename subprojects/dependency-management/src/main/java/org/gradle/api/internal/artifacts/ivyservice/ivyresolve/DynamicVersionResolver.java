@@ -34,12 +34,18 @@ import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionS
 import org.gradle.api.internal.attributes.AttributeContainerInternal;
 import org.gradle.api.internal.attributes.ImmutableAttributes;
 import org.gradle.api.internal.attributes.ImmutableAttributesFactory;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.action.InstantiatingAction;
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
 import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
 import org.gradle.internal.component.external.model.ModuleDependencyMetadata;
 import org.gradle.internal.component.model.DefaultComponentOverrideMetadata;
 import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.resolve.ModuleVersionNotFoundException;
 import org.gradle.internal.resolve.ModuleVersionResolveException;
 import org.gradle.internal.resolve.RejectedByAttributesVersion;
@@ -69,6 +75,12 @@ import static org.gradle.internal.resolve.result.BuildableModuleComponentMetaDat
 import static org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolveResult.State.Resolved;
 
 public class DynamicVersionResolver {
+    /**
+     * When set to {@code true}, the versions of a module are listed from all repositories concurrently, rather than from one repository after the other.
+     * The listings are still used in repository order, so the same version is selected from the same repository.
+     */
+    public static final String PARALLEL_VERSION_LISTING_PROPERTY = "org.gradle.internal.resolve.parallelVersionListing";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(DynamicVersionResolver.class);
 
     private final List<ModuleComponentRepository> repositories = new ArrayList<ModuleComponentRepository>();
@@ -80,8 +92,10 @@ public class DynamicVersionResolver {
     private final ComponentMetadataProcessor componentMetadataProcessor;
     private final ComponentMetadataSupplierRuleExecutor componentMetadataSupplierRuleExecutor;
     private final CachePolicy cachePolicy;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final boolean parallelVersionListing;
 
-    public DynamicVersionResolver(VersionedComponentChooser versionedComponentChooser, VersionParser versionParser, Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory, ImmutableAttributesFactory attributesFactory, ComponentMetadataProcessor componentMetadataProcessor, ComponentMetadataSupplierRuleExecutor componentMetadataSupplierRuleExecutor, CachePolicy cachePolicy) {
+    public DynamicVersionResolver(VersionedComponentChooser versionedComponentChooser, VersionParser versionParser, Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory, ImmutableAttributesFactory attributesFactory, ComponentMetadataProcessor componentMetadataProcessor, ComponentMetadataSupplierRuleExecutor componentMetadataSupplierRuleExecutor, CachePolicy cachePolicy, BuildOperationExecutor buildOperationExecutor, boolean parallelVersionListing) {
         this.versionedComponentChooser = versionedComponentChooser;
         this.versionParser = versionParser;
         this.metaDataFactory = metaDataFactory;
@@ -89,6 +103,8 @@ public class DynamicVersionResolver {
         this.componentMetadataProcessor = componentMetadataProcessor;
         this.componentMetadataSupplierRuleExecutor = componentMetadataSupplierRuleExecutor;
         this.cachePolicy = cachePolicy;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.parallelVersionListing = parallelVersionListing;
     }
 
     public void add(ModuleComponentRepository repository) {
@@ -159,6 +175,7 @@ public class DynamicVersionResolver {
     }
 
     private RepositoryChainModuleResolution findLatestModule(LinkedList<RepositoryResolveState> queue, Collection<Throwable> failures, Collection<RepositoryResolveState> missing) {
+        listVersionsInParallel(queue);
         RepositoryChainModuleResolution best = null;
         while (!queue.isEmpty()) {
             RepositoryResolveState request = queue.removeFirst();
@@ -199,6 +216,26 @@ public class DynamicVersionResolver {
         return best;
     }
 
+    /**
+     * Lists the versions from each repository concurrently, ahead of selecting a version from each listing in repository order.
+     * A failure to list is kept by the repository's state and reported when that repository is reached, so it is handled exactly as a serial listing failure would be.
+     * A critical failure no longer prevents the listing of later repositories, but those listings are discarded as before.
+     */
+    private void listVersionsInParallel(final List<RepositoryResolveState> resolveStates) {
+        if (!parallelVersionListing || resolveStates.size() < 2) {
+            return;
+        }
+        LOGGER.debug("Listing versions from {} repositories in parallel", resolveStates.size());
+        buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+            @Override
+            public void execute(BuildOperationQueue<RunnableBuildOperation> buildOperationQueue) {
+                for (RepositoryResolveState resolveState : resolveStates) {
+                    buildOperationQueue.add(new ListVersionsOperation(resolveState));
+                }
+            }
+        });
+    }
+
     private RepositoryChainModuleResolution chooseBest(RepositoryChainModuleResolution one, RepositoryChainModuleResolution two) {
         if (one == null || two == null) {
             return two == null ? one : two;
@@ -206,6 +243,24 @@ public class DynamicVersionResolver {
         return versionedComponentChooser.selectNewestComponent(one.module, two.module) == one.module ? one : two;
     }
 
+    private static class ListVersionsOperation implements RunnableBuildOperation {
+        private final RepositoryResolveState resolveState;
+
+        ListVersionsOperation(RepositoryResolveState resolveState) {
+            this.resolveState = resolveState;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            resolveState.listVersions();
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("List versions of " + resolveState.dependency.getSelector() + " from " + resolveState.repository.getName());
+        }
+    }
+
     private static class AttemptCollector implements Action<ResourceAwareResolveResult> {
         private final List<String> attempts = new ArrayList<String>();
 
@@ -247,6 +302,8 @@ public class DynamicVersionResolver {
         private final ComponentMetadataSupplierRuleExecutor metadataSupplierRuleExecutor;
         private final CachePolicy cachePolicy;
         private ModuleComponentIdentifier firstRejected = null;
+        private boolean versionsListed;
+        private Throwable listingFailure;
 
 
         public RepositoryResolveState(VersionedComponentChooser versionedComponentChooser, ModuleDependencyMetadata dependency, ModuleComponentRepository repository, VersionSelector versionSelector, VersionSelector rejectedVersionSelector, VersionParser versionParser, AttributeContainer consumerAttributes, ImmutableAttributesFactory attributesFactory, ComponentMetadataProcessor componentMetadataProcessor, ComponentMetadataSupplierRuleExecutor metadataSupplierRuleExecutor, CachePolicy cachePolicy) {
@@ -275,8 +332,30 @@ public class DynamicVersionResolver {
             return versionListingResult.canMakeFurtherAttempts();
         }
 
+        /**
+         * Lists the versions for the next pass ahead of {@link #resolve()}, which can be done concurrently with other repositories.
+         */
+        void listVersions() {
+            try {
+                versionListingResult.resolve();
+            } catch (Throwable t) {
+                listingFailure = t;
+            } finally {
+                versionsListed = true;
+            }
+        }
+
         void resolve() {
-            versionListingResult.resolve();
+            if (versionsListed) {
+                versionsListed = false;
+                if (listingFailure != null) {
+                    Throwable failure = listingFailure;
+                    listingFailure = null;
+                    throw UncheckedException.throwAsUncheckedException(failure);
+                }
+            } else {
+                versionListingResult.resolve();
+            }
             switch (versionListingResult.result.getState()) {
                 case Failed:
                     resolvedVersionMetadata.failed(versionListingResult.result.getFailure());
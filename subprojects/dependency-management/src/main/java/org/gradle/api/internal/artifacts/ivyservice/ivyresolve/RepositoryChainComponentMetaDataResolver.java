@@ -33,6 +33,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
 
 import static org.gradle.internal.resolve.ResolveExceptionAnalyzer.hasCriticalFailure;
 import static org.gradle.internal.resolve.ResolveExceptionAnalyzer.isCriticalFailure;
@@ -44,10 +45,19 @@ public class RepositoryChainComponentMetaDataResolver implements ComponentMetaDa
     private final List<String> repositoryNames = new ArrayList<String>();
     private final VersionedComponentChooser versionedComponentChooser;
     private final Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory;
+    private final RepositoryModuleIndex moduleIndex;
+    private final boolean skipUnlikelyRepositories;
 
     public RepositoryChainComponentMetaDataResolver(VersionedComponentChooser componentChooser, Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory) {
+        this(componentChooser, metaDataFactory, new RepositoryModuleIndex(), false);
+    }
+
+    public RepositoryChainComponentMetaDataResolver(VersionedComponentChooser componentChooser, Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory,
+                                                    RepositoryModuleIndex moduleIndex, boolean skipUnlikelyRepositories) {
         this.versionedComponentChooser = componentChooser;
         this.metaDataFactory = metaDataFactory;
+        this.moduleIndex = moduleIndex;
+        this.skipUnlikelyRepositories = skipUnlikelyRepositories;
     }
 
     public void add(ModuleComponentRepository repository) {
@@ -89,9 +99,12 @@ public class RepositoryChainComponentMetaDataResolver implements ComponentMetaDa
             resolveStates.add(new ComponentMetaDataResolveState(identifier, componentOverrideMetadata, repository, versionedComponentChooser));
         }
 
-        final RepositoryChainModuleResolution latestResolved = findBestMatch(resolveStates, errors);
+        final RepositoryChainModuleResolution latestResolved = findBestMatch(identifier, resolveStates, errors);
         if (latestResolved != null) {
             LOGGER.debug("Using {} from {}", latestResolved.module.getModuleVersionId(), latestResolved.repository);
+            if (!latestResolved.module.isMissing()) {
+                moduleIndex.recordPresent(latestResolved.repository.getId(), identifier);
+            }
             for (Throwable error : errors) {
                 LOGGER.debug("Discarding resolve failure.", error);
             }
@@ -109,7 +122,7 @@ public class RepositoryChainComponentMetaDataResolver implements ComponentMetaDa
         }
     }
 
-    private RepositoryChainModuleResolution findBestMatch(List<ComponentMetaDataResolveState> resolveStates, Collection<Throwable> failures) {
+    private RepositoryChainModuleResolution findBestMatch(ModuleComponentIdentifier identifier, List<ComponentMetaDataResolveState> resolveStates, Collection<Throwable> failures) {
         LinkedList<ComponentMetaDataResolveState> queue = new LinkedList<ComponentMetaDataResolveState>();
         queue.addAll(resolveStates);
 
@@ -127,7 +140,39 @@ public class RepositoryChainComponentMetaDataResolver implements ComponentMetaDa
         // Nothing found locally - try a remote search for all resolve states that were not yet searched remotely
         queue.addAll(missing);
         missing.clear();
-        return findBestMatch(queue, failures, missing);
+        if (!skipUnlikelyRepositories) {
+            return findBestMatch(queue, failures, missing);
+        }
+
+        LinkedList<ComponentMetaDataResolveState> unlikely = removeUnlikelyRepositories(identifier, queue);
+        best = findBestMatch(queue, failures, missing);
+        if (best != null || unlikely.isEmpty() || hasCriticalFailure(failures)) {
+            return best;
+        }
+
+        // Not found where expected - search the skipped repositories as well
+        LOGGER.debug("Searching skipped repositories for {}", identifier);
+        return findBestMatch(unlikely, failures, missing);
+    }
+
+    /**
+     * Removes from the queue the repositories that have never contained the module, when a later repository in the queue is known to contain it.
+     */
+    private LinkedList<ComponentMetaDataResolveState> removeUnlikelyRepositories(ModuleComponentIdentifier identifier, LinkedList<ComponentMetaDataResolveState> queue) {
+        LinkedList<ComponentMetaDataResolveState> unlikely = new LinkedList<ComponentMetaDataResolveState>();
+        boolean foundInLaterRepository = false;
+        ListIterator<ComponentMetaDataResolveState> iterator = queue.listIterator(queue.size());
+        while (iterator.hasPrevious()) {
+            ComponentMetaDataResolveState request = iterator.previous();
+            if (moduleIndex.mightContain(request.repository.getId(), identifier)) {
+                foundInLaterRepository = true;
+            } else if (foundInLaterRepository) {
+                LOGGER.debug("Skipping repository '{}' for {}, as it has never contained this module", request.repository.getName(), identifier);
+                iterator.remove();
+                unlikely.addFirst(request);
+            }
+        }
+        return unlikely;
     }
 
     private RepositoryChainModuleResolution findBestMatch(LinkedList<ComponentMetaDataResolveState> queue, Collection<Throwable> failures, Collection<ComponentMetaDataResolveState> missing) {
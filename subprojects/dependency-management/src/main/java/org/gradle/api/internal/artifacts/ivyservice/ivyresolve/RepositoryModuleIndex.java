@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A compact, probabilistic record of the modules that have been found in each repository, kept for the lifetime of the process.
+ *
+ * <p>The record is a bloom filter per repository, so a module that has been found in a repository is always reported as possibly
+ * present, while a small fraction of the modules that have never been found there are reported as possibly present as well.</p>
+ */
+public class RepositoryModuleIndex {
+    /**
+     * When set to {@code true}, the remote lookup of a module is skipped for a repository that has never contained it, when a later
+     * repository in the chain is known to contain it. The skipped repositories are still searched when no other repository has the module.
+     */
+    public static final String SKIP_UNLIKELY_REPOSITORIES_PROPERTY = "org.gradle.internal.repository.skipUnlikelyRepositories";
+
+    private static final int EXPECTED_MODULES_PER_REPOSITORY = 10000;
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01d;
+
+    private final ConcurrentMap<String, BloomFilter<CharSequence>> filters = new ConcurrentHashMap<String, BloomFilter<CharSequence>>();
+
+    public void recordPresent(String repositoryId, ModuleComponentIdentifier componentId) {
+        BloomFilter<CharSequence> filter = filters.get(repositoryId);
+        if (filter == null) {
+            BloomFilter<CharSequence> newFilter = BloomFilter.create(Funnels.unencodedCharsFunnel(), EXPECTED_MODULES_PER_REPOSITORY, FALSE_POSITIVE_PROBABILITY);
+            filter = filters.putIfAbsent(repositoryId, newFilter);
+            if (filter == null) {
+                filter = newFilter;
+            }
+        }
+        String key = key(componentId);
+        synchronized (filter) {
+            filter.put(key);
+        }
+    }
+
+    /**
+     * Returns false when the given module has certainly never been found in the given repository.
+     */
+    public boolean mightContain(String repositoryId, ModuleComponentIdentifier componentId) {
+        BloomFilter<CharSequence> filter = filters.get(repositoryId);
+        if (filter == null) {
+            return false;
+        }
+        String key = key(componentId);
+        synchronized (filter) {
+            return filter.mightContain(key);
+        }
+    }
+
+    private static String key(ModuleComponentIdentifier componentId) {
+        return componentId.getGroup() + ":" + componentId.getModule();
+    }
+}
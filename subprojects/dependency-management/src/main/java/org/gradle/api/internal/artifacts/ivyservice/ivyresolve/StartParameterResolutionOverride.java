@@ -143,6 +143,17 @@ public class StartParameterResolutionOverride {
             throw offlineResource(location);
         }
 
+        @Override
+        public boolean supportsConditionalRequests() {
+            return false;
+        }
+
+        @Nullable
+        @Override
+        public ExternalResourceReadResponse openResourceIfModified(URI location, ExternalResourceMetaData cached) throws ResourceException {
+            throw offlineResource(location);
+        }
+
         @Nullable
         @Override
         public ExternalResourceMetaData getMetaData(URI location, boolean revalidate) throws ResourceException {
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import org.apache.commons.io.IOUtils;
+import org.gradle.api.Transformer;
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
+import org.gradle.internal.serialize.HashCodeSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link PomModelCache} that keys parsed POMs by the SHA1 of their content. Parsed POMs are kept in memory for the lifetime of the build and
+ * are persisted in the artifact cache, so that a given POM is parsed once per machine rather than once per module that refers to it.
+ */
+public class DefaultPomModelCache implements PomModelCache {
+    private final CacheLockingManager cacheLockingManager;
+    private final ConcurrentMap<HashCode, PomElement> inMemoryCache = new ConcurrentHashMap<HashCode, PomElement>();
+    private PersistentIndexedCache<HashCode, PomElement> cache;
+
+    public DefaultPomModelCache(CacheLockingManager cacheLockingManager) {
+        this.cacheLockingManager = cacheLockingManager;
+    }
+
+    private synchronized PersistentIndexedCache<HashCode, PomElement> getCache() {
+        if (cache == null) {
+            cache = cacheLockingManager.createCache("pom-models", new HashCodeSerializer(), new PomElementSerializer());
+        }
+        return cache;
+    }
+
+    @Override
+    public PomElement getDocumentElement(LocallyAvailableExternalResource resource) {
+        byte[] content = readContent(resource);
+        final HashCode contentHash = Hashing.sha1().hashBytes(content);
+        PomElement documentElement = inMemoryCache.get(contentHash);
+        if (documentElement != null) {
+            return documentElement;
+        }
+
+        final PersistentIndexedCache<HashCode, PomElement> cache = getCache();
+        documentElement = cacheLockingManager.useCache(new Factory<PomElement>() {
+            @Override
+            public PomElement create() {
+                return cache.get(contentHash);
+            }
+        });
+        if (documentElement == null) {
+            final PomElement parsed = PomReader.parseDocumentElement(resource, new ByteArrayInputStream(content));
+            cacheLockingManager.useCache(new Runnable() {
+                @Override
+                public void run() {
+                    cache.put(contentHash, parsed);
+                }
+            });
+            documentElement = parsed;
+        }
+        inMemoryCache.put(contentHash, documentElement);
+        return documentElement;
+    }
+
+    private static byte[] readContent(LocallyAvailableExternalResource resource) {
+        return resource.withContent(new Transformer<byte[], InputStream>() {
+            @Override
+            public byte[] transform(InputStream inputStream) {
+                try {
+                    return IOUtils.toByteArray(inputStream);
+                } catch (IOException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        }).getResult();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable element of a parsed POM file. Only the element name, the child elements and the text directly contained
+ * in the element are retained. Attributes, comments and processing instructions are not used when reading a POM and are discarded.
+ */
+public final class PomElement {
+    private final String name;
+    private final String textContent;
+    private final List<PomElement> children;
+
+    public PomElement(String name, String textContent, List<PomElement> children) {
+        this.name = name;
+        this.textContent = textContent;
+        this.children = children.isEmpty() ? Collections.<PomElement>emptyList() : Collections.unmodifiableList(children);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the concatenated text and CDATA content directly contained in this element, excluding the content of child elements.
+     */
+    public String getTextContent() {
+        return textContent;
+    }
+
+    public List<PomElement> getChildren() {
+        return children;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PomElement that = (PomElement) o;
+        return name.equals(that.name) && textContent.equals(that.textContent) && children.equals(that.children);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = name.hashCode();
+        result = 31 * result + textContent.hashCode();
+        result = 31 * result + children.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "<" + name + ">";
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary encoding of a {@link PomElement} tree. Element names are written once per tree and then referenced by index.
+ */
+public class PomElementSerializer extends AbstractSerializer<PomElement> {
+    @Override
+    public void write(Encoder encoder, PomElement value) throws IOException {
+        write(encoder, value, new HashMap<String, Integer>());
+    }
+
+    private void write(Encoder encoder, PomElement element, Map<String, Integer> names) throws IOException {
+        Integer index = names.get(element.getName());
+        if (index == null) {
+            encoder.writeSmallInt(names.size());
+            encoder.writeString(element.getName());
+            names.put(element.getName(), names.size());
+        } else {
+            encoder.writeSmallInt(index);
+        }
+        encoder.writeString(element.getTextContent());
+        List<PomElement> children = element.getChildren();
+        encoder.writeSmallInt(children.size());
+        for (PomElement child : children) {
+            write(encoder, child, names);
+        }
+    }
+
+    @Override
+    public PomElement read(Decoder decoder) throws IOException {
+        return read(decoder, new ArrayList<String>());
+    }
+
+    private PomElement read(Decoder decoder, List<String> names) throws IOException {
+        int index = decoder.readSmallInt();
+        String name;
+        if (index == names.size()) {
+            name = decoder.readString();
+            names.add(name);
+        } else {
+            name = names.get(index);
+        }
+        String textContent = decoder.readString();
+        int childCount = decoder.readSmallInt();
+        if (childCount == 0) {
+            return new PomElement(name, textContent, Collections.<PomElement>emptyList());
+        }
+        List<PomElement> children = new ArrayList<PomElement>(childCount);
+        for (int i = 0; i < childCount; i++) {
+            children.add(read(decoder, names));
+        }
+        return new PomElement(name, textContent, children);
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
+
+/**
+ * Provides the parsed content of POM files, so that POMs shared by many modules, such as parent POMs and imported BOMs, are parsed only once.
+ *
+ * <p>The parsed model is the content of the POM before any inheritance or property interpolation is applied, as the effective model of a parent
+ * depends on the properties of the child that refers to it.</p>
+ */
+@ThreadSafe
+public interface PomModelCache {
+    /**
+     * Returns the document element of the given POM.
+     *
+     * @throws MetaDataParseException when the POM cannot be parsed.
+     */
+    PomElement getDocumentElement(LocallyAvailableExternalResource resource);
+}
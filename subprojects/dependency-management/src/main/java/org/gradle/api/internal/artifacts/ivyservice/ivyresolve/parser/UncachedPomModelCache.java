@@ -0,0 +1,37 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import org.gradle.api.Transformer;
+import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
+
+import java.io.InputStream;
+
+/**
+ * A {@link PomModelCache} that parses the POM each time it is requested.
+ */
+public class UncachedPomModelCache implements PomModelCache {
+    @Override
+    public PomElement getDocumentElement(final LocallyAvailableExternalResource resource) {
+        return resource.withContent(new Transformer<PomElement, InputStream>() {
+            @Override
+            public PomElement transform(InputStream inputStream) {
+                return PomReader.parseDocumentElement(resource, inputStream);
+            }
+        }).getResult();
+    }
+}
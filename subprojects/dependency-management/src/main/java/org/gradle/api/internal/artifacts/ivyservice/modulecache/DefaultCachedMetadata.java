@@ -24,17 +24,23 @@ import org.gradle.util.BuildCommencedTimeProvider;
 import javax.annotation.Nullable;
 
 class DefaultCachedMetadata implements ModuleMetadataCache.CachedMetadata {
+    private final ModuleMetadataCacheEntry entry;
     private final ModuleSource moduleSource;
     private final long ageMillis;
     private final ModuleComponentResolveMetadata metadata;
     private ModuleComponentResolveMetadata processedMetadata;
 
     public DefaultCachedMetadata(ModuleMetadataCacheEntry entry, ModuleComponentResolveMetadata metadata, BuildCommencedTimeProvider timeProvider) {
+        this.entry = entry;
         this.moduleSource = entry.moduleSource;
         this.ageMillis = timeProvider.getCurrentTime() - entry.createTimestamp;
         this.metadata = metadata;
     }
 
+    ModuleMetadataCacheEntry getEntry() {
+        return entry;
+    }
+
     public boolean isMissing() {
         return metadata == null;
     }
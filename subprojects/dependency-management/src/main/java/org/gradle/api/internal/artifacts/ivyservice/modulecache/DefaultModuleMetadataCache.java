@@ -48,8 +48,9 @@ public class DefaultModuleMetadataCache extends InMemoryModuleMetadataCache {
                                       AttributeContainerSerializer attributeContainerSerializer,
                                       MavenMutableModuleMetadataFactory mavenMetadataFactory,
                                       IvyMutableModuleMetadataFactory ivyMetadataFactory,
-                                      Interner<String> stringInterner) {
-        super(timeProvider);
+                                      Interner<String> stringInterner,
+                                      InMemoryModuleMetadataStore serializedCache) {
+        super(timeProvider, serializedCache);
         moduleMetadataStore = new ModuleMetadataStore(new DefaultPathKeyFileStore(artifactCacheMetadata.getMetaDataStoreDirectory()), new ModuleMetadataSerializer(attributeContainerSerializer, mavenMetadataFactory, ivyMetadataFactory), moduleIdentifierFactory, stringInterner);
         this.cacheLockingManager = cacheLockingManager;
     }
@@ -72,21 +73,20 @@ public class DefaultModuleMetadataCache extends InMemoryModuleMetadataCache {
             return inMemory;
         }
 
-        CachedMetadata cachedMetadata = loadCachedMetadata(key);
+        DefaultCachedMetadata cachedMetadata = loadCachedMetadata(key);
         if (cachedMetadata != null) {
-            // Entry is not required for caching in-memory
-            super.store(key, null, cachedMetadata);
+            super.store(key, cachedMetadata.getEntry(), cachedMetadata);
             return cachedMetadata;
         }
 
         return null;
     }
 
-    private CachedMetadata loadCachedMetadata(final ModuleComponentAtRepositoryKey key) {
+    private DefaultCachedMetadata loadCachedMetadata(final ModuleComponentAtRepositoryKey key) {
         final PersistentIndexedCache<ModuleComponentAtRepositoryKey, ModuleMetadataCacheEntry> cache = getCache();
-        return cacheLockingManager.useCache(new Factory<CachedMetadata>() {
+        return cacheLockingManager.useCache(new Factory<DefaultCachedMetadata>() {
             @Override
-            public CachedMetadata create() {
+            public DefaultCachedMetadata create() {
                 ModuleMetadataCacheEntry entry = cache.get(key);
                 if (entry == null) {
                     return null;
@@ -15,23 +15,51 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice.modulecache;
 
-import com.google.common.collect.Maps;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository;
+import org.gradle.cache.internal.HeapProportionalCacheSizer;
 import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
 import org.gradle.util.BuildCommencedTimeProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Map;
-
+/**
+ * Keeps a bounded number of entries in their decoded form. The least recently used entries are evicted from the decoded form
+ * into a compact serialized form, from which they are decoded again on demand. An entry is only serialized when it is evicted.
+ *
+ * <p>The processed metadata of an entry is not serialized, as it can always be recomputed from the metadata. An entry that has been
+ * evicted comes back without processed metadata, and the metadata rules are applied to it again.</p>
+ */
 public class InMemoryModuleMetadataCache implements ModuleMetadataCache {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultModuleMetadataCache.class);
+    private static final int DEFAULT_MAX_DECODED_ENTRIES = 2000;
     protected final BuildCommencedTimeProvider timeProvider;
-    private Map<ModuleComponentAtRepositoryKey, CachedMetadata> inMemoryCache =  Maps.newConcurrentMap();
+    private final Cache<ModuleComponentAtRepositoryKey, DecodedEntry> inMemoryCache;
+    private final InMemoryModuleMetadataStore serializedCache;
+
+    public InMemoryModuleMetadataCache(BuildCommencedTimeProvider timeProvider, InMemoryModuleMetadataStore serializedCache) {
+        this(timeProvider, serializedCache, new HeapProportionalCacheSizer().scaleCacheSize(DEFAULT_MAX_DECODED_ENTRIES));
+    }
 
-    public InMemoryModuleMetadataCache(BuildCommencedTimeProvider timeProvider) {
+    InMemoryModuleMetadataCache(BuildCommencedTimeProvider timeProvider, final InMemoryModuleMetadataStore serializedCache, int maxDecodedEntries) {
         this.timeProvider = timeProvider;
+        this.serializedCache = serializedCache;
+        this.inMemoryCache = CacheBuilder.newBuilder()
+            .maximumSize(maxDecodedEntries)
+            .removalListener(new RemovalListener<ModuleComponentAtRepositoryKey, DecodedEntry>() {
+                @Override
+                public void onRemoval(RemovalNotification<ModuleComponentAtRepositoryKey, DecodedEntry> notification) {
+                    DecodedEntry decoded = notification.getValue();
+                    if (notification.wasEvicted() && decoded != null) {
+                        serializedCache.put(notification.getKey(), decoded.entry, decoded.cachedMetadata.getMetadata());
+                    }
+                }
+            })
+            .build();
     }
 
     public CachedMetadata getCachedModuleDescriptor(ModuleComponentRepository repository, ModuleComponentIdentifier componentId) {
@@ -40,7 +68,16 @@ public class InMemoryModuleMetadataCache implements ModuleMetadataCache {
     }
 
     protected CachedMetadata get(ModuleComponentAtRepositoryKey key) {
-        return inMemoryCache.get(key);
+        DecodedEntry decoded = inMemoryCache.getIfPresent(key);
+        if (decoded != null) {
+            return decoded.cachedMetadata;
+        }
+        DefaultCachedMetadata cachedMetadata = serializedCache.get(key);
+        if (cachedMetadata != null) {
+            serializedCache.remove(key);
+            inMemoryCache.put(key, new DecodedEntry(cachedMetadata.getEntry(), cachedMetadata));
+        }
+        return cachedMetadata;
     }
 
     public CachedMetadata cacheMissing(ModuleComponentRepository repository, ModuleComponentIdentifier id) {
@@ -62,7 +99,8 @@ public class InMemoryModuleMetadataCache implements ModuleMetadataCache {
     }
 
     protected void store(ModuleComponentAtRepositoryKey key, ModuleMetadataCacheEntry entry, CachedMetadata cachedMetaData) {
-        inMemoryCache.put(key, cachedMetaData);
+        serializedCache.remove(key);
+        inMemoryCache.put(key, new DecodedEntry(entry, cachedMetaData));
     }
 
     private ModuleComponentAtRepositoryKey createKey(ModuleComponentRepository repository, ModuleComponentIdentifier id) {
@@ -72,4 +110,14 @@ public class InMemoryModuleMetadataCache implements ModuleMetadataCache {
     private ModuleMetadataCacheEntry createEntry(ModuleComponentResolveMetadata metaData) {
         return ModuleMetadataCacheEntry.forMetaData(metaData, timeProvider.getCurrentTime());
     }
+
+    private static class DecodedEntry {
+        private final ModuleMetadataCacheEntry entry;
+        private final CachedMetadata cachedMetadata;
+
+        DecodedEntry(ModuleMetadataCacheEntry entry, CachedMetadata cachedMetadata) {
+            this.entry = entry;
+            this.cachedMetadata = cachedMetadata;
+        }
+    }
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.Interner;
+import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
+import org.gradle.cache.internal.HeapProportionalCacheSizer;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
+import org.gradle.internal.component.external.model.MutableModuleComponentResolveMetadata;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.BuildCommencedTimeProvider;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Keeps module metadata in memory in its serialized form, which is much more compact than the decoded metadata.
+ * Entries are decoded again on demand. The total size of the entries is bounded, proportionally to the maximum heap size,
+ * and the least recently used entries are evicted first.
+ */
+public class InMemoryModuleMetadataStore {
+    private static final int DEFAULT_MAX_SIZE_KB = 32 * 1024;
+
+    private final ModuleMetadataSerializer moduleMetadataSerializer;
+    private final ModuleMetadataCacheEntrySerializer cacheEntrySerializer = new ModuleMetadataCacheEntrySerializer();
+    private final ImmutableModuleIdentifierFactory moduleIdentifierFactory;
+    private final Interner<String> stringInterner;
+    private final BuildCommencedTimeProvider timeProvider;
+    private final Cache<ModuleComponentAtRepositoryKey, byte[]> entries;
+
+    public InMemoryModuleMetadataStore(ModuleMetadataSerializer moduleMetadataSerializer, ImmutableModuleIdentifierFactory moduleIdentifierFactory, Interner<String> stringInterner,
+                                       BuildCommencedTimeProvider timeProvider, HeapProportionalCacheSizer cacheSizer) {
+        this.moduleMetadataSerializer = moduleMetadataSerializer;
+        this.moduleIdentifierFactory = moduleIdentifierFactory;
+        this.stringInterner = stringInterner;
+        this.timeProvider = timeProvider;
+        this.entries = CacheBuilder.newBuilder()
+            .maximumWeight(cacheSizer.scaleCacheSize(DEFAULT_MAX_SIZE_KB) * 1024L)
+            .weigher(new Weigher<ModuleComponentAtRepositoryKey, byte[]>() {
+                @Override
+                public int weigh(ModuleComponentAtRepositoryKey key, byte[] value) {
+                    return value.length;
+                }
+            })
+            .build();
+    }
+
+    DefaultCachedMetadata get(ModuleComponentAtRepositoryKey key) {
+        byte[] serialized = entries.getIfPresent(key);
+        if (serialized == null) {
+            return null;
+        }
+        try {
+            StringDeduplicatingDecoder decoder = new StringDeduplicatingDecoder(new KryoBackedDecoder(new ByteArrayInputStream(serialized)), stringInterner);
+            try {
+                ModuleMetadataCacheEntry entry = cacheEntrySerializer.read(decoder);
+                if (entry.isMissing()) {
+                    return new DefaultCachedMetadata(entry, null, timeProvider);
+                }
+                MutableModuleComponentResolveMetadata metadata = moduleMetadataSerializer.read(decoder, moduleIdentifierFactory);
+                return new DefaultCachedMetadata(entry, entry.configure(metadata), timeProvider);
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Could not decode module metadata for " + key.getComponentId() + " in repository " + key.getRepositoryId(), e);
+        }
+    }
+
+    public void put(ModuleComponentAtRepositoryKey key, ModuleMetadataCacheEntry entry, ModuleComponentResolveMetadata metadata) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+            try {
+                cacheEntrySerializer.write(encoder, entry);
+                if (!entry.isMissing()) {
+                    moduleMetadataSerializer.write(encoder, metadata);
+                }
+            } finally {
+                encoder.close();
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        entries.put(key, outputStream.toByteArray());
+    }
+
+    public void remove(ModuleComponentAtRepositoryKey key) {
+        entries.invalidate(key);
+    }
+}
@@ -24,7 +24,7 @@ import org.gradle.internal.component.model.IvyArtifactName;
  * Does not exclude any modules
  */
 class ArtifactExcludeSpec extends AbstractModuleExclusion {
-    private final ModuleIdentifier moduleId;
+    final ModuleIdentifier moduleId;
     private final IvyArtifactName ivyArtifactName;
 
     ArtifactExcludeSpec(ModuleIdentifier moduleId, IvyArtifactName artifact) {
@@ -76,6 +76,13 @@ class ArtifactExcludeSpec extends AbstractModuleExclusion {
         return true;
     }
 
+    /**
+     * Does this rule only apply to a single module, rather than to any group or module name?
+     */
+    boolean hasExactModuleId() {
+        return !isWildcard(moduleId.getGroup()) && !isWildcard(moduleId.getName());
+    }
+
     private boolean matches(String expression, String input) {
         return isWildcard(expression) || expression.equals(input);
     }
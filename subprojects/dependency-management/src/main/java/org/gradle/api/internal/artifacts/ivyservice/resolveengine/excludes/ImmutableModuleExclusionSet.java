@@ -16,6 +16,7 @@
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterators;
 import org.gradle.api.artifacts.ModuleIdentifier;
@@ -32,10 +33,8 @@ final class ImmutableModuleExclusionSet implements Set<AbstractModuleExclusion>
     final AbstractModuleExclusion[] elements;
     private final int hashCode;
 
-    // the following fields are used as optimizations, to avoid iterating on the whole set of exclusions
-    private ImmutableSet<ModuleIdentifier> excludedModules;
-    private ImmutableList<AbstractModuleExclusion> moduleExcludes;
-    private ImmutableList<AbstractModuleExclusion> artifactExcludes;
+    // Built on first use and then read without locking, to avoid iterating on the whole set of exclusions
+    private volatile ExclusionIndex index;
 
     ImmutableModuleExclusionSet(ImmutableSet<AbstractModuleExclusion> delegate) {
         this.delegate = delegate;
@@ -43,28 +42,14 @@ final class ImmutableModuleExclusionSet implements Set<AbstractModuleExclusion>
         this.hashCode = delegate.hashCode();
     }
 
-    private synchronized void precomputeCaches() {
-        if (excludedModules != null) {
-            return;
+    private ExclusionIndex getIndex() {
+        ExclusionIndex index = this.index;
+        if (index == null) {
+            // Concurrent callers may build the index more than once, which is harmless as it is immutable
+            index = new ExclusionIndex(elements);
+            this.index = index;
         }
-        ImmutableSet.Builder<ModuleIdentifier> moduleIds = ImmutableSet.builder();
-        ImmutableList.Builder<AbstractModuleExclusion> modules = ImmutableList.builder();
-        ImmutableList.Builder<AbstractModuleExclusion> artifacts = ImmutableList.builder();
-        for (AbstractModuleExclusion exclusion : delegate) {
-            if (exclusion instanceof ModuleIdExcludeSpec) {
-                moduleIds.add(((ModuleIdExcludeSpec) exclusion).moduleId);
-            } else {
-                if (!exclusion.excludesNoModules()) {
-                    modules.add(exclusion);
-                }
-                if (exclusion.mayExcludeArtifacts()) {
-                    artifacts.add(exclusion);
-                }
-            }
-        }
-        excludedModules = moduleIds.build();
-        moduleExcludes = modules.build();
-        artifactExcludes = artifacts.build();
+        return index;
     }
 
     @Override
@@ -88,18 +73,21 @@ final class ImmutableModuleExclusionSet implements Set<AbstractModuleExclusion>
     }
 
     /**
-     * This method optimizes module exclusion lookup, based on empirical data showing that the set can be very large, but would contain mostly direct module exclusion nodes. So instead of always
-     * iterating over all excluded modules, we can perform a fast lookup using a set of excluded modules first, then only iterate on the remaining exclusions.
+     * This method optimizes module exclusion lookup, based on empirical data showing that the set can be very large, but would contain mostly exact module, group or module name exclusion nodes.
+     * So instead of always iterating over all exclusions, we perform hash lookups for those first, then only iterate on the remaining exclusions.
      *
      * @param id the module to check
      * @return true if it's excluded
      */
     boolean excludesModule(ModuleIdentifier id) {
-        precomputeCaches();
-        if (excludedModules.contains(id)) {
+        ExclusionIndex index = getIndex();
+        if (index.excludesAllModules
+            || index.excludedModules.contains(id)
+            || index.excludedGroups.contains(id.getGroup())
+            || index.excludedModuleNames.contains(id.getName())) {
             return true;
         }
-        for (AbstractModuleExclusion excludeSpec : moduleExcludes) {
+        for (AbstractModuleExclusion excludeSpec : index.moduleExcludes) {
             if (excludeSpec.excludeModule(id)) {
                 return true;
             }
@@ -108,8 +96,13 @@ final class ImmutableModuleExclusionSet implements Set<AbstractModuleExclusion>
     }
 
     boolean excludesArtifact(ModuleIdentifier module, IvyArtifactName artifact) {
-        precomputeCaches();
-        for (AbstractModuleExclusion excludeSpec : artifactExcludes) {
+        ExclusionIndex index = getIndex();
+        for (AbstractModuleExclusion excludeSpec : index.artifactExcludesByModule.get(module)) {
+            if (excludeSpec.excludeArtifact(module, artifact)) {
+                return true;
+            }
+        }
+        for (AbstractModuleExclusion excludeSpec : index.artifactExcludes) {
             if (excludeSpec.excludeArtifact(module, artifact)) {
                 return true;
             }
@@ -184,4 +177,55 @@ final class ImmutableModuleExclusionSet implements Set<AbstractModuleExclusion>
     public int hashCode() {
         return hashCode;
     }
+
+    /**
+     * The exclusions of the set, grouped by how they can be looked up. Exact module, group and module name exclusions are answered by hash lookups,
+     * and artifact exclusions for an exact module are only evaluated for that module.
+     */
+    private static final class ExclusionIndex {
+        private final boolean excludesAllModules;
+        private final ImmutableSet<ModuleIdentifier> excludedModules;
+        private final ImmutableSet<String> excludedGroups;
+        private final ImmutableSet<String> excludedModuleNames;
+        private final ImmutableList<AbstractModuleExclusion> moduleExcludes;
+        private final ImmutableListMultimap<ModuleIdentifier, AbstractModuleExclusion> artifactExcludesByModule;
+        private final ImmutableList<AbstractModuleExclusion> artifactExcludes;
+
+        ExclusionIndex(AbstractModuleExclusion[] elements) {
+            boolean excludesAll = false;
+            ImmutableSet.Builder<ModuleIdentifier> moduleIds = ImmutableSet.builder();
+            ImmutableSet.Builder<String> groups = ImmutableSet.builder();
+            ImmutableSet.Builder<String> moduleNames = ImmutableSet.builder();
+            ImmutableList.Builder<AbstractModuleExclusion> modules = ImmutableList.builder();
+            ImmutableListMultimap.Builder<ModuleIdentifier, AbstractModuleExclusion> artifactsByModule = ImmutableListMultimap.builder();
+            ImmutableList.Builder<AbstractModuleExclusion> artifacts = ImmutableList.builder();
+            for (AbstractModuleExclusion exclusion : elements) {
+                if (exclusion instanceof ModuleIdExcludeSpec) {
+                    moduleIds.add(((ModuleIdExcludeSpec) exclusion).moduleId);
+                } else if (exclusion instanceof GroupNameExcludeSpec) {
+                    groups.add(((GroupNameExcludeSpec) exclusion).group);
+                } else if (exclusion instanceof ModuleNameExcludeSpec) {
+                    moduleNames.add(((ModuleNameExcludeSpec) exclusion).module);
+                } else if (exclusion instanceof ExcludeAllModulesSpec) {
+                    excludesAll = true;
+                } else if (exclusion instanceof ArtifactExcludeSpec && ((ArtifactExcludeSpec) exclusion).hasExactModuleId()) {
+                    artifactsByModule.put(((ArtifactExcludeSpec) exclusion).moduleId, exclusion);
+                } else {
+                    if (!exclusion.excludesNoModules()) {
+                        modules.add(exclusion);
+                    }
+                    if (exclusion.mayExcludeArtifacts()) {
+                        artifacts.add(exclusion);
+                    }
+                }
+            }
+            excludesAllModules = excludesAll;
+            excludedModules = moduleIds.build();
+            excludedGroups = groups.build();
+            excludedModuleNames = moduleNames.build();
+            moduleExcludes = modules.build();
+            artifactExcludesByModule = artifactsByModule.build();
+            artifactExcludes = artifacts.build();
+        }
+    }
 }
@@ -17,11 +17,14 @@
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes;
 
 import com.google.common.base.Objects;
+import org.apache.ivy.plugins.matcher.Matcher;
 import org.apache.ivy.plugins.matcher.PatternMatcher;
 import org.gradle.api.artifacts.ModuleIdentifier;
 import org.gradle.internal.component.model.ExcludeMetadata;
 import org.gradle.internal.component.model.IvyArtifactName;
 
+import javax.annotation.Nullable;
+
 /**
  * A ModuleResolutionFilter that excludes any module/artifact that matches the exclude rule, using an Ivy pattern matcher.
  */
@@ -30,12 +33,29 @@ class IvyPatternMatcherExcludeRuleSpec extends AbstractModuleExclusion {
     private final IvyArtifactName ivyArtifactName;
     private final PatternMatcher matcher;
     private final boolean isArtifactExclude;
+    // Compiled once, as compiling a pattern is much more expensive than matching it
+    private final Matcher groupMatcher;
+    private final Matcher moduleMatcher;
+    private final Matcher artifactNameMatcher;
+    private final Matcher extensionMatcher;
+    private final Matcher typeMatcher;
 
     IvyPatternMatcherExcludeRuleSpec(ExcludeMetadata rule) {
         this.moduleId = rule.getModuleId();
         this.ivyArtifactName = rule.getArtifact();
         this.matcher = PatternMatchers.getInstance().getMatcher(rule.getMatcher());
         isArtifactExclude = ivyArtifactName != null;
+        groupMatcher = matcher.getMatcher(moduleId.getGroup());
+        moduleMatcher = matcher.getMatcher(moduleId.getName());
+        if (isArtifactExclude) {
+            artifactNameMatcher = matcher.getMatcher(ivyArtifactName.getName());
+            extensionMatcher = compileNullable(ivyArtifactName.getExtension());
+            typeMatcher = matcher.getMatcher(ivyArtifactName.getType());
+        } else {
+            artifactNameMatcher = null;
+            extensionMatcher = null;
+            typeMatcher = null;
+        }
     }
 
     @Override
@@ -71,25 +91,30 @@ class IvyPatternMatcherExcludeRuleSpec extends AbstractModuleExclusion {
         if (isArtifactExclude) {
             return false;
         }
-        return matches(moduleId.getGroup(), module.getGroup()) && matches(moduleId.getName(), module.getName());
+        return groupMatcher.matches(module.getGroup()) && moduleMatcher.matches(module.getName());
     }
 
     public boolean excludeArtifact(ModuleIdentifier module, IvyArtifactName artifact) {
         if (!isArtifactExclude) {
             return false;
         }
-        return matches(moduleId.getGroup(), module.getGroup())
-            && matches(moduleId.getName(), module.getName())
-            && matches(ivyArtifactName.getName(), artifact.getName())
-            && matches(ivyArtifactName.getExtension(), artifact.getExtension())
-            && matches(ivyArtifactName.getType(), artifact.getType());
+        return groupMatcher.matches(module.getGroup())
+            && moduleMatcher.matches(module.getName())
+            && artifactNameMatcher.matches(artifact.getName())
+            && matches(extensionMatcher, artifact.getExtension())
+            && typeMatcher.matches(artifact.getType());
     }
 
     public boolean mayExcludeArtifacts() {
         return isArtifactExclude;
     }
 
-    private boolean matches(String expression, String input) {
-        return matcher.getMatcher(expression).matches(input);
+    @Nullable
+    private Matcher compileNullable(@Nullable String expression) {
+        return expression == null ? null : matcher.getMatcher(expression);
+    }
+
+    private static boolean matches(@Nullable Matcher matcher, @Nullable String input) {
+        return matcher == null ? input == null : matcher.matches(input);
     }
 }
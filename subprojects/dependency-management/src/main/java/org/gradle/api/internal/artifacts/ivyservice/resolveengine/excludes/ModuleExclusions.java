@@ -47,6 +47,9 @@ import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.exclude
  * uses this to avoid traversing the dependency graph of a particular version that has already been traversed when a new incoming edge is added (eg a newly discovered dependency) and when an incoming
  * edge is removed (eg a conflict evicts a version that depends on the given version). </p>
  *
+ * <p>Unions and intersections are memoized by their operands, so that the many edges that combine the same exclusions share a single result, and comparing those
+ * results is usually an identity check. Within an intersection, exact module, group and module name rules are matched using hash lookups. </p>
+ *
  * <ul> <li>When a module dependency has multiple exclusions, then the resulting exclusion is the _intersection_ of those exclusions (module is excluded if excluded by _any_).</li> <li>When a module
  * is depended on via a transitive path, then the resulting exclusion is the _intersection_ of the exclusions on each leg of the path (module is excluded if excluded by _any_).</li> <li>When a module
  * is depended on via multiple paths in the graph, then the resulting exclusion is the _union_ of the exclusions on each of those paths (module is excluded if excluded by _all_).</li> </ul>
@@ -58,6 +61,8 @@ public class ModuleExclusions {
     private final ImmutableModuleIdentifierFactory moduleIdentifierFactory;
 
     private final Map<MergeOperation, AbstractModuleExclusion> mergeCache = Maps.newConcurrentMap();
+    private final Map<ExclusionPair, ModuleExclusion> intersectCache = Maps.newConcurrentMap();
+    private final Map<ExclusionPair, ModuleExclusion> unionCache = Maps.newConcurrentMap();
     private final Map<ImmutableList<ExcludeMetadata>, AbstractModuleExclusion> excludeAnyCache = Maps.newConcurrentMap();
     private final Map<ImmutableSet<AbstractModuleExclusion>, IntersectionExclusion> intersectionCache = Maps.newConcurrentMap();
     private final Map<AbstractModuleExclusion[], Map<AbstractModuleExclusion[], MergeOperation>> mergeOperationCache = Maps.newIdentityHashMap();
@@ -185,6 +190,16 @@ public class ModuleExclusions {
             return two;
         }
 
+        ExclusionPair pair = new ExclusionPair(one, two);
+        ModuleExclusion cached = intersectCache.get(pair);
+        if (cached == null) {
+            cached = doIntersect(one, two);
+            intersectCache.put(pair, cached);
+        }
+        return cached;
+    }
+
+    private ModuleExclusion doIntersect(ModuleExclusion one, ModuleExclusion two) {
         AbstractModuleExclusion aOne = (AbstractModuleExclusion) one;
         AbstractModuleExclusion aTwo = (AbstractModuleExclusion) two;
 
@@ -217,6 +232,16 @@ public class ModuleExclusions {
             return one;
         }
 
+        ExclusionPair pair = new ExclusionPair(one, two);
+        ModuleExclusion cached = unionCache.get(pair);
+        if (cached == null) {
+            cached = doUnion(one, two);
+            unionCache.put(pair, cached);
+        }
+        return cached;
+    }
+
+    private ModuleExclusion doUnion(ModuleExclusion one, ModuleExclusion two) {
         List<AbstractModuleExclusion> specs = new ArrayList<AbstractModuleExclusion>();
         ((AbstractModuleExclusion) one).unpackUnion(specs);
         ((AbstractModuleExclusion) two).unpackUnion(specs);
@@ -444,6 +469,40 @@ public class ModuleExclusions {
         }
     }
 
+    /**
+     * An unordered pair of exclusions, as both union and intersection are commutative.
+     */
+    private static final class ExclusionPair {
+        private final ModuleExclusion one;
+        private final ModuleExclusion two;
+        private final int hashCode;
+
+        private ExclusionPair(ModuleExclusion one, ModuleExclusion two) {
+            this.one = one;
+            this.two = two;
+            this.hashCode = one.hashCode() ^ two.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            ExclusionPair that = (ExclusionPair) o;
+            return hashCode == that.hashCode
+                && ((one.equals(that.one) && two.equals(that.two)) || (one.equals(that.two) && two.equals(that.one)));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
     private static final class MergeSet extends HashSet<AbstractModuleExclusion> {
         private final BitSet remaining;
         private int idx;
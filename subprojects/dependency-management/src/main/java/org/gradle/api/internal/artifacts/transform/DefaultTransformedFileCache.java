@@ -17,6 +17,8 @@
 package org.gradle.api.internal.artifacts.transform;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
 import org.gradle.api.Action;
 import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheMetadata;
 import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter;
@@ -24,11 +26,11 @@ import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFacto
 import org.gradle.api.internal.changedetection.state.Snapshot;
 import org.gradle.cache.CacheBuilder;
 import org.gradle.cache.CacheRepository;
+import org.gradle.cache.CleanupAction;
 import org.gradle.cache.FileLockManager;
 import org.gradle.cache.PersistentCache;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentIndexedCacheParameters;
-import org.gradle.cache.internal.ProducerGuard;
 import org.gradle.caching.internal.DefaultBuildCacheHasher;
 import org.gradle.initialization.RootBuildLifecycleListener;
 import org.gradle.internal.Factory;
@@ -42,34 +44,44 @@ import org.gradle.internal.serialize.BaseSerializerFactory;
 import org.gradle.internal.serialize.HashCodeSerializer;
 import org.gradle.internal.serialize.ListSerializer;
 import org.gradle.internal.util.BiFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.gradle.api.internal.artifacts.ivyservice.CacheLayout.TRANSFORMS_META_DATA;
 import static org.gradle.api.internal.artifacts.ivyservice.CacheLayout.TRANSFORMS_STORE;
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 public class DefaultTransformedFileCache implements TransformedFileCache, Stoppable, RootBuildLifecycleListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultTransformedFileCache.class);
+
     private final PersistentCache cache;
     private final PersistentIndexedCache<HashCode, List<File>> indexedCache;
+    private final File filesOutputDirectory;
     private final FileStore<String> fileStore;
-    private final ProducerGuard<CacheKey> producing = ProducerGuard.adaptive();
+    private final ConcurrentMap<CacheKey, SettableFuture<List<File>>> inFlight = new ConcurrentHashMap<CacheKey, SettableFuture<List<File>>>();
     private final Map<CacheKey, List<File>> resultHashToResult = new ConcurrentHashMap<CacheKey, List<File>>();
     private final FileSystemSnapshotter fileSystemSnapshotter;
+    private final Statistics statistics = new Statistics();
 
-    public DefaultTransformedFileCache(ArtifactCacheMetadata artifactCacheMetadata, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory cacheDecoratorFactory, FileSystemSnapshotter fileSystemSnapshotter) {
+    public DefaultTransformedFileCache(ArtifactCacheMetadata artifactCacheMetadata, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory cacheDecoratorFactory, FileSystemSnapshotter fileSystemSnapshotter, CleanupAction cleanupAction) {
         this.fileSystemSnapshotter = fileSystemSnapshotter;
         File transformsStoreDirectory = artifactCacheMetadata.getTransformsStoreDirectory();
-        File filesOutputDirectory = new File(transformsStoreDirectory, TRANSFORMS_STORE.getKey());
+        filesOutputDirectory = new File(transformsStoreDirectory, TRANSFORMS_STORE.getKey());
         fileStore = new DefaultPathKeyFileStore(filesOutputDirectory);
         cache = cacheRepository
             .cache(transformsStoreDirectory)
             .withCrossVersionCache(CacheBuilder.LockTarget.DefaultTarget)
             .withDisplayName("Artifact transforms cache")
             .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+            .withCleanup(cleanupAction)
             .open();
         String cacheName = TRANSFORMS_META_DATA.getKey() + "/results";
         PersistentIndexedCacheParameters<HashCode, List<File>> cacheParameters = new PersistentIndexedCacheParameters<HashCode, List<File>>(cacheName, new HashCodeSerializer(), new ListSerializer<File>(BaseSerializerFactory.FILE_SERIALIZER))
@@ -90,6 +102,7 @@ public class DefaultTransformedFileCache implements TransformedFileCache, Stoppa
     public void beforeComplete() {
         // Discard cached results between builds
         resultHashToResult.clear();
+        statistics.reportAndReset();
     }
 
     @Override
@@ -100,60 +113,92 @@ public class DefaultTransformedFileCache implements TransformedFileCache, Stoppa
     @Override
     public List<File> getResult(final File inputFile, HashCode inputsHash, final BiFunction<List<File>, File, File> transformer) {
         final CacheKey resultHash = getCacheKey(inputFile, inputsHash);
+        statistics.requests.incrementAndGet();
         List<File> files = resultHashToResult.get(resultHash);
         if (files != null) {
+            statistics.memoryHits.incrementAndGet();
+            return files;
+        }
+
+        // Coalesce concurrent requests for the same result: the first caller produces it, the others wait for it
+        SettableFuture<List<File>> result = SettableFuture.create();
+        SettableFuture<List<File>> producing = inFlight.putIfAbsent(resultHash, result);
+        if (producing != null) {
+            statistics.coalesced.incrementAndGet();
+            return waitFor(producing);
+        }
+        try {
+            files = loadIntoCache(inputFile, resultHash, transformer);
+            result.set(files);
             return files;
+        } catch (Throwable t) {
+            result.setException(t);
+            throw UncheckedException.throwAsUncheckedException(t);
+        } finally {
+            // A failed result is not kept, so that the next request runs the transform again
+            inFlight.remove(resultHash, result);
+        }
+    }
+
+    private static List<File> waitFor(SettableFuture<List<File>> result) {
+        try {
+            return Uninterruptibles.getUninterruptibly(result);
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
         }
-        return loadIntoCache(inputFile, resultHash, transformer);
     }
 
     /*
      * Loads the transformed files from the file system cache into memory. Creates them if they are not present yet.
-     * This makes sure that only one thread tries to load a result for a given key.
+     * Only called by the thread that owns the in-flight result for the given key.
      */
     private List<File> loadIntoCache(final File inputFile, final CacheKey cacheKey, final BiFunction<List<File>, File, File> transformer) {
-        return producing.guardByKey(cacheKey, new Factory<List<File>>() {
-            @Override
-            public List<File> create() {
-                List<File> files = resultHashToResult.get(cacheKey);
-                if (files != null) {
-                    return files;
-                }
-                files = cache.withFileLock(new Factory<List<File>>() {
-                    @Override
-                    public List<File> create() {
-                        HashCode persistentCacheKey = cacheKey.getPersistentCacheKey();
-                        List<File> files = indexedCache.get(persistentCacheKey);
-                        if (files != null) {
-                            boolean allExist = true;
-                            for (File file : files) {
-                                if (!file.exists()) {
-                                    allExist = false;
-                                    break;
-                                }
-                            }
-                            if (allExist) {
-                                return files;
+        // The result may have been stored by a request that completed after the caller looked it up
+        List<File> files = resultHashToResult.get(cacheKey);
+        if (files != null) {
+            return files;
+        }
+        statistics.started();
+        try {
+            files = cache.withFileLock(new Factory<List<File>>() {
+                @Override
+                public List<File> create() {
+                    HashCode persistentCacheKey = cacheKey.getPersistentCacheKey();
+                    String key = inputFile.getName() + "/" + persistentCacheKey;
+                    List<File> files = indexedCache.get(persistentCacheKey);
+                    if (files != null) {
+                        boolean allExist = true;
+                        for (File file : files) {
+                            if (!file.exists()) {
+                                allExist = false;
+                                break;
                             }
                         }
-
-                        String key = inputFile.getName() + "/" + persistentCacheKey;
-                        TransformAction action = new TransformAction(transformer, inputFile);
-                        try {
-                            fileStore.add(key, action);
-                        } catch (FileStoreAddActionException e) {
-                            throw UncheckedException.throwAsUncheckedException(e.getCause());
+                        if (allExist) {
+                            statistics.persistentHits.incrementAndGet();
+                            // Record the use, so that the cleanup keeps the outputs
+                            TransformsCacheCleanup.markUsed(new File(filesOutputDirectory, key));
+                            return files;
                         }
+                    }
 
-                        indexedCache.put(persistentCacheKey, action.result);
-                        return action.result;
+                    statistics.executed.incrementAndGet();
+                    TransformAction action = new TransformAction(transformer, inputFile);
+                    try {
+                        fileStore.add(key, action);
+                    } catch (FileStoreAddActionException e) {
+                        throw UncheckedException.throwAsUncheckedException(e.getCause());
                     }
-                });
 
-                resultHashToResult.put(cacheKey, files);
-                return files;
-            }
-        });
+                    indexedCache.put(persistentCacheKey, action.result);
+                    return action.result;
+                }
+            });
+        } finally {
+            statistics.finished();
+        }
+        resultHashToResult.put(cacheKey, files);
+        return files;
     }
 
     private CacheKey getCacheKey(File inputFile, HashCode inputsHash) {
@@ -208,6 +253,45 @@ public class DefaultTransformedFileCache implements TransformedFileCache, Stoppa
         }
     }
 
+    /**
+     * Counts how requests for transformed files were served during a build, and how many results were being produced at the same time.
+     */
+    private static class Statistics {
+        final AtomicInteger requests = new AtomicInteger();
+        final AtomicInteger memoryHits = new AtomicInteger();
+        final AtomicInteger coalesced = new AtomicInteger();
+        final AtomicInteger persistentHits = new AtomicInteger();
+        final AtomicInteger executed = new AtomicInteger();
+        private final AtomicInteger inProgress = new AtomicInteger();
+        private final AtomicInteger maxInProgress = new AtomicInteger();
+
+        void started() {
+            int current = inProgress.incrementAndGet();
+            int max = maxInProgress.get();
+            while (current > max && !maxInProgress.compareAndSet(max, current)) {
+                max = maxInProgress.get();
+            }
+        }
+
+        void finished() {
+            inProgress.decrementAndGet();
+        }
+
+        void reportAndReset() {
+            int requestCount = requests.getAndSet(0);
+            int memoryHitCount = memoryHits.getAndSet(0);
+            int coalescedCount = coalesced.getAndSet(0);
+            int persistentHitCount = persistentHits.getAndSet(0);
+            int executedCount = executed.getAndSet(0);
+            int maxInProgressCount = maxInProgress.getAndSet(0);
+            if (requestCount > 0 && LOGGER.isInfoEnabled()) {
+                int hitRate = (int) ((requestCount - executedCount) * 100L / requestCount);
+                LOGGER.info("Artifact transforms: {} requests, {}% served without running a transform ({} from memory, {} joined a running transform, {} from the transforms cache), {} transforms run, at most {} in progress at the same time.",
+                    requestCount, hitRate, memoryHitCount, coalescedCount, persistentHitCount, executedCount, maxInProgressCount);
+            }
+        }
+    }
+
     private static class TransformAction implements Action<File> {
         private final BiFunction<List<File>, File, File> transformer;
         private final File inputFile;
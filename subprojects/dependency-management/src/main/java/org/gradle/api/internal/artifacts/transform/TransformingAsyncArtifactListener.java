@@ -23,9 +23,13 @@ import org.gradle.internal.operations.RunnableBuildOperation;
 
 import java.io.File;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 class TransformingAsyncArtifactListener implements ResolvedArtifactSet.AsyncArtifactListener {
     private final Map<ResolvableArtifact, TransformArtifactOperation> artifactResults;
+    // Artifacts that share a file also share the operation that transforms it
+    private final ConcurrentMap<File, TransformArtifactOperation> artifactResultsByFile = new ConcurrentHashMap<File, TransformArtifactOperation>();
     private final Map<File, TransformFileOperation> fileResults;
     private final BuildOperationQueue<RunnableBuildOperation> actions;
     private final ResolvedArtifactSet.AsyncArtifactListener delegate;
@@ -41,9 +45,15 @@ class TransformingAsyncArtifactListener implements ResolvedArtifactSet.AsyncArti
 
     @Override
     public void artifactAvailable(ResolvableArtifact artifact) {
+        File file = artifact.getFile();
         TransformArtifactOperation operation = new TransformArtifactOperation(artifact, transform);
+        TransformArtifactOperation scheduled = artifactResultsByFile.putIfAbsent(file, operation);
+        if (scheduled != null) {
+            artifactResults.put(artifact, scheduled);
+            return;
+        }
         artifactResults.put(artifact, operation);
-        if (transform.hasCachedResult(artifact.getFile())) {
+        if (transform.hasCachedResult(file)) {
             operation.run(null);
         } else {
             actions.add(operation);
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.transform;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import org.apache.commons.io.FileUtils;
+import org.gradle.cache.CleanupAction;
+import org.gradle.cache.PersistentCache;
+import org.gradle.internal.Factory;
+import org.gradle.util.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.gradle.api.internal.artifacts.ivyservice.CacheLayout.TRANSFORMS_STORE;
+
+/**
+ * Removes transform outputs that have not been used for a while, and then the least recently used outputs until the store fits into a maximum size.
+ *
+ * <p>{@link DefaultTransformedFileCache} marks an output directory as used whenever it loads the result of a transform into memory. Each output directory
+ * is removed separately while holding the lock of the cache, and only if it has still not been used in the meantime. Other processes therefore either see
+ * an output before it is removed, or run the transform again. Outputs used within the last day are never removed, as other builds may still refer to them.</p>
+ */
+public class TransformsCacheCleanup implements CleanupAction {
+    public static final String MAX_AGE_SYSTEM_PROPERTY = "org.gradle.internal.transforms.cache.maxAgeDays";
+    public static final String MAX_SIZE_SYSTEM_PROPERTY = "org.gradle.internal.transforms.cache.maxSizeMb";
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransformsCacheCleanup.class);
+    private static final long DEFAULT_MAX_AGE_DAYS = 30;
+    private static final long DEFAULT_MAX_SIZE_MB = 10 * 1024;
+    private static final long MIN_AGE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final long maxAgeMillis;
+    private final long maxSizeBytes;
+
+    public TransformsCacheCleanup() {
+        this(TimeUnit.DAYS.toMillis(Long.getLong(MAX_AGE_SYSTEM_PROPERTY, DEFAULT_MAX_AGE_DAYS)), Long.getLong(MAX_SIZE_SYSTEM_PROPERTY, DEFAULT_MAX_SIZE_MB) * 1024 * 1024);
+    }
+
+    @VisibleForTesting
+    TransformsCacheCleanup(long maxAgeMillis, long maxSizeBytes) {
+        this.maxAgeMillis = Math.max(maxAgeMillis, MIN_AGE_MILLIS);
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    /**
+     * Marks the given output directory of a transform as used.
+     */
+    static void markUsed(File outputDirectory) {
+        if (outputDirectory.isDirectory() && !outputDirectory.setLastModified(System.currentTimeMillis())) {
+            LOGGER.debug("Could not mark {} as used.", outputDirectory);
+        }
+    }
+
+    @Override
+    public void clean(PersistentCache persistentCache) {
+        File[] inputDirectories = new File(persistentCache.getBaseDir(), TRANSFORMS_STORE.getKey()).listFiles();
+        if (inputDirectories == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<Entry> entries = Lists.newArrayList();
+        long totalSize = 0;
+        int removed = 0;
+        long reclaimed = 0;
+        for (File inputDirectory : inputDirectories) {
+            File[] outputDirectories = inputDirectory.listFiles();
+            if (outputDirectories == null) {
+                continue;
+            }
+            for (File outputDirectory : outputDirectories) {
+                Entry entry = new Entry(outputDirectory);
+                if (now - entry.lastUsed >= maxAgeMillis) {
+                    if (remove(persistentCache, entry, now - maxAgeMillis)) {
+                        removed++;
+                        reclaimed += entry.size;
+                    }
+                } else {
+                    entries.add(entry);
+                    totalSize += entry.size;
+                }
+            }
+        }
+
+        if (totalSize > maxSizeBytes) {
+            Collections.sort(entries, Entry.LEAST_RECENTLY_USED_FIRST);
+            for (Entry entry : entries) {
+                if (totalSize <= maxSizeBytes || now - entry.lastUsed < MIN_AGE_MILLIS) {
+                    break;
+                }
+                if (remove(persistentCache, entry, entry.lastUsed)) {
+                    removed++;
+                    reclaimed += entry.size;
+                    totalSize -= entry.size;
+                }
+            }
+        }
+
+        for (File inputDirectory : inputDirectories) {
+            String[] remaining = inputDirectory.list();
+            if (remaining != null && remaining.length == 0) {
+                GFileUtils.deleteQuietly(inputDirectory);
+            }
+        }
+        if (removed > 0) {
+            LOGGER.info("{} removed {} transform outputs ({} reclaimed).", persistentCache, removed, FileUtils.byteCountToDisplaySize(reclaimed));
+        }
+    }
+
+    /**
+     * Removes the entry, unless it was used after the given time.
+     */
+    private static boolean remove(PersistentCache persistentCache, final Entry entry, final long usedNoLaterThan) {
+        return persistentCache.withFileLock(new Factory<Boolean>() {
+            @Override
+            public Boolean create() {
+                if (entry.directory.lastModified() > usedNoLaterThan) {
+                    return false;
+                }
+                return GFileUtils.deleteQuietly(entry.directory);
+            }
+        });
+    }
+
+    private static class Entry {
+        static final Comparator<Entry> LEAST_RECENTLY_USED_FIRST = new Comparator<Entry>() {
+            @Override
+            public int compare(Entry o1, Entry o2) {
+                return Long.compare(o1.lastUsed, o2.lastUsed);
+            }
+        };
+
+        final File directory;
+        final long lastUsed;
+        final long size;
+
+        Entry(File directory) {
+            this.directory = directory;
+            this.lastUsed = directory.lastModified();
+            this.size = directory.isDirectory() ? FileUtils.sizeOfDirectory(directory) : directory.length();
+        }
+    }
+}
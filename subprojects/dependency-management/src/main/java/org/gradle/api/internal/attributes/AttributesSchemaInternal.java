@@ -34,4 +34,9 @@ public interface AttributesSchemaInternal extends AttributesSchema {
     CompatibilityRule<Object> compatibilityRules(Attribute<?> attribute);
 
     DisambiguationRule<Object> disambiguationRules(Attribute<?> attribute);
+
+    /**
+     * Returns a value that increases whenever attributes or rules are added to this schema.
+     */
+    long getRulesVersion();
 }
@@ -37,6 +37,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DefaultAttributesSchema implements AttributesSchemaInternal, AttributesSchema {
     private final ComponentAttributeMatcher componentAttributeMatcher;
@@ -46,6 +48,15 @@ public class DefaultAttributesSchema implements AttributesSchemaInternal, Attrib
 
     private final DefaultAttributeMatcher matcher;
     private final IsolatableFactory isolatableFactory;
+    // Reuse the matcher for each producer, so that the component attribute matcher can remember its results
+    private final ConcurrentMap<AttributesSchemaInternal, AttributeMatcher> matcherCache = Maps.newConcurrentMap();
+    private final AtomicLong rulesVersion = new AtomicLong();
+    private final Runnable rulesChanged = new Runnable() {
+        @Override
+        public void run() {
+            rulesVersion.incrementAndGet();
+        }
+    };
 
     public DefaultAttributesSchema(ComponentAttributeMatcher componentAttributeMatcher, InstantiatorFactory instantiatorFactory, IsolatableFactory isolatableFactory) {
         this.componentAttributeMatcher = componentAttributeMatcher;
@@ -72,9 +83,10 @@ public class DefaultAttributesSchema implements AttributesSchemaInternal, Attrib
     public <T> AttributeMatchingStrategy<T> attribute(Attribute<T> attribute, Action<? super AttributeMatchingStrategy<T>> configureAction) {
         AttributeMatchingStrategy<T> strategy = Cast.uncheckedCast(strategies.get(attribute));
         if (strategy == null) {
-            strategy = Cast.uncheckedCast(instantiatorFactory.decorate().newInstance(DefaultAttributeMatchingStrategy.class, instantiatorFactory, isolatableFactory));
+            strategy = Cast.uncheckedCast(instantiatorFactory.decorate().newInstance(DefaultAttributeMatchingStrategy.class, instantiatorFactory, isolatableFactory, rulesChanged));
             strategies.put(attribute, strategy);
             attributesByName.put(attribute.getName(), attribute);
+            rulesChanged.run();
         }
         if (configureAction != null) {
             configureAction.execute(strategy);
@@ -98,7 +110,15 @@ public class DefaultAttributesSchema implements AttributesSchemaInternal, Attrib
 
     @Override
     public AttributeMatcher withProducer(AttributesSchemaInternal producerSchema) {
-        return new DefaultAttributeMatcher(componentAttributeMatcher, mergeWith(producerSchema));
+        AttributeMatcher producerMatcher = matcherCache.get(producerSchema);
+        if (producerMatcher == null) {
+            producerMatcher = new DefaultAttributeMatcher(componentAttributeMatcher, mergeWith(producerSchema));
+            AttributeMatcher existing = matcherCache.putIfAbsent(producerSchema, producerMatcher);
+            if (existing != null) {
+                producerMatcher = existing;
+            }
+        }
+        return producerMatcher;
     }
 
     @Override
@@ -106,6 +126,11 @@ public class DefaultAttributesSchema implements AttributesSchemaInternal, Attrib
         return matcher;
     }
 
+    @Override
+    public long getRulesVersion() {
+        return rulesVersion.get();
+    }
+
     @Override
     public CompatibilityRule<Object> compatibilityRules(Attribute<?> attribute) {
         AttributeMatchingStrategy<?> matchingStrategy = strategies.get(attribute);
@@ -248,5 +273,27 @@ public class DefaultAttributesSchema implements AttributesSchemaInternal, Attrib
             }
             return null;
         }
+
+        @Override
+        public boolean isRuleFree() {
+            return isRuleFree(DefaultAttributesSchema.this) && isRuleFree(producerSchema);
+        }
+
+        /**
+         * The versions of both schemas only ever increase, so their sum changes whenever either schema changes.
+         */
+        @Override
+        public long getRulesVersion() {
+            return DefaultAttributesSchema.this.getRulesVersion() + producerSchema.getRulesVersion();
+        }
+
+        private boolean isRuleFree(AttributesSchemaInternal schema) {
+            for (Attribute<?> attribute : schema.getAttributes()) {
+                if (schema.compatibilityRules(attribute).doesSomething() || schema.disambiguationRules(attribute).doesSomething()) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 }
@@ -34,32 +34,39 @@ public class DefaultCompatibilityRuleChain<T> implements CompatibilityRuleChain<
     private final List<Action<? super CompatibilityCheckDetails<T>>> rules = Lists.newArrayList();
     private final Instantiator instantiator;
     private final IsolatableFactory isolatableFactory;
+    private final Runnable rulesChanged;
 
-    public DefaultCompatibilityRuleChain(Instantiator instantiator, IsolatableFactory isolatableFactory) {
+    public DefaultCompatibilityRuleChain(Instantiator instantiator, IsolatableFactory isolatableFactory, Runnable rulesChanged) {
         this.instantiator = instantiator;
         this.isolatableFactory = isolatableFactory;
+        this.rulesChanged = rulesChanged;
+    }
+
+    private void addRule(Action<? super CompatibilityCheckDetails<T>> rule) {
+        rules.add(rule);
+        rulesChanged.run();
     }
 
     @Override
     public void ordered(Comparator<? super T> comparator) {
         Action<? super CompatibilityCheckDetails<T>> rule = AttributeMatchingRules.orderedCompatibility(comparator, false);
-        rules.add(rule);
+        addRule(rule);
     }
 
     @Override
     public void reverseOrdered(Comparator<? super T> comparator) {
         Action<? super CompatibilityCheckDetails<T>> rule = AttributeMatchingRules.orderedCompatibility(comparator, true);
-        rules.add(rule);
+        addRule(rule);
     }
 
     @Override
     public void add(Class<? extends AttributeCompatibilityRule<T>> rule, Action<? super ActionConfiguration> configureAction) {
-        rules.add(new InstantiatingAction<CompatibilityCheckDetails<T>>(DefaultConfigurableRule.<CompatibilityCheckDetails<T>>of(rule, configureAction, isolatableFactory), instantiator, new ExceptionHandler<T>(rule)));
+        addRule(new InstantiatingAction<CompatibilityCheckDetails<T>>(DefaultConfigurableRule.<CompatibilityCheckDetails<T>>of(rule, configureAction, isolatableFactory), instantiator, new ExceptionHandler<T>(rule)));
     }
 
     @Override
     public void add(final Class<? extends AttributeCompatibilityRule<T>> rule) {
-        rules.add(new InstantiatingAction<CompatibilityCheckDetails<T>>(DefaultConfigurableRule.<CompatibilityCheckDetails<T>>of(rule), instantiator, new ExceptionHandler<T>(rule)));
+        addRule(new InstantiatingAction<CompatibilityCheckDetails<T>>(DefaultConfigurableRule.<CompatibilityCheckDetails<T>>of(rule), instantiator, new ExceptionHandler<T>(rule)));
     }
 
     @Override
@@ -38,32 +38,39 @@ public class DefaultDisambiguationRuleChain<T> implements DisambiguationRuleChai
     private final List<Action<? super MultipleCandidatesDetails<T>>> rules = Lists.newArrayList();
     private final Instantiator instantiator;
     private final IsolatableFactory isolatableFactory;
+    private final Runnable rulesChanged;
 
-    public DefaultDisambiguationRuleChain(Instantiator instantiator, IsolatableFactory isolatableFactory) {
+    public DefaultDisambiguationRuleChain(Instantiator instantiator, IsolatableFactory isolatableFactory, Runnable rulesChanged) {
         this.instantiator = instantiator;
         this.isolatableFactory = isolatableFactory;
+        this.rulesChanged = rulesChanged;
+    }
+
+    private void addRule(Action<? super MultipleCandidatesDetails<T>> rule) {
+        rules.add(rule);
+        rulesChanged.run();
     }
 
     @Override
     public void add(final Class<? extends AttributeDisambiguationRule<T>> rule, Action<? super ActionConfiguration> configureAction) {
-        this.rules.add(new InstantiatingAction<MultipleCandidatesDetails<T>>(DefaultConfigurableRule.<MultipleCandidatesDetails<T>>of(rule, configureAction, isolatableFactory), instantiator, new ExceptionHandler<T>(rule)));
+        addRule(new InstantiatingAction<MultipleCandidatesDetails<T>>(DefaultConfigurableRule.<MultipleCandidatesDetails<T>>of(rule, configureAction, isolatableFactory), instantiator, new ExceptionHandler<T>(rule)));
     }
 
     @Override
     public void add(final Class<? extends AttributeDisambiguationRule<T>> rule) {
-        this.rules.add(new InstantiatingAction<MultipleCandidatesDetails<T>>(DefaultConfigurableRule.<MultipleCandidatesDetails<T>>of(rule), instantiator, new ExceptionHandler<T>(rule)));
+        addRule(new InstantiatingAction<MultipleCandidatesDetails<T>>(DefaultConfigurableRule.<MultipleCandidatesDetails<T>>of(rule), instantiator, new ExceptionHandler<T>(rule)));
     }
 
     @Override
     public void pickFirst(Comparator<? super T> comparator) {
         Action<? super MultipleCandidatesDetails<T>> rule = AttributeMatchingRules.orderedDisambiguation(comparator, true);
-        rules.add(rule);
+        addRule(rule);
     }
 
     @Override
     public void pickLast(Comparator<? super T> comparator) {
         Action<? super MultipleCandidatesDetails<T>> rule = AttributeMatchingRules.orderedDisambiguation(comparator, false);
-        rules.add(rule);
+        addRule(rule);
     }
 
     @Override
@@ -43,6 +43,11 @@ public class EmptySchema implements AttributesSchemaInternal {
         return disambiguationRule;
     }
 
+    @Override
+    public long getRulesVersion() {
+        return 0;
+    }
+
     @Override
     public <T> AttributeMatchingStrategy<T> getMatchingStrategy(Attribute<T> attribute) {
         throw new UnsupportedOperationException();
@@ -28,4 +28,14 @@ public interface AttributeSelectionSchema {
     boolean matchValue(Attribute<?> attribute, Object requested, Object candidate);
 
     Attribute<?> getAttribute(String name);
+
+    /**
+     * Returns true when no compatibility or disambiguation rules are declared. Values are then only compared for equality, so the outcome of matching does not depend on this schema.
+     */
+    boolean isRuleFree();
+
+    /**
+     * Returns a value that changes whenever attributes or rules are added to this schema, so that the outcome of matching remembered for an earlier version is not reused.
+     */
+    long getRulesVersion();
 }
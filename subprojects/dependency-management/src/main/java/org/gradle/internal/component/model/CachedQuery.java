@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.component.model;
+
+import org.gradle.api.internal.attributes.ImmutableAttributes;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * A request to select from a list of candidates, as seen by {@link MultipleCandidateMatcher}: the requested attributes and the attributes of each candidate.
+ */
+final class CachedQuery {
+    private final AttributeSelectionSchema schema;
+    private final long rulesVersion;
+    private final ImmutableAttributes requested;
+    private final ImmutableAttributes[] candidates;
+    private final int hashCode;
+
+    /**
+     * @param schema the schema the query is evaluated against, or null when the outcome does not depend on the schema.
+     * @param rulesVersion the version of the rules of the schema, see {@link AttributeSelectionSchema#getRulesVersion()}.
+     */
+    CachedQuery(@Nullable AttributeSelectionSchema schema, long rulesVersion, ImmutableAttributes requested, ImmutableAttributes[] candidates) {
+        this.schema = schema;
+        this.rulesVersion = rulesVersion;
+        this.requested = requested;
+        this.candidates = candidates;
+        int hashCode = schema == null ? 0 : System.identityHashCode(schema);
+        hashCode = 31 * hashCode + (int) (rulesVersion ^ (rulesVersion >>> 32));
+        hashCode = 31 * hashCode + requested.hashCode();
+        hashCode = 31 * hashCode + Arrays.hashCode(candidates);
+        this.hashCode = hashCode;
+    }
+
+    ImmutableAttributes getRequested() {
+        return requested;
+    }
+
+    ImmutableAttributes[] getCandidates() {
+        return candidates;
+    }
+
+    CachedQuery withoutSchema() {
+        return new CachedQuery(null, 0, requested, candidates);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CachedQuery that = (CachedQuery) o;
+        return hashCode == that.hashCode
+            && schema == that.schema
+            && rulesVersion == that.rulesVersion
+            && requested.equals(that.requested)
+            && Arrays.equals(candidates, that.candidates);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.gradle.internal.component.model;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
@@ -32,10 +34,26 @@ import java.util.Collections;
 import java.util.List;
 
 /**
- * A stateless attribute matcher, which optimizes for the case of only comparing 0 or 1 candidates and delegates to {@link MultipleCandidateMatcher} for all other cases.
+ * An attribute matcher, which optimizes for the case of only comparing 0 or 1 candidates and delegates to {@link MultipleCandidateMatcher} for all other cases.
+ *
+ * <p>The outcome of selecting between multiple candidates is remembered for each version of the rules of each schema, as the same variants are matched over and over again while resolving
+ * the configurations of a build. The number of remembered outcomes is bounded, and the least recently used ones are evicted first, which includes the outcomes for
+ * earlier versions of the rules. For schemas without any rules, the outcome is also shared with other schemas and later builds through a {@link CrossBuildAttributeMatchingCache}.</p>
  */
 public class ComponentAttributeMatcher {
     private static final Logger LOGGER = LoggerFactory.getLogger(ComponentAttributeMatcher.class);
+    private static final int MAX_CACHED_MATCHES = 10000;
+
+    private final CrossBuildAttributeMatchingCache sharedMatches;
+    private final Cache<CachedQuery, int[]> cachedMatches = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_MATCHES).build();
+
+    public ComponentAttributeMatcher() {
+        this(new CrossBuildAttributeMatchingCache());
+    }
+
+    public ComponentAttributeMatcher(CrossBuildAttributeMatchingCache sharedMatches) {
+        this.sharedMatches = sharedMatches;
+    }
 
     /**
      * Determines whether the given candidate is compatible with the requested criteria, according to the given schema.
@@ -118,13 +136,51 @@ public class ComponentAttributeMatcher {
             return ImmutableList.of();
         }
 
-        ImmutableAttributes requestedAttributes = requested.asImmutable();
+        List<? extends T> candidateList = (candidates instanceof List) ? (List<? extends T>) candidates : ImmutableList.copyOf(candidates);
+        ImmutableAttributes[] candidateAttributeSets = new ImmutableAttributes[candidateList.size()];
+        for (int i = 0; i < candidateAttributeSets.length; i++) {
+            candidateAttributeSets[i] = ((AttributeContainerInternal) candidateList.get(i).getAttributes()).asImmutable();
+        }
 
-        List<T> matches = new MultipleCandidateMatcher<T>(schema, candidates, requestedAttributes).getMatches();
+        int[] indices = getMatches(schema, new CachedQuery(schema, schema.getRulesVersion(), requested.asImmutable(), candidateAttributeSets));
+        List<T> matches = getCandidates(candidateList, indices);
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Selected matches {} from candidates {} for {}", matches, candidates, requested);
         }
         return matches;
     }
 
+    private int[] getMatches(AttributeSelectionSchema schema, CachedQuery query) {
+        int[] matches = cachedMatches.getIfPresent(query);
+        if (matches != null) {
+            return matches;
+        }
+        CachedQuery sharedQuery = schema.isRuleFree() ? query.withoutSchema() : null;
+        if (sharedQuery != null) {
+            matches = sharedMatches.get(sharedQuery);
+        }
+        if (matches == null) {
+            matches = new MultipleCandidateMatcher(schema, query.getCandidates(), query.getRequested()).getMatches();
+            if (sharedQuery != null) {
+                sharedMatches.put(sharedQuery, matches);
+            }
+        }
+        cachedMatches.put(query, matches);
+        return matches;
+    }
+
+    private static <T> List<T> getCandidates(List<? extends T> candidates, int[] indices) {
+        if (indices.length == 0) {
+            return Collections.emptyList();
+        }
+        if (indices.length == 1) {
+            return Collections.<T>singletonList(candidates.get(indices[0]));
+        }
+        ImmutableList.Builder<T> builder = ImmutableList.builder();
+        for (int index : indices) {
+            builder.add(candidates.get(index));
+        }
+        return builder.build();
+    }
+
 }
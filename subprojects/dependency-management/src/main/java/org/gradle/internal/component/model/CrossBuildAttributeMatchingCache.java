@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.component.model;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.internal.attributes.ImmutableAttributes;
+
+import javax.annotation.Nullable;
+
+/**
+ * Remembers the outcome of selecting between candidates, for schemas that do not declare any compatibility or disambiguation rules.
+ * Without rules, values are only ever compared for equality, so the outcome only depends on the requested and candidate attributes
+ * and can be reused by every build that runs in this process.
+ *
+ * <p>Only queries whose attribute types and values are loaded by Gradle itself are kept, so that the cache never holds on to the
+ * class loaders of build scripts or plugins. The number of entries is bounded, and the least recently used entries are evicted first.</p>
+ */
+public class CrossBuildAttributeMatchingCache {
+    private static final int MAX_ENTRIES = 10000;
+
+    private final ClassLoader gradleClassLoader = Attribute.class.getClassLoader();
+    private final Cache<CachedQuery, int[]> matches = CacheBuilder.newBuilder().maximumSize(MAX_ENTRIES).build();
+
+    @Nullable
+    int[] get(CachedQuery query) {
+        return matches.getIfPresent(query);
+    }
+
+    void put(CachedQuery query, int[] result) {
+        if (isOwnedByGradle(query.getRequested())) {
+            for (ImmutableAttributes candidate : query.getCandidates()) {
+                if (!isOwnedByGradle(candidate)) {
+                    return;
+                }
+            }
+            matches.put(query, result);
+        }
+    }
+
+    private boolean isOwnedByGradle(ImmutableAttributes attributes) {
+        for (Attribute<?> attribute : attributes.keySet()) {
+            if (!isOwnedByGradle(attribute.getType()) || !isOwnedByGradle(attributes.getAttribute(attribute).getClass())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isOwnedByGradle(Class<?> type) {
+        ClassLoader classLoader = type.getClassLoader();
+        return classLoader == null || classLoader == gradleClassLoader;
+    }
+}
@@ -16,17 +16,12 @@
 
 package org.gradle.internal.component.model;
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
 import org.gradle.api.attributes.Attribute;
-import org.gradle.api.attributes.HasAttributes;
-import org.gradle.api.internal.attributes.AttributeContainerInternal;
 import org.gradle.api.internal.attributes.AttributeValue;
 import org.gradle.api.internal.attributes.ImmutableAttributes;
 
 import java.util.BitSet;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -67,12 +62,15 @@ import java.util.Set;
  * The information which candidates are compatible and which candidates are still valid during disambiguation is kept in two {@link BitSet}s. The nth bit is set if the nth candidate
  * is compatible. The longest match is kept using two integers, one containing the length of the match, the other containing the index of the candidate that was the longest.
  *
+ * The matcher only sees the attributes of the candidates and returns the indices of the matching candidates, so that the result can be cached and reused
+ * for any list of candidates with the same attributes.
  * </p>
  */
-class MultipleCandidateMatcher<T extends HasAttributes> {
+class MultipleCandidateMatcher {
+    private static final int[] NO_MATCHES = new int[0];
+
     private final AttributeSelectionSchema schema;
     private final ImmutableAttributes requested;
-    private final List<? extends T> candidates;
     private final ImmutableAttributes[] candidateAttributeSets;
 
     private final List<Attribute<?>> requestedAttributes;
@@ -85,28 +83,27 @@ class MultipleCandidateMatcher<T extends HasAttributes> {
     private BitSet remaining;
     private Attribute<?>[] extraAttributes;
 
-    MultipleCandidateMatcher(AttributeSelectionSchema schema, Collection<? extends T> candidates, ImmutableAttributes requested) {
+    MultipleCandidateMatcher(AttributeSelectionSchema schema, ImmutableAttributes[] candidateAttributeSets, ImmutableAttributes requested) {
         this.schema = schema;
         this.requested = requested;
-        this.candidates = (candidates instanceof List) ? (List<? extends T>) candidates : ImmutableList.copyOf(candidates);
-        candidateAttributeSets = new ImmutableAttributes[candidates.size()];
-        for (int i = 0; i < candidates.size(); i++) {
-            candidateAttributeSets[i] = ((AttributeContainerInternal) this.candidates.get(i).getAttributes()).asImmutable();
-        }
+        this.candidateAttributeSets = candidateAttributeSets;
         this.requestedAttributes = requested.keySet().asList();
-        requestedAttributeValues = new Object[(1 + candidates.size()) * requestedAttributes.size()];
-        compatible = new BitSet(candidates.size());
-        compatible.set(0, candidates.size());
+        requestedAttributeValues = new Object[(1 + candidateAttributeSets.length) * requestedAttributes.size()];
+        compatible = new BitSet(candidateAttributeSets.length);
+        compatible.set(0, candidateAttributeSets.length);
     }
 
-    public List<T> getMatches() {
+    /**
+     * Returns the indices of the matching candidates, in ascending order.
+     */
+    public int[] getMatches() {
         fillRequestedValues();
         findCompatibleCandidates();
         if (compatible.cardinality() <= 1) {
             return getCandidates(compatible);
         }
         if (longestMatchIsSuperSetOfAllOthers()) {
-            return Collections.singletonList(candidates.get(candidateWithLongestMatch));
+            return new int[]{candidateWithLongestMatch};
         }
         return disambiguateCompatibleCandidates();
     }
@@ -120,7 +117,7 @@ class MultipleCandidateMatcher<T extends HasAttributes> {
     }
 
     private void findCompatibleCandidates() {
-        for (int c = 0; c < candidates.size(); c++) {
+        for (int c = 0; c < candidateAttributeSets.length; c++) {
             matchCandidate(c);
         }
     }
@@ -185,8 +182,8 @@ class MultipleCandidateMatcher<T extends HasAttributes> {
     }
 
 
-    private List<T> disambiguateCompatibleCandidates() {
-        remaining = new BitSet(candidates.size());
+    private int[] disambiguateCompatibleCandidates() {
+        remaining = new BitSet(candidateAttributeSets.length);
         remaining.or(compatible);
 
         disambiguateWithRequestedAttributes();
@@ -266,18 +263,16 @@ class MultipleCandidateMatcher<T extends HasAttributes> {
         }
     }
 
-    private List<T> getCandidates(BitSet liveSet) {
-        if (liveSet.cardinality() == 0) {
-            return Collections.emptyList();
-        }
-        if (liveSet.cardinality() == 1) {
-            return Collections.singletonList(this.candidates.get(liveSet.nextSetBit(0)));
+    private int[] getCandidates(BitSet liveSet) {
+        if (liveSet.isEmpty()) {
+            return NO_MATCHES;
         }
-        ImmutableList.Builder<T> builder = ImmutableList.builder();
+        int[] matches = new int[liveSet.cardinality()];
+        int i = 0;
         for (int c = liveSet.nextSetBit(0); c >= 0; c = liveSet.nextSetBit(c + 1)) {
-            builder.add(this.candidates.get(c));
+            matches[i++] = c;
         }
-        return builder.build();
+        return matches;
     }
 
     private Attribute<?> getAttribute(int a) {
@@ -16,7 +16,6 @@
 
 package org.gradle.internal.resource.transfer;
 
-import com.google.common.io.Files;
 import org.apache.commons.io.IOUtils;
 import org.gradle.api.Transformer;
 import org.gradle.api.UncheckedIOException;
@@ -25,8 +24,9 @@ import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.ExternalR
 import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.cache.internal.ProducerGuard;
 import org.gradle.internal.Factory;
-import org.gradle.internal.hash.HashUtil;
 import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.hash.HashingOutputStream;
 import org.gradle.internal.resource.ExternalResource;
 import org.gradle.internal.resource.ExternalResourceName;
 import org.gradle.internal.resource.ExternalResourceReadResult;
@@ -47,6 +47,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -54,6 +55,7 @@ import java.io.InputStream;
 public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExternalResourceAccessor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultCacheAwareExternalResourceAccessor.class);
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
 
     private final ExternalResourceRepository delegate;
     private final CachedExternalResourceIndex<String> cachedExternalResourceIndex;
@@ -63,8 +65,9 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
     private final ExternalResourceCachePolicy externalResourceCachePolicy;
     private final ProducerGuard<ExternalResourceName> producerGuard;
     private final FileResourceRepository fileResourceRepository;
+    private final boolean conditionalRequests;
 
-    public DefaultCacheAwareExternalResourceAccessor(ExternalResourceRepository delegate, CachedExternalResourceIndex<String> cachedExternalResourceIndex, BuildCommencedTimeProvider timeProvider, TemporaryFileProvider temporaryFileProvider, CacheLockingManager cacheLockingManager, ExternalResourceCachePolicy externalResourceCachePolicy, ProducerGuard<ExternalResourceName> producerGuard, FileResourceRepository fileResourceRepository) {
+    public DefaultCacheAwareExternalResourceAccessor(ExternalResourceRepository delegate, CachedExternalResourceIndex<String> cachedExternalResourceIndex, BuildCommencedTimeProvider timeProvider, TemporaryFileProvider temporaryFileProvider, CacheLockingManager cacheLockingManager, ExternalResourceCachePolicy externalResourceCachePolicy, ProducerGuard<ExternalResourceName> producerGuard, FileResourceRepository fileResourceRepository, boolean conditionalRequests) {
         this.delegate = delegate;
         this.cachedExternalResourceIndex = cachedExternalResourceIndex;
         this.timeProvider = timeProvider;
@@ -73,6 +76,7 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
         this.externalResourceCachePolicy = externalResourceCachePolicy;
         this.producerGuard = producerGuard;
         this.fileResourceRepository = fileResourceRepository;
+        this.conditionalRequests = conditionalRequests;
     }
 
     @Nullable
@@ -94,6 +98,11 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
                     return fileResourceRepository.resource(cached.getCachedFile(), location.getUri(), cached.getExternalResourceMetaData());
                 }
 
+                // We have a cached version that can be revalidated: check it is still current and download any changes with a single conditional request
+                if (cached != null && conditionalRequests && ExternalResourceMetaDataCompare.canDetermineIfUnchanged(cached.getExternalResourceMetaData())) {
+                    return revalidateCached(location, fileStore, cached);
+                }
+
                 // We have a cached version, but it might be out of date, so we tell the upstreams to revalidate too
                 final boolean revalidate = true;
 
@@ -181,23 +190,58 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
     private LocallyAvailableExternalResource copyCandidateToCache(ExternalResourceName source, ResourceFileStore fileStore, ExternalResourceMetaData remoteMetaData, HashValue remoteChecksum, LocallyAvailableResource local) throws IOException {
         final File destination = temporaryFileProvider.createTemporaryFile("gradle_download", "bin");
         try {
-            Files.copy(local.getFile(), destination);
-            HashValue localChecksum = HashUtil.createHash(destination, "SHA1");
+            HashValue localChecksum;
+            FileInputStream inputStream = new FileInputStream(local.getFile());
+            try {
+                localChecksum = writeAndHash(inputStream, destination).sha1;
+            } finally {
+                inputStream.close();
+            }
             if (!localChecksum.equals(remoteChecksum)) {
                 return null;
             }
-            return moveIntoCache(source, destination, fileStore, remoteMetaData);
+            return moveIntoCache(source, destination, localChecksum, fileStore, remoteMetaData);
         } finally {
             destination.delete();
         }
     }
 
+    @Nullable
+    private LocallyAvailableExternalResource revalidateCached(ExternalResourceName source, ResourceFileStore fileStore, CachedExternalResource cached) {
+        DownloadAction downloadAction = new DownloadAction(source);
+        ExternalResourceReadResult<Object> result;
+        try {
+            result = delegate.withProgressLogging().resource(source, true).withContentIfModified(cached.getExternalResourceMetaData(), downloadAction);
+        } catch (Exception e) {
+            downloadAction.discard();
+            throw ResourceExceptions.getFailed(source.getUri(), e);
+        }
+        if (result == null) {
+            return null;
+        }
+
+        if (downloadAction.metaData == null) {
+            LOGGER.info("Cached resource {} is up-to-date (lastModified: {}).", source, cached.getExternalLastModified());
+            // Update the cache entry in the index: this resets the age of the cached entry to zero
+            cachedExternalResourceIndex.store(source.toString(), cached.getCachedFile(), cached.getExternalResourceMetaData());
+            return fileResourceRepository.resource(cached.getCachedFile(), source.getUri(), cached.getExternalResourceMetaData());
+        }
+
+        // Move into cache
+        try {
+            return moveIntoCache(source, downloadAction.destination, downloadAction.sha1, fileStore, downloadAction.metaData);
+        } finally {
+            downloadAction.destination.delete();
+        }
+    }
+
     private LocallyAvailableExternalResource copyToCache(final ExternalResourceName source, final ResourceFileStore fileStore, final ExternalResource resource) {
         // Download to temporary location
         DownloadAction downloadAction = new DownloadAction(source);
         try {
             resource.withContentIfPresent(downloadAction);
         } catch (Exception e) {
+            downloadAction.discard();
             throw ResourceExceptions.getFailed(source.getUri(), e);
         }
         if (downloadAction.metaData == null) {
@@ -206,16 +250,16 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
 
         // Move into cache
         try {
-            return moveIntoCache(source, downloadAction.destination, fileStore, downloadAction.metaData);
+            return moveIntoCache(source, downloadAction.destination, downloadAction.sha1, fileStore, downloadAction.metaData);
         } finally {
             downloadAction.destination.delete();
         }
     }
 
-    private LocallyAvailableExternalResource moveIntoCache(final ExternalResourceName source, final File destination, final ResourceFileStore fileStore, final ExternalResourceMetaData metaData) {
+    private LocallyAvailableExternalResource moveIntoCache(final ExternalResourceName source, final File destination, final HashValue sha1, final ResourceFileStore fileStore, final ExternalResourceMetaData metaData) {
         return cacheLockingManager.useCache(new Factory<LocallyAvailableExternalResource>() {
             public LocallyAvailableExternalResource create() {
-                LocallyAvailableResource cachedResource = fileStore.moveIntoCache(destination);
+                LocallyAvailableResource cachedResource = fileStore.moveIntoCache(destination, sha1);
                 File fileInFileStore = cachedResource.getFile();
                 cachedExternalResourceIndex.store(source.toString(), fileInFileStore, metaData);
                 return fileResourceRepository.resource(fileInFileStore, source.getUri(), metaData);
@@ -223,6 +267,20 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
         });
     }
 
+    /**
+     * Writes the content to the given file, calculating its SHA1 hash as it is written rather than reading the file again afterwards.
+     */
+    private static WrittenContent writeAndHash(InputStream inputStream, File destination) throws IOException {
+        HashingOutputStream outputStream = new HashingOutputStream(Hashing.sha1(), new FileOutputStream(destination));
+        long length;
+        try {
+            length = IOUtils.copyLarge(inputStream, outputStream, new byte[COPY_BUFFER_SIZE]);
+        } finally {
+            outputStream.close();
+        }
+        return new WrittenContent(length, new HashValue(outputStream.hash().toByteArray()));
+    }
+
     public long getAgeMillis(BuildCommencedTimeProvider timeProvider, CachedExternalResource cached) {
         return timeProvider.getCurrentTime() - cached.getCachedAt();
     }
@@ -231,6 +289,7 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
         private final ExternalResourceName source;
         File destination;
         ExternalResourceMetaData metaData;
+        HashValue sha1;
 
         DownloadAction(ExternalResourceName source) {
             this.source = source;
@@ -244,13 +303,36 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
             if (destination.getParentFile() != null) {
                 GFileUtils.mkdirs(destination.getParentFile());
             }
-            FileOutputStream outputStream = new FileOutputStream(destination);
-            try {
-                IOUtils.copyLarge(inputStream, outputStream);
-            } finally {
-                outputStream.close();
+            WrittenContent content = writeAndHash(inputStream, destination);
+            long expectedLength = metaData.getContentLength();
+            if (expectedLength > 0 && content.length != expectedLength) {
+                throw new IOException(String.format("Received %d bytes of %s but expected %d bytes.", content.length, source, expectedLength));
+            }
+            HashValue expectedSha1 = metaData.getSha1();
+            if (expectedSha1 != null && !expectedSha1.equals(content.sha1)) {
+                throw new IOException(String.format("Received content of %s with SHA1 %s but expected %s.", source, content.sha1.asHexString(), expectedSha1.asHexString()));
             }
+            sha1 = content.sha1;
             return null;
         }
+
+        /**
+         * Deletes any partially downloaded content.
+         */
+        void discard() {
+            if (destination != null) {
+                destination.delete();
+            }
+        }
+    }
+
+    private static class WrittenContent {
+        final long length;
+        final HashValue sha1;
+
+        WrittenContent(long length, HashValue sha1) {
+            this.length = length;
+            this.sha1 = sha1;
+        }
     }
 }
@@ -17,8 +17,10 @@
 package org.gradle.internal.resource.transfer;
 
 import com.google.common.annotations.VisibleForTesting;
+import org.gradle.internal.Factory;
 import org.gradle.internal.logging.progress.ProgressLoggerFactory;
 import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
+import org.gradle.internal.resource.metadata.ExternalResourceMetaDataCompare;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
@@ -42,6 +44,28 @@ public class ProgressLoggingExternalResourceAccessor extends AbstractProgressLog
         }
     }
 
+    @Override
+    public boolean supportsConditionalRequests() {
+        return delegate.supportsConditionalRequests();
+    }
+
+    @Nullable
+    @Override
+    public ExternalResourceReadResponse openResourceIfModified(URI location, ExternalResourceMetaData cached) {
+        final ExternalResourceReadResponse resource = delegate.openResourceIfModified(location, cached);
+        if (resource == null) {
+            return null;
+        }
+        // Nothing is downloaded for an unchanged resource, so don't report any progress for it
+        boolean unchanged = ExternalResourceMetaDataCompare.isDefinitelyUnchanged(cached, new Factory<ExternalResourceMetaData>() {
+            @Override
+            public ExternalResourceMetaData create() {
+                return resource.getMetaData();
+            }
+        });
+        return unchanged ? resource : new ProgressLoggingExternalResource(location, resource);
+    }
+
     @Nullable
     public ExternalResourceMetaData getMetaData(URI location, boolean revalidate) {
         return delegate.getMetaData(location, revalidate);
@@ -51,4 +51,31 @@ class DefaultArtifactCacheMetadataTest extends Specification {
         then:
         metadataStore == new File(testCacheDir, CacheLayout.META_DATA.key + '/descriptors')
     }
+
+    def "has no read-only file store by default"() {
+        given:
+        TestFile testCacheDir = temporaryFolder.file("test/cache")
+        scopeMapping.getBaseDirectory(null, CacheLayout.ROOT.key, VersionStrategy.SharedCache) >> testCacheDir
+
+        when:
+        def metaData = new DefaultArtifactCacheMetadata(scopeMapping)
+
+        then:
+        metaData.readOnlyFileStoreDirectory == null
+        metaData.fileStoreRoots == [metaData.fileStoreDirectory, metaData.transformsStoreDirectory]
+    }
+
+    def "calculates read-only file store directory"() {
+        given:
+        TestFile testCacheDir = temporaryFolder.file("test/cache")
+        TestFile readOnlyCachesDir = temporaryFolder.file("ro-caches")
+        scopeMapping.getBaseDirectory(null, CacheLayout.ROOT.key, VersionStrategy.SharedCache) >> testCacheDir
+
+        when:
+        def metaData = new DefaultArtifactCacheMetadata(scopeMapping, readOnlyCachesDir)
+
+        then:
+        metaData.readOnlyFileStoreDirectory == new File(readOnlyCachesDir, CacheLayout.ROOT.key + '/' + CacheLayout.FILE_STORE.key)
+        metaData.fileStoreRoots.contains(metaData.readOnlyFileStoreDirectory)
+    }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.cache.PersistentCache
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class StaleDownloadsCleanupTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def persistentCache = Stub(PersistentCache)
+    def downloadsDir = tmpDir.file("tmp")
+    def cleanup = new StaleDownloadsCleanup(downloadsDir, TimeUnit.HOURS.toMillis(1))
+
+    def "removes downloads that have not been modified for longer than the maximum age"() {
+        def stale = download("gradle_download1.bin", TimeUnit.HOURS.toMillis(2))
+        def inProgress = download("gradle_download2.bin", 0)
+
+        when:
+        cleanup.clean(persistentCache)
+
+        then:
+        !stale.exists()
+        inProgress.exists()
+    }
+
+    def "does nothing when there is no downloads directory"() {
+        when:
+        cleanup.clean(persistentCache)
+
+        then:
+        !downloadsDir.exists()
+    }
+
+    private File download(String name, long age) {
+        def file = downloadsDir.createFile(name)
+        file.lastModified = System.currentTimeMillis() - age
+        return file
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve
+
+import org.gradle.api.Transformer
+import org.gradle.api.internal.artifacts.ComponentMetadataProcessor
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelector
+import org.gradle.api.internal.attributes.ImmutableAttributes
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector
+import org.gradle.internal.component.external.model.ModuleDependencyMetadata
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resolve.caching.ComponentMetadataSupplierRuleExecutor
+import org.gradle.internal.resolve.result.DefaultBuildableComponentIdResolveResult
+import org.gradle.util.TestUtil
+import spock.lang.Specification
+
+class DynamicVersionResolverTest extends Specification {
+    def chooser = Mock(VersionedComponentChooser)
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def resolver = new DynamicVersionResolver(chooser, new VersionParser(), Stub(Transformer), TestUtil.attributesFactory(), Stub(ComponentMetadataProcessor), Stub(ComponentMetadataSupplierRuleExecutor), Stub(CachePolicy), buildOperationExecutor, true)
+    def selector = DefaultModuleComponentSelector.newSelector("group", "module", "1.+")
+    def dependency = Stub(ModuleDependencyMetadata) {
+        getSelector() >> selector
+    }
+    def result = new DefaultBuildableComponentIdResolveResult()
+    def localAccess1 = Mock(ModuleComponentRepositoryAccess)
+    def remoteAccess1 = Mock(ModuleComponentRepositoryAccess)
+    def localAccess2 = Mock(ModuleComponentRepositoryAccess)
+    def remoteAccess2 = Mock(ModuleComponentRepositoryAccess)
+
+    def setup() {
+        resolver.add(Stub(ModuleComponentRepository) {
+            getName() >> "repo1"
+            getLocalAccess() >> localAccess1
+            getRemoteAccess() >> remoteAccess1
+        })
+        resolver.add(Stub(ModuleComponentRepository) {
+            getName() >> "repo2"
+            getLocalAccess() >> localAccess2
+            getRemoteAccess() >> remoteAccess2
+        })
+    }
+
+    def "lists the versions of each repository in a build operation when listing in parallel"() {
+        def failure1 = new RuntimeException("broken 1")
+        def failure2 = new RuntimeException("broken 2")
+
+        when:
+        resolve()
+
+        then:
+        1 * localAccess1.listModuleVersions(dependency, _) >> { throw failure1 }
+        1 * localAccess2.listModuleVersions(dependency, _) >> { throw failure2 }
+        0 * remoteAccess1._
+        0 * remoteAccess2._
+        0 * chooser._
+
+        and:
+        buildOperationExecutor.operations*.displayName == ["List versions of group:module:1.+ from repo1", "List versions of group:module:1.+ from repo2"]
+    }
+
+    def "reports a failure to list versions in parallel as a failure of that repository"() {
+        def failure1 = new RuntimeException("broken 1")
+        def failure2 = new RuntimeException("broken 2")
+        localAccess1.listModuleVersions(dependency, _) >> { throw failure1 }
+        localAccess2.listModuleVersions(dependency, _) >> { throw failure2 }
+
+        when:
+        resolve()
+
+        then:
+        result.failure.causes == [failure1, failure2]
+    }
+
+    def "discards the listings of later repositories after a critical failure to list versions in parallel"() {
+        def failure1 = new RuntimeException("timeout", new SocketTimeoutException())
+        def failure2 = new RuntimeException("broken 2")
+        localAccess1.listModuleVersions(dependency, _) >> { throw failure1 }
+        localAccess2.listModuleVersions(dependency, _) >> { throw failure2 }
+
+        when:
+        resolve()
+
+        then:
+        result.failure.causes == [failure1]
+    }
+
+    private void resolve() {
+        resolver.resolve(dependency, Stub(VersionSelector), null, ImmutableAttributes.EMPTY, result)
+    }
+}
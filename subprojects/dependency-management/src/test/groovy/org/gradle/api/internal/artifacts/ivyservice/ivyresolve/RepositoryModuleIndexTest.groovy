@@ -0,0 +1,39 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve
+
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import spock.lang.Specification
+
+class RepositoryModuleIndexTest extends Specification {
+    def index = new RepositoryModuleIndex()
+
+    def "contains nothing initially"() {
+        expect:
+        !index.mightContain("repo", DefaultModuleComponentIdentifier.newId("org", "module", "1.0"))
+    }
+
+    def "records modules per repository"() {
+        when:
+        index.recordPresent("repo", DefaultModuleComponentIdentifier.newId("org", "module", "1.0"))
+
+        then:
+        index.mightContain("repo", DefaultModuleComponentIdentifier.newId("org", "module", "1.0"))
+        index.mightContain("repo", DefaultModuleComponentIdentifier.newId("org", "module", "2.0"))
+        !index.mightContain("other", DefaultModuleComponentIdentifier.newId("org", "module", "1.0"))
+    }
+}
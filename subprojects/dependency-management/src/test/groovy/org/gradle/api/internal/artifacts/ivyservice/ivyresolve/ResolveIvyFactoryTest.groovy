@@ -40,6 +40,7 @@ import org.gradle.api.internal.attributes.AttributesSchemaInternal
 import org.gradle.api.internal.attributes.ImmutableAttributes
 import org.gradle.internal.action.InstantiatingAction
 import org.gradle.internal.component.external.model.ModuleComponentArtifactMetadata
+import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.gradle.internal.resolve.caching.ComponentMetadataSupplierRuleExecutor
 import org.gradle.internal.resource.ExternalResourceRepository
 import org.gradle.internal.resource.local.FileStore
@@ -83,7 +84,7 @@ class ResolveIvyFactoryTest extends Specification {
         versionParser = new VersionParser()
 
         resolveIvyFactory = new ResolveIvyFactory(cacheProvider, startParameterResolutionOverride, buildCommencedTimeProvider,
-            versionSelectorScheme, versionComparator, moduleIdentifierFactory, repositoryBlacklister, versionParser)
+            versionSelectorScheme, versionComparator, moduleIdentifierFactory, repositoryBlacklister, versionParser, new RepositoryModuleIndex(), false, new TestBuildOperationExecutor(), false)
     }
 
     def "returns an empty resolver when no repositories are configured" () {
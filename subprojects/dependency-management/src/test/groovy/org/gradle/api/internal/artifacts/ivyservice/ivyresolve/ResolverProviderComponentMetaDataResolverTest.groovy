@@ -57,13 +57,14 @@ class ResolverProviderComponentMetaDataResolverTest extends Specification {
         addModuleComponentRepository("repo2", localAccess2, remoteAccess2)
     }
 
-    def addModuleComponentRepository(def name, def repoLocalAccess, def repoRemoteAccess) {
+    def addModuleComponentRepository(def name, def repoLocalAccess, def repoRemoteAccess, def chain = resolver) {
         def repo = Stub(ModuleComponentRepository) {
             getLocalAccess() >> repoLocalAccess
             getRemoteAccess() >> repoRemoteAccess
             getName() >> name
+            getId() >> name
         }
-        resolver.add(repo)
+        chain.add(repo)
         repo
     }
 
@@ -555,6 +556,80 @@ class ResolverProviderComponentMetaDataResolverTest extends Specification {
         0 * result._
     }
 
+    def "skips remote lookup in repository that never contained the module when a later repository did"() {
+        given:
+        def index = new RepositoryModuleIndex()
+        index.recordPresent("repo2", moduleComponentId)
+        def skippingResolver = new RepositoryChainComponentMetaDataResolver(componentSelectionStrategy, transformer, index, true)
+        addModuleComponentRepository("repo1", localAccess, remoteAccess, skippingResolver)
+        def repo2 = addModuleComponentRepository("repo2", localAccess2, remoteAccess2, skippingResolver)
+
+        when:
+        skippingResolver.resolve(moduleComponentId, componentRequestMetaData, result)
+
+        then:
+        1 * localAccess.resolveComponentMetaData(moduleComponentId, componentRequestMetaData, _) >> { id, meta, result ->
+            result.missing()
+            result.authoritative = false
+        }
+        1 * localAccess2.resolveComponentMetaData(moduleComponentId, componentRequestMetaData, _) >> { id, meta, result ->
+            result.missing()
+            result.authoritative = false
+        }
+        1 * remoteAccess2.resolveComponentMetaData(moduleComponentId, componentRequestMetaData, _) >> { id, meta, result ->
+            result.resolved(metaData)
+        }
+        1 * transformer.transform(_) >> { RepositoryChainModuleResolution it ->
+            assert it.repository == repo2
+            metaData
+        }
+        1 * result.resolved(_)
+        and:
+        0 * remoteAccess._
+        0 * result._
+    }
+
+    def "searches skipped repository when module is not found in the expected repository"() {
+        given:
+        def index = new RepositoryModuleIndex()
+        index.recordPresent("repo2", moduleComponentId)
+        def skippingResolver = new RepositoryChainComponentMetaDataResolver(componentSelectionStrategy, transformer, index, true)
+        def repo1 = addModuleComponentRepository("repo1", localAccess, remoteAccess, skippingResolver)
+        addModuleComponentRepository("repo2", localAccess2, remoteAccess2, skippingResolver)
+
+        when:
+        skippingResolver.resolve(moduleComponentId, componentRequestMetaData, result)
+
+        then:
+        1 * localAccess.resolveComponentMetaData(moduleComponentId, componentRequestMetaData, _) >> { id, meta, result ->
+            result.missing()
+            result.authoritative = false
+        }
+        1 * localAccess2.resolveComponentMetaData(moduleComponentId, componentRequestMetaData, _) >> { id, meta, result ->
+            result.missing()
+            result.authoritative = false
+        }
+
+        then:
+        1 * remoteAccess2.resolveComponentMetaData(moduleComponentId, componentRequestMetaData, _) >> { id, meta, result ->
+            result.missing()
+        }
+
+        then:
+        1 * remoteAccess.resolveComponentMetaData(moduleComponentId, componentRequestMetaData, _) >> { id, meta, result ->
+            result.resolved(metaData)
+        }
+        1 * transformer.transform(_) >> { RepositoryChainModuleResolution it ->
+            assert it.repository == repo1
+            metaData
+        }
+        1 * result.resolved(_)
+        0 * result._
+
+        and:
+        index.mightContain("repo1", moduleComponentId)
+    }
+
     def descriptor(String version) {
         def descriptor = Stub(ModuleDescriptor)
         descriptor.resolvedModuleRevisionId >> IvyUtil.createModuleRevisionId("org", "module", version)
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser
+
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.cache.PersistentIndexedCache
+import org.gradle.internal.Factory
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.resource.local.LocalFileStandInExternalResource
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class DefaultPomModelCacheTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final persistentCache = Mock(PersistentIndexedCache)
+    final cacheLockingManager = Stub(CacheLockingManager) {
+        createCache("pom-models", _, _) >> persistentCache
+        useCache(_ as Factory) >> { Factory factory -> factory.create() }
+        useCache(_ as Runnable) >> { Runnable action -> action.run() }
+    }
+    final cache = new DefaultPomModelCache(cacheLockingManager)
+
+    def "parses POM once and reuses result for POMs with the same content"() {
+        def pom1 = resource("parent1.pom", "<project><version>1.0</version></project>")
+        def pom2 = resource("parent2.pom", "<project><version>1.0</version></project>")
+
+        when:
+        def first = cache.getDocumentElement(pom1)
+
+        then:
+        first.children[0].textContent == '1.0'
+        1 * persistentCache.get(_ as HashCode) >> null
+        1 * persistentCache.put(_ as HashCode, first)
+
+        when:
+        def second = cache.getDocumentElement(pom2)
+
+        then:
+        second.is(first)
+        0 * persistentCache._
+    }
+
+    def "uses persisted model when available"() {
+        def pom = resource("parent.pom", "<project><version>1.0</version></project>")
+        def persisted = new PomElement("project", "", [])
+
+        when:
+        def result = cache.getDocumentElement(pom)
+
+        then:
+        result.is(persisted)
+        1 * persistentCache.get(_ as HashCode) >> persisted
+        0 * persistentCache.put(_, _)
+    }
+
+    def "fails with parse exception when POM is malformed"() {
+        def pom = resource("broken.pom", "<project>")
+
+        when:
+        cache.getDocumentElement(pom)
+
+        then:
+        persistentCache.get(_) >> null
+        thrown(MetaDataParseException)
+    }
+
+    private LocalFileStandInExternalResource resource(String name, String content) {
+        def file = tmpDir.file(name)
+        file.text = content
+        return new LocalFileStandInExternalResource(file, TestFiles.fileSystem())
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser
+
+import org.gradle.internal.serialize.InputStreamBackedDecoder
+import org.gradle.internal.serialize.OutputStreamBackedEncoder
+import spock.lang.Specification
+
+import javax.xml.stream.XMLStreamException
+
+class PomStaxParserTest extends Specification {
+
+    def "parses element names, children and text content"() {
+        when:
+        def root = parse """<?xml version="1.0" encoding="UTF-8"?>
+<project>
+    <groupId>group-one</groupId>
+    <properties>
+        <some.prop>  value  </some.prop>
+    </properties>
+    <description><![CDATA[some]]> text</description>
+</project>
+"""
+
+        then:
+        root.name == 'project'
+        root.textContent == ''
+        root.children*.name == ['groupId', 'properties', 'description']
+        root.children[0].textContent == 'group-one'
+        root.children[1].children[0].name == 'some.prop'
+        root.children[1].children[0].textContent == '  value  '
+        root.children[2].textContent == 'some text'
+    }
+
+    def "replaces entities defined by Maven 2"() {
+        when:
+        def root = parse """<project><name>K&oslash;benhavn &amp; co</name></project>"""
+
+        then:
+        root.children[0].textContent == 'København & co'
+    }
+
+    def "skips UTF-8 byte order mark"() {
+        when:
+        def bytes = [0xEF, 0xBB, 0xBF] as byte[]
+        def root = PomStaxParser.parse(new ByteArrayInputStream(bytes + '<project><version>1.0</version></project>'.getBytes('UTF-8')), 'pom.xml')
+
+        then:
+        root.children[0].textContent == '1.0'
+    }
+
+    def "fails on malformed XML"() {
+        when:
+        parse """<projectx><version>1.0</version></project>"""
+
+        then:
+        thrown(XMLStreamException)
+    }
+
+    def "parsed elements can be serialized"() {
+        given:
+        def root = parse """<project>
+    <dependencies>
+        <dependency><groupId>a</groupId><artifactId>b</artifactId></dependency>
+        <dependency><groupId>a</groupId><artifactId>c</artifactId></dependency>
+    </dependencies>
+</project>
+"""
+        def serializer = new PomElementSerializer()
+        def bytes = new ByteArrayOutputStream()
+        def encoder = new OutputStreamBackedEncoder(bytes)
+
+        when:
+        serializer.write(encoder, root)
+        encoder.flush()
+        def copy = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(bytes.toByteArray())))
+
+        then:
+        copy == root
+        copy.children[0].children[1].children[1].textContent == 'c'
+    }
+
+    private static PomElement parse(String content) {
+        return PomStaxParser.parse(new ByteArrayInputStream(content.getBytes('UTF-8')), 'pom.xml')
+    }
+}
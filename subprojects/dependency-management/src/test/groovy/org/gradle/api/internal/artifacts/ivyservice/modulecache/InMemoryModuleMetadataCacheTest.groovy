@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache
+
+import org.gradle.api.internal.artifacts.DefaultImmutableModuleIdentifierFactory
+import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.AttributeContainerSerializer
+import org.gradle.api.internal.artifacts.repositories.metadata.IvyMutableModuleMetadataFactory
+import org.gradle.api.internal.artifacts.repositories.metadata.MavenMutableModuleMetadataFactory
+import org.gradle.api.internal.model.NamedObjectInstantiator
+import org.gradle.cache.internal.HeapProportionalCacheSizer
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata
+import org.gradle.util.BuildCommencedTimeProvider
+import org.gradle.util.TestUtil
+import org.gradle.util.internal.SimpleMapInterner
+import spock.lang.Specification
+
+class InMemoryModuleMetadataCacheTest extends Specification {
+    private final ImmutableModuleIdentifierFactory moduleIdentifierFactory = new DefaultImmutableModuleIdentifierFactory()
+    private final MavenMutableModuleMetadataFactory mavenMetadataFactory = new MavenMutableModuleMetadataFactory(moduleIdentifierFactory, TestUtil.attributesFactory(), TestUtil.objectInstantiator(), TestUtil.featurePreviews())
+    private final IvyMutableModuleMetadataFactory ivyMetadataFactory = new IvyMutableModuleMetadataFactory(moduleIdentifierFactory, TestUtil.attributesFactory())
+    private final ModuleMetadataSerializer serializer = new ModuleMetadataSerializer(new AttributeContainerSerializer(TestUtil.attributesFactory(), NamedObjectInstantiator.INSTANCE), mavenMetadataFactory, ivyMetadataFactory)
+    private final BuildCommencedTimeProvider timeProvider = Stub(BuildCommencedTimeProvider) {
+        getCurrentTime() >> 1000
+    }
+    private final InMemoryModuleMetadataStore serializedCache = new InMemoryModuleMetadataStore(serializer, moduleIdentifierFactory, SimpleMapInterner.threadSafe(), timeProvider, new HeapProportionalCacheSizer())
+    private final InMemoryModuleMetadataCache cache = new InMemoryModuleMetadataCache(timeProvider, serializedCache, 1)
+    private final ModuleComponentRepository repository = Stub(ModuleComponentRepository) {
+        getId() >> "repo"
+    }
+    private final id = DefaultModuleComponentIdentifier.newId("org.test", "module", "1.0")
+    private final otherId = DefaultModuleComponentIdentifier.newId("org.test", "other", "1.0")
+
+    def "keeps decoded entry without serializing it"() {
+        def metadata = mavenMetadataFactory.create(id).asImmutable()
+        def processed = Stub(ModuleComponentResolveMetadata)
+
+        when:
+        def cached = cache.cacheMetaData(repository, id, metadata)
+        cached.processedMetadata = processed
+
+        then:
+        cache.getCachedModuleDescriptor(repository, id).is(cached)
+        cache.getCachedModuleDescriptor(repository, id).processedMetadata.is(processed)
+        serializedCache.get(new ModuleComponentAtRepositoryKey("repo", id)) == null
+    }
+
+    def "evicted entry is decoded again without its processed metadata"() {
+        def metadata = mavenMetadataFactory.create(id).asImmutable()
+
+        when:
+        def cached = cache.cacheMetaData(repository, id, metadata)
+        cached.processedMetadata = Stub(ModuleComponentResolveMetadata)
+        cache.cacheMissing(repository, otherId)
+        def decoded = cache.getCachedModuleDescriptor(repository, id)
+
+        then:
+        !decoded.is(cached)
+        decoded.metadata.id == id
+        decoded.processedMetadata == null
+
+        and:
+        cache.getCachedModuleDescriptor(repository, id).is(decoded)
+        cache.getCachedModuleDescriptor(repository, otherId).missing
+    }
+
+    def "newer entry replaces evicted entry"() {
+        def metadata = mavenMetadataFactory.create(id).asImmutable()
+
+        when:
+        cache.cacheMetaData(repository, id, metadata)
+        cache.cacheMissing(repository, otherId)
+        cache.cacheMissing(repository, id)
+
+        then:
+        cache.getCachedModuleDescriptor(repository, id).missing
+        cache.getCachedModuleDescriptor(repository, otherId).missing
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache
+
+import org.gradle.api.internal.artifacts.DefaultImmutableModuleIdentifierFactory
+import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.AttributeContainerSerializer
+import org.gradle.api.internal.artifacts.repositories.metadata.IvyMutableModuleMetadataFactory
+import org.gradle.api.internal.artifacts.repositories.metadata.MavenMutableModuleMetadataFactory
+import org.gradle.api.internal.model.NamedObjectInstantiator
+import org.gradle.cache.internal.HeapProportionalCacheSizer
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.util.BuildCommencedTimeProvider
+import org.gradle.util.TestUtil
+import org.gradle.util.internal.SimpleMapInterner
+import spock.lang.Specification
+
+class InMemoryModuleMetadataStoreTest extends Specification {
+    private final ImmutableModuleIdentifierFactory moduleIdentifierFactory = new DefaultImmutableModuleIdentifierFactory()
+    private final MavenMutableModuleMetadataFactory mavenMetadataFactory = new MavenMutableModuleMetadataFactory(moduleIdentifierFactory, TestUtil.attributesFactory(), TestUtil.objectInstantiator(), TestUtil.featurePreviews())
+    private final IvyMutableModuleMetadataFactory ivyMetadataFactory = new IvyMutableModuleMetadataFactory(moduleIdentifierFactory, TestUtil.attributesFactory())
+    private final ModuleMetadataSerializer serializer = new ModuleMetadataSerializer(new AttributeContainerSerializer(TestUtil.attributesFactory(), NamedObjectInstantiator.INSTANCE), mavenMetadataFactory, ivyMetadataFactory)
+    private final BuildCommencedTimeProvider timeProvider = Stub(BuildCommencedTimeProvider) {
+        getCurrentTime() >> 1000
+    }
+    private final InMemoryModuleMetadataStore store = new InMemoryModuleMetadataStore(serializer, moduleIdentifierFactory, SimpleMapInterner.threadSafe(), timeProvider, new HeapProportionalCacheSizer())
+    private final key = new ModuleComponentAtRepositoryKey("repo", DefaultModuleComponentIdentifier.newId("org.test", "module", "1.0"))
+
+    def "returns null for unknown entry"() {
+        expect:
+        store.get(key) == null
+    }
+
+    def "decodes stored metadata"() {
+        def metadata = mavenMetadataFactory.create(key.componentId).asImmutable()
+        def entry = new ModuleMetadataCacheEntry(ModuleMetadataCacheEntry.TYPE_PRESENT, true, 400, null)
+
+        when:
+        store.put(key, entry, metadata)
+        def cached = store.get(key)
+
+        then:
+        !cached.missing
+        cached.ageMillis == 600
+        cached.metadata.id == key.componentId
+        cached.metadata.changing
+        !cached.metadata.is(metadata)
+
+        and:
+        !store.get(key).is(cached)
+    }
+
+    def "decodes stored missing entry"() {
+        when:
+        store.put(key, ModuleMetadataCacheEntry.forMissingModule(200), null)
+        def cached = store.get(key)
+
+        then:
+        cached.missing
+        cached.ageMillis == 800
+        cached.metadata == null
+    }
+
+    def "entries are stored per repository"() {
+        def otherKey = new ModuleComponentAtRepositoryKey("other", key.componentId)
+
+        when:
+        store.put(key, ModuleMetadataCacheEntry.forMissingModule(200), null)
+
+        then:
+        store.get(otherKey) == null
+    }
+}
@@ -748,6 +748,44 @@ class DefaultModuleExclusionTest extends Specification {
         !spec.excludeArtifact(moduleId("other", "sample"), artifactName("regexp", "jar", "jar"))
     }
 
+    def "intersection matches exact module, group and module name rules alongside pattern rules"() {
+        def spec = excludeAny(excludeRule("org", "module"), excludeGroupRule("group"), excludeModuleRule("name"), regexpExcludeRule("regexp-.*", "module"),
+            excludeRule("org", "module2", "a", "jar", "jar"), excludeRule("*", "module3", "b", "jar", "jar"))
+
+        expect:
+        spec.excludeModule(moduleId("org", "module"))
+        spec.excludeModule(moduleId("group", "anything"))
+        spec.excludeModule(moduleId("anything", "name"))
+        spec.excludeModule(moduleId("regexp-org", "module"))
+        !spec.excludeModule(moduleId("org", "module2"))
+        !spec.excludeModule(moduleId("other", "module"))
+        !spec.excludeModule(moduleId("regexp-org", "other"))
+
+        spec.excludeArtifact(moduleId("org", "module2"), artifactName("a", "jar", "jar"))
+        spec.excludeArtifact(moduleId("other", "module3"), artifactName("b", "jar", "jar"))
+        !spec.excludeArtifact(moduleId("org", "module3"), artifactName("a", "jar", "jar"))
+        !spec.excludeArtifact(moduleId("org", "module2"), artifactName("b", "jar", "jar"))
+    }
+
+    def "union and intersection of the same specs return the same instance regardless of operand order"() {
+        def spec = excludeAny(excludeRule("org", "module"), regexpExcludeRule("org", "module2"))
+        def spec2 = excludeAny(excludeGroupRule("org"), regexpExcludeRule("org", "module3"))
+
+        expect:
+        union(spec, spec2).is(union(spec2, spec))
+        intersect(spec, spec2).is(intersect(spec2, spec))
+        union(spec, spec2).is(union(excludeAny(excludeRule("org", "module"), regexpExcludeRule("org", "module2")), spec2))
+    }
+
+    def "can match artifact exclude rule without an extension using a non-default ivy pattern matcher"() {
+        def rule = new DefaultExclude(DefaultModuleIdentifier.newId("org", "module"), new DefaultIvyArtifactName("art", "jar", null), new String[0], "regexp")
+        def spec = excludeAny(rule)
+
+        expect:
+        spec.excludeArtifact(moduleId("org", "module"), artifactName("art", "jar", null))
+        !spec.excludeArtifact(moduleId("org", "module"), artifactName("art", "jar", "jar"))
+    }
+
     def "can merge excludes with default and non-default ivy pattern matchers"() {
         def simpleExclude = excludeAny(excludeModuleRule("module-exclude"))
         def regexpExclude = excludeAny(regexpExcludeRule("regexp-match", "*"))
@@ -20,6 +20,7 @@ import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheMetadata
 import org.gradle.api.internal.changedetection.state.FileCollectionSnapshot
 import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter
 import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory
+import org.gradle.cache.CleanupAction
 import org.gradle.cache.internal.CacheScopeMapping
 import org.gradle.cache.internal.DefaultCacheRepository
 import org.gradle.caching.internal.BuildCacheHasher
@@ -46,7 +47,7 @@ class DefaultTransformedFileCacheTest extends ConcurrentSpec {
         scopeMapping.getBaseDirectory(_, _, _) >> tmpDir.testDirectory
         scopeMapping.getRootDirectory(_) >> tmpDir.testDirectory
         artifactCacheMetaData.transformsStoreDirectory >> tmpDir.file("output")
-        cache = new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepo, decorator, snapshotter)
+        cache = new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepo, decorator, snapshotter, CleanupAction.NO_OP)
     }
 
     def "reuses result for given inputs and transform"() {
@@ -182,6 +183,55 @@ class DefaultTransformedFileCacheTest extends ConcurrentSpec {
         0 * transform._
     }
 
+    def "concurrent requests receive the failure of the running transform"() {
+        def failure = new RuntimeException()
+        def transform = Mock(BiFunction)
+        def inputFile = tmpDir.file("a")
+        _ * snapshotter.snapshotAll(inputFile) >> snapshot(HashCode.fromInt(234))
+
+        when:
+        def failure1
+        def failure2
+        async {
+            start {
+                try {
+                    cache.getResult(inputFile, HashCode.fromInt(123), transform)
+                } catch (RuntimeException e) {
+                    failure1 = e
+                }
+            }
+            start {
+                thread.blockUntil.started
+                try {
+                    cache.getResult(inputFile, HashCode.fromInt(123), transform)
+                } catch (RuntimeException e) {
+                    failure2 = e
+                }
+            }
+        }
+
+        then:
+        failure1.is(failure)
+        failure2.is(failure)
+
+        and:
+        1 * transform.apply(inputFile, _) >> { File file, File dir ->
+            instant.started
+            thread.block()
+            throw failure
+        }
+        0 * transform._
+
+        when:
+        def result = cache.getResult(inputFile, HashCode.fromInt(123), transform)
+
+        then:
+        result == [inputFile]
+
+        and:
+        1 * transform.apply(inputFile, _) >> { File file, File dir -> [file] }
+    }
+
     def "multiple threads can transform files concurrently"() {
         when:
         async {
@@ -332,7 +382,7 @@ class DefaultTransformedFileCacheTest extends ConcurrentSpec {
         def result = cache.getResult(inputFile, HashCode.fromInt(123), transform)
 
         when:
-        def cache = new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepo, decorator, snapshotter)
+        def cache = new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepo, decorator, snapshotter, CleanupAction.NO_OP)
         result.first().delete()
         def result2 = cache.getResult(inputFile, HashCode.fromInt(123), transform)
 
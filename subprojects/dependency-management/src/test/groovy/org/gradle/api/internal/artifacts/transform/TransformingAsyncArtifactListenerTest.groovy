@@ -38,6 +38,26 @@ class TransformingAsyncArtifactListenerTest extends Specification {
         2 * operationQueue.add(_)
     }
 
+    def "schedules a single transform for artifacts with the same file"() {
+        def file = new File("foo")
+        def artifact1 = Stub(ResolvableArtifact) {
+            getFile() >> file
+        }
+        def artifact2 = Stub(ResolvableArtifact) {
+            getFile() >> file
+        }
+
+        given:
+        transformer.hasCachedResult(_) >> false
+
+        when:
+        listener.artifactAvailable(artifact1)
+        listener.artifactAvailable(artifact2)
+
+        then:
+        1 * operationQueue.add(_)
+    }
+
     def "runs transforms immediately if the result is already cached"() {
         given:
         transformer.hasCachedResult(_) >> true
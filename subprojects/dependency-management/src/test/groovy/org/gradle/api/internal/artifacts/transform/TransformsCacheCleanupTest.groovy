@@ -0,0 +1,104 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.transform
+
+import org.gradle.cache.PersistentCache
+import org.gradle.internal.Factory
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+import static org.gradle.api.internal.artifacts.ivyservice.CacheLayout.TRANSFORMS_STORE
+
+class TransformsCacheCleanupTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def persistentCache = Stub(PersistentCache) {
+        getBaseDir() >> tmpDir.testDirectory
+        withFileLock(_ as Factory) >> { Factory factory -> factory.create() }
+    }
+    def now = System.currentTimeMillis()
+
+    def "removes outputs that have not been used for longer than the maximum age"() {
+        def old = output("a.jar", "1", 100, daysAgo(10))
+        def recent = output("a.jar", "2", 100, daysAgo(2))
+        def otherOld = output("b.jar", "1", 100, daysAgo(8))
+
+        when:
+        new TransformsCacheCleanup(TimeUnit.DAYS.toMillis(7), 1024 * 1024).clean(persistentCache)
+
+        then:
+        !old.exists()
+        recent.exists()
+        !otherOld.exists()
+        !otherOld.parentFile.exists()
+    }
+
+    def "removes least recently used outputs until the store fits into the maximum size"() {
+        def oldest = output("a.jar", "1", 1000, daysAgo(5))
+        def older = output("b.jar", "1", 1000, daysAgo(4))
+        def newer = output("c.jar", "1", 1000, daysAgo(3))
+
+        when:
+        new TransformsCacheCleanup(TimeUnit.DAYS.toMillis(30), 1500).clean(persistentCache)
+
+        then:
+        !oldest.exists()
+        !older.exists()
+        newer.exists()
+    }
+
+    def "keeps outputs used within the last day regardless of size"() {
+        def old = output("a.jar", "1", 1000, daysAgo(5))
+        def inUse = output("b.jar", "1", 1000, now - TimeUnit.HOURS.toMillis(2))
+        def justCreated = output("c.jar", "1", 1000, now)
+
+        when:
+        new TransformsCacheCleanup(TimeUnit.DAYS.toMillis(30), 100).clean(persistentCache)
+
+        then:
+        !old.exists()
+        inUse.exists()
+        justCreated.exists()
+    }
+
+    def "marks an output as used"() {
+        def entry = output("a.jar", "1", 100, daysAgo(10))
+
+        when:
+        TransformsCacheCleanup.markUsed(entry)
+        new TransformsCacheCleanup(TimeUnit.DAYS.toMillis(7), 1024 * 1024).clean(persistentCache)
+
+        then:
+        entry.exists()
+    }
+
+    private long daysAgo(int days) {
+        now - TimeUnit.DAYS.toMillis(days)
+    }
+
+    private TestFile output(String inputName, String hash, int size, long lastUsed) {
+        def dir = tmpDir.file(TRANSFORMS_STORE.key, inputName, hash)
+        dir.file("out").createFile().text = "x" * size
+        dir.setLastModified(lastUsed)
+        dir
+    }
+}
@@ -341,6 +341,74 @@ class DefaultAttributesSchemaTest extends Specification {
         best == [value1] as Set
     }
 
+    def "merged schema is rule free when neither schema declares rules"() {
+        def producer = new DefaultAttributesSchema(new ComponentAttributeMatcher(), TestUtil.instantiatorFactory(), TestUtil.valueSnapshotter())
+
+        def attr = Attribute.of("a", Flavor)
+
+        schema.attribute(attr)
+        producer.attribute(attr)
+
+        expect:
+        schema.mergeWith(producer).isRuleFree()
+
+        when:
+        producer.attribute(attr).compatibilityRules.add(CustomCompatibilityRule)
+
+        then:
+        !schema.mergeWith(producer).isRuleFree()
+        schema.mergeWith(EmptySchema.INSTANCE).isRuleFree()
+    }
+
+    def "reuses the matcher for a producer"() {
+        def producer = new DefaultAttributesSchema(new ComponentAttributeMatcher(), TestUtil.instantiatorFactory(), TestUtil.valueSnapshotter())
+
+        expect:
+        schema.withProducer(producer).is(schema.withProducer(producer))
+        !schema.withProducer(producer).is(schema.withProducer(EmptySchema.INSTANCE))
+    }
+
+    def "matches with the rules added to a producer after an earlier match"() {
+        def producer = new DefaultAttributesSchema(new ComponentAttributeMatcher(), TestUtil.instantiatorFactory(), TestUtil.valueSnapshotter())
+        def attr = Attribute.of("a", Flavor)
+        schema.attribute(attr)
+        producer.attribute(attr)
+
+        def requested = factory.of(attr, flavor('value'))
+        def candidate1 = factory.of(attr, flavor('other'))
+        def candidate2 = factory.of(attr, flavor('otherValue'))
+
+        expect:
+        schema.withProducer(producer).matches([candidate1, candidate2], requested) == []
+
+        when:
+        producer.attribute(attr).compatibilityRules.add(CustomCompatibilityRule)
+
+        then:
+        schema.withProducer(producer).matches([candidate1, candidate2], requested) == [candidate2]
+    }
+
+    def "rules version changes when attributes or rules are added"() {
+        def attr = Attribute.of("a", Flavor)
+
+        when:
+        def initial = schema.rulesVersion
+        schema.attribute(attr)
+        def withAttribute = schema.rulesVersion
+        schema.attribute(attr)
+        def sameAttribute = schema.rulesVersion
+        schema.attribute(attr).compatibilityRules.add(CustomCompatibilityRule)
+        def withCompatibilityRule = schema.rulesVersion
+        schema.attribute(attr).disambiguationRules.pickFirst(Stub(Comparator))
+        def withDisambiguationRule = schema.rulesVersion
+
+        then:
+        withAttribute > initial
+        sameAttribute == withAttribute
+        withCompatibilityRule > withAttribute
+        withDisambiguationRule > withCompatibilityRule
+    }
+
     interface Flavor extends Named {}
 
     enum MyEnum {
@@ -401,6 +401,94 @@ class ComponentAttributeMatcherTest extends Specification {
         e.message == "Unexpected type for attribute 'a' provided. Expected a value of type java.lang.String but found a value of type java.lang.Integer."
     }
 
+    def "remembers the matches for candidates with the same attributes"() {
+        def rule = Mock(AttributeDisambiguationRule)
+        def matcher = new ComponentAttributeMatcher()
+        def attr = Attribute.of(String)
+        schema.attribute(attr)
+        schema.accept(attr, "requested", "value1")
+        schema.accept(attr, "requested", "value2")
+        schema.select(attr, rule)
+
+        def requested = attributes().attribute(attr, "requested")
+        def candidate1 = attributes().attribute(attr, "value1")
+        def candidate2 = attributes().attribute(attr, "value2")
+        def other1 = attributes().attribute(attr, "value1")
+        def other2 = attributes().attribute(attr, "value2")
+
+        when:
+        def first = matcher.match(schema, [candidate1, candidate2], requested, null)
+        def second = matcher.match(schema, [other1, other2], attributes().attribute(attr, "requested"), null)
+
+        then:
+        1 * rule.execute(_) >> { MultipleCandidatesDetails details -> details.closestMatch("value2") }
+        first == [candidate2]
+        second.size() == 1
+        second[0].is(other2)
+    }
+
+    def "does not reuse the matches once rules are added to the schema"() {
+        def matcher = new ComponentAttributeMatcher()
+        def attr = Attribute.of(String)
+        schema.attribute(attr)
+
+        def requested = attributes().attribute(attr, "requested")
+        def candidate1 = attributes().attribute(attr, "value1")
+        def candidate2 = attributes().attribute(attr, "value2")
+
+        expect:
+        matcher.match(schema, [candidate1, candidate2], requested, null) == []
+
+        when:
+        schema.accept(attr, "requested", "value2")
+
+        then:
+        matcher.match(schema, [candidate1, candidate2], requested, null) == [candidate2]
+    }
+
+    def "shares the matches of schemas without rules"() {
+        def sharedMatches = new CrossBuildAttributeMatchingCache()
+        def otherSchema = Mock(AttributeSelectionSchema)
+        def attr = Attribute.of(String)
+        def attr2 = Attribute.of('2', String)
+        schema.attribute(attr)
+        schema.attribute(attr2)
+        schema.ruleFree = true
+
+        def requested = attributes().attribute(attr, "value1")
+        def candidate1 = attributes().attribute(attr, "value1").attribute(attr2, "value2")
+        def candidate2 = attributes().attribute(attr, "value2").attribute(attr2, "value2")
+
+        when:
+        def first = new ComponentAttributeMatcher(sharedMatches).match(schema, [candidate1, candidate2], requested, null)
+        def second = new ComponentAttributeMatcher(sharedMatches).match(otherSchema, [candidate1, candidate2], requested, null)
+
+        then:
+        first == [candidate1]
+        second == [candidate1]
+        _ * otherSchema.isRuleFree() >> true
+        _ * otherSchema.getRulesVersion() >> 0
+        0 * otherSchema._
+    }
+
+    def "does not share the matches of schemas with rules"() {
+        def sharedMatches = new CrossBuildAttributeMatchingCache()
+        def otherSchema = new TestSchema()
+        def attr = Attribute.of(String)
+        schema.attribute(attr)
+        schema.ruleFree = true
+        otherSchema.attribute(attr)
+        otherSchema.accept(attr, "value1", "value2")
+
+        def requested = attributes().attribute(attr, "value1")
+        def candidate1 = attributes().attribute(attr, "value2")
+        def candidate2 = attributes().attribute(attr, "value3")
+
+        expect:
+        new ComponentAttributeMatcher(sharedMatches).match(schema, [candidate1, candidate2], requested, null) == []
+        new ComponentAttributeMatcher(sharedMatches).match(otherSchema, [candidate1, candidate2], requested, null) == [candidate1]
+    }
+
     private AttributeContainerInternal attributes() {
         factory.mutable()
     }
@@ -411,13 +499,17 @@ class ComponentAttributeMatcherTest extends Specification {
         Map<Attribute<?>, Object> preferredValue = [:]
         Map<Attribute<?>, AttributeDisambiguationRule> rules = [:]
         Map<Attribute<?>, Multimap<Object, Object>> compatibleValues = [:]
+        boolean ruleFree
+        long rulesVersion
 
         void attribute(Attribute<?> attribute) {
+            rulesVersion++
             attributes.add(attribute)
             attributesByName.put(attribute.getName(), attribute)
         }
 
         void accept(Attribute<?> attribute, Object consumer, Object producer) {
+            rulesVersion++
             if (!compatibleValues.containsKey(attribute)) {
                 compatibleValues.put(attribute, LinkedListMultimap.create())
             }
@@ -425,6 +517,7 @@ class ComponentAttributeMatcherTest extends Specification {
         }
 
         void select(Attribute<?> attribute, AttributeDisambiguationRule rule) {
+            rulesVersion++
             rules.put(attribute, rule)
         }
 
@@ -458,6 +551,16 @@ class ComponentAttributeMatcherTest extends Specification {
             return false
         }
 
+        @Override
+        boolean isRuleFree() {
+            return ruleFree
+        }
+
+        @Override
+        long getRulesVersion() {
+            return rulesVersion
+        }
+
         @Override
         Set<Object> disambiguate(Attribute<?> attribute, Object requested, Set<Object> candidates) {
             def result = new DefaultMultipleCandidateResult(requested, candidates)
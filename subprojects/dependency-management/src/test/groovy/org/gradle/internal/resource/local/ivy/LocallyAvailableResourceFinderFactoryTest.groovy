@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.resource.local.ivy
+
+import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheMetadata
+import org.gradle.api.internal.artifacts.mvnsettings.LocalMavenRepositoryLocator
+import org.gradle.internal.component.external.model.DefaultModuleComponentArtifactMetadata
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.external.model.ModuleComponentArtifactIdentifier
+import org.gradle.internal.component.model.DefaultIvyArtifactName
+import org.gradle.internal.hash.HashUtil
+import org.gradle.internal.resource.local.FileStoreSearcher
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class LocallyAvailableResourceFinderFactoryTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    def cacheMetadata = Stub(ArtifactCacheMetadata)
+    def mavenLocalLocator = Stub(LocalMavenRepositoryLocator)
+    def fileStore = Stub(FileStoreSearcher)
+    def artifact = new DefaultModuleComponentArtifactMetadata(DefaultModuleComponentIdentifier.newId("group", "module", "1.0"), new DefaultIvyArtifactName("module", "jar", "jar"))
+
+    def setup() {
+        cacheMetadata.cacheDir >> tmpDir.file("caches/modules-2")
+        mavenLocalLocator.localMavenRepository >> tmpDir.file("m2")
+        fileStore.search(_ as ModuleComponentArtifactIdentifier) >> Collections.emptySet()
+    }
+
+    def "finds candidates in the read-only file store"() {
+        given:
+        def readOnlyFileStore = tmpDir.createDir("ro/modules-2/files-2.1")
+        def jar = readOnlyFileStore.file("group/module/1.0/abc/module-1.0.jar").createFile()
+        jar.text = "content"
+        cacheMetadata.readOnlyFileStoreDirectory >> readOnlyFileStore
+
+        when:
+        def candidates = new LocallyAvailableResourceFinderFactory(cacheMetadata, mavenLocalLocator, fileStore).create().findCandidates(artifact)
+
+        then:
+        !candidates.none
+        candidates.findByHashValue(HashUtil.sha1(jar)).file == jar
+        candidates.findByHashValue(HashUtil.sha1("other".bytes)) == null
+    }
+
+    def "ignores a read-only file store that does not exist"() {
+        given:
+        cacheMetadata.readOnlyFileStoreDirectory >> tmpDir.file("missing")
+
+        when:
+        def candidates = new LocallyAvailableResourceFinderFactory(cacheMetadata, mavenLocalLocator, fileStore).create().findCandidates(artifact)
+
+        then:
+        candidates.none
+    }
+}
@@ -92,7 +92,12 @@ class TestWorkerLeaseService implements WorkerLeaseService {
 
             @Override
             WorkerLeaseRegistry.WorkerLeaseCompletion startChild() {
-                return null
+                return noOpCompletion()
+            }
+
+            @Override
+            WorkerLeaseRegistry.WorkerLeaseCompletion startChildren(int count) {
+                return noOpCompletion()
             }
 
             @Override
@@ -121,4 +126,12 @@ class TestWorkerLeaseService implements WorkerLeaseService {
             }
         }
     }
+
+    private static WorkerLeaseRegistry.WorkerLeaseCompletion noOpCompletion() {
+        return new WorkerLeaseRegistry.WorkerLeaseCompletion() {
+            @Override
+            void leaseFinish() {
+            }
+        }
+    }
 }
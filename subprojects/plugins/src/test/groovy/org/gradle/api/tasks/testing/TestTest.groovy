@@ -18,6 +18,7 @@ package org.gradle.api.tasks.testing
 
 import org.apache.commons.io.FileUtils
 import org.gradle.api.Action
+import org.gradle.api.InvalidUserDataException
 import org.gradle.api.file.FileCollection
 import org.gradle.api.file.FileTree
 import org.gradle.api.internal.ConventionTask
@@ -27,6 +28,10 @@ import org.gradle.api.internal.file.collections.DefaultFileCollectionResolveCont
 import org.gradle.api.internal.file.collections.DirectoryFileTree
 import org.gradle.api.internal.file.collections.FileTreeAdapter
 import org.gradle.api.internal.file.collections.ImmutableFileCollection
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.JvmTestExecutionSpec
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestExecuter
 import org.gradle.api.internal.tasks.testing.TestExecutionSpec
 import org.gradle.api.internal.tasks.testing.TestFramework
@@ -34,15 +39,21 @@ import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
 import org.gradle.api.internal.tasks.testing.detection.TestFrameworkDetector
 import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult
+import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider
+import org.gradle.api.internal.tasks.testing.processors.ShardingTestClassProcessor
 import org.gradle.api.internal.tasks.testing.report.TestReporter
 import org.gradle.api.tasks.AbstractConventionTaskTest
+import org.gradle.internal.SystemProperties
 import org.gradle.internal.work.WorkerLeaseRegistry
 import org.gradle.process.CommandLineArgumentProvider
 import org.gradle.process.internal.DefaultJavaForkOptions
 import org.gradle.process.internal.worker.WorkerProcessBuilder
+import org.gradle.workers.IsolationMode
 
 import java.lang.ref.WeakReference
+import java.nio.charset.Charset
 
 import static org.gradle.util.WrapUtil.toLinkedSet
 import static org.gradle.util.WrapUtil.toSet
@@ -194,6 +205,143 @@ class TestTest extends AbstractConventionTaskTest {
         test.getMaxParallelForks() == 1
     }
 
+    def "runs tests in a forked test process when in debug mode"() {
+        when:
+        test.setIsolationMode(IsolationMode.CLASSLOADER)
+        test.setDebug(true)
+
+        then:
+        test.getIsolationMode() == IsolationMode.PROCESS
+    }
+
+    def "cannot run tests without isolation"() {
+        when:
+        test.setIsolationMode(IsolationMode.AUTO)
+
+        then:
+        test.getIsolationMode() == IsolationMode.PROCESS
+
+        when:
+        test.setIsolationMode(IsolationMode.NONE)
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message == "Cannot set isolationMode to NONE, as tests must be isolated from the classes of the build."
+    }
+
+    def "runs JUnit tests with the default JVM settings in the build process"() {
+        given:
+        configureTask()
+        test.useJUnit()
+        test.setIsolationMode(IsolationMode.CLASSLOADER)
+        test.setEnableAssertions(true)
+        test.setWorkingDir(SystemProperties.instance.currentDir)
+
+        when:
+        test.executeTests()
+
+        then:
+        1 * testExecuterMock.execute({ JvmTestExecutionSpec spec -> spec.isolationMode == IsolationMode.CLASSLOADER }, _)
+    }
+
+    def "refuses to run tests in the build process when they use a file encoding other than that of the build"() {
+        def encoding = Charset.defaultCharset().name() == "UTF-16" ? "UTF-16LE" : "UTF-16"
+
+        given:
+        configureTask()
+        test.useJUnit()
+        test.setIsolationMode(IsolationMode.CLASSLOADER)
+        test.setDefaultCharacterEncoding(encoding)
+
+        when:
+        test.executeTests()
+
+        then:
+        def e = thrown(InvalidUserDataException)
+        e.message.contains("in the build process, as they use the JVM arguments [-Dfile.encoding=${encoding}].")
+        0 * testExecuterMock._
+    }
+
+    def "refuses to run tests in the build process when they need a JVM of their own"() {
+        given:
+        configureTask()
+        test.useJUnit()
+        test.setIsolationMode(IsolationMode.CLASSLOADER)
+        test.systemProperty("some.property", "value")
+
+        when:
+        test.executeTests()
+
+        then:
+        def e = thrown(InvalidUserDataException)
+        e.message.contains("in the build process, as they use the JVM arguments [-Dsome.property=value].")
+        0 * testExecuterMock._
+    }
+
+    def "refuses to run tests in the build process when they use a working directory other than that of the build process"() {
+        given:
+        configureTask()
+        test.useJUnit()
+        test.setIsolationMode(IsolationMode.CLASSLOADER)
+        test.setWorkingDir(temporaryFolder.createDir("workingDir"))
+
+        when:
+        test.executeTests()
+
+        then:
+        def e = thrown(InvalidUserDataException)
+        e.message.contains("in the build process, as they use the working directory '${test.workingDir}', which is not that of the build process.")
+        0 * testExecuterMock._
+    }
+
+    def "refuses to run tests in the build process for frameworks other than JUnit"() {
+        given:
+        configureTask()
+        test.setIsolationMode(IsolationMode.CLASSLOADER)
+
+        when:
+        test.executeTests()
+
+        then:
+        def e = thrown(InvalidUserDataException)
+        e.message.contains("in the build process, as only JUnit and JUnit Platform tests can run in the build process.")
+        0 * testExecuterMock._
+    }
+
+    def "splits test classes between shards the same way whatever the durations of previous local runs"() {
+        given:
+        def classes = ('A'..'H').collect { it + "Test" }
+        def specs = []
+        testExecuterMock.execute(_, _) >> { JvmTestExecutionSpec spec, TestResultProcessor processor -> specs << spec }
+
+        when:
+        executeShard("agent1Test", "1/2", [ATest: 5000L, BTest: 4000L, CTest: 10L])
+        executeShard("agent2Test", "2/2", [HTest: 9000L, GTest: 20L])
+        def shard1 = testClassesOfShard(specs[0], classes)
+        def shard2 = testClassesOfShard(specs[1], classes)
+
+        then:
+        specs*.shardTestClassDurations == [[:], [:]]
+        (shard1 + shard2).sort() == classes
+        !shard1.empty
+        !shard2.empty
+    }
+
+    def "splits test classes between shards by the given durations"() {
+        given:
+        configureTask()
+        def durations = temporaryFolder.createFile("durations.properties")
+        durations.text = "ATest=100\nBTest = 20\n"
+        test.setShard("1/2")
+        test.setShardDurations(durations)
+
+        when:
+        test.executeTests()
+
+        then:
+        1 * testExecuterMock.execute({ JvmTestExecutionSpec spec -> spec.shardTestClassDurations == [ATest: 100L, BTest: 20L] }, _)
+    }
+
     def "test includes"() {
         expect:
         test.is(test.include(TEST_PATTERN_1, TEST_PATTERN_2))
@@ -290,14 +438,35 @@ class TestTest extends AbstractConventionTaskTest {
         assert directoryFileTree.getPatterns().getExcludes() == excludes
     }
 
-    private void configureTask() {
-        test.useTestFramework(testFrameworkMock)
-        test.setTestExecuter(testExecuterMock)
+    private void configureTask(Test task = test) {
+        task.useTestFramework(testFrameworkMock)
+        task.setTestExecuter(testExecuterMock)
+
+        task.setTestClassesDir(classesDir)
+        task.getReports().getJunitXml().setDestination(resultsDir)
+        task.setBinResultsDir(binResultsDir)
+        task.getReports().getHtml().setDestination(reportDir)
+        task.setClasspath(classpathMock)
+    }
+
+    private void executeShard(String taskName, String shard, Map<String, Long> localDurations) {
+        def task = createTask(Test, project, taskName)
+        configureTask(task)
+        task.setShard(shard)
+        task.testClassDurationStore.update(localDurations.collect { className, duration ->
+            new TestClassResult(1, className, 0).add(new TestMethodResult(1, "test", TestResult.ResultType.SUCCESS, duration, duration))
+        })
+        task.executeTests()
+    }
 
-        test.setTestClassesDir(classesDir)
-        test.getReports().getJunitXml().setDestination(resultsDir)
-        test.setBinResultsDir(binResultsDir)
-        test.getReports().getHtml().setDestination(reportDir)
-        test.setClasspath(classpathMock)
+    private static List<String> testClassesOfShard(JvmTestExecutionSpec spec, List<String> classes) {
+        def received = []
+        def delegate = Stub(TestClassProcessor) {
+            processTestClass(_) >> { TestClassRunInfo testClass -> received << testClass.testClassName }
+        }
+        def processor = new ShardingTestClassProcessor(spec.shard, spec.shardTestClassDurations, delegate)
+        classes.each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+        processor.stop()
+        return received
     }
 }
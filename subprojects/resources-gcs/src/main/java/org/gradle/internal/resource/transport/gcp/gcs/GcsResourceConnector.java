@@ -61,6 +61,17 @@ public class GcsResourceConnector implements ExternalResourceConnector {
         return new GcsResource(gcsClient, gcsObject, location);
     }
 
+    @Override
+    public boolean supportsConditionalRequests() {
+        return false;
+    }
+
+    @Nullable
+    @Override
+    public ExternalResourceReadResponse openResourceIfModified(URI location, ExternalResourceMetaData cached) throws ResourceException {
+        throw new UnsupportedOperationException();
+    }
+
     @Nullable
     @Override
     public ExternalResourceMetaData getMetaData(URI location, boolean revalidate) throws ResourceException {
@@ -27,6 +27,7 @@ import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.DateUtils;
 import org.apache.http.client.utils.HttpClientUtils;
 import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
@@ -36,8 +37,10 @@ import org.apache.http.protocol.HttpContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Date;
 import java.util.Locale;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
@@ -49,6 +52,7 @@ public class HttpClientHelper implements Closeable {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientHelper.class);
     private CloseableHttpClient client;
     private final HttpSettings settings;
+    private final HttpConnectionPool connectionPool;
 
     /**
      * Maintains a queue of contexts which are shared between threads when authentication
@@ -60,7 +64,15 @@ public class HttpClientHelper implements Closeable {
     private final ConcurrentLinkedQueue<HttpContext> sharedContext;
 
     public HttpClientHelper(HttpSettings settings) {
+        this(settings, null);
+    }
+
+    /**
+     * Creates a helper that leases its connections from the given pool, when not null, instead of opening its own.
+     */
+    public HttpClientHelper(HttpSettings settings, @Nullable HttpConnectionPool connectionPool) {
         this.settings = settings;
+        this.connectionPool = connectionPool;
         if (!settings.getAuthenticationSettings().isEmpty()) {
             sharedContext = new ConcurrentLinkedQueue<HttpContext>();
         } else {
@@ -84,6 +96,30 @@ public class HttpClientHelper implements Closeable {
         return processResponse(source, "GET", performRawGet(source, revalidate));
     }
 
+    /**
+     * Performs a GET that only transfers the content when it does not match the given validators. An unchanged resource results in a 304 response without content.
+     */
+    public CloseableHttpResponse performConditionalGet(String source, @Nullable String etag, @Nullable Date lastModified) {
+        HttpGet request = new HttpGet(source);
+        if (etag != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+        if (lastModified != null) {
+            request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, DateUtils.formatDate(lastModified));
+        }
+        return processResponse(source, "GET", performRequest(request, true));
+    }
+
+    /**
+     * Performs a GET for the content from the given offset onwards, provided the resource still matches the given validator. A changed resource results in a 200 response with the complete content.
+     */
+    public CloseableHttpResponse performRangedGet(String source, long offset, String validator) {
+        HttpGet request = new HttpGet(source);
+        request.addHeader(HttpHeaders.RANGE, "bytes=" + offset + "-");
+        request.addHeader(HttpHeaders.IF_RANGE, validator);
+        return processResponse(source, "GET", performRequest(request, false));
+    }
+
     public CloseableHttpResponse performRequest(HttpRequestBase request, boolean revalidate) {
         String method = request.getMethod();
         if (revalidate) {
@@ -165,6 +201,10 @@ public class HttpClientHelper implements Closeable {
         if (client == null) {
             HttpClientBuilder builder = HttpClientBuilder.create();
             new HttpClientConfigurer(settings).configure(builder);
+            if (connectionPool != null) {
+                builder.setConnectionManager(connectionPool.getConnectionManager(settings));
+                builder.setConnectionManagerShared(true);
+            }
             this.client = builder.build();
         }
         return client;
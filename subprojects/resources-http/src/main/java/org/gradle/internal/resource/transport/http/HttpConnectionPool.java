@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import javax.net.ssl.SSLContext;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pool of HTTP connections shared by all repositories for the lifetime of the process. Connections to a repository host are
+ * kept alive and reused by later resolutions, rather than each resolution opening its own connections and discarding them.
+ *
+ * <p>The number of concurrent connections to each host is bounded by {@link HttpConnectionSettings#getMaxConnectionsPerRoute()},
+ * so parallel downloads from the same repository wait for a free connection instead of opening more.</p>
+ */
+public class HttpConnectionPool implements Closeable {
+    private static final long IDLE_CONNECTION_TIMEOUT_MS = 30000;
+
+    private SSLContext sslContext;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private final List<PoolingHttpClientConnectionManager> replacedConnectionManagers = new ArrayList<PoolingHttpClientConnectionManager>();
+
+    /**
+     * Returns the shared connection manager, configured with the limits and timeouts of the given settings. The connection manager
+     * must not be shut down by the client that uses it.
+     */
+    public synchronized HttpClientConnectionManager getConnectionManager(HttpSettings settings) {
+        SSLContext sslContext = settings.getSslContextFactory().createSslContext();
+        if (connectionManager == null || sslContext != this.sslContext) {
+            if (connectionManager != null) {
+                // The SSL configuration has changed, so stop reusing connections that were established with the old one.
+                // Clients that are still using the old pool keep it until they have returned their connections.
+                connectionManager.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+                replacedConnectionManagers.add(connectionManager);
+            }
+            this.sslContext = sslContext;
+            this.connectionManager = createConnectionManager(sslContext, settings);
+        }
+
+        HttpConnectionSettings connectionSettings = settings.getConnectionSettings();
+        connectionManager.setMaxTotal(connectionSettings.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(connectionSettings.getMaxConnectionsPerRoute());
+        connectionManager.setDefaultSocketConfig(SocketConfig.custom().setSoTimeout(settings.getTimeoutSettings().getSocketTimeoutMs()).build());
+        connectionManager.closeExpiredConnections();
+        connectionManager.closeIdleConnections(IDLE_CONNECTION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        shutDownUnusedReplacedConnectionManagers();
+        return connectionManager;
+    }
+
+    private void shutDownUnusedReplacedConnectionManagers() {
+        Iterator<PoolingHttpClientConnectionManager> iterator = replacedConnectionManagers.iterator();
+        while (iterator.hasNext()) {
+            PoolingHttpClientConnectionManager replaced = iterator.next();
+            if (replaced.getTotalStats().getLeased() == 0) {
+                replaced.shutdown();
+                iterator.remove();
+            }
+        }
+    }
+
+    private static PoolingHttpClientConnectionManager createConnectionManager(SSLContext sslContext, HttpSettings settings) {
+        Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+            .register("http", PlainConnectionSocketFactory.getSocketFactory())
+            .register("https", new SSLConnectionSocketFactory(sslContext, settings.getHostnameVerifier()))
+            .build();
+        return new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+    }
+
+    @Override
+    public synchronized void close() {
+        for (PoolingHttpClientConnectionManager replaced : replacedConnectionManagers) {
+            replaced.shutdown();
+        }
+        replacedConnectionManagers.clear();
+        if (connectionManager != null) {
+            connectionManager.shutdown();
+            connectionManager = null;
+            sslContext = null;
+        }
+    }
+}
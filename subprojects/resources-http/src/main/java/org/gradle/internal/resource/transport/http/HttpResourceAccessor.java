@@ -16,9 +16,11 @@
 
 package org.gradle.internal.resource.transport.http;
 
+import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.gradle.internal.IoActions;
 import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
+import org.gradle.internal.resource.metadata.ExternalResourceMetaDataCompare;
 import org.gradle.internal.resource.transfer.ExternalResourceAccessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +50,31 @@ public class HttpResourceAccessor implements ExternalResourceAccessor {
         return null;
     }
 
+    @Override
+    public boolean supportsConditionalRequests() {
+        return true;
+    }
+
+    @Nullable
+    @Override
+    public HttpResponseResource openResourceIfModified(URI uri, ExternalResourceMetaData cached) {
+        if (!ExternalResourceMetaDataCompare.canDetermineIfUnchanged(cached)) {
+            return openResource(uri, true);
+        }
+        String location = uri.toString();
+        LOGGER.debug("Revalidating external resource: {}", location);
+
+        CloseableHttpResponse response = http.performConditionalGet(location, cached.getEtag(), cached.getLastModified());
+        if (response == null) {
+            return null;
+        }
+        if (response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+            LOGGER.debug("External resource is unchanged: {}", location);
+            return new HttpResponseResource("GET", uri, response, cached);
+        }
+        return wrapResponse(uri, response);
+    }
+
     /**
      * Same as #getResource except that it always gives access to the response body,
      * irrespective of the returned HTTP status code. Never returns {@code null}.
@@ -77,7 +104,7 @@ public class HttpResourceAccessor implements ExternalResourceAccessor {
     }
 
     private HttpResponseResource wrapResponse(URI uri, CloseableHttpResponse response) {
-        return new HttpResponseResource("GET", uri, response);
+        return new HttpResponseResource("GET", uri, response, http);
     }
 
 }
@@ -19,6 +19,7 @@ import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.utils.DateUtils;
 import org.apache.http.client.utils.HttpClientUtils;
@@ -29,6 +30,7 @@ import org.gradle.internal.resource.transfer.ExternalResourceReadResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -40,17 +42,37 @@ public class HttpResponseResource implements ExternalResourceReadResponse {
     private final URI source;
     private final CloseableHttpResponse response;
     private final ExternalResourceMetaData metaData;
+    private final HttpClientHelper http;
     private boolean wasOpened;
 
     public HttpResponseResource(String method, URI source, CloseableHttpResponse response) {
+        this(method, source, response, (HttpClientHelper) null);
+    }
+
+    /**
+     * Creates a resource whose content is read using the given client, when not null, to resume reading the content when the connection fails part way through.
+     */
+    public HttpResponseResource(String method, URI source, CloseableHttpResponse response, @Nullable HttpClientHelper http) {
         this.method = method;
         this.source = source;
         this.response = response;
+        this.http = http;
 
         String etag = getEtag(response);
         this.metaData = new DefaultExternalResourceMetaData(source, getLastModified(), getContentLength(), getContentType(), etag, getSha1(response, etag));
     }
 
+    /**
+     * Creates a resource for a response that carries no meta-data of its own, such as a 304 response to a conditional request, using the given meta-data instead.
+     */
+    public HttpResponseResource(String method, URI source, CloseableHttpResponse response, ExternalResourceMetaData metaData) {
+        this.method = method;
+        this.source = source;
+        this.response = response;
+        this.metaData = metaData;
+        this.http = null;
+    }
+
     public URI getURI() {
         return source;
     }
@@ -122,7 +144,33 @@ public class HttpResponseResource implements ExternalResourceReadResponse {
         if (entity == null) {
             throw new IOException(String.format("Response %d: %s has no content!", getStatusCode(), response.getStatusLine().getReasonPhrase()));
         }
-        return entity.getContent();
+        InputStream content = entity.getContent();
+        String validator = getRangeValidator();
+        if (validator != null) {
+            return new ResumingHttpInputStream(http, source.toString(), validator, metaData.getContentLength(), response, content);
+        }
+        return content;
+    }
+
+    /**
+     * Returns the validator to make a request for the rest of the content conditional on, or null when the content cannot be resumed.
+     * This requires a complete response of known length from a server that accepts byte ranges.
+     */
+    @Nullable
+    private String getRangeValidator() {
+        if (http == null || !method.equals("GET") || getStatusCode() != HttpStatus.SC_OK || metaData.getContentLength() <= 0) {
+            return null;
+        }
+        String acceptRanges = getHeaderValue(HttpHeaders.ACCEPT_RANGES);
+        if (acceptRanges == null || !acceptRanges.contains("bytes")) {
+            return null;
+        }
+        // A range request can only be conditional on a strong validator
+        String etag = metaData.getEtag();
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return getHeaderValue(HttpHeaders.LAST_MODIFIED);
     }
 
     @Override
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.utils.HttpClientUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the content of a GET response and, when the connection fails part way through, continues from where it failed using a ranged request
+ * rather than failing the download. The ranged request is conditional on the resource being unchanged, so the content is never mixed from two versions.
+ */
+class ResumingHttpInputStream extends InputStream {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResumingHttpInputStream.class);
+    static final int MAX_RESUMES = 3;
+
+    private final HttpClientHelper http;
+    private final String source;
+    private final String validator;
+    private final long contentLength;
+    private CloseableHttpResponse response;
+    private InputStream content;
+    private long position;
+    private int resumes;
+
+    ResumingHttpInputStream(HttpClientHelper http, String source, String validator, long contentLength, CloseableHttpResponse response, InputStream content) {
+        this.http = http;
+        this.source = source;
+        this.validator = validator;
+        this.contentLength = contentLength;
+        this.response = response;
+        this.content = content;
+    }
+
+    @Override
+    public int read() throws IOException {
+        while (true) {
+            try {
+                int value = content.read();
+                if (value >= 0) {
+                    position++;
+                }
+                return value;
+            } catch (IOException e) {
+                resume(e);
+            }
+        }
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        while (true) {
+            try {
+                int count = content.read(buffer, offset, length);
+                if (count > 0) {
+                    position += count;
+                }
+                return count;
+            } catch (IOException e) {
+                resume(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        content.close();
+    }
+
+    private void resume(IOException failure) throws IOException {
+        if (resumes >= MAX_RESUMES || position >= contentLength) {
+            throw failure;
+        }
+        resumes++;
+        LOGGER.info("Resuming download of {} from byte {} after failure: {}", source, position, failure.getMessage());
+        HttpClientUtils.closeQuietly(response);
+
+        CloseableHttpResponse resumed;
+        try {
+            resumed = http.performRangedGet(source, position, validator);
+        } catch (RuntimeException e) {
+            LOGGER.debug("Could not resume download of {}.", source, e);
+            throw failure;
+        }
+        if (resumed == null) {
+            throw failure;
+        }
+        if (!continuesFromPosition(resumed)) {
+            // The resource has changed, or the server ignored the range
+            LOGGER.info("Could not resume download of {}. [HTTP GET: {}]", source, resumed.getStatusLine());
+            HttpClientUtils.closeQuietly(resumed);
+            throw failure;
+        }
+        response = resumed;
+        content = resumed.getEntity().getContent();
+    }
+
+    private boolean continuesFromPosition(CloseableHttpResponse resumed) {
+        if (resumed.getStatusLine().getStatusCode() != HttpStatus.SC_PARTIAL_CONTENT) {
+            return false;
+        }
+        HttpEntity entity = resumed.getEntity();
+        Header contentRange = resumed.getFirstHeader(HttpHeaders.CONTENT_RANGE);
+        return entity != null && contentRange != null && contentRange.getValue().startsWith("bytes " + position + "-");
+    }
+}
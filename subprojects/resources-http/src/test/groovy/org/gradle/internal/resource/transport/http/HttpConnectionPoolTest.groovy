@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import org.apache.http.HttpHost
+import org.apache.http.conn.routing.HttpRoute
+import org.apache.http.conn.ssl.DefaultHostnameVerifier
+import org.apache.http.ssl.SSLContexts
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class HttpConnectionPoolTest extends Specification {
+    def sslContext = SSLContexts.createDefault()
+    def sslContextFactory = Stub(SslContextFactory) {
+        createSslContext() >> { sslContext }
+    }
+    def connectionSettings = Stub(HttpConnectionSettings) {
+        getMaxConnections() >> 30
+        getMaxConnectionsPerRoute() >> 3
+    }
+    def settings = Stub(HttpSettings) {
+        getSslContextFactory() >> sslContextFactory
+        getHostnameVerifier() >> new DefaultHostnameVerifier(null)
+        getConnectionSettings() >> connectionSettings
+        getTimeoutSettings() >> Stub(HttpTimeoutSettings) {
+            getSocketTimeoutMs() >> 1000
+        }
+    }
+    def route = new HttpRoute(new HttpHost("localhost", 80))
+    def pool = new HttpConnectionPool()
+
+    def cleanup() {
+        pool.close()
+    }
+
+    def "reuses connection manager configured with connection limits"() {
+        when:
+        def manager = pool.getConnectionManager(settings)
+
+        then:
+        manager.maxTotal == 30
+        manager.defaultMaxPerRoute == 3
+        manager.defaultSocketConfig.soTimeout == 1000
+
+        and:
+        pool.getConnectionManager(settings).is(manager)
+    }
+
+    def "creates new connection manager when ssl context changes"() {
+        def manager = pool.getConnectionManager(settings)
+
+        when:
+        sslContext = SSLContexts.createDefault()
+
+        then:
+        !pool.getConnectionManager(settings).is(manager)
+    }
+
+    def "shuts down replaced connection manager once it has no leased connections"() {
+        def manager = pool.getConnectionManager(settings)
+
+        when:
+        sslContext = SSLContexts.createDefault()
+        pool.getConnectionManager(settings)
+        manager.requestConnection(route, null)
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "shuts down replaced connection manager with leased connections when closed"() {
+        def manager = pool.getConnectionManager(settings)
+        def connection = manager.requestConnection(route, null).get(1, TimeUnit.SECONDS)
+
+        when:
+        sslContext = SSLContexts.createDefault()
+        pool.getConnectionManager(settings)
+
+        then:
+        manager.totalStats.leased == 1
+
+        when:
+        manager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS)
+        pool.close()
+        manager.requestConnection(route, null)
+
+        then:
+        thrown(IllegalStateException)
+    }
+}
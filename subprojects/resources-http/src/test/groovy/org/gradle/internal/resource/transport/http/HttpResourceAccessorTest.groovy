@@ -16,7 +16,10 @@
 
 package org.gradle.internal.resource.transport.http
 
+import org.apache.http.HttpVersion
 import org.apache.http.client.methods.CloseableHttpResponse
+import org.apache.http.message.BasicStatusLine
+import org.gradle.internal.resource.metadata.DefaultExternalResourceMetaData
 import spock.lang.Specification
 
 class HttpResourceAccessorTest  extends Specification {
@@ -34,4 +37,49 @@ class HttpResourceAccessorTest  extends Specification {
         then:
         1 * response.close()
     }
+
+    def "revalidates cached resource with a conditional request and uses cached meta-data when unchanged"() {
+        def cached = new DefaultExternalResourceMetaData(uri, 1000L, 12L, null, '"abc"', null)
+        def response = Mock(CloseableHttpResponse) {
+            getStatusLine() >> new BasicStatusLine(HttpVersion.HTTP_1_1, 304, "Not Modified")
+        }
+        def http = Mock(HttpClientHelper)
+
+        when:
+        def resource = new HttpResourceAccessor(http).openResourceIfModified(uri, cached)
+
+        then:
+        resource.metaData.is(cached)
+        1 * http.performConditionalGet(uri.toString(), '"abc"', new Date(1000L)) >> response
+        0 * http._
+    }
+
+    def "reads resource when it has changed since it was cached"() {
+        def cached = new DefaultExternalResourceMetaData(uri, 1000L, 12L, null, '"abc"', null)
+        def response = Mock(CloseableHttpResponse) {
+            getStatusLine() >> new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK")
+        }
+        def http = Mock(HttpClientHelper)
+
+        when:
+        def resource = new HttpResourceAccessor(http).openResourceIfModified(uri, cached)
+
+        then:
+        !resource.metaData.is(cached)
+        1 * http.performConditionalGet(uri.toString(), '"abc"', new Date(1000L)) >> response
+        0 * http._
+    }
+
+    def "makes an unconditional request when cached meta-data cannot be used to revalidate the resource"() {
+        def cached = new DefaultExternalResourceMetaData(uri, 0L, -1L, null, null, null)
+        def http = Mock(HttpClientHelper)
+
+        when:
+        def resource = new HttpResourceAccessor(http).openResourceIfModified(uri, cached)
+
+        then:
+        resource == null
+        1 * http.performGet(uri.toString(), true) >> null
+        0 * http._
+    }
 }
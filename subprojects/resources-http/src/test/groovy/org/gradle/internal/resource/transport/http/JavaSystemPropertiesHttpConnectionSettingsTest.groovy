@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import org.gradle.testing.internal.util.Specification
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+
+import static org.gradle.internal.resource.transport.http.JavaSystemPropertiesHttpConnectionSettings.*
+
+class JavaSystemPropertiesHttpConnectionSettingsTest extends Specification {
+
+    @Rule SetSystemProperties setSystemProperties = new SetSystemProperties()
+
+    def "can retrieve default values"() {
+        JavaSystemPropertiesHttpConnectionSettings settings = new JavaSystemPropertiesHttpConnectionSettings()
+
+        expect:
+        settings.maxConnectionsPerRoute == DEFAULT_MAX_CONNECTIONS_PER_ROUTE
+        settings.maxConnections == DEFAULT_MAX_CONNECTIONS
+    }
+
+    def "can parse custom value from system property"() {
+        System.setProperty(MAX_CONNECTIONS_PER_ROUTE_SYSTEM_PROPERTY, "4")
+        System.setProperty(MAX_CONNECTIONS_SYSTEM_PROPERTY, "40")
+        JavaSystemPropertiesHttpConnectionSettings settings = new JavaSystemPropertiesHttpConnectionSettings()
+
+        expect:
+        settings.maxConnectionsPerRoute == 4
+        settings.maxConnections == 40
+    }
+
+    def "uses default value if provided connection limit is not valid"() {
+        System.setProperty(MAX_CONNECTIONS_PER_ROUTE_SYSTEM_PROPERTY, limit)
+        System.setProperty(MAX_CONNECTIONS_SYSTEM_PROPERTY, limit)
+        JavaSystemPropertiesHttpConnectionSettings settings = new JavaSystemPropertiesHttpConnectionSettings()
+
+        expect:
+        settings.maxConnectionsPerRoute == DEFAULT_MAX_CONNECTIONS_PER_ROUTE
+        settings.maxConnections == DEFAULT_MAX_CONNECTIONS
+
+        where:
+        limit << ["", "abc", "0", "-1"]
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import org.apache.http.ssl.SSLContexts
+import org.junit.Rule
+import org.junit.rules.ExternalResource
+import org.mortbay.jetty.HttpConnection
+import org.mortbay.jetty.Server
+import org.mortbay.jetty.handler.AbstractHandler
+import spock.lang.Specification
+
+import javax.servlet.http.HttpServletRequest
+import javax.servlet.http.HttpServletResponse
+
+class ResumingHttpInputStreamTest extends Specification {
+    static final byte[] CONTENT = (0..<100000).collect { (byte) it }
+
+    @Rule InterruptingHttpServer httpServer = new InterruptingHttpServer()
+    def accessor = new HttpResourceAccessor(new HttpClientHelper(httpSettings))
+
+    def "resumes reading from where the connection failed"() {
+        when:
+        def content = read()
+
+        then:
+        content == CONTENT
+        httpServer.rangeHeaders == [null, "bytes=40000-"]
+    }
+
+    def "fails when the resource has changed since the connection failed"() {
+        given:
+        httpServer.etag = '"changed"'
+
+        when:
+        read()
+
+        then:
+        thrown(IOException)
+        httpServer.rangeHeaders == [null, "bytes=40000-"]
+    }
+
+    def "does not resume content from a server that does not accept byte ranges"() {
+        given:
+        httpServer.acceptRanges = false
+
+        when:
+        read()
+
+        then:
+        thrown(IOException)
+        httpServer.rangeHeaders == [null]
+    }
+
+    private byte[] read() {
+        def resource = accessor.openResource(httpServer.uri, false)
+        try {
+            return resource.openStream().bytes
+        } finally {
+            resource.close()
+        }
+    }
+
+    /**
+     * Serves {@link #CONTENT}, dropping the connection part way through the first response.
+     */
+    static class InterruptingHttpServer extends ExternalResource {
+        private final Server server = new Server(0)
+        final List<String> rangeHeaders = []
+        String etag = '"v1"'
+        boolean acceptRanges = true
+
+        @Override
+        protected void before() {
+            server.addHandler(new AbstractHandler() {
+                void handle(String target, HttpServletRequest request, HttpServletResponse response, int dispatch) {
+                    String range = request.getHeader("Range")
+                    rangeHeaders << range
+                    if (acceptRanges) {
+                        response.setHeader("Accept-Ranges", "bytes")
+                    }
+                    if (range == null) {
+                        response.setHeader("ETag", '"v1"')
+                        response.setContentLength(CONTENT.length)
+                        response.outputStream.write(CONTENT, 0, 40000)
+                        response.outputStream.flush()
+                        HttpConnection.currentConnection.endPoint.close()
+                    } else if (request.getHeader("If-Range") == etag) {
+                        int offset = range.substring("bytes=".length(), range.length() - 1) as int
+                        response.status = 206
+                        response.setHeader("ETag", etag)
+                        response.setHeader("Content-Range", "bytes ${offset}-${CONTENT.length - 1}/${CONTENT.length}")
+                        response.setContentLength(CONTENT.length - offset)
+                        response.outputStream.write(CONTENT, offset, CONTENT.length - offset)
+                    } else {
+                        response.setHeader("ETag", etag)
+                        response.setContentLength(CONTENT.length)
+                        response.outputStream.write(CONTENT)
+                    }
+                    request.handled = true
+                }
+            })
+            server.start()
+        }
+
+        @Override
+        protected void after() {
+            server.stop()
+        }
+
+        URI getUri() {
+            new URI("http://localhost:${server.connectors[0].localPort}/artifact.jar")
+        }
+    }
+
+    private HttpSettings getHttpSettings() {
+        Stub(HttpSettings) {
+            getProxySettings() >> Mock(HttpProxySettings)
+            getSecureProxySettings() >> Mock(HttpProxySettings)
+            getTimeoutSettings() >> new JavaSystemPropertiesHttpTimeoutSettings()
+            getSslContextFactory() >> Mock(SslContextFactory) {
+                createSslContext() >> SSLContexts.createDefault()
+            }
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package org.gradle.internal.resource;
 
 import org.gradle.api.Transformer;
+import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
 
 import java.io.File;
 import java.io.InputStream;
@@ -50,4 +51,9 @@ public abstract class AbstractExternalResource implements ExternalResource {
         }
         return result;
     }
+
+    @Override
+    public <T> ExternalResourceReadResult<T> withContentIfModified(ExternalResourceMetaData cached, ContentAction<? extends T> readAction) {
+        return withContentIfPresent(readAction);
+    }
 }
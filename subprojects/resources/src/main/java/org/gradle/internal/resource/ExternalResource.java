@@ -108,6 +108,17 @@ public interface ExternalResource extends Resource {
     @Nullable
     <T> ExternalResourceReadResult<T> withContentIfPresent(ContentAction<? extends T> readAction) throws ResourceException;
 
+    /**
+     * Executes the given action against the binary contents and meta-data of this resource, if the resource exists and may have changed since the given meta-data was obtained.
+     * Where the transport supports it, the check and the read are made using a single conditional request.
+     *
+     * @param cached The meta-data of the copy of this resource that the caller already has.
+     * @throws ResourceException on failure to read the content.
+     * @return null if the resource does not exist. When the resource is unchanged, the action is not executed and a result with no value is returned.
+     */
+    @Nullable
+    <T> ExternalResourceReadResult<T> withContentIfModified(ExternalResourceMetaData cached, ContentAction<? extends T> readAction) throws ResourceException;
+
     /**
      * Copies the given content to this resource.
      *
@@ -120,4 +120,10 @@ public class DefaultLocallyAvailableExternalResource implements LocallyAvailable
     public <T> ExternalResourceReadResult<T> withContentIfPresent(ContentAction<? extends T> readAction) throws ResourceException {
         return localFile.withContentIfPresent(readAction);
     }
+
+    @Override
+    @Nullable
+    public <T> ExternalResourceReadResult<T> withContentIfModified(ExternalResourceMetaData cached, ContentAction<? extends T> readAction) throws ResourceException {
+        return localFile.withContentIfModified(cached, readAction);
+    }
 }
@@ -22,22 +22,27 @@ import javax.annotation.Nullable;
 import java.util.Date;
 
 public abstract class ExternalResourceMetaDataCompare {
-    public static boolean isDefinitelyUnchanged(@Nullable ExternalResourceMetaData local, Factory<ExternalResourceMetaData> remoteFactory) {
+    /**
+     * Returns true when the given meta-data holds enough information to tell whether the resource has changed.
+     */
+    public static boolean canDetermineIfUnchanged(@Nullable ExternalResourceMetaData local) {
         if (local == null) {
             return false;
         }
+        if (local.getEtag() != null) {
+            return true;
+        }
+        return local.getLastModified() != null && local.getContentLength() >= 1;
+    }
 
-        String localEtag = local.getEtag();
-
-        Date localLastModified = local.getLastModified();
-        if (localEtag == null && localLastModified == null) {
+    public static boolean isDefinitelyUnchanged(@Nullable ExternalResourceMetaData local, Factory<ExternalResourceMetaData> remoteFactory) {
+        if (!canDetermineIfUnchanged(local)) {
             return false;
         }
 
+        String localEtag = local.getEtag();
+        Date localLastModified = local.getLastModified();
         long localContentLength = local.getContentLength();
-        if (localEtag == null && localContentLength < 1) {
-            return false;
-        }
 
         // We have enough local data to make a comparison, get the remote metadata
         ExternalResourceMetaData remote = remoteFactory.create();
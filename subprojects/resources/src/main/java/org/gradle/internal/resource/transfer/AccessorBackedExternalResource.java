@@ -21,6 +21,7 @@ import org.apache.commons.io.IOUtils;
 import org.gradle.api.Action;
 import org.gradle.api.Transformer;
 import org.gradle.api.resources.ResourceException;
+import org.gradle.internal.Factory;
 import org.gradle.internal.resource.AbstractExternalResource;
 import org.gradle.internal.resource.ExternalResourceName;
 import org.gradle.internal.resource.ExternalResourceReadResult;
@@ -28,6 +29,7 @@ import org.gradle.internal.resource.ExternalResourceWriteResult;
 import org.gradle.internal.resource.ReadableContent;
 import org.gradle.internal.resource.ResourceExceptions;
 import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
+import org.gradle.internal.resource.metadata.ExternalResourceMetaDataCompare;
 
 import javax.annotation.Nullable;
 import java.io.BufferedInputStream;
@@ -147,6 +149,53 @@ public class AccessorBackedExternalResource extends AbstractExternalResource {
         }
     }
 
+    @Nullable
+    @Override
+    public <T> ExternalResourceReadResult<T> withContentIfModified(ExternalResourceMetaData cached, ContentAction<? extends T> readAction) throws ResourceException {
+        if (!accessor.supportsConditionalRequests()) {
+            final ExternalResourceMetaData remoteMetaData = accessor.getMetaData(name.getUri(), revalidate);
+            if (remoteMetaData == null) {
+                return null;
+            }
+            if (ExternalResourceMetaDataCompare.isDefinitelyUnchanged(cached, new Factory<ExternalResourceMetaData>() {
+                @Override
+                public ExternalResourceMetaData create() {
+                    return remoteMetaData;
+                }
+            })) {
+                return ExternalResourceReadResult.<T>of(0, null);
+            }
+            return withContentIfPresent(readAction);
+        }
+        try {
+            final ExternalResourceReadResponse response = accessor.openResourceIfModified(name.getUri(), cached);
+            if (response == null) {
+                return null;
+            }
+            try {
+                if (ExternalResourceMetaDataCompare.isDefinitelyUnchanged(cached, new Factory<ExternalResourceMetaData>() {
+                    @Override
+                    public ExternalResourceMetaData create() {
+                        return response.getMetaData();
+                    }
+                })) {
+                    return ExternalResourceReadResult.<T>of(0, null);
+                }
+                CountingInputStream stream = new CountingInputStream(new BufferedInputStream(response.openStream()));
+                try {
+                    T value = readAction.execute(stream, response.getMetaData());
+                    return ExternalResourceReadResult.of(stream.getCount(), value);
+                } finally {
+                    stream.close();
+                }
+            } finally {
+                response.close();
+            }
+        } catch (IOException e) {
+            throw ResourceExceptions.getFailed(name.getUri(), e);
+        }
+    }
+
     @Override
     public ExternalResourceReadResult<Void> withContent(Action<? super InputStream> readAction) throws ResourceException {
         try {
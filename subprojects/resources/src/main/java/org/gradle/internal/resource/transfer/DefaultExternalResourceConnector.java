@@ -56,6 +56,18 @@ public class DefaultExternalResourceConnector implements ExternalResourceConnect
         return accessor.openResource(location, revalidate);
     }
 
+    @Override
+    public boolean supportsConditionalRequests() {
+        return accessor.supportsConditionalRequests();
+    }
+
+    @Nullable
+    @Override
+    public ExternalResourceReadResponse openResourceIfModified(URI location, ExternalResourceMetaData cached) {
+        STATS.resource(location);
+        return accessor.openResourceIfModified(location, cached);
+    }
+
     @Nullable
     @Override
     public ExternalResourceMetaData getMetaData(URI location, boolean revalidate) {
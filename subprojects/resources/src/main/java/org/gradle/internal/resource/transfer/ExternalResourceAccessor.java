@@ -40,6 +40,26 @@ public interface ExternalResourceAccessor {
     @Nullable
     ExternalResourceReadResponse openResource(URI location, boolean revalidate) throws ResourceException;
 
+    /**
+     * Returns true when this accessor can revalidate a resource and read any changes using a single conditional request, see {@link #openResourceIfModified(URI, ExternalResourceMetaData)}.
+     */
+    boolean supportsConditionalRequests();
+
+    /**
+     * Read the resource at the given location, revalidating the given cached meta-data as part of the request.
+     * Must only be called when {@link #supportsConditionalRequests()} returns true.
+     *
+     * When the resource is unchanged, the implementation may return a response without content whose meta-data is the given cached meta-data.
+     * The caller must compare the meta-data of the response with the cached meta-data before reading any content.
+     *
+     * @param location The address of the resource to obtain
+     * @param cached The meta-data of the copy of the resource that the caller already has
+     * @return The resource if it exists, otherwise null. Caller is responsible for closing the result.
+     * @throws ResourceException If the resource may exist, but not could be obtained for some reason.
+     */
+    @Nullable
+    ExternalResourceReadResponse openResourceIfModified(URI location, ExternalResourceMetaData cached) throws ResourceException;
+
     /**
      * Obtains only the metadata about the resource.
      *
@@ -95,6 +95,17 @@ public class UrlExternalResource implements ExternalResourceConnector {
         }
     }
 
+    @Override
+    public boolean supportsConditionalRequests() {
+        return false;
+    }
+
+    @Nullable
+    @Override
+    public ExternalResourceReadResponse openResourceIfModified(URI location, ExternalResourceMetaData cached) throws ResourceException {
+        throw new UnsupportedOperationException();
+    }
+
     @Nullable
     @Override
     public List<String> list(URI parent) throws ResourceException {
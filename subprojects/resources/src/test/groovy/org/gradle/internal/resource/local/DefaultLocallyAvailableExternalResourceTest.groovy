@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.resource.local
+
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.resource.ExternalResource
+import org.gradle.internal.resource.metadata.ExternalResourceMetaData
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class DefaultLocallyAvailableExternalResourceTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def source = new URI("http://somewhere/content")
+    def metaData = Stub(ExternalResourceMetaData)
+    def cached = Stub(ExternalResourceMetaData)
+
+    def "reads the local copy when content is requested if modified"() {
+        def file = tmpDir.createFile("content")
+        file.text = "1234"
+        def resource = new DefaultLocallyAvailableExternalResource(source, file, metaData, TestFiles.fileSystem())
+
+        when:
+        def result = resource.withContentIfModified(cached, new ExternalResource.ContentAction<String>() {
+            @Override
+            String execute(InputStream inputStream, ExternalResourceMetaData metaData) throws IOException {
+                assert metaData.location == file.toURI()
+                return inputStream.text
+            }
+        })
+
+        then:
+        result.result == "1234"
+        result.bytesRead == 4
+    }
+
+    def "returns null when the local copy no longer exists"() {
+        def file = tmpDir.file("missing")
+        def action = Mock(ExternalResource.ContentAction)
+        def resource = new DefaultLocallyAvailableExternalResource(source, file, metaData, TestFiles.fileSystem())
+
+        when:
+        def result = resource.withContentIfModified(cached, action)
+
+        then:
+        result == null
+        0 * action._
+    }
+}
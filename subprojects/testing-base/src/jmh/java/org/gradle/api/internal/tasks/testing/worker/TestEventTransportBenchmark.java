@@ -0,0 +1,257 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor;
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.DefaultTestSuiteDescriptor;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.api.tasks.testing.TestResult;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.id.CompositeIdGenerator;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SerializerRegistry;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Measures sending the events of a suite of many small tests from a test worker to the build process, one message per event as opposed to
+ * batches of events. Each message is encoded and flushed the way the worker connection does, and then decoded and replayed to a result processor.
+ * This leaves out the hand-off between the threads of the connection, which adds to the cost of every message.
+ */
+@Fork(2)
+@Warmup(iterations = 10)
+@State(Scope.Benchmark)
+public class TestEventTransportBenchmark {
+    private static final int TEST_COUNT = 10000;
+    private static final int TESTS_PER_FAILURE = 1000;
+    private static final byte STARTED = 0;
+    private static final byte COMPLETED = 1;
+    private static final byte OUTPUT = 2;
+    private static final byte FAILURE = 3;
+
+    @Param({"0", "2"})
+    int outputEventsPerTest;
+
+    private Serializer<TestDescriptorInternal> descriptorSerializer;
+    private Serializer<TestStartEvent> startEventSerializer;
+    private Serializer<TestCompleteEvent> completeEventSerializer;
+    private Serializer<DefaultTestOutputEvent> outputEventSerializer;
+    private Serializer<Object> idSerializer;
+    private Serializer<Throwable> throwableSerializer;
+    private Serializer<TestEventBatch> batchSerializer;
+
+    @Setup(Level.Trial)
+    public void createSerializers() {
+        SerializerRegistry registry = TestEventSerializer.create();
+        descriptorSerializer = registry.build(TestDescriptorInternal.class);
+        startEventSerializer = registry.build(TestStartEvent.class);
+        completeEventSerializer = registry.build(TestCompleteEvent.class);
+        outputEventSerializer = registry.build(DefaultTestOutputEvent.class);
+        idSerializer = registry.build(Object.class);
+        throwableSerializer = registry.build(Throwable.class);
+        batchSerializer = registry.build(TestEventBatch.class);
+    }
+
+    @Benchmark
+    public void messagePerEvent(Blackhole blackhole) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(bytes);
+        int messages = generateEvents(new MessagePerEventEncoder(encoder));
+
+        Decoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(bytes.toByteArray()));
+        BlackholeResultProcessor processor = new BlackholeResultProcessor(blackhole);
+        for (int i = 0; i < messages; i++) {
+            byte type = decoder.readByte();
+            if (type == STARTED) {
+                processor.started(descriptorSerializer.read(decoder), startEventSerializer.read(decoder));
+            } else if (type == COMPLETED) {
+                processor.completed(idSerializer.read(decoder), completeEventSerializer.read(decoder));
+            } else if (type == OUTPUT) {
+                processor.output(idSerializer.read(decoder), outputEventSerializer.read(decoder));
+            } else {
+                processor.failure(idSerializer.read(decoder), throwableSerializer.read(decoder));
+            }
+        }
+    }
+
+    @Benchmark
+    public void batchedEvents(Blackhole blackhole) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BatchEncoder batchEncoder = new BatchEncoder(new KryoBackedEncoder(bytes));
+        BatchingTestEventProcessor batchingProcessor = new BatchingTestEventProcessor(batchEncoder);
+        generateEvents(batchingProcessor);
+        batchingProcessor.flush();
+
+        Decoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(bytes.toByteArray()));
+        BlackholeResultProcessor processor = new BlackholeResultProcessor(blackhole);
+        for (int i = 0; i < batchEncoder.batches; i++) {
+            batchSerializer.read(decoder).dispatch(processor);
+        }
+    }
+
+    /**
+     * Generates the events of a suite of small tests, one in every {@link #TESTS_PER_FAILURE} of which fails, and returns the number of events.
+     */
+    private int generateEvents(TestResultProcessor processor) {
+        CompositeIdGenerator.CompositeId suiteId = new CompositeIdGenerator.CompositeId(1L, 0L);
+        long time = 1530000000000L;
+        processor.started(new DefaultTestSuiteDescriptor(suiteId, "Gradle Test Executor 1"), new TestStartEvent(time));
+        for (int i = 1; i <= TEST_COUNT; i++) {
+            CompositeIdGenerator.CompositeId testId = new CompositeIdGenerator.CompositeId(1L, (long) i);
+            processor.started(new DefaultTestDescriptor(testId, "org.gradle.ParameterizedTest", "test[" + i + "]"), new TestStartEvent(time, suiteId));
+            for (int j = 0; j < outputEventsPerTest; j++) {
+                processor.output(testId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "output line " + j + " of test " + i));
+            }
+            time += i % 3;
+            if (i % TESTS_PER_FAILURE == 0) {
+                processor.failure(testId, new AssertionError("expected: <" + i + "> but was: <0>"));
+                processor.completed(testId, new TestCompleteEvent(time, TestResult.ResultType.FAILURE));
+            } else {
+                processor.completed(testId, new TestCompleteEvent(time, TestResult.ResultType.SUCCESS));
+            }
+        }
+        processor.completed(suiteId, new TestCompleteEvent(time));
+        return 2 + TEST_COUNT * (2 + outputEventsPerTest) + TEST_COUNT / TESTS_PER_FAILURE;
+    }
+
+    private class MessagePerEventEncoder implements TestResultProcessor {
+        private final KryoBackedEncoder encoder;
+
+        MessagePerEventEncoder(KryoBackedEncoder encoder) {
+            this.encoder = encoder;
+        }
+
+        @Override
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            try {
+                encoder.writeByte(STARTED);
+                descriptorSerializer.write(encoder, test);
+                startEventSerializer.write(encoder, event);
+                encoder.flush();
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        @Override
+        public void completed(Object testId, TestCompleteEvent event) {
+            try {
+                encoder.writeByte(COMPLETED);
+                idSerializer.write(encoder, testId);
+                completeEventSerializer.write(encoder, event);
+                encoder.flush();
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        @Override
+        public void output(Object testId, TestOutputEvent event) {
+            try {
+                encoder.writeByte(OUTPUT);
+                idSerializer.write(encoder, testId);
+                outputEventSerializer.write(encoder, (DefaultTestOutputEvent) event);
+                encoder.flush();
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        @Override
+        public void failure(Object testId, Throwable result) {
+            try {
+                encoder.writeByte(FAILURE);
+                idSerializer.write(encoder, testId);
+                throwableSerializer.write(encoder, result);
+                encoder.flush();
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
+    private class BatchEncoder implements TestEventBatchProcessor {
+        private final KryoBackedEncoder encoder;
+        int batches;
+
+        BatchEncoder(KryoBackedEncoder encoder) {
+            this.encoder = encoder;
+        }
+
+        @Override
+        public void process(TestEventBatch batch) {
+            try {
+                batchSerializer.write(encoder, batch);
+                encoder.flush();
+                batches++;
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
+    private static class BlackholeResultProcessor implements TestResultProcessor {
+        private final Blackhole blackhole;
+
+        BlackholeResultProcessor(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            blackhole.consume(test);
+            blackhole.consume(event);
+        }
+
+        @Override
+        public void completed(Object testId, TestCompleteEvent event) {
+            blackhole.consume(testId);
+            blackhole.consume(event);
+        }
+
+        @Override
+        public void output(Object testId, TestOutputEvent event) {
+            blackhole.consume(testId);
+            blackhole.consume(event);
+        }
+
+        @Override
+        public void failure(Object testId, Throwable result) {
+            blackhole.consume(testId);
+            blackhole.consume(result);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing;
+
+/**
+ * A {@link WorkerTestClassProcessorFactory} whose processors can execute several tests concurrently in each test process.
+ */
+public interface ParallelWorkerTestClassProcessorFactory extends WorkerTestClassProcessorFactory {
+    /**
+     * Returns the maximum number of tests that a processor executes concurrently.
+     */
+    int getMaxParallelTests();
+
+    /**
+     * Returns a factory whose processors execute at most the given number of tests concurrently.
+     */
+    ParallelWorkerTestClassProcessorFactory withMaxParallelTests(int maxParallelTests);
+}
@@ -17,6 +17,8 @@
 package org.gradle.api.internal.tasks.testing;
 
 import org.gradle.api.internal.tasks.testing.processors.CaptureTestOutputTestResultProcessor;
+import org.gradle.api.internal.tasks.testing.processors.StandardOutputRedirector;
+import org.gradle.api.internal.tasks.testing.processors.TruncatingTestOutputTestResultProcessor;
 import org.gradle.api.internal.tasks.testing.results.AttachParentTestResultProcessor;
 import org.gradle.internal.time.Clock;
 
@@ -24,19 +26,33 @@ public class SuiteTestClassProcessor implements TestClassProcessor {
     private final TestClassProcessor processor;
     private final Clock clock;
     private final TestDescriptorInternal suiteDescriptor;
+    private final StandardOutputRedirector outputRedirector;
+    private final long maxOutputPerTest;
     private TestResultProcessor resultProcessor;
 
     public SuiteTestClassProcessor(TestDescriptorInternal suiteDescriptor, TestClassProcessor processor,
                                    Clock clock) {
+        this(suiteDescriptor, processor, clock, new JULRedirector(), Long.getLong(TruncatingTestOutputTestResultProcessor.MAX_OUTPUT_PER_TEST_PROPERTY, 0));
+    }
+
+    /**
+     * @param outputRedirector captures the output of the tests.
+     * @param maxOutputPerTest the maximum number of characters of output to keep per test, or 0 for no maximum.
+     */
+    public SuiteTestClassProcessor(TestDescriptorInternal suiteDescriptor, TestClassProcessor processor,
+                                   Clock clock, StandardOutputRedirector outputRedirector, long maxOutputPerTest) {
         this.suiteDescriptor = suiteDescriptor;
         this.processor = processor;
         this.clock = clock;
+        this.outputRedirector = outputRedirector;
+        this.maxOutputPerTest = maxOutputPerTest;
     }
 
     @Override
     public void startProcessing(TestResultProcessor testResultProcessor) {
         try {
-            resultProcessor = new AttachParentTestResultProcessor(new CaptureTestOutputTestResultProcessor(testResultProcessor, new JULRedirector()));
+            TestResultProcessor outputProcessor = maxOutputPerTest > 0 ? new TruncatingTestOutputTestResultProcessor(testResultProcessor, maxOutputPerTest) : testResultProcessor;
+            resultProcessor = new AttachParentTestResultProcessor(new CaptureTestOutputTestResultProcessor(outputProcessor, outputRedirector));
             resultProcessor.started(suiteDescriptor, new TestStartEvent(clock.getCurrentTime()));
             processor.startProcessing(resultProcessor);
         } catch (Throwable t) {
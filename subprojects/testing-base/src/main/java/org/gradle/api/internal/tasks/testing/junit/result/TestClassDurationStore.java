@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.junit.result;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the duration of each test class across runs of a test task. Unlike the binary results, which only contain the test classes of the
+ * most recent run, the durations of test classes that did not run are kept, so that filtered or sharded runs do not lose the history of the
+ * other test classes. A test class that has not run for {@link #MAX_RUNS_WITHOUT_RESULT} updates is forgotten.
+ */
+public class TestClassDurationStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestClassDurationStore.class);
+    private static final int STORE_VERSION = 1;
+    static final int MAX_RUNS_WITHOUT_RESULT = 20;
+
+    private final File storeFile;
+
+    public TestClassDurationStore(File storeFile) {
+        this.storeFile = storeFile;
+    }
+
+    /**
+     * Returns the most recent duration in milliseconds of each test class.
+     */
+    public Map<String, Long> read() {
+        Map<String, Long> durations = new HashMap<String, Long>();
+        for (Map.Entry<String, Entry> entry : readEntries().entrySet()) {
+            durations.put(entry.getKey(), entry.getValue().duration);
+        }
+        return durations;
+    }
+
+    /**
+     * Records the durations of the test classes of a run.
+     */
+    public void update(Collection<TestClassResult> results) {
+        Map<String, Entry> entries = readEntries();
+        Map<String, Entry> updated = new HashMap<String, Entry>(entries.size() + results.size());
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            int runsWithoutResult = entry.getValue().runsWithoutResult + 1;
+            if (runsWithoutResult < MAX_RUNS_WITHOUT_RESULT) {
+                updated.put(entry.getKey(), new Entry(entry.getValue().duration, runsWithoutResult));
+            }
+        }
+        for (TestClassResult result : results) {
+            updated.put(result.getClassName(), new Entry(result.getDuration(), 0));
+        }
+        write(updated);
+    }
+
+    private Map<String, Entry> readEntries() {
+        Map<String, Entry> entries = new HashMap<String, Entry>();
+        if (!storeFile.isFile()) {
+            return entries;
+        }
+        try {
+            InputStream inputStream = new FileInputStream(storeFile);
+            try {
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                int version = decoder.readSmallInt();
+                if (version != STORE_VERSION) {
+                    return entries;
+                }
+                int count = decoder.readSmallInt();
+                for (int i = 0; i < count; i++) {
+                    String className = decoder.readString();
+                    long duration = decoder.readSmallLong();
+                    int runsWithoutResult = decoder.readSmallInt();
+                    entries.put(className, new Entry(duration, runsWithoutResult));
+                }
+            } finally {
+                inputStream.close();
+            }
+        } catch (Exception e) {
+            // The durations only influence the order in which test classes run, so start again rather than failing the build
+            LOGGER.debug("Could not read test class durations from {}.", storeFile, e);
+            entries.clear();
+        }
+        return entries;
+    }
+
+    private void write(Map<String, Entry> entries) {
+        try {
+            storeFile.getParentFile().mkdirs();
+            OutputStream outputStream = new FileOutputStream(storeFile);
+            try {
+                FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
+                encoder.writeSmallInt(STORE_VERSION);
+                encoder.writeSmallInt(entries.size());
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    encoder.writeString(entry.getKey());
+                    encoder.writeSmallLong(entry.getValue().duration);
+                    encoder.writeSmallInt(entry.getValue().runsWithoutResult);
+                }
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class Entry {
+        private final long duration;
+        private final int runsWithoutResult;
+
+        Entry(long duration, int runsWithoutResult) {
+            this.duration = duration;
+            this.runsWithoutResult = runsWithoutResult;
+        }
+    }
+}
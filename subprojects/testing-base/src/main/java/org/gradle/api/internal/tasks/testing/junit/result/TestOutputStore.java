@@ -30,8 +30,17 @@ import java.io.*;
 import java.nio.charset.Charset;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
+/**
+ * Stores the output of tests in a single file, with an index of the regions of the file that hold the output of each test.
+ * Larger messages are stored compressed.
+ */
 public class TestOutputStore {
+    // Compressing a short message does not pay off
+    private static final int MIN_COMPRESSED_MESSAGE_LENGTH = 256;
 
     private final File resultsDir;
     private final Charset messageStorageCharset;
@@ -71,6 +80,8 @@ public class TestOutputStore {
 
     public class Writer implements Closeable {
         private final KryoBackedEncoder output;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private byte[] compressed = new byte[0];
 
         private final Map<Long, Map<Long, TestCaseRegion>> index = new LinkedHashMap<Long, Map<Long, TestCaseRegion>>();
 
@@ -85,6 +96,7 @@ public class TestOutputStore {
         @Override
         public void close() {
             output.close();
+            deflater.end();
             writeIndex();
         }
 
@@ -106,8 +118,31 @@ public class TestOutputStore {
             } catch (UnsupportedEncodingException e) {
                 throw UncheckedException.throwAsUncheckedException(e);
             }
-            output.writeSmallInt(bytes.length);
-            output.writeBytes(bytes, 0, bytes.length);
+            int compressedLength = bytes.length >= MIN_COMPRESSED_MESSAGE_LENGTH ? compress(bytes) : -1;
+            if (compressedLength < 0) {
+                output.writeBoolean(false);
+                output.writeSmallInt(bytes.length);
+                output.writeBytes(bytes, 0, bytes.length);
+            } else {
+                output.writeBoolean(true);
+                output.writeSmallInt(bytes.length);
+                output.writeSmallInt(compressedLength);
+                output.writeBytes(compressed, 0, compressedLength);
+            }
+        }
+
+        /**
+         * Compresses the given bytes into the compression buffer, and returns the compressed length, or -1 when the bytes do not compress.
+         */
+        private int compress(byte[] bytes) {
+            if (compressed.length < bytes.length) {
+                compressed = new byte[bytes.length];
+            }
+            deflater.reset();
+            deflater.setInput(bytes);
+            deflater.finish();
+            int length = deflater.deflate(compressed);
+            return deflater.finished() && length < bytes.length ? length : -1;
         }
 
         private void mark(long classId, long testId, boolean isStdout) {
@@ -220,6 +255,7 @@ public class TestOutputStore {
     public class Reader implements Closeable {
         private final Index index;
         private final RandomAccessFile dataFile;
+        private final Inflater inflater = new Inflater();
 
         public Reader() {
             File indexFile = getIndexFile();
@@ -279,6 +315,7 @@ public class TestOutputStore {
 
         @Override
         public void close() throws IOException {
+            inflater.end();
             if (dataFile != null) {
                 dataFile.close();
             }
@@ -342,7 +379,9 @@ public class TestOutputStore {
                     boolean readStdout = decoder.readBoolean();
                     long readClassId = decoder.readSmallLong();
                     long readTestId = decoder.readSmallLong();
-                    int readLength = decoder.readSmallInt();
+                    boolean readCompressed = decoder.readBoolean();
+                    int readMessageLength = decoder.readSmallInt();
+                    int readLength = readCompressed ? decoder.readSmallInt() : readMessageLength;
 
                     boolean isClassLevel = readTestId == 0;
 
@@ -364,6 +403,9 @@ public class TestOutputStore {
                     if (testId == 0 || testId == readTestId) {
                         byte[] stringBytes = new byte[readLength];
                         decoder.readBytes(stringBytes);
+                        if (readCompressed) {
+                            stringBytes = decompress(stringBytes, readMessageLength);
+                        }
                         String message;
                         try {
                             message = new String(stringBytes, messageStorageCharset.name());
@@ -381,6 +423,18 @@ public class TestOutputStore {
                 throw new UncheckedIOException(e1);
             }
         }
+
+        private byte[] decompress(byte[] bytes, int length) {
+            byte[] result = new byte[length];
+            inflater.reset();
+            inflater.setInput(bytes);
+            try {
+                inflater.inflate(result);
+            } catch (DataFormatException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            return result;
+        }
     }
 
     // IMPORTANT: return must be closed when done with.
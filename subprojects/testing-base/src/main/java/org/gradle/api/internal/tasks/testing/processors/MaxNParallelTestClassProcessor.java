@@ -26,19 +26,26 @@ import org.gradle.internal.actor.ActorFactory;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.dispatch.DispatchException;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
- * processors.
+ * Manages a set of parallel TestClassProcessors. Test classes are queued in the order they are received, and each processor takes the next
+ * test class from the queue once it has finished with its previous one. A processor that blocks until its test class has been run, such as
+ * one that runs test classes in a worker process, only receives another test class when it is idle. This way, a slow test class does not
+ * hold up the test classes that would otherwise have been assigned to the same processor.
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private final int maxProcessors;
     private final Factory<TestClassProcessor> factory;
     private final ActorFactory actorFactory;
+    private final TestClassQueue queue = new TestClassQueue();
     private TestResultProcessor resultProcessor;
-    private int pos;
     private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
     private List<TestClassProcessor> rawProcessors = new ArrayList<TestClassProcessor>();
     private List<Actor> actors = new ArrayList<Actor>();
@@ -64,24 +71,23 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
             return;
         }
 
-        TestClassProcessor processor;
         if (processors.size() < maxProcessors) {
-            processor = factory.create();
+            TestClassProcessor processor = factory.create();
             rawProcessors.add(processor);
-            Actor actor = actorFactory.createActor(processor);
+            Actor actor = actorFactory.createActor(new QueueConsumingTestClassProcessor(processor, queue));
             processor = actor.getProxy(TestClassProcessor.class);
             actors.add(actor);
             processors.add(processor);
             processor.startProcessing(resultProcessor);
+            processor.processTestClass(testClass);
         } else {
-            processor = processors.get(pos);
-            pos = (pos + 1) % processors.size();
+            queue.add(testClass);
         }
-        processor.processTestClass(testClass);
     }
 
     @Override
     public void stop() {
+        queue.close();
         try {
             CompositeStoppable.stoppable(processors).add(actors).add(resultProcessorActor).stop();
         } catch (DispatchException e) {
@@ -92,8 +98,101 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     @Override
     public void stopNow() {
         stoppedNow = true;
+        queue.discard();
         for (TestClassProcessor processor : rawProcessors) {
             processor.stopNow();
         }
     }
+
+    /**
+     * Runs a test class using its delegate, and then keeps running queued test classes until there are no more.
+     */
+    private static class QueueConsumingTestClassProcessor implements TestClassProcessor {
+        private final TestClassProcessor delegate;
+        private final TestClassQueue queue;
+
+        QueueConsumingTestClassProcessor(TestClassProcessor delegate, TestClassQueue queue) {
+            this.delegate = delegate;
+            this.queue = queue;
+        }
+
+        @Override
+        public void startProcessing(TestResultProcessor resultProcessor) {
+            delegate.startProcessing(resultProcessor);
+        }
+
+        @Override
+        public void processTestClass(TestClassRunInfo testClass) {
+            TestClassRunInfo next = testClass;
+            while (next != null) {
+                delegate.processTestClass(next);
+                next = queue.take();
+            }
+        }
+
+        @Override
+        public void stop() {
+            delegate.stop();
+        }
+
+        @Override
+        public void stopNow() {
+            delegate.stopNow();
+        }
+    }
+
+    private static class TestClassQueue {
+        private final Lock lock = new ReentrantLock();
+        private final Condition condition = lock.newCondition();
+        private final Deque<TestClassRunInfo> testClasses = new ArrayDeque<TestClassRunInfo>();
+        private boolean closed;
+
+        void add(TestClassRunInfo testClass) {
+            lock.lock();
+            try {
+                testClasses.add(testClass);
+                condition.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Blocks until a test class is available, and returns null when there will be no further test classes.
+         */
+        TestClassRunInfo take() {
+            lock.lock();
+            try {
+                while (testClasses.isEmpty() && !closed) {
+                    condition.await();
+                }
+                return testClasses.poll();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                closed = true;
+                condition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void discard() {
+            lock.lock();
+            try {
+                testClasses.clear();
+                closed = true;
+                condition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
 }
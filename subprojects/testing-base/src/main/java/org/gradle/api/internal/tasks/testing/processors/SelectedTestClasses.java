@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import java.util.Set;
+
+/**
+ * The test classes selected to execute, which keeps track of whether the selection skipped every test class it was asked about.
+ * A nested test class is selected when its top-level class is selected.
+ */
+public class SelectedTestClasses {
+    private final Set<String> classNames;
+    private volatile boolean anySkipped;
+    private volatile boolean anySelected;
+
+    public SelectedTestClasses(Set<String> classNames) {
+        this.classNames = classNames;
+    }
+
+    public boolean isSelected(String className) {
+        boolean selected = classNames.contains(className);
+        if (!selected) {
+            int nested = className.indexOf('$');
+            selected = nested > 0 && classNames.contains(className.substring(0, nested));
+        }
+        if (selected) {
+            anySelected = true;
+        } else {
+            anySkipped = true;
+        }
+        return selected;
+    }
+
+    /**
+     * Returns true when at least one test class was skipped and none was selected, so that executing no tests is expected.
+     */
+    public boolean isEveryTestClassSkipped() {
+        return anySkipped && !anySelected;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestShard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Passes only the test classes of one shard to its delegate. The test classes are split so that each shard has about the same total duration
+ * in previous runs, by assigning them longest first to the shard with the lowest total so far. Test classes without a previous duration count
+ * as the average duration.
+ *
+ * <p>The split only depends on the set of test classes and the given durations, so every shard must be given the same durations to split the test
+ * classes consistently. The durations of previous local runs differ between machines, so must not be used. Without any durations, the test classes
+ * are split by name.</p>
+ */
+public class ShardingTestClassProcessor implements TestClassProcessor {
+    private final TestShard shard;
+    private final Map<String, Long> previousDurations;
+    private final TestClassProcessor delegate;
+    private final List<TestClassRunInfo> testClasses = new ArrayList<TestClassRunInfo>();
+
+    public ShardingTestClassProcessor(TestShard shard, Map<String, Long> previousDurations, TestClassProcessor delegate) {
+        this.shard = shard;
+        this.previousDurations = previousDurations;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        delegate.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        testClasses.add(testClass);
+    }
+
+    @Override
+    public void stop() {
+        final long defaultDuration = averageDuration();
+        Collections.sort(testClasses, new Comparator<TestClassRunInfo>() {
+            @Override
+            public int compare(TestClassRunInfo o1, TestClassRunInfo o2) {
+                long duration1 = duration(o1, defaultDuration);
+                long duration2 = duration(o2, defaultDuration);
+                if (duration1 != duration2) {
+                    return duration1 > duration2 ? -1 : 1;
+                }
+                return o1.getTestClassName().compareTo(o2.getTestClassName());
+            }
+        });
+
+        long[] totals = new long[shard.getCount()];
+        for (TestClassRunInfo testClass : testClasses) {
+            int target = 0;
+            for (int i = 1; i < totals.length; i++) {
+                if (totals[i] < totals[target]) {
+                    target = i;
+                }
+            }
+            totals[target] += duration(testClass, defaultDuration);
+            if (target == shard.getIndex() - 1) {
+                delegate.processTestClass(testClass);
+            }
+        }
+        delegate.stop();
+    }
+
+    private long averageDuration() {
+        long total = 0;
+        int count = 0;
+        for (TestClassRunInfo testClass : testClasses) {
+            Long duration = previousDurations.get(testClass.getTestClassName());
+            if (duration != null) {
+                total += duration;
+                count++;
+            }
+        }
+        // Give every test class some weight, so that test classes that take no time at all are still spread over the shards
+        return count == 0 ? 1 : Math.max(1, total / count);
+    }
+
+    private long duration(TestClassRunInfo testClass, long defaultDuration) {
+        Long duration = previousDurations.get(testClass.getTestClassName());
+        return duration == null ? defaultDuration : Math.max(1, duration);
+    }
+
+    @Override
+    public void stopNow() {
+        delegate.stopNow();
+    }
+}
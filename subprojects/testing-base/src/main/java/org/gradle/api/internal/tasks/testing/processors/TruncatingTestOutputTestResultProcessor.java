@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link org.gradle.api.internal.tasks.testing.TestResultProcessor} which stops forwarding the output of a test once it has exceeded a maximum
+ * length, with a marker in place of the truncated output.
+ */
+public class TruncatingTestOutputTestResultProcessor implements TestResultProcessor {
+    /**
+     * The system property of a test worker which holds the maximum number of characters of output to keep per test.
+     */
+    public static final String MAX_OUTPUT_PER_TEST_PROPERTY = "org.gradle.test.maxOutputPerTest";
+
+    private final TestResultProcessor processor;
+    private final long maxOutputPerTest;
+    private final Map<Object, Long> outputLengths = new HashMap<Object, Long>();
+
+    /**
+     * @param maxOutputPerTest the maximum number of characters of output to forward per test.
+     */
+    public TruncatingTestOutputTestResultProcessor(TestResultProcessor processor, long maxOutputPerTest) {
+        this.processor = processor;
+        this.maxOutputPerTest = maxOutputPerTest;
+    }
+
+    @Override
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        processor.started(test, event);
+    }
+
+    @Override
+    public synchronized void completed(Object testId, TestCompleteEvent event) {
+        outputLengths.remove(testId);
+        processor.completed(testId, event);
+    }
+
+    @Override
+    public void output(Object testId, TestOutputEvent event) {
+        String message = truncate(testId, event.getMessage());
+        if (message == null) {
+            return;
+        }
+        processor.output(testId, message.equals(event.getMessage()) ? event : new DefaultTestOutputEvent(event.getDestination(), message));
+    }
+
+    @Override
+    public void failure(Object testId, Throwable result) {
+        processor.failure(testId, result);
+    }
+
+    /**
+     * Returns the part of the message that is within the maximum output of the test, or null when the output of the test has already been truncated.
+     */
+    private synchronized String truncate(Object testId, String message) {
+        Long previousLength = outputLengths.get(testId);
+        long length = previousLength == null ? 0 : previousLength;
+        if (length > maxOutputPerTest) {
+            return null;
+        }
+        if (length + message.length() <= maxOutputPerTest) {
+            outputLengths.put(testId, length + message.length());
+            return message;
+        }
+        outputLengths.put(testId, maxOutputPerTest + 1);
+        return message.substring(0, (int) (maxOutputPerTest - length))
+            + String.format("%n[Output truncated, as it exceeded the maximum of %d characters per test]%n", maxOutputPerTest);
+    }
+}
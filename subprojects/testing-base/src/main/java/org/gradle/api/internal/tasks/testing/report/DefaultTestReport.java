@@ -35,18 +35,33 @@ import org.gradle.reporting.HtmlReportRenderer;
 import org.gradle.reporting.ReportRenderer;
 import org.gradle.util.GFileUtils;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.Semaphore;
 
 import static org.gradle.api.tasks.testing.TestResult.ResultType.SKIPPED;
 
+/**
+ * Renders the HTML test report. The report is streamed: each class page is rendered as soon as the class has been read from the results,
+ * concurrently with reading the remaining classes. Once its page has been rendered, only the counters and the failed and ignored tests of
+ * a class are kept for the package pages and the overview. At most the given number of class pages wait in the queue of build operations
+ * at a time; when the limit is reached, the page of the next class is rendered by the thread reading the results.
+ *
+ * <p>This relies on each class being visited once by the results provider, which is the case for the results of a test task and for aggregated results.</p>
+ */
 public class DefaultTestReport implements TestReporter {
     private final BuildOperationExecutor buildOperationExecutor;
+    private final int maxClassPagesInFlight;
     private final static Logger LOG = Logging.getLogger(DefaultTestReport.class);
 
-    public DefaultTestReport(BuildOperationExecutor buildOperationExecutor) {
+    /**
+     * @param maxClassPagesInFlight the maximum number of class pages to queue for rendering at a time, usually the maximum number of workers.
+     */
+    public DefaultTestReport(BuildOperationExecutor buildOperationExecutor, int maxClassPagesInFlight) {
         this.buildOperationExecutor = buildOperationExecutor;
+        this.maxClassPagesInFlight = maxClassPagesInFlight;
     }
 
     @Override
@@ -54,34 +69,28 @@ public class DefaultTestReport implements TestReporter {
         LOG.info("Generating HTML test report...");
 
         Timer clock = Time.startTimer();
-        AllTestResults model = loadModelFromProvider(resultsProvider);
-        generateFiles(model, resultsProvider, reportDir);
+        generateFiles(resultsProvider, reportDir);
         LOG.info("Finished generating test html results ({}) into: {}", clock.getElapsed(), reportDir);
     }
 
-    private AllTestResults loadModelFromProvider(TestResultsProvider resultsProvider) {
-        final AllTestResults model = new AllTestResults();
-        resultsProvider.visitClasses(new Action<TestClassResult>() {
-            public void execute(TestClassResult classResult) {
-                model.addTestClass(classResult.getId(), classResult.getClassName(), classResult.getClassDisplayName());
-                List<TestMethodResult> collectedResults = classResult.getResults();
-                for (TestMethodResult collectedResult : collectedResults) {
-                    final TestResult testResult = model.addTest(classResult.getId(), classResult.getClassName(), classResult.getClassDisplayName(), collectedResult.getName(), collectedResult.getDisplayName(), collectedResult.getDuration());
-                    if (collectedResult.getResultType() == SKIPPED) {
-                        testResult.setIgnored();
-                    } else {
-                        List<TestFailure> failures = collectedResult.getFailures();
-                        for (TestFailure failure : failures) {
-                            testResult.addFailure(failure);
-                        }
-                    }
+    private static ClassTestResults addClass(AllTestResults model, TestClassResult classResult) {
+        ClassTestResults classResults = model.addTestClass(classResult.getId(), classResult.getClassName(), classResult.getClassDisplayName());
+        List<TestMethodResult> collectedResults = classResult.getResults();
+        for (TestMethodResult collectedResult : collectedResults) {
+            final TestResult testResult = model.addTest(classResult.getId(), classResult.getClassName(), classResult.getClassDisplayName(), collectedResult.getName(), collectedResult.getDisplayName(), collectedResult.getDuration());
+            if (collectedResult.getResultType() == SKIPPED) {
+                testResult.setIgnored();
+            } else {
+                List<TestFailure> failures = collectedResult.getFailures();
+                for (TestFailure failure : failures) {
+                    testResult.addFailure(failure);
                 }
             }
-        });
-        return model;
+        }
+        return classResults;
     }
 
-    private void generateFiles(AllTestResults model, final TestResultsProvider resultsProvider, final File reportDir) {
+    private void generateFiles(final TestResultsProvider resultsProvider, final File reportDir) {
         try {
             HtmlReportRenderer htmlRenderer = new HtmlReportRenderer();
             buildOperationExecutor.run(new RunnableBuildOperation() {
@@ -98,18 +107,30 @@ public class DefaultTestReport implements TestReporter {
                 }
             });
 
-            htmlRenderer.render(model, new ReportRenderer<AllTestResults, HtmlReportBuilder>() {
+            htmlRenderer.render(new AllTestResults(), new ReportRenderer<AllTestResults, HtmlReportBuilder>() {
                 @Override
                 public void render(final AllTestResults model, final HtmlReportBuilder output) throws IOException {
+                    final Semaphore classPagesInFlight = new Semaphore(maxClassPagesInFlight);
                     buildOperationExecutor.runAll(new Action<BuildOperationQueue<HtmlReportFileGenerator<? extends CompositeTestResults>>>() {
                         @Override
-                        public void execute(BuildOperationQueue<HtmlReportFileGenerator<? extends CompositeTestResults>> queue) {
+                        public void execute(final BuildOperationQueue<HtmlReportFileGenerator<? extends CompositeTestResults>> queue) {
+                            resultsProvider.visitClasses(new Action<TestClassResult>() {
+                                @Override
+                                public void execute(TestClassResult classResult) {
+                                    boolean queued = classPagesInFlight.tryAcquire();
+                                    ClassPageGenerator generator = new ClassPageGenerator(addClass(model, classResult), resultsProvider, output, queued ? classPagesInFlight : null);
+                                    if (queued) {
+                                        queue.add(generator);
+                                    } else {
+                                        // Blocking here until a queued page is done could wait for a worker lease held by this thread
+                                        buildOperationExecutor.run(generator);
+                                    }
+                                }
+                            });
+                            // The counters are complete once every class has been read
                             queue.add(generator("index.html", model, new OverviewPageRenderer(), output));
                             for (PackageTestResults packageResults : model.getPackages()) {
                                 queue.add(generator(packageResults.getBaseUrl(), packageResults, new PackagePageRenderer(), output));
-                                for (ClassTestResults classResults : packageResults.getClasses()) {
-                                    queue.add(generator(classResults.getBaseUrl(), classResults, new ClassPageRenderer(resultsProvider), output));
-                                }
                             }
                         }
                     });
@@ -147,4 +168,31 @@ public class DefaultTestReport implements TestReporter {
             output.renderHtmlPage(fileUrl, results, renderer);
         }
     }
+
+    static class ClassPageGenerator extends HtmlReportFileGenerator<ClassTestResults> {
+        private final ClassTestResults classResults;
+        private final Semaphore classPagesInFlight;
+
+        /**
+         * @param classPagesInFlight the permits to release once the page has been rendered, or null when the page was not queued.
+         */
+        ClassPageGenerator(ClassTestResults classResults, TestResultsProvider resultsProvider, HtmlReportBuilder output, @Nullable Semaphore classPagesInFlight) {
+            super(classResults.getBaseUrl(), classResults, new ClassPageRenderer(resultsProvider), output);
+            this.classResults = classResults;
+            this.classPagesInFlight = classPagesInFlight;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            try {
+                super.run(context);
+                classResults.discardTestResults();
+            } finally {
+                if (classPagesInFlight != null) {
+                    classPagesInFlight.release();
+                }
+            }
+        }
+    }
+
 }
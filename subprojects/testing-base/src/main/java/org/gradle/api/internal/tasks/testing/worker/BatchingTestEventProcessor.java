@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+
+/**
+ * A {@link TestResultProcessor} in a test worker which collects test events into batches, so that a suite of many small tests does not send a message
+ * to the build process for every event. A batch is sent once it holds {@link #MAX_BATCH_EVENTS} events or {@link #MAX_BATCH_OUTPUT_LENGTH} characters
+ * of output, or when {@link #flush()} is called. The worker flushes every {@link #MAX_BATCH_DELAY_MILLIS} milliseconds, so that progress is still
+ * reported while a slow test runs.
+ */
+public class BatchingTestEventProcessor implements TestResultProcessor {
+    static final int MAX_BATCH_EVENTS = 1000;
+    static final long MAX_BATCH_OUTPUT_LENGTH = 64 * 1024;
+    static final long MAX_BATCH_DELAY_MILLIS = 50;
+
+    private final TestEventBatchProcessor processor;
+    private TestEventBatch batch = new TestEventBatch();
+
+    public BatchingTestEventProcessor(TestEventBatchProcessor processor) {
+        this.processor = processor;
+    }
+
+    @Override
+    public synchronized void started(TestDescriptorInternal test, TestStartEvent event) {
+        batch.started(test, event);
+        flushIfFull();
+    }
+
+    @Override
+    public synchronized void completed(Object testId, TestCompleteEvent event) {
+        batch.completed(testId, event);
+        flushIfFull();
+    }
+
+    @Override
+    public synchronized void output(Object testId, TestOutputEvent event) {
+        batch.output(testId, event);
+        flushIfFull();
+    }
+
+    @Override
+    public synchronized void failure(Object testId, Throwable result) {
+        batch.failure(testId, result);
+        flushIfFull();
+    }
+
+    /**
+     * Sends the events collected so far, if any.
+     */
+    public synchronized void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        processor.process(batch);
+        batch = new TestEventBatch();
+    }
+
+    private void flushIfFull() {
+        if (batch.size() >= MAX_BATCH_EVENTS || batch.getOutputLength() >= MAX_BATCH_OUTPUT_LENGTH) {
+            flush();
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.testing.worker;
 
+import com.google.common.collect.ImmutableList;
 import org.gradle.api.Action;
 import org.gradle.api.internal.DocumentationRegistry;
 import org.gradle.api.internal.classpath.ModuleRegistry;
@@ -24,6 +25,7 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.Factory;
 import org.gradle.internal.remote.ObjectConnection;
 import org.gradle.internal.work.WorkerLeaseRegistry;
 import org.gradle.process.JavaForkOptions;
@@ -33,12 +35,22 @@ import org.gradle.process.internal.worker.WorkerProcessBuilder;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 import org.gradle.util.CollectionUtils;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Runs test classes in a forked worker process. Each call to {@link #processTestClass(TestClassRunInfo)} blocks until the worker has finished with the test class,
+ * so that the caller only hands out the next test class once the worker is idle.
+ *
+ * <p>When given a worker pool, reuses an idle worker with the same JVM options and classpath, and hands the worker back to the pool once the tests have completed.</p>
+ */
 public class ForkingTestClassProcessor implements TestClassProcessor {
     private final WorkerLeaseRegistry.WorkerLease currentWorkerLease;
     private final WorkerProcessFactory workerFactory;
@@ -47,15 +59,35 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     private final Iterable<File> classPath;
     private final Action<WorkerProcessBuilder> buildConfigAction;
     private final ModuleRegistry moduleRegistry;
+    private final ReusableTestWorkerPool workerPool;
+    private final int maxWorkerReuses;
+    private final int workerLeases;
     private final Lock lock = new ReentrantLock();
     private RemoteTestClassProcessor remoteProcessor;
+    private PendingTestClasses pendingTestClasses;
     private WorkerProcess workerProcess;
+    private ReusableTestWorker reusedWorker;
     private TestResultProcessor resultProcessor;
     private WorkerLeaseRegistry.WorkerLeaseCompletion completion;
     private DocumentationRegistry documentationRegistry;
     private boolean stoppedNow;
 
     public ForkingTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, DocumentationRegistry documentationRegistry) {
+        this(parentWorkerLease, workerFactory, processorFactory, options, classPath, buildConfigAction, moduleRegistry, documentationRegistry, null, 0);
+    }
+
+    /**
+     * Creates a processor that reuses the workers of the given pool, when not null, up to the given number of times.
+     */
+    public ForkingTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, DocumentationRegistry documentationRegistry, @Nullable ReusableTestWorkerPool workerPool, int maxWorkerReuses) {
+        this(parentWorkerLease, workerFactory, processorFactory, options, classPath, buildConfigAction, moduleRegistry, documentationRegistry, workerPool, maxWorkerReuses, 1);
+    }
+
+    /**
+     * Creates a processor whose test process holds up to the given number of worker leases while it runs, for test processes that execute several tests concurrently.
+     * The test process starts once it has one lease, with as many of the others as are available at that time.
+     */
+    public ForkingTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, DocumentationRegistry documentationRegistry, @Nullable ReusableTestWorkerPool workerPool, int maxWorkerReuses, int workerLeases) {
         this.currentWorkerLease = parentWorkerLease;
         this.workerFactory = workerFactory;
         this.processorFactory = processorFactory;
@@ -64,6 +96,9 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         this.buildConfigAction = buildConfigAction;
         this.moduleRegistry = moduleRegistry;
         this.documentationRegistry = documentationRegistry;
+        this.workerPool = workerPool;
+        this.maxWorkerReuses = maxWorkerReuses;
+        this.workerLeases = workerLeases;
     }
 
     @Override
@@ -73,6 +108,7 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
 
     @Override
     public void processTestClass(TestClassRunInfo testClass) {
+        PendingTestClasses pendingTestClasses;
         lock.lock();
         try {
             if (stoppedNow) {
@@ -80,36 +116,100 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
             }
 
             if (remoteProcessor == null) {
-                completion = currentWorkerLease.startChild();
+                completion = workerLeases > 1 ? currentWorkerLease.startChildren(workerLeases) : currentWorkerLease.startChild();
                 JULRedirector.checkDeprecatedProperty(options);
-                remoteProcessor = forkProcess();
+                remoteProcessor = workerPool != null && maxWorkerReuses > 0 ? startReusedWorker() : forkProcess();
             }
 
+            pendingTestClasses = this.pendingTestClasses;
+            if (pendingTestClasses != null) {
+                pendingTestClasses.added();
+            }
             remoteProcessor.processTestClass(testClass);
         } finally {
             lock.unlock();
         }
+
+        if (pendingTestClasses != null) {
+            pendingTestClasses.awaitCompletion();
+        }
     }
 
     RemoteTestClassProcessor forkProcess() {
-        WorkerProcessBuilder builder = workerFactory.create(new TestWorker(processorFactory));
+        workerProcess = startWorkerProcess(new TestWorker(processorFactory), classPath);
+
+        ObjectConnection connection = workerProcess.getConnection();
+        connection.useParameterSerializers(TestEventSerializer.create());
+        connection.addIncoming(TestEventBatchProcessor.class, new TestEventBatchDispatcher(resultProcessor));
+        pendingTestClasses = new PendingTestClasses();
+        connection.addIncoming(TestClassCompletionListener.class, pendingTestClasses);
+        RemoteTestClassProcessor remoteProcessor = connection.addOutgoing(RemoteTestClassProcessor.class);
+        connection.connect();
+        remoteProcessor.startProcessing();
+        return remoteProcessor;
+    }
+
+    private WorkerProcess startWorkerProcess(TestWorker testWorker, Iterable<File> applicationClasspath) {
+        WorkerProcessBuilder builder = workerFactory.create(testWorker);
         builder.setBaseName("Gradle Test Executor");
         builder.setImplementationClasspath(getTestWorkerImplementationClasspath());
-        builder.applicationClasspath(classPath);
+        builder.applicationClasspath(applicationClasspath);
         options.copyTo(builder.getJavaCommand());
         builder.getJavaCommand().jvmArgs("-Dorg.gradle.native=false");
         buildConfigAction.execute(builder);
 
-        workerProcess = builder.build();
+        WorkerProcess workerProcess = builder.build();
         workerProcess.start();
+        return workerProcess;
+    }
 
-        ObjectConnection connection = workerProcess.getConnection();
-        connection.useParameterSerializers(TestEventSerializer.create());
-        connection.addIncoming(TestResultProcessor.class, resultProcessor);
-        RemoteTestClassProcessor remoteProcessor = connection.addOutgoing(RemoteTestClassProcessor.class);
-        connection.connect();
-        remoteProcessor.startProcessing();
-        return remoteProcessor;
+    /**
+     * Starts a run in a reused worker. The class directories are left off the application classpath of the worker, as their classes can change
+     * between runs, and are instead loaded afresh for each run.
+     */
+    private RemoteTestClassProcessor startReusedWorker() {
+        final List<File> classDirectories = new ArrayList<File>();
+        final List<File> jars = new ArrayList<File>();
+        for (File file : classPath) {
+            if (file.isDirectory()) {
+                classDirectories.add(file);
+            } else {
+                jars.add(file);
+            }
+        }
+        reusedWorker = workerPool.reserve(getReusableWorkerKey(), options.getMaxHeapSize(), new Factory<WorkerProcess>() {
+            @Override
+            public WorkerProcess create() {
+                return startWorkerProcess(new TestWorker(), jars);
+            }
+        });
+        workerProcess = reusedWorker.getWorkerProcess();
+        pendingTestClasses = new PendingTestClasses();
+        return reusedWorker.startRun(processorFactory, classDirectories, resultProcessor, pendingTestClasses);
+    }
+
+    /**
+     * A worker can be reused when it was started with the same JVM options and classpath, and the jars on the classpath have not changed since.
+     */
+    Object getReusableWorkerKey() {
+        ImmutableList.Builder<Object> key = ImmutableList.builder();
+        key.add(processorFactory.getClass().getName());
+        key.add(String.valueOf(options.getExecutable()));
+        key.add(options.getWorkingDir());
+        Map<String, String> environment = new TreeMap<String, String>();
+        for (Map.Entry<String, Object> entry : options.getEnvironment().entrySet()) {
+            environment.put(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        key.add(environment);
+        key.addAll(options.getAllJvmArgs());
+        for (File file : classPath) {
+            key.add(file);
+            if (file.isFile()) {
+                key.add(file.length());
+                key.add(file.lastModified());
+            }
+        }
+        return key.build();
     }
 
     List<URL> getTestWorkerImplementationClasspath() {
@@ -149,7 +249,14 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
                 } finally {
                     lock.unlock();
                 }
-                workerProcess.waitForStop();
+                if (reusedWorker == null) {
+                    workerProcess.waitForStop();
+                } else if (!stoppedNow && reusedWorker.awaitRunCompletion()) {
+                    workerPool.release(reusedWorker, maxWorkerReuses);
+                } else {
+                    // The worker has exited or been stopped, so report how it exited
+                    workerProcess.waitForStop();
+                }
             } catch (ExecException e) {
                 if (!stoppedNow) {
                     throw new ExecException(e.getMessage()
@@ -171,6 +278,9 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
             if (remoteProcessor != null) {
                 workerProcess.stopNow();
             }
+            if (pendingTestClasses != null) {
+                pendingTestClasses.endStream();
+            }
         } finally {
             lock.unlock();
         }
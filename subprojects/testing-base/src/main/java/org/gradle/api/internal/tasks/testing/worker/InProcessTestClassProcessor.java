@@ -0,0 +1,316 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.gradle.api.Action;
+import org.gradle.api.GradleException;
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.internal.classloading.GroovySystemLoader;
+import org.gradle.api.internal.classloading.GroovySystemLoaderFactory;
+import org.gradle.api.internal.classpath.ModuleRegistry;
+import org.gradle.api.internal.tasks.testing.SuiteTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.internal.tasks.testing.processors.DefaultStandardOutputRedirector;
+import org.gradle.api.internal.tasks.testing.processors.TruncatingTestOutputTestResultProcessor;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.actor.ActorFactory;
+import org.gradle.internal.actor.internal.DefaultActorFactory;
+import org.gradle.internal.classloader.FilteringClassLoader;
+import org.gradle.internal.classloader.VisitableURLClassLoader;
+import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.dispatch.ContextClassLoaderProxy;
+import org.gradle.internal.id.CompositeIdGenerator;
+import org.gradle.internal.id.IdGenerator;
+import org.gradle.internal.id.LongIdGenerator;
+import org.gradle.internal.io.ClassLoaderObjectInputStream;
+import org.gradle.internal.service.DefaultServiceRegistry;
+import org.gradle.internal.time.Clock;
+import org.gradle.internal.work.WorkerLeaseRegistry;
+import org.gradle.process.JavaForkOptions;
+import org.gradle.util.CollectionUtils;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.GUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.net.URL;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs tests inside the build process, in a ClassLoader of their own, rather than in a forked test process. This avoids the cost of starting
+ * a JVM, which dominates for small sets of tests.
+ *
+ * <p>The ClassLoader holds the test runtime classpath and the test framework integration, and sees only the Gradle classes the integration
+ * reports its events through. The tests share the JVM with the build, so this is only suitable for tests that do not need a JVM configuration
+ * of their own. System properties are restored once the tests have completed.</p>
+ *
+ * <p>The standard output and the system properties are global to the JVM, so only one test execution runs in the build process at a time, across
+ * all the builds of the daemon. An execution holds a worker lease while it runs, and only takes it once the previous execution has completed.</p>
+ */
+public class InProcessTestClassProcessor implements TestClassProcessor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(InProcessTestClassProcessor.class);
+    // Test ids only need to be unique within a test execution, which only uses a single kind of test class processor
+    private static final AtomicLong NEXT_EXECUTOR_ID = new AtomicLong();
+    @VisibleForTesting
+    static final Semaphore BUILD_PROCESS_TEST_EXECUTION = new Semaphore(1);
+    private static final long STOP_POLL_INTERVAL_MILLIS = 100;
+
+    private final WorkerLeaseRegistry.WorkerLease parentWorkerLease;
+
+    private final WorkerTestClassProcessorFactory processorFactory;
+    private final Iterable<File> classPath;
+    private final JavaForkOptions options;
+    private final ModuleRegistry moduleRegistry;
+    private final Clock clock;
+    private VisitableURLClassLoader testClassLoader;
+    private DefaultServiceRegistry services;
+    private WorkerLeaseRegistry.WorkerLeaseCompletion completion;
+    private Properties systemProperties;
+    private TestClassProcessor processor;
+    private boolean executing;
+    private volatile boolean stoppedNow;
+
+    public InProcessTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerTestClassProcessorFactory processorFactory, Iterable<File> classPath,
+                                       JavaForkOptions options, ModuleRegistry moduleRegistry, Clock clock) {
+        this.parentWorkerLease = parentWorkerLease;
+        this.processorFactory = processorFactory;
+        this.classPath = classPath;
+        this.options = options;
+        this.moduleRegistry = moduleRegistry;
+        this.clock = clock;
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        if (!waitForBuildProcessTestExecution()) {
+            return;
+        }
+        executing = true;
+        boolean started = false;
+        try {
+            systemProperties = (Properties) System.getProperties().clone();
+            completion = parentWorkerLease.startChild();
+            long executorId = NEXT_EXECUTOR_ID.incrementAndGet();
+            IdGenerator<Object> idGenerator = new CompositeIdGenerator(executorId, new LongIdGenerator());
+            testClassLoader = new VisitableURLClassLoader(createFrameworkApiClassLoader(), getTestClassLoaderUrls());
+            testClassLoader.setDefaultAssertionStatus(options.getEnableAssertions());
+            services = new InProcessTestServiceRegistry(clock, idGenerator);
+
+            TestClassProcessor targetProcessor = transferIntoTestClassLoader(processorFactory).create(services);
+            targetProcessor = new SuiteTestClassProcessor(new WorkerTestClassProcessor.WorkerTestSuiteDescriptor(idGenerator.generateId(), "Gradle In-Process Test Executor " + executorId),
+                targetProcessor, clock, new DefaultStandardOutputRedirector(), getMaxOutputPerTest());
+            processor = new ContextClassLoaderProxy<TestClassProcessor>(TestClassProcessor.class, targetProcessor, testClassLoader).getSource();
+            processor.startProcessing(resultProcessor);
+            started = true;
+        } finally {
+            if (!started) {
+                cleanUp();
+            }
+        }
+    }
+
+    /**
+     * Waits until no other test execution runs in the build process. Gives up when the tests are stopped in the meantime, so that a cancelled build
+     * does not wait for the tests of another one.
+     *
+     * @return true when this execution may run, false when it was stopped while waiting.
+     */
+    private boolean waitForBuildProcessTestExecution() {
+        if (BUILD_PROCESS_TEST_EXECUTION.tryAcquire()) {
+            return true;
+        }
+        LOGGER.info("Waiting for the tests of another task to complete, as only one test execution at a time runs in the build process.");
+        try {
+            while (!stoppedNow) {
+                if (BUILD_PROCESS_TEST_EXECUTION.tryAcquire(STOP_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        if (stoppedNow || !executing) {
+            return;
+        }
+        processor.processTestClass(testClass);
+    }
+
+    @Override
+    public void stop() {
+        if (!executing) {
+            return;
+        }
+        try {
+            processor.stop();
+        } finally {
+            cleanUp();
+        }
+    }
+
+    /**
+     * Tests that run in the build process cannot be interrupted. The test class that is running completes, and no further test classes are run.
+     */
+    @Override
+    public void stopNow() {
+        stoppedNow = true;
+    }
+
+    /**
+     * Releases whatever {@link #startProcessing(TestResultProcessor)} has set up, also when it failed part way.
+     */
+    private void cleanUp() {
+        executing = false;
+        try {
+            if (systemProperties != null) {
+                System.setProperties(systemProperties);
+            }
+            CompositeStoppable.stoppable(services).stop();
+            if (testClassLoader != null) {
+                // Shut down any Groovy runtime loaded by the tests, which would otherwise keep the ClassLoader alive
+                GroovySystemLoader groovySystemLoader = new GroovySystemLoaderFactory().forClassLoader(testClassLoader);
+                groovySystemLoader.shutdown();
+                try {
+                    testClassLoader.close();
+                } catch (IOException e) {
+                    LOGGER.debug("Could not close the ClassLoader of the tests.", e);
+                }
+            }
+        } finally {
+            try {
+                if (completion != null) {
+                    completion.leaseFinish();
+                }
+            } finally {
+                BUILD_PROCESS_TEST_EXECUTION.release();
+            }
+        }
+    }
+
+    /**
+     * Makes the Gradle classes the test framework integration reports its events through and uses at runtime visible to the tests, but not the
+     * integration itself, which must see the test framework of the test runtime classpath. Any other class, such as a test class in a package of
+     * its own below {@code org.gradle} or the logging binding of the tests, is loaded from the test runtime classpath.
+     */
+    private ClassLoader createFrameworkApiClassLoader() {
+        FilteringClassLoader.Spec spec = new FilteringClassLoader.Spec();
+        spec.allowPackage("org.gradle.api.internal.tasks.testing");
+        spec.allowPackage("org.gradle.api.tasks.testing");
+        spec.allowPackage("org.gradle.internal.actor");
+        spec.allowPackage("org.gradle.internal.concurrent");
+        spec.allowPackage("org.gradle.internal.dispatch");
+        spec.allowPackage("org.gradle.internal.id");
+        spec.allowPackage("org.gradle.internal.reflect");
+        spec.allowPackage("org.gradle.internal.service");
+        spec.allowPackage("org.gradle.internal.time");
+        spec.allowClass(Action.class);
+        spec.allowClass(GradleException.class);
+        spec.allowClass(InvalidUserDataException.class);
+        spec.allowClass(UncheckedException.class);
+        spec.allowClass(CollectionUtils.class);
+        spec.allowClass(GFileUtils.class);
+        spec.disallowPackage("org.gradle.api.internal.tasks.testing.junit");
+        spec.disallowPackage("org.gradle.api.internal.tasks.testing.junitplatform");
+        spec.disallowPackage("org.gradle.api.internal.tasks.testing.testng");
+        return new FilteringClassLoader(getClass().getClassLoader(), spec);
+    }
+
+    /**
+     * Returns the test runtime classpath, followed by the test framework integration. The test framework and the logging API of the test runtime classpath
+     * take precedence over those Gradle ships with.
+     */
+    private List<URL> getTestClassLoaderUrls() {
+        return CollectionUtils.flattenCollections(URL.class,
+            DefaultClassPath.of(classPath).getAsURLs(),
+            moduleRegistry.getModule("gradle-testing-base").getImplementationClasspath().getAsURLs(),
+            moduleRegistry.getModule("gradle-testing-jvm").getImplementationClasspath().getAsURLs(),
+            moduleRegistry.getModule("gradle-testing-junit-platform").getImplementationClasspath().getAsURLs(),
+            moduleRegistry.getExternalModule("junit-platform-engine").getImplementationClasspath().getAsURLs(),
+            moduleRegistry.getExternalModule("junit-platform-launcher").getImplementationClasspath().getAsURLs(),
+            moduleRegistry.getExternalModule("junit-platform-commons").getImplementationClasspath().getAsURLs(),
+            moduleRegistry.getExternalModule("junit").getImplementationClasspath().getAsURLs(),
+            moduleRegistry.getExternalModule("slf4j-api").getImplementationClasspath().getAsURLs()
+        );
+    }
+
+    private long getMaxOutputPerTest() {
+        Object maxOutputPerTest = options.getSystemProperties().get(TruncatingTestOutputTestResultProcessor.MAX_OUTPUT_PER_TEST_PROPERTY);
+        return maxOutputPerTest == null ? 0 : Long.parseLong(maxOutputPerTest.toString());
+    }
+
+    private WorkerTestClassProcessorFactory transferIntoTestClassLoader(WorkerTestClassProcessorFactory processorFactory) {
+        try {
+            ObjectInputStream inputStream = new ClassLoaderObjectInputStream(new ByteArrayInputStream(GUtil.serialize(processorFactory)), testClassLoader);
+            try {
+                return (WorkerTestClassProcessorFactory) inputStream.readObject();
+            } finally {
+                inputStream.close();
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    /**
+     * Provides the services of a test framework integration. The executors are closed along with the registry once the tests have completed.
+     */
+    private static class InProcessTestServiceRegistry extends DefaultServiceRegistry {
+        private final Clock clock;
+        private final IdGenerator<Object> idGenerator;
+
+        InProcessTestServiceRegistry(Clock clock, IdGenerator<Object> idGenerator) {
+            this.clock = clock;
+            this.idGenerator = idGenerator;
+        }
+
+        protected Clock createClock() {
+            return clock;
+        }
+
+        protected IdGenerator<Object> createIdGenerator() {
+            return idGenerator;
+        }
+
+        protected ExecutorFactory createExecutorFactory() {
+            return new DefaultExecutorFactory();
+        }
+
+        protected ActorFactory createActorFactory(ExecutorFactory executorFactory) {
+            return new DefaultActorFactory(executorFactory);
+        }
+    }
+}
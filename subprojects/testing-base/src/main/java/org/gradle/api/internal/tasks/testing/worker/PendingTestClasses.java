@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.dispatch.StreamCompletion;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps track of the test classes a worker has been sent and not yet finished with, so that the next test class is only sent once the worker is idle.
+ * Stops waiting when the worker disconnects, for example because it crashed.
+ */
+class PendingTestClasses implements TestClassCompletionListener, StreamCompletion {
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private int pending;
+    private boolean finished;
+
+    void added() {
+        lock.lock();
+        try {
+            pending++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void testClassCompleted() {
+        lock.lock();
+        try {
+            pending--;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void endStream() {
+        lock.lock();
+        try {
+            finished = true;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until the worker has finished with every test class it has been sent, or will not report any further progress.
+     */
+    void awaitCompletion() {
+        lock.lock();
+        try {
+            while (pending > 0 && !finished) {
+                condition.await();
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -17,6 +17,10 @@
 package org.gradle.api.internal.tasks.testing.worker;
 
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+
+import java.io.File;
+import java.util.List;
 
 /**
  * @see org.gradle.api.internal.tasks.testing.TestClassProcessor
@@ -27,6 +31,11 @@ public interface RemoteTestClassProcessor {
      */
     void startProcessing();
 
+    /**
+     * Starts a run of a reused worker, with the classes of the given directories loaded in a ClassLoader of their own. Does not block.
+     */
+    void startRun(WorkerTestClassProcessorFactory factory, List<File> classDirectories);
+
     /**
      * Does not block.
      */
@@ -36,4 +45,9 @@ public interface RemoteTestClassProcessor {
      * Does not block.
      */
     void stop();
+
+    /**
+     * Stops a reused worker, once the current run has stopped. Does not block.
+     */
+    void stopWorker();
 }
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.dispatch.StreamCompletion;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.process.internal.ExecException;
+import org.gradle.process.internal.worker.WorkerProcess;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A forked test worker that runs the tests of several test executions, one after the other. The events of each run are routed to the result processor of that run.
+ *
+ * <p>The end of a run is detected from the completion of the worker's test suite, which is the last event the worker sends for a run. The events
+ * and the test class completions are received on separate channels, so the end of the run cannot be signalled on a channel of its own.</p>
+ */
+class ReusableTestWorker implements Stoppable {
+    private final Object key;
+    private final LogLevel logLevel;
+    private final String maxHeapSize;
+    private final WorkerProcess workerProcess;
+    private final RemoteTestClassProcessor remoteProcessor;
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private TestResultProcessor resultProcessor;
+    private PendingTestClasses pendingTestClasses;
+    private Object runSuiteId;
+    private boolean running;
+    private boolean disconnected;
+    private int runs;
+
+    ReusableTestWorker(Object key, LogLevel logLevel, @Nullable String maxHeapSize, WorkerProcess workerProcess) {
+        this.key = key;
+        this.logLevel = logLevel;
+        this.maxHeapSize = maxHeapSize;
+        this.workerProcess = workerProcess;
+        ObjectConnection connection = workerProcess.getConnection();
+        connection.useParameterSerializers(TestEventSerializer.create());
+        connection.addIncoming(TestEventBatchProcessor.class, new TestEventBatchDispatcher(new RunResultProcessor()));
+        connection.addIncoming(TestClassCompletionListener.class, new RunCompletionListener());
+        remoteProcessor = connection.addOutgoing(RemoteTestClassProcessor.class);
+        connection.connect();
+    }
+
+    Object getKey() {
+        return key;
+    }
+
+    LogLevel getLogLevel() {
+        return logLevel;
+    }
+
+    @Nullable
+    String getMaxHeapSize() {
+        return maxHeapSize;
+    }
+
+    WorkerProcess getWorkerProcess() {
+        return workerProcess;
+    }
+
+    /**
+     * Returns the number of runs this worker has been used for.
+     */
+    int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Starts a run that reports to the given result processor and pending test classes.
+     */
+    RemoteTestClassProcessor startRun(WorkerTestClassProcessorFactory processorFactory, List<File> classDirectories, TestResultProcessor resultProcessor, PendingTestClasses pendingTestClasses) {
+        lock.lock();
+        try {
+            this.resultProcessor = resultProcessor;
+            this.pendingTestClasses = pendingTestClasses;
+            runSuiteId = null;
+            running = true;
+            runs++;
+        } finally {
+            lock.unlock();
+        }
+        remoteProcessor.startRun(processorFactory, classDirectories);
+        return remoteProcessor;
+    }
+
+    /**
+     * Blocks until the worker has sent every event of the current run.
+     *
+     * @return true when the run has completed, false when the worker disconnected before the end of the run.
+     */
+    boolean awaitRunCompletion() {
+        lock.lock();
+        try {
+            while (running && !disconnected) {
+                condition.await();
+            }
+            return !running;
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            if (!disconnected) {
+                remoteProcessor.stopWorker();
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            workerProcess.waitForStop();
+        } catch (ExecException e) {
+            // The tests of this worker have all completed, so a failure to exit cleanly does not affect any results
+        }
+    }
+
+    private TestResultProcessor currentResultProcessor() {
+        lock.lock();
+        try {
+            return resultProcessor;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private class RunResultProcessor implements TestResultProcessor, StreamCompletion {
+        @Override
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            lock.lock();
+            try {
+                if (runSuiteId == null) {
+                    runSuiteId = test.getId();
+                }
+            } finally {
+                lock.unlock();
+            }
+            currentResultProcessor().started(test, event);
+        }
+
+        @Override
+        public void completed(Object testId, TestCompleteEvent event) {
+            currentResultProcessor().completed(testId, event);
+            lock.lock();
+            try {
+                if (testId.equals(runSuiteId)) {
+                    running = false;
+                    resultProcessor = null;
+                    pendingTestClasses = null;
+                    condition.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void output(Object testId, TestOutputEvent event) {
+            currentResultProcessor().output(testId, event);
+        }
+
+        @Override
+        public void failure(Object testId, Throwable result) {
+            currentResultProcessor().failure(testId, result);
+        }
+
+        @Override
+        public void endStream() {
+            lock.lock();
+            try {
+                disconnected = true;
+                condition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private class RunCompletionListener implements TestClassCompletionListener, StreamCompletion {
+        @Override
+        public void testClassCompleted() {
+            PendingTestClasses pendingTestClasses = currentPendingTestClasses();
+            if (pendingTestClasses != null) {
+                pendingTestClasses.testClassCompleted();
+            }
+        }
+
+        @Override
+        public void endStream() {
+            PendingTestClasses pendingTestClasses = currentPendingTestClasses();
+            if (pendingTestClasses != null) {
+                pendingTestClasses.endStream();
+            }
+        }
+
+        private PendingTestClasses currentPendingTestClasses() {
+            lock.lock();
+            try {
+                return pendingTestClasses;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.logging.LoggingManagerInternal;
+import org.gradle.process.internal.health.memory.MaximumHeapHelper;
+import org.gradle.process.internal.health.memory.MemoryAmount;
+import org.gradle.process.internal.health.memory.MemoryHolder;
+import org.gradle.process.internal.health.memory.MemoryManager;
+import org.gradle.process.internal.health.memory.TotalPhysicalMemoryProvider;
+import org.gradle.process.internal.worker.WorkerProcess;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Keeps forked test workers alive in the daemon once their tests have completed, so that later test executions with the same worker configuration can reuse them.
+ *
+ * <p>Like idle worker daemons, idle test workers are stopped, longest idle first, when the system runs low on memory.</p>
+ */
+public class ReusableTestWorkerPool implements Stoppable, MemoryHolder {
+    private static final Logger LOGGER = Logging.getLogger(ReusableTestWorkerPool.class);
+
+    private final Object lock = new Object();
+    private final List<ReusableTestWorker> idleWorkers = new ArrayList<ReusableTestWorker>();
+    private final LoggingManagerInternal loggingManager;
+    private final MemoryManager memoryManager;
+    private final int maxIdleWorkers;
+    private final long osTotalMemory;
+
+    public ReusableTestWorkerPool(LoggingManagerInternal loggingManager, MemoryManager memoryManager) {
+        this(loggingManager, memoryManager, Runtime.getRuntime().availableProcessors(), getTotalPhysicalMemory());
+    }
+
+    ReusableTestWorkerPool(LoggingManagerInternal loggingManager, MemoryManager memoryManager, int maxIdleWorkers, long osTotalMemory) {
+        this.loggingManager = loggingManager;
+        this.memoryManager = memoryManager;
+        this.maxIdleWorkers = maxIdleWorkers;
+        this.osTotalMemory = osTotalMemory;
+        memoryManager.addMemoryHolder(this);
+    }
+
+    /**
+     * Reserves an idle worker with the given configuration, or starts a new one when there is none.
+     *
+     * @param maxHeapSize The maximum heap size of the worker, used to estimate the memory released by stopping it.
+     */
+    ReusableTestWorker reserve(Object key, @Nullable String maxHeapSize, Factory<WorkerProcess> workerProcessFactory) {
+        LogLevel logLevel = loggingManager.getLevel();
+        List<ReusableTestWorker> outOfDate = new ArrayList<ReusableTestWorker>();
+        ReusableTestWorker reserved = null;
+        synchronized (lock) {
+            Iterator<ReusableTestWorker> it = idleWorkers.iterator();
+            while (it.hasNext()) {
+                ReusableTestWorker candidate = it.next();
+                if (candidate.getKey().equals(key)) {
+                    it.remove();
+                    if (candidate.getLogLevel() != logLevel) {
+                        outOfDate.add(candidate);
+                    } else {
+                        reserved = candidate;
+                        break;
+                    }
+                }
+            }
+        }
+        if (!outOfDate.isEmpty()) {
+            LOGGER.info("Log level has changed, stopping {} idle test worker(s) with out-of-date log level.", outOfDate.size());
+            CompositeStoppable.stoppable(outOfDate).stop();
+        }
+        if (reserved != null) {
+            LOGGER.debug("Reusing idle test worker after {} run(s).", reserved.getRuns());
+            return reserved;
+        }
+        //allow workers to be started concurrently
+        return new ReusableTestWorker(key, logLevel, maxHeapSize, workerProcessFactory.create());
+    }
+
+    /**
+     * Makes the given worker available to later test executions, or stops it when it has been reused the given number of times.
+     */
+    void release(ReusableTestWorker worker, int maxReuses) {
+        ReusableTestWorker toStop = worker;
+        if (worker.getRuns() <= maxReuses) {
+            synchronized (lock) {
+                idleWorkers.add(worker);
+                toStop = idleWorkers.size() > maxIdleWorkers ? idleWorkers.remove(0) : null;
+            }
+        }
+        if (toStop != null) {
+            LOGGER.debug("Stopping test worker after {} run(s).", toStop.getRuns());
+            toStop.stop();
+        }
+    }
+
+    @Override
+    public long attemptToRelease(long memoryAmountBytes) throws IllegalArgumentException {
+        if (memoryAmountBytes < 0) {
+            throw new IllegalArgumentException("Negative memory amount");
+        }
+        List<ReusableTestWorker> toStop = new ArrayList<ReusableTestWorker>();
+        long releasedBytes = 0;
+        synchronized (lock) {
+            Iterator<ReusableTestWorker> it = idleWorkers.iterator();
+            while (releasedBytes < memoryAmountBytes && it.hasNext()) {
+                ReusableTestWorker worker = it.next();
+                it.remove();
+                toStop.add(worker);
+                releasedBytes += getMemoryUsage(worker);
+            }
+        }
+        if (!toStop.isEmpty()) {
+            LOGGER.debug("Stopping {} idle test worker(s) to free some system memory.", toStop.size());
+            CompositeStoppable.stoppable(toStop).stop();
+        }
+        return releasedBytes;
+    }
+
+    /**
+     * Uses the maximum heap size of the worker, as test workers do not report their actual memory usage.
+     */
+    private long getMemoryUsage(ReusableTestWorker worker) {
+        long maxHeapSize = MemoryAmount.parseNotation(worker.getMaxHeapSize());
+        if (maxHeapSize != -1) {
+            return maxHeapSize;
+        }
+        if (osTotalMemory != -1) {
+            return new MaximumHeapHelper().getDefaultMaximumHeapSize(osTotalMemory);
+        }
+        return 0;
+    }
+
+    private static long getTotalPhysicalMemory() {
+        try {
+            return TotalPhysicalMemoryProvider.getTotalPhysicalMemory();
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public void stop() {
+        memoryManager.removeMemoryHolder(this);
+        List<ReusableTestWorker> workers;
+        synchronized (lock) {
+            workers = new ArrayList<ReusableTestWorker>(idleWorkers);
+            idleWorkers.clear();
+        }
+        if (!workers.isEmpty()) {
+            LOGGER.debug("Stopping {} idle test worker(s).", workers.size());
+            CompositeStoppable.stoppable(workers).stop();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A sequence of test events that a test worker sends to the build process as a single message. Events are added to the batch
+ * through its {@link TestResultProcessor} methods, and replayed in the same order by {@link #dispatch(TestResultProcessor)}. Consecutive output
+ * of the same test and destination is combined into a single event, so that noisy tests do not send an event for every line they write.
+ */
+public class TestEventBatch implements TestResultProcessor {
+    private final List<Event> events;
+    private long outputLength;
+
+    public TestEventBatch() {
+        this(new ArrayList<Event>());
+    }
+
+    TestEventBatch(List<Event> events) {
+        this.events = events;
+    }
+
+    List<Event> getEvents() {
+        return events;
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+
+    /**
+     * Returns the number of characters of test output in this batch.
+     */
+    public long getOutputLength() {
+        return outputLength;
+    }
+
+    @Override
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        events.add(new Started(test, event));
+    }
+
+    @Override
+    public void completed(Object testId, TestCompleteEvent event) {
+        events.add(new Completed(testId, event));
+    }
+
+    @Override
+    public void output(Object testId, TestOutputEvent event) {
+        Event last = events.isEmpty() ? null : events.get(events.size() - 1);
+        if (last instanceof Output && ((Output) last).appendIfSameOwner(testId, event)) {
+            outputLength += event.getMessage().length();
+            return;
+        }
+        events.add(new Output(testId, event));
+        outputLength += event.getMessage().length();
+    }
+
+    @Override
+    public void failure(Object testId, Throwable result) {
+        events.add(new Failure(testId, result));
+    }
+
+    public void dispatch(TestResultProcessor processor) {
+        for (Event event : events) {
+            event.dispatch(processor);
+        }
+    }
+
+    static abstract class Event {
+        abstract void dispatch(TestResultProcessor processor);
+    }
+
+    static class Started extends Event {
+        final TestDescriptorInternal test;
+        final TestStartEvent event;
+
+        Started(TestDescriptorInternal test, TestStartEvent event) {
+            this.test = test;
+            this.event = event;
+        }
+
+        @Override
+        void dispatch(TestResultProcessor processor) {
+            processor.started(test, event);
+        }
+    }
+
+    static class Completed extends Event {
+        final Object testId;
+        final TestCompleteEvent event;
+
+        Completed(Object testId, TestCompleteEvent event) {
+            this.testId = testId;
+            this.event = event;
+        }
+
+        @Override
+        void dispatch(TestResultProcessor processor) {
+            processor.completed(testId, event);
+        }
+    }
+
+    static class Output extends Event {
+        final Object testId;
+        private TestOutputEvent event;
+        private StringBuilder combinedMessage;
+
+        Output(Object testId, TestOutputEvent event) {
+            this.testId = testId;
+            this.event = event;
+        }
+
+        TestOutputEvent getEvent() {
+            if (combinedMessage != null) {
+                event = new DefaultTestOutputEvent(event.getDestination(), combinedMessage.toString());
+                combinedMessage = null;
+            }
+            return event;
+        }
+
+        boolean appendIfSameOwner(Object testId, TestOutputEvent event) {
+            if (!this.testId.equals(testId) || this.event.getDestination() != event.getDestination()) {
+                return false;
+            }
+            if (combinedMessage == null) {
+                combinedMessage = new StringBuilder(this.event.getMessage());
+            }
+            combinedMessage.append(event.getMessage());
+            return true;
+        }
+
+        @Override
+        void dispatch(TestResultProcessor processor) {
+            processor.output(testId, getEvent());
+        }
+    }
+
+    static class Failure extends Event {
+        final Object testId;
+        final Throwable result;
+
+        Failure(Object testId, Throwable result) {
+            this.testId = testId;
+            this.result = result;
+        }
+
+        @Override
+        void dispatch(TestResultProcessor processor) {
+            processor.failure(testId, result);
+        }
+    }
+}
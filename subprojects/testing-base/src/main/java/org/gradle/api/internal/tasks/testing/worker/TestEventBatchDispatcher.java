@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.internal.dispatch.StreamCompletion;
+
+/**
+ * Replays the batches of test events received from a test worker to a {@link TestResultProcessor}.
+ */
+class TestEventBatchDispatcher implements TestEventBatchProcessor, StreamCompletion {
+    private final TestResultProcessor resultProcessor;
+
+    TestEventBatchDispatcher(TestResultProcessor resultProcessor) {
+        this.resultProcessor = resultProcessor;
+    }
+
+    @Override
+    public void process(TestEventBatch batch) {
+        batch.dispatch(resultProcessor);
+    }
+
+    @Override
+    public void endStream() {
+        if (resultProcessor instanceof StreamCompletion) {
+            ((StreamCompletion) resultProcessor).endStream();
+        }
+    }
+}
@@ -22,6 +22,9 @@ import org.gradle.api.tasks.testing.TestResult;
 import org.gradle.internal.id.CompositeIdGenerator;
 import org.gradle.internal.serialize.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class TestEventSerializer {
     public static SerializerRegistry create() {
         BaseSerializerFactory factory = new BaseSerializerFactory();
@@ -37,6 +40,7 @@ public class TestEventSerializer {
         registry.register(TestCompleteEvent.class, new TestCompleteEventSerializer());
         registry.register(DefaultTestOutputEvent.class, new DefaultTestOutputEventSerializer());
         registry.register(Throwable.class, factory.getSerializerFor(Throwable.class));
+        registry.register(TestEventBatch.class, new TestEventBatchSerializer(registry.build(TestDescriptorInternal.class), factory.getSerializerFor(Throwable.class)));
         return registry;
     }
 
@@ -67,13 +71,116 @@ public class TestEventSerializer {
     private static class IdSerializer implements Serializer<CompositeIdGenerator.CompositeId> {
         @Override
         public CompositeIdGenerator.CompositeId read(Decoder decoder) throws Exception {
-            return new CompositeIdGenerator.CompositeId(decoder.readLong(), decoder.readLong());
+            return new CompositeIdGenerator.CompositeId(decoder.readSmallLong(), decoder.readSmallLong());
         }
 
         @Override
         public void write(Encoder encoder, CompositeIdGenerator.CompositeId value) throws Exception {
-            encoder.writeLong((Long) value.getScope());
-            encoder.writeLong((Long) value.getId());
+            encoder.writeSmallLong((Long) value.getScope());
+            encoder.writeSmallLong((Long) value.getId());
+        }
+    }
+
+    /**
+     * Writes the events of a batch without the per event overhead of the method invocations they stand for. Times are written relative
+     * to the previous time in the batch, as the events of a batch usually happen within a few milliseconds of each other.
+     */
+    private static class TestEventBatchSerializer implements Serializer<TestEventBatch> {
+        private static final byte STARTED = 0;
+        private static final byte COMPLETED = 1;
+        private static final byte OUTPUT = 2;
+        private static final byte FAILURE = 3;
+
+        private final Serializer<TestDescriptorInternal> descriptorSerializer;
+        private final Serializer<Throwable> throwableSerializer;
+        private final Serializer<CompositeIdGenerator.CompositeId> idSerializer = new IdSerializer();
+        private final Serializer<CompositeIdGenerator.CompositeId> parentIdSerializer = new NullableSerializer<CompositeIdGenerator.CompositeId>(idSerializer);
+        private final Serializer<TestResult.ResultType> typeSerializer = new NullableSerializer<TestResult.ResultType>(new BaseSerializerFactory().getSerializerFor(TestResult.ResultType.class));
+        private final Serializer<TestOutputEvent.Destination> destinationSerializer = new BaseSerializerFactory().getSerializerFor(TestOutputEvent.Destination.class);
+
+        TestEventBatchSerializer(Serializer<TestDescriptorInternal> descriptorSerializer, Serializer<Throwable> throwableSerializer) {
+            this.descriptorSerializer = descriptorSerializer;
+            this.throwableSerializer = throwableSerializer;
+        }
+
+        @Override
+        public TestEventBatch read(Decoder decoder) throws Exception {
+            int count = decoder.readSmallInt();
+            List<TestEventBatch.Event> events = new ArrayList<TestEventBatch.Event>(count);
+            long time = 0;
+            for (int i = 0; i < count; i++) {
+                byte type = decoder.readByte();
+                switch (type) {
+                    case STARTED:
+                        TestDescriptorInternal test = descriptorSerializer.read(decoder);
+                        time += readTimeDelta(decoder);
+                        events.add(new TestEventBatch.Started(test, new TestStartEvent(time, parentIdSerializer.read(decoder))));
+                        break;
+                    case COMPLETED:
+                        Object completedId = idSerializer.read(decoder);
+                        time += readTimeDelta(decoder);
+                        events.add(new TestEventBatch.Completed(completedId, new TestCompleteEvent(time, typeSerializer.read(decoder))));
+                        break;
+                    case OUTPUT:
+                        Object outputId = idSerializer.read(decoder);
+                        TestOutputEvent.Destination destination = destinationSerializer.read(decoder);
+                        events.add(new TestEventBatch.Output(outputId, new DefaultTestOutputEvent(destination, decoder.readString())));
+                        break;
+                    case FAILURE:
+                        Object failedId = idSerializer.read(decoder);
+                        events.add(new TestEventBatch.Failure(failedId, throwableSerializer.read(decoder)));
+                        break;
+                    default:
+                        throw new IllegalArgumentException(String.format("Unexpected test event type %d found.", type));
+                }
+            }
+            return new TestEventBatch(events);
+        }
+
+        @Override
+        public void write(Encoder encoder, TestEventBatch value) throws Exception {
+            List<TestEventBatch.Event> events = value.getEvents();
+            encoder.writeSmallInt(events.size());
+            long time = 0;
+            for (TestEventBatch.Event event : events) {
+                if (event instanceof TestEventBatch.Started) {
+                    TestEventBatch.Started started = (TestEventBatch.Started) event;
+                    encoder.writeByte(STARTED);
+                    descriptorSerializer.write(encoder, started.test);
+                    writeTimeDelta(encoder, started.event.getStartTime() - time);
+                    time = started.event.getStartTime();
+                    parentIdSerializer.write(encoder, (CompositeIdGenerator.CompositeId) started.event.getParentId());
+                } else if (event instanceof TestEventBatch.Completed) {
+                    TestEventBatch.Completed completed = (TestEventBatch.Completed) event;
+                    encoder.writeByte(COMPLETED);
+                    idSerializer.write(encoder, (CompositeIdGenerator.CompositeId) completed.testId);
+                    writeTimeDelta(encoder, completed.event.getEndTime() - time);
+                    time = completed.event.getEndTime();
+                    typeSerializer.write(encoder, completed.event.getResultType());
+                } else if (event instanceof TestEventBatch.Output) {
+                    TestEventBatch.Output output = (TestEventBatch.Output) event;
+                    encoder.writeByte(OUTPUT);
+                    idSerializer.write(encoder, (CompositeIdGenerator.CompositeId) output.testId);
+                    TestOutputEvent outputEvent = output.getEvent();
+                    destinationSerializer.write(encoder, outputEvent.getDestination());
+                    encoder.writeString(outputEvent.getMessage());
+                } else {
+                    TestEventBatch.Failure failure = (TestEventBatch.Failure) event;
+                    encoder.writeByte(FAILURE);
+                    idSerializer.write(encoder, (CompositeIdGenerator.CompositeId) failure.testId);
+                    throwableSerializer.write(encoder, failure.result);
+                }
+            }
+        }
+
+        private static void writeTimeDelta(Encoder encoder, long delta) throws Exception {
+            // Zig-zag encode the delta, so that a clock going backwards still has a short encoding
+            encoder.writeSmallLong((delta << 1) ^ (delta >> 63));
+        }
+
+        private static long readTimeDelta(Decoder decoder) throws Exception {
+            long value = decoder.readSmallLong();
+            return (value >>> 1) ^ -(value & 1);
         }
     }
 
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.internal.UncheckedException;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+/**
+ * Loads the classes of the given class directories itself rather than from its parent, so that every run of a reused test worker sees the current classes
+ * and starts with fresh static state. Classes from jars are shared with earlier runs, which keeps them warm.
+ */
+class TestRunClassLoader extends URLClassLoader {
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    TestRunClassLoader(List<File> classDirectories, ClassLoader parent) {
+        super(toUrls(classDirectories), parent);
+    }
+
+    private static URL[] toUrls(List<File> classDirectories) {
+        URL[] urls = new URL[classDirectories.size()];
+        for (int i = 0; i < urls.length; i++) {
+            try {
+                urls[i] = classDirectories.get(i).toURI().toURL();
+            } catch (MalformedURLException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        return urls;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> result = findLoadedClass(name);
+            if (result == null) {
+                if (findResource(name.replace('.', '/') + ".class") != null) {
+                    result = findClass(name);
+                } else {
+                    result = getParent().loadClass(name);
+                }
+            }
+            if (resolve) {
+                resolveClass(result);
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public URL getResource(String name) {
+        URL resource = findResource(name);
+        if (resource != null) {
+            return resource;
+        }
+        return getParent().getResource(name);
+    }
+}
@@ -19,41 +19,65 @@ package org.gradle.api.internal.tasks.testing.worker;
 import org.gradle.api.Action;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
-import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.actor.ActorFactory;
 import org.gradle.internal.actor.internal.DefaultActorFactory;
 import org.gradle.internal.concurrent.DefaultExecutorFactory;
 import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedScheduledExecutor;
 import org.gradle.internal.dispatch.ContextClassLoaderProxy;
 import org.gradle.internal.id.CompositeIdGenerator;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.internal.id.LongIdGenerator;
 import org.gradle.internal.remote.ObjectConnection;
 import org.gradle.internal.service.DefaultServiceRegistry;
-import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.time.Clock;
 import org.gradle.process.internal.worker.WorkerProcessContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
 import java.security.AccessControlException;
+import java.util.List;
+import java.util.Properties;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Runs the tests of a forked test process. A worker created with a test class processor factory runs the tests of a single test execution and then exits.
+ * A worker created without a factory is reused by several test executions, each of which starts its own run with {@link #startRun(WorkerTestClassProcessorFactory, List)}.
+ */
 public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClassProcessor, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(TestWorker.class);
     public static final String WORKER_ID_SYS_PROPERTY = "org.gradle.test.worker";
+    @Nullable
     private final WorkerTestClassProcessorFactory factory;
     private CountDownLatch completed;
+    private WorkerProcessContext workerProcessContext;
+    private IdGenerator<Object> idGenerator;
     private TestClassProcessor processor;
-    private TestResultProcessor resultProcessor;
+    private BatchingTestEventProcessor resultProcessor;
+    private ManagedScheduledExecutor flushExecutor;
+    private TestClassCompletionListener completionListener;
+    private DefaultServiceRegistry runServices;
+    private TestRunClassLoader runClassLoader;
+    private Properties runSystemProperties;
 
     public TestWorker(WorkerTestClassProcessorFactory factory) {
         this.factory = factory;
     }
 
+    /**
+     * Creates a worker that is reused by several test executions.
+     */
+    public TestWorker() {
+        this.factory = null;
+    }
+
     @Override
     public void execute(final WorkerProcessContext workerProcessContext) {
         LOGGER.info("{} started executing tests.", workerProcessContext.getDisplayName());
@@ -62,8 +86,13 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
 
         System.setProperty(WORKER_ID_SYS_PROPERTY, workerProcessContext.getWorkerId().toString());
 
-        DefaultServiceRegistry testServices = new TestFrameworkServiceRegistry(workerProcessContext);
-        startReceivingTests(workerProcessContext, testServices);
+        // Ids are unique across the runs of the worker, as several runs of a reused worker may report to the same test execution
+        this.workerProcessContext = workerProcessContext;
+        this.idGenerator = new CompositeIdGenerator(workerProcessContext.getWorkerId(), new LongIdGenerator());
+        if (factory != null) {
+            createProcessor(factory, workerProcessContext.getApplicationClassLoader());
+        }
+        startReceivingTests(workerProcessContext);
 
         try {
             try {
@@ -73,27 +102,38 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
             }
         } finally {
             LOGGER.info("{} finished executing tests.", workerProcessContext.getDisplayName());
-            // Clean out any security manager the tests might have installed
-            System.setSecurityManager(null);
-            testServices.close();
+            endRun();
+            flushExecutor.stop();
+            resultProcessor.flush();
         }
     }
 
-    private void startReceivingTests(WorkerProcessContext workerProcessContext, ServiceRegistry testServices) {
-        TestClassProcessor targetProcessor = factory.create(testServices);
-        IdGenerator<Object> idGenerator = testServices.get(IdGenerator.class);
+    private void createProcessor(WorkerTestClassProcessorFactory factory, ClassLoader applicationClassLoader) {
+        runServices = new TestFrameworkServiceRegistry(workerProcessContext, idGenerator);
+        TestClassProcessor targetProcessor = factory.create(runServices);
 
         targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(),
-                workerProcessContext.getDisplayName(), testServices.get(Clock.class));
+                workerProcessContext.getDisplayName(), runServices.get(Clock.class));
         ContextClassLoaderProxy<TestClassProcessor> proxy = new ContextClassLoaderProxy<TestClassProcessor>(
-                TestClassProcessor.class, targetProcessor, workerProcessContext.getApplicationClassLoader());
+                TestClassProcessor.class, targetProcessor, applicationClassLoader);
         processor = proxy.getSource();
+    }
 
+    private void startReceivingTests(WorkerProcessContext workerProcessContext) {
         ObjectConnection serverConnection = workerProcessContext.getServerConnection();
         serverConnection.useParameterSerializers(TestEventSerializer.create());
-        this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
+        this.resultProcessor = new BatchingTestEventProcessor(serverConnection.addOutgoing(TestEventBatchProcessor.class));
+        this.completionListener = serverConnection.addOutgoing(TestClassCompletionListener.class);
         serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
         serverConnection.connect();
+
+        flushExecutor = new DefaultExecutorFactory().createScheduled("Test event batching", 1);
+        flushExecutor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                resultProcessor.flush();
+            }
+        }, BatchingTestEventProcessor.MAX_BATCH_DELAY_MILLIS, BatchingTestEventProcessor.MAX_BATCH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
     }
 
     @Override
@@ -102,6 +142,15 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         processor.startProcessing(resultProcessor);
     }
 
+    @Override
+    public void startRun(WorkerTestClassProcessorFactory factory, List<File> classDirectories) {
+        Thread.currentThread().setName("Test worker");
+        runSystemProperties = (Properties) System.getProperties().clone();
+        runClassLoader = new TestRunClassLoader(classDirectories, workerProcessContext.getApplicationClassLoader());
+        createProcessor(factory, runClassLoader);
+        processor.startProcessing(resultProcessor);
+    }
+
     @Override
     public void processTestClass(final TestClassRunInfo testClass) {
         Thread.currentThread().setName("Test worker");
@@ -113,6 +162,7 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         } finally {
             // Clean the interrupted status
             Thread.interrupted();
+            completionListener.testClassCompleted();
         }
     }
 
@@ -122,18 +172,56 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         try {
             processor.stop();
         } finally {
-            completed.countDown();
+            // Send the remaining events of the run, which include the completion of the run, before the worker exits or waits for the next run
+            resultProcessor.flush();
+            if (factory != null) {
+                completed.countDown();
+            } else {
+                endRun();
+            }
             // Clean the interrupted status
             // because some test class processors do work here, e.g. JUnitPlatform
             Thread.interrupted();
         }
     }
 
+    @Override
+    public void stopWorker() {
+        completed.countDown();
+    }
+
+    /**
+     * Cleans up after the tests of a run, so that they do not affect a later run of the same worker.
+     */
+    private synchronized void endRun() {
+        // Clean out any security manager the tests might have installed
+        System.setSecurityManager(null);
+        if (runServices != null) {
+            runServices.close();
+            runServices = null;
+        }
+        processor = null;
+        if (runSystemProperties != null) {
+            System.setProperties(runSystemProperties);
+            runSystemProperties = null;
+        }
+        if (runClassLoader != null) {
+            try {
+                runClassLoader.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close the class loader of a test run.", e);
+            }
+            runClassLoader = null;
+        }
+    }
+
     private static class TestFrameworkServiceRegistry extends DefaultServiceRegistry {
         private final WorkerProcessContext workerProcessContext;
+        private final IdGenerator<Object> idGenerator;
 
-        public TestFrameworkServiceRegistry(WorkerProcessContext workerProcessContext) {
+        public TestFrameworkServiceRegistry(WorkerProcessContext workerProcessContext, IdGenerator<Object> idGenerator) {
             this.workerProcessContext = workerProcessContext;
+            this.idGenerator = idGenerator;
         }
 
         protected Clock createClock() {
@@ -141,7 +229,7 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         }
 
         protected IdGenerator<Object> createIdGenerator() {
-            return new CompositeIdGenerator(workerProcessContext.getWorkerId(), new LongIdGenerator());
+            return idGenerator;
         }
 
         protected ExecutorFactory createExecutorFactory() {
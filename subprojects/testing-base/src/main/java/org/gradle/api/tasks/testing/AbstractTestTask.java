@@ -20,6 +20,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import groovy.lang.Closure;
+import org.gradle.StartParameter;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.Incubating;
@@ -35,6 +36,7 @@ import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
 import org.gradle.api.internal.tasks.testing.junit.result.Binary2JUnitXmlReportGenerator;
 import org.gradle.api.internal.tasks.testing.junit.result.InMemoryTestResultsProvider;
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassDurationStore;
 import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestOutputAssociation;
 import org.gradle.api.internal.tasks.testing.junit.result.TestOutputStore;
@@ -421,7 +423,14 @@ public abstract class AbstractTestTask extends ConventionTask implements Verific
     @TaskAction
     public void executeTests() {
         if (getFilter().isFailOnNoMatchingTests() && (!getFilter().getIncludePatterns().isEmpty() || !filter.getCommandLineIncludePatterns().isEmpty())) {
-            addTestListener(new NoMatchingTestsReporter(createNoMatchingTestErrorMessage()));
+            addTestListener(new NoMatchingTestsReporter(createNoMatchingTestErrorMessage()) {
+                @Override
+                public void afterSuite(TestDescriptor suite, TestResult result) {
+                    if (!mayExecuteNoTests()) {
+                        super.afterSuite(suite, result);
+                    }
+                }
+            });
         }
 
         LogLevel currentLevel = determineCurrentLogLevel();
@@ -477,6 +486,7 @@ public abstract class AbstractTestTask extends ConventionTask implements Verific
         }
 
         new TestResultSerializer(binaryResultsDir).write(results.values());
+        getTestClassDurationStore().update(results.values());
 
         createReporting(results, testOutputStore);
 
@@ -513,7 +523,7 @@ public abstract class AbstractTestTask extends ConventionTask implements Verific
 
         try {
             if (testReporter == null) {
-                testReporter = new DefaultTestReport(getBuildOperationExecutor());
+                testReporter = new DefaultTestReport(getBuildOperationExecutor(), getServices().get(StartParameter.class).getMaxWorkerCount());
             }
 
             JUnitXmlReport junitXml = reports.getJunitXml();
@@ -551,6 +561,22 @@ public abstract class AbstractTestTask extends ConventionTask implements Verific
         return this;
     }
 
+    /**
+     * The durations of test classes in previous runs, which are used to schedule the test classes.
+     */
+    @Internal
+    TestClassDurationStore getTestClassDurationStore() {
+        return new TestClassDurationStore(new File(getTemporaryDir(), "test-class-durations.bin"));
+    }
+
+    /**
+     * Whether this run may legitimately have executed no tests, even though some tests match the filter, in which case no matching tests is not a failure.
+     * This is checked once the tests have executed.
+     */
+    boolean mayExecuteNoTests() {
+        return false;
+    }
+
     @Internal
     boolean getFailFast() {
         return failFast;
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.junit.result
+
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestClassDurationStoreTest extends Specification {
+    @Rule
+    private TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+
+    def store = new TestClassDurationStore(tmp.file("durations/durations.bin"))
+
+    def "has no durations when nothing has been recorded"() {
+        expect:
+        store.read().isEmpty()
+    }
+
+    def "records durations of test classes"() {
+        when:
+        store.update([result('Class1', 1000, 1300), result('Class2', 2000, 2050)])
+
+        then:
+        store.read() == [Class1: 300L, Class2: 50L]
+    }
+
+    def "keeps durations of test classes that did not run"() {
+        given:
+        store.update([result('Class1', 1000, 1300), result('Class2', 2000, 2050)])
+
+        when:
+        store.update([result('Class2', 3000, 3100)])
+
+        then:
+        store.read() == [Class1: 300L, Class2: 100L]
+    }
+
+    def "forgets test classes that have not run for a number of runs"() {
+        given:
+        store.update([result('Class1', 1000, 1300)])
+
+        when:
+        (TestClassDurationStore.MAX_RUNS_WITHOUT_RESULT - 1).times {
+            store.update([result('Class2', 2000, 2050)])
+        }
+
+        then:
+        store.read().containsKey('Class1')
+
+        when:
+        store.update([result('Class2', 2000, 2050)])
+
+        then:
+        store.read() == [Class2: 50L]
+    }
+
+    def "ignores unreadable store"() {
+        given:
+        tmp.file("durations/durations.bin").createFile().text = "not durations"
+
+        expect:
+        store.read().isEmpty()
+
+        when:
+        store.update([result('Class1', 1000, 1300)])
+
+        then:
+        store.read() == [Class1: 300L]
+    }
+
+    private static TestClassResult result(String className, long startTime, long endTime) {
+        def result = new TestClassResult(1, className, startTime)
+        result.add(new TestMethodResult(1, "method", TestResult.ResultType.SUCCESS, endTime - startTime, endTime))
+        return result
+    }
+}
@@ -98,6 +98,28 @@ class TestOutputStoreSpec extends WorkspaceTest {
         reader.close()
     }
 
+    def "stores large messages compressed"() {
+        def large = "[large output line]\n" * 1000
+        def incompressible = new Random(1).with { random -> (1..1000).collect { (char) (0x20 + random.nextInt(0x5e)) }.join() }
+
+        when:
+        def writer = output.writer()
+        writer.onOutput(1, 1, output(StdOut, "[out-1]"))
+        writer.onOutput(1, 1, output(StdOut, large))
+        writer.onOutput(1, 2, output(StdOut, incompressible))
+        writer.onOutput(1, 1, output(StdOut, "[out-2]"))
+        writer.close()
+        def reader = output.reader()
+
+        then:
+        output.outputsFile.length() < large.length()
+        collectOutput(reader, 1, 1, StdOut) == "[out-1]" + large + "[out-2]"
+        collectOutput(reader, 1, 2, StdOut) == incompressible
+
+        cleanup:
+        reader.close()
+    }
+
     def DefaultTestOutputEvent output(TestOutputEvent.Destination destination, String msg) {
         new DefaultTestOutputEvent(destination, msg)
     }
@@ -71,7 +71,7 @@ class MaxNParallelTestClassProcessorTest extends Specification {
 
         then:
         1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actorFactory.createActor(_ as TestClassProcessor) >> actor1
         1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
         1 * asyncProcessor1.startProcessing(asyncResultProcessor)
         1 * asyncProcessor1.processTestClass(test)
@@ -101,7 +101,7 @@ class MaxNParallelTestClassProcessorTest extends Specification {
 
         then:
         1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actorFactory.createActor(_ as TestClassProcessor) >> actor1
         1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
         1 * asyncProcessor1.startProcessing(asyncResultProcessor)
         1 * asyncProcessor1.processTestClass(test)
@@ -111,7 +111,7 @@ class MaxNParallelTestClassProcessorTest extends Specification {
 
         then:
         1 * factory.create() >> processor2
-        1 * actorFactory.createActor(processor2) >> actor2
+        1 * actorFactory.createActor(_ as TestClassProcessor) >> actor2
         1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
         1 * asyncProcessor2.startProcessing(asyncResultProcessor)
         1 * asyncProcessor2.processTestClass(test)
@@ -124,48 +124,91 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         1 * asyncProcessor2.stop()
     }
 
-    def roundRobinsTestClassesToProcessors() {
-        TestClassRunInfo test = Mock()
+    def "idle processors take queued test classes once all processors have been started"() {
+        TestClassRunInfo test1 = Mock()
+        TestClassRunInfo test2 = Mock()
+        TestClassRunInfo test3 = Mock()
+        TestClassRunInfo test4 = Mock()
         TestClassProcessor processor1 = Mock()
         TestClassProcessor processor2 = Mock()
         TestClassProcessor asyncProcessor1 = Mock()
         TestClassProcessor asyncProcessor2 = Mock()
+        TestClassProcessor queueConsumer1
+        TestClassProcessor queueConsumer2
         Actor actor1 = Mock()
         Actor actor2 = Mock()
 
         startProcessor()
 
         when:
-        processor.processTestClass(test)
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
 
         then:
         1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actorFactory.createActor(_ as TestClassProcessor) >> { TestClassProcessor consumer -> queueConsumer1 = consumer; actor1 }
         1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
         1 * asyncProcessor1.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor1.processTestClass(test)
+        1 * asyncProcessor1.processTestClass(test1)
+        1 * factory.create() >> processor2
+        1 * actorFactory.createActor(_ as TestClassProcessor) >> { TestClassProcessor consumer -> queueConsumer2 = consumer; actor2 }
+        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        1 * asyncProcessor2.startProcessing(asyncResultProcessor)
+        1 * asyncProcessor2.processTestClass(test2)
 
         when:
-        processor.processTestClass(test)
+        processor.processTestClass(test3)
+        processor.processTestClass(test4)
 
         then:
-        1 * factory.create() >> processor2
-        1 * actorFactory.createActor(processor2) >> actor2
-        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
-        1 * asyncProcessor2.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor2.processTestClass(test)
+        0 * factory._
+        0 * asyncProcessor1._
+        0 * asyncProcessor2._
 
         when:
-        processor.processTestClass(test)
+        processor.stop()
+        queueConsumer2.processTestClass(test2)
+        queueConsumer1.processTestClass(test1)
 
         then:
-        1 * asyncProcessor1.processTestClass(test)
+        1 * processor2.processTestClass(test2)
+        then:
+        1 * processor2.processTestClass(test3)
+        then:
+        1 * processor2.processTestClass(test4)
+        then:
+        1 * processor1.processTestClass(test1)
+        0 * processor1.processTestClass(_)
+    }
+
+    def "discards queued test classes on stopNow"() {
+        TestClassRunInfo test1 = Mock()
+        TestClassRunInfo test2 = Mock()
+        TestClassRunInfo test3 = Mock()
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestClassProcessor queueConsumer1
+        Actor actor1 = Mock()
+        Actor actor2 = Mock()
+
+        startProcessor()
+        2 * factory.create() >>> [processor1, processor2]
+        1 * actorFactory.createActor(_ as TestClassProcessor) >> { TestClassProcessor consumer -> queueConsumer1 = consumer; actor1 }
+        1 * actorFactory.createActor(_ as TestClassProcessor) >> actor2
+        actor1.getProxy(TestClassProcessor) >> Mock(TestClassProcessor)
+        actor2.getProxy(TestClassProcessor) >> Mock(TestClassProcessor)
 
         when:
-        processor.processTestClass(test)
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
+        processor.processTestClass(test3)
+        processor.stopNow()
+        queueConsumer1.processTestClass(test1)
 
         then:
-        1 * asyncProcessor2.processTestClass(test)
+        1 * processor1.processTestClass(test1)
+        0 * processor1.processTestClass(test3)
+        0 * processor2.processTestClass(test3)
     }
 
     def "stopNow propagates to factory created processors"() {
@@ -184,7 +227,7 @@ class MaxNParallelTestClassProcessorTest extends Specification {
 
         then:
         1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actorFactory.createActor(_ as TestClassProcessor) >> actor1
         1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
 
         when:
@@ -192,7 +235,7 @@ class MaxNParallelTestClassProcessorTest extends Specification {
 
         then:
         1 * factory.create() >> processor2
-        1 * actorFactory.createActor(processor2) >> actor2
+        1 * actorFactory.createActor(_ as TestClassProcessor) >> actor2
         1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
 
         when:
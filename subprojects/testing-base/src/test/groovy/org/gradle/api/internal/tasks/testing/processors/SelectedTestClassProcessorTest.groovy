@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import spock.lang.Specification
+
+class SelectedTestClassProcessorTest extends Specification {
+    def received = []
+    def delegate = Stub(TestClassProcessor) {
+        processTestClass(_) >> { TestClassRunInfo testClass -> received << testClass.testClassName }
+    }
+    def selection = new SelectedTestClasses(['org.A', 'org.B'] as Set)
+    def processor = new SelectedTestClassProcessor(selection, delegate)
+
+    def "passes on the selected test classes and their nested classes"() {
+        when:
+        ['org.A', 'org.A$Nested', 'org.C', 'org.B'].each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+        processor.stop()
+
+        then:
+        received == ['org.A', 'org.A$Nested', 'org.B']
+        !selection.everyTestClassSkipped
+    }
+
+    def "knows when every test class was skipped"() {
+        when:
+        ['org.C', 'org.C$Nested'].each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+        processor.stop()
+
+        then:
+        received.empty
+        selection.everyTestClassSkipped
+    }
+
+    def "does not count a run without any test classes as every test class skipped"() {
+        when:
+        processor.stop()
+
+        then:
+        received.empty
+        !selection.everyTestClassSkipped
+    }
+}
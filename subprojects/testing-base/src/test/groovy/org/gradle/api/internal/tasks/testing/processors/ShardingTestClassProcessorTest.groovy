@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.InvalidUserDataException
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestShard
+import spock.lang.Specification
+
+class ShardingTestClassProcessorTest extends Specification {
+
+    def "splits test classes so that shards take about the same time"() {
+        def durations = [A: 100L, B: 60L, C: 50L, D: 40L, E: 10L]
+
+        expect:
+        shardOf(new TestShard(1, 2), durations, 'E', 'D', 'C', 'B', 'A') == ['A', 'D']
+        shardOf(new TestShard(2, 2), durations, 'E', 'D', 'C', 'B', 'A') == ['B', 'C', 'E']
+    }
+
+    def "every test class runs in exactly one shard"() {
+        def durations = [A: 100L, C: 50L]
+        def classes = ('A'..'J') as String[]
+
+        when:
+        def shards = (1..3).collect { shardOf(new TestShard(it, 3), durations, classes) }
+
+        then:
+        shards.flatten().sort() == classes.toList()
+        shards.every { !it.empty }
+    }
+
+    def "splits test classes by name when there are no durations"() {
+        expect:
+        shardOf(new TestShard(1, 2), [:], 'D', 'C', 'B', 'A') == ['A', 'C']
+        shardOf(new TestShard(2, 2), [:], 'D', 'C', 'B', 'A') == ['B', 'D']
+    }
+
+    def "parses shard"() {
+        expect:
+        TestShard.parse("3/8").index == 3
+        TestShard.parse("3/8").count == 8
+    }
+
+    def "rejects invalid shard #shard"() {
+        when:
+        TestShard.parse(shard)
+
+        then:
+        thrown(InvalidUserDataException)
+
+        where:
+        shard << ["", "3", "0/2", "3/2", "1/0", "a/b", "-1/2"]
+    }
+
+    private List<String> shardOf(TestShard shard, Map<String, Long> durations, String... classes) {
+        def received = []
+        def delegate = Stub(TestClassProcessor) {
+            processTestClass(_) >> { TestClassRunInfo testClass -> received << testClass.testClassName }
+        }
+        def processor = new ShardingTestClassProcessor(shard, durations, delegate)
+        classes.each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+        processor.stop()
+        return received
+    }
+}
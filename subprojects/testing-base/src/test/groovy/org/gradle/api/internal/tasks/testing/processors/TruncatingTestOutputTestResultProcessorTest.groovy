@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import spock.lang.Specification
+
+import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdErr
+import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdOut
+
+class TruncatingTestOutputTestResultProcessorTest extends Specification {
+    def target = Mock(TestResultProcessor)
+    def processor = new TruncatingTestOutputTestResultProcessor(target, 5)
+
+    def "forwards output of a test within the maximum as is"() {
+        def test = Stub(TestDescriptorInternal)
+        def output = new DefaultTestOutputEvent(StdOut, "abc")
+
+        when:
+        processor.started(test, new TestStartEvent(0))
+        processor.output(1, output)
+
+        then:
+        1 * target.started(test, _)
+
+        then:
+        1 * target.output(1, { it.is(output) })
+        0 * target._
+    }
+
+    def "truncates output of a test beyond the maximum"() {
+        when:
+        processor.output(1, new DefaultTestOutputEvent(StdOut, "abc"))
+        processor.output(1, new DefaultTestOutputEvent(StdErr, "def"))
+        processor.output(1, new DefaultTestOutputEvent(StdOut, "ghi"))
+        processor.output(2, new DefaultTestOutputEvent(StdOut, "jkl"))
+        processor.completed(2, new TestCompleteEvent(0))
+
+        then:
+        1 * target.output(1, new DefaultTestOutputEvent(StdOut, "abc"))
+        1 * target.output(1, { it.destination == StdErr && it.message.startsWith("de") && it.message.contains("Output truncated") })
+        1 * target.output(2, new DefaultTestOutputEvent(StdOut, "jkl"))
+        1 * target.completed(2, _)
+        0 * target._
+    }
+}
@@ -25,4 +25,22 @@ class ClassTestResultsTest extends Specification {
         new ClassTestResults(1, 'org.gradle.Test', 'TestDisplay', null).reportName == 'TestDisplay'
         new ClassTestResults(2, 'Test', 'TestDisplay', null).reportName == 'TestDisplay'
     }
+
+    def "keeps counters and ignored tests when test results are discarded"() {
+        def model = new AllTestResults()
+        def classResults = model.addTestClass(1, 'org.gradle.Test', 'org.gradle.Test')
+        model.addTest(1, 'org.gradle.Test', 'passed', 100)
+        model.addTest(1, 'org.gradle.Test', 'ignored', 0).setIgnored()
+
+        when:
+        classResults.discardTestResults()
+
+        then:
+        classResults.testResults.empty
+        classResults.testCount == 2
+        classResults.ignored*.name == ['ignored']
+        model.packages.first().ignored*.name == ['ignored']
+        model.testCount == 2
+        model.duration == 100
+    }
 }
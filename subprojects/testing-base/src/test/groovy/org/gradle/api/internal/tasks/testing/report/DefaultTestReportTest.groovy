@@ -21,6 +21,7 @@ import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider
 import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.internal.concurrent.ParallelismConfigurationManager
 import org.gradle.internal.concurrent.ParallelismConfigurationManagerFixture
+import org.gradle.internal.operations.BuildOperationContext
 import org.gradle.internal.operations.BuildOperationExecutor
 import org.gradle.internal.operations.DefaultBuildOperationIdFactory
 import org.gradle.internal.operations.DefaultBuildOperationQueueFactory
@@ -30,6 +31,7 @@ import org.gradle.internal.progress.NoOpProgressLoggerFactory
 import org.gradle.internal.resources.ResourceLockCoordinationService
 import org.gradle.internal.time.Clock
 import org.gradle.internal.work.WorkerLeaseService
+import org.gradle.reporting.HtmlReportBuilder
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.test.fixtures.work.TestWorkerLeaseService
@@ -38,6 +40,8 @@ import org.junit.Rule
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.util.concurrent.Semaphore
+
 class DefaultTestReportTest extends Specification {
     @Rule
     public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
@@ -48,12 +52,12 @@ class DefaultTestReportTest extends Specification {
     final TestResultsProvider testResultProvider = Mock()
     final WorkerLeaseService workerLeaseService = new TestWorkerLeaseService()
 
-    def reportWithMaxThreads(int numThreads) {
+    def reportWithMaxThreads(int numThreads, int maxClassPagesInFlight = numThreads) {
         ParallelismConfigurationManager parallelExecutionManager = new ParallelismConfigurationManagerFixture(false, numThreads)
         buildOperationExecutor = new DefaultBuildOperationExecutor(
             Mock(BuildOperationListener), Mock(Clock), new NoOpProgressLoggerFactory(),
             new DefaultBuildOperationQueueFactory(workerLeaseService), new DefaultExecutorFactory(), Mock(ResourceLockCoordinationService), parallelExecutionManager, new DefaultBuildOperationIdFactory())
-        return new DefaultTestReport(buildOperationExecutor)
+        return new DefaultTestReport(buildOperationExecutor, maxClassPagesInFlight)
     }
 
     def generatesReportWhenThereAreNoTestResults() {
@@ -385,6 +389,42 @@ class DefaultTestReportTest extends Specification {
         numThreads << [ 1, 4 ]
     }
 
+    def "renders the pages of classes beyond the class pages in flight in the reading thread"() {
+        given:
+        report = reportWithMaxThreads(4, 1)
+        def testTestResults = failingBuildResults()
+
+        when:
+        report.generateReport(testTestResults, reportDir)
+
+        then:
+        results(reportDir.file('classes/org.gradle.passing.Passed.html')).assertHasTests(1)
+        results(reportDir.file('classes/org.gradle.passing.AlsoPassed.html')).assertHasTests(1)
+        results(reportDir.file('classes/org.gradle.ignoring.SomeIgnoredSomePassed.html')).assertHasTests(2)
+        results(reportDir.file('classes/org.gradle.failing.SomeIgnoredSomePassedSomeFailed.html')).assertHasTests(3)
+        results(indexFile).assertHasTests(7)
+    }
+
+    def "discards the test results of a class once its page has been rendered"() {
+        def classResults = new ClassTestResults(1, "org.gradle.Foo", new PackageTestResults("org.gradle", new AllTestResults()))
+        classResults.addTest("test", "test", 100)
+        def output = Mock(HtmlReportBuilder)
+        def classPagesInFlight = new Semaphore(1)
+        classPagesInFlight.acquire()
+        def generator = new DefaultTestReport.ClassPageGenerator(classResults, testResultProvider, output, classPagesInFlight)
+
+        when:
+        generator.run(Stub(BuildOperationContext))
+
+        then:
+        1 * output.renderHtmlPage("classes/org.gradle.Foo.html", classResults, _) >> {
+            assert classResults.testResults.size() == 1
+        }
+        classResults.testResults.empty
+        classResults.testCount == 1
+        classPagesInFlight.availablePermits() == 1
+    }
+
     @Unroll
     def "aggregate same tests run with different results - #numThreads parallel thread(s)"() {
         given:
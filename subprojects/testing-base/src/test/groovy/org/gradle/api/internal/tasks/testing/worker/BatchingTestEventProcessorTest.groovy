@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.DefaultTestSuiteDescriptor
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.api.tasks.testing.TestOutputEvent
+import spock.lang.Specification
+
+import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdErr
+import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdOut
+
+class BatchingTestEventProcessorTest extends Specification {
+    def target = Mock(TestEventBatchProcessor)
+    def processor = new BatchingTestEventProcessor(target)
+
+    def "sends collected events when flushed"() {
+        def suite = new DefaultTestSuiteDescriptor(1, "suite")
+
+        when:
+        processor.started(suite, new TestStartEvent(0))
+        processor.output(1, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "hi"))
+        processor.completed(1, new TestCompleteEvent(0))
+
+        then:
+        0 * target._
+
+        when:
+        processor.flush()
+
+        then:
+        1 * target.process({ it.size() == 3 })
+        0 * target._
+    }
+
+    def "does not send an empty batch"() {
+        when:
+        processor.flush()
+
+        then:
+        0 * target._
+    }
+
+    def "sends batch once it holds the maximum number of events"() {
+        def batches = []
+
+        when:
+        (BatchingTestEventProcessor.MAX_BATCH_EVENTS * 2 + 1).times {
+            processor.completed(it, new TestCompleteEvent(0))
+        }
+
+        then:
+        2 * target.process(_) >> { TestEventBatch batch -> batches << batch.size() }
+        batches == [BatchingTestEventProcessor.MAX_BATCH_EVENTS, BatchingTestEventProcessor.MAX_BATCH_EVENTS]
+
+        when:
+        processor.flush()
+
+        then:
+        1 * target.process({ it.size() == 1 })
+    }
+
+    def "sends batch once it holds the maximum length of output"() {
+        def message = "x" * BatchingTestEventProcessor.MAX_BATCH_OUTPUT_LENGTH.intdiv(2)
+
+        when:
+        processor.output(1, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, message))
+
+        then:
+        0 * target._
+
+        when:
+        processor.output(1, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, message))
+
+        then:
+        1 * target.process({ it.size() == 1 && it.outputLength == BatchingTestEventProcessor.MAX_BATCH_OUTPUT_LENGTH })
+    }
+
+    def "combines consecutive output of the same test and destination"() {
+        def events = Mock(TestResultProcessor)
+
+        when:
+        processor.output(1, new DefaultTestOutputEvent(StdOut, "a"))
+        processor.output(1, new DefaultTestOutputEvent(StdOut, "b"))
+        processor.output(1, new DefaultTestOutputEvent(StdErr, "c"))
+        processor.output(2, new DefaultTestOutputEvent(StdErr, "d"))
+        processor.completed(2, new TestCompleteEvent(0))
+        processor.output(2, new DefaultTestOutputEvent(StdErr, "e"))
+        processor.flush()
+
+        then:
+        1 * target.process(_) >> { TestEventBatch batch -> batch.dispatch(events) }
+
+        then:
+        1 * events.output(1, new DefaultTestOutputEvent(StdOut, "ab"))
+
+        then:
+        1 * events.output(1, new DefaultTestOutputEvent(StdErr, "c"))
+
+        then:
+        1 * events.output(2, new DefaultTestOutputEvent(StdErr, "d"))
+
+        then:
+        1 * events.completed(2, _)
+
+        then:
+        1 * events.output(2, new DefaultTestOutputEvent(StdErr, "e"))
+        0 * events._
+    }
+
+    def "sends output of a test that writes nothing further once flushed"() {
+        when:
+        processor.output(1, new DefaultTestOutputEvent(StdOut, "last line"))
+
+        then:
+        0 * target._
+
+        when:
+        processor.flush()
+
+        then:
+        1 * target.process({ it.size() == 1 && it.outputLength == "last line".length() })
+        0 * target._
+    }
+}
@@ -21,7 +21,9 @@ import org.gradle.api.internal.DocumentationRegistry
 import org.gradle.api.internal.classpath.Module
 import org.gradle.api.internal.classpath.ModuleRegistry
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
+import org.gradle.internal.Factory
 import org.gradle.internal.classpath.ClassPath
 import org.gradle.internal.remote.ObjectConnection
 import org.gradle.internal.work.WorkerLeaseRegistry
@@ -31,10 +33,14 @@ import org.gradle.process.internal.JavaExecHandleBuilder
 import org.gradle.process.internal.worker.WorkerProcess
 import org.gradle.process.internal.worker.WorkerProcessBuilder
 import org.gradle.process.internal.worker.WorkerProcessFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
 import spock.lang.Subject
 
 class ForkingTestClassProcessorTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
     WorkerLeaseRegistry.WorkerLease workerLease = Mock(WorkerLeaseRegistry.WorkerLease)
     WorkerProcessBuilder workerProcessBuilder = Mock(WorkerProcessBuilder)
     WorkerProcess workerProcess = Mock(WorkerProcess)
@@ -70,6 +76,51 @@ class ForkingTestClassProcessorTest extends Specification {
         0 * remoteProcessor._
     }
 
+    def "acquires a worker lease for each test the worker process executes concurrently"() {
+        def test = Mock(TestClassRunInfo)
+        def remoteProcessor = Mock(RemoteTestClassProcessor)
+        def parallelProcessor = Spy(ForkingTestClassProcessor, constructorArgs: [workerLease, workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), moduleRegistry, documentationRegistry, null, 0, 4])
+
+        when:
+        parallelProcessor.processTestClass(test)
+
+        then:
+        1 * workerLease.startChildren(4)
+        0 * workerLease.startChild()
+        1 * parallelProcessor.forkProcess() >> remoteProcessor
+        1 * remoteProcessor.processTestClass(test)
+    }
+
+    def "leaves class directories off the classpath of a reusable worker"() {
+        def jar = new File("classpath.jar")
+        def classesDir = tmpDir.createDir("classes")
+        def workerPool = Mock(ReusableTestWorkerPool)
+        def reusableWorker = Mock(ReusableTestWorker)
+        PendingTestClasses pendingTestClasses = null
+        def remoteProcessor = Stub(RemoteTestClassProcessor) {
+            processTestClass(_) >> { pendingTestClasses.testClassCompleted() }
+        }
+        def reusingProcessor = new ForkingTestClassProcessor(workerLease, workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [jar, classesDir], Mock(Action), moduleRegistry, documentationRegistry, workerPool, 5)
+
+        setup:
+        moduleRegistry.getModule(_) >> { module(it[0]) }
+        moduleRegistry.getExternalModule(_) >> { module(it[0]) }
+
+        when:
+        reusingProcessor.processTestClass(Mock(TestClassRunInfo))
+
+        then:
+        1 * workerPool.reserve(_, _, _) >> { Object key, String maxHeapSize, Factory factory ->
+            factory.create()
+            reusableWorker
+        }
+        1 * workerProcessBuilder.applicationClasspath([jar])
+        1 * reusableWorker.startRun(_, [classesDir], _, _) >> { WorkerTestClassProcessorFactory factory, List<File> classDirectories, TestResultProcessor resultProcessor, PendingTestClasses pending ->
+            pendingTestClasses = pending
+            remoteProcessor
+        }
+    }
+
     def "starts process with a limited implementation classpath"() {
         setup:
         1 * workerProcess.getConnection() >> Stub(ObjectConnection) { addOutgoing(_) >> Stub(RemoteTestClassProcessor) }
@@ -96,7 +147,7 @@ class ForkingTestClassProcessorTest extends Specification {
         ForkingTestClassProcessor processor = new ForkingTestClassProcessor(Stub(WorkerLeaseRegistry.WorkerLease), workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), Stub(ModuleRegistry), documentationRegistry)
 
         setup:
-        1 * workerProcess.getConnection() >> Stub(ObjectConnection) { addOutgoing(_) >> Stub(RemoteTestClassProcessor) }
+        1 * workerProcess.getConnection() >> acknowledgingConnection()
 
         when:
         processor.processTestClass(Mock(TestClassRunInfo))
@@ -110,7 +161,7 @@ class ForkingTestClassProcessorTest extends Specification {
         ForkingTestClassProcessor processor = new ForkingTestClassProcessor(Stub(WorkerLeaseRegistry.WorkerLease), workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), Stub(ModuleRegistry), documentationRegistry)
 
         setup:
-        1 * workerProcess.getConnection() >> Stub(ObjectConnection) { addOutgoing(_) >> Stub(RemoteTestClassProcessor) }
+        1 * workerProcess.getConnection() >> acknowledgingConnection()
 
         when:
         processor.processTestClass(Mock(TestClassRunInfo))
@@ -123,6 +174,60 @@ class ForkingTestClassProcessorTest extends Specification {
         notThrown(ExecException)
     }
 
+    def "waits for the worker to finish with a test class"() {
+        ForkingTestClassProcessor processor = new ForkingTestClassProcessor(Stub(WorkerLeaseRegistry.WorkerLease), workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), Stub(ModuleRegistry), documentationRegistry)
+        def test1 = Mock(TestClassRunInfo)
+        def test2 = Mock(TestClassRunInfo)
+        TestClassCompletionListener completionListener = null
+        def remoteProcessor = Mock(RemoteTestClassProcessor)
+        def connection = Stub(ObjectConnection) {
+            addIncoming(TestClassCompletionListener, _) >> { completionListener = it[1] }
+            addOutgoing(RemoteTestClassProcessor) >> remoteProcessor
+        }
+
+        setup:
+        1 * workerProcess.getConnection() >> connection
+
+        when:
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
+
+        then:
+        1 * remoteProcessor.processTestClass(test1) >> { completionListener.testClassCompleted() }
+        then:
+        1 * remoteProcessor.processTestClass(test2) >> { completionListener.testClassCompleted() }
+    }
+
+    def "stops waiting for a test class when the worker disconnects"() {
+        ForkingTestClassProcessor processor = new ForkingTestClassProcessor(Stub(WorkerLeaseRegistry.WorkerLease), workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), Stub(ModuleRegistry), documentationRegistry)
+        PendingTestClasses pendingTestClasses = null
+        def remoteProcessor = Mock(RemoteTestClassProcessor)
+        def connection = Stub(ObjectConnection) {
+            addIncoming(TestClassCompletionListener, _) >> { pendingTestClasses = it[1] }
+            addOutgoing(RemoteTestClassProcessor) >> remoteProcessor
+        }
+
+        setup:
+        1 * workerProcess.getConnection() >> connection
+
+        when:
+        processor.processTestClass(Mock(TestClassRunInfo))
+
+        then:
+        1 * remoteProcessor.processTestClass(_) >> { pendingTestClasses.endStream() }
+    }
+
+    def acknowledgingConnection() {
+        TestClassCompletionListener completionListener = null
+        def remoteProcessor = Stub(RemoteTestClassProcessor) {
+            processTestClass(_) >> { completionListener.testClassCompleted() }
+        }
+        return Stub(ObjectConnection) {
+            addIncoming(TestClassCompletionListener, _) >> { completionListener = it[1] }
+            addOutgoing(RemoteTestClassProcessor) >> remoteProcessor
+        }
+    }
+
     def module(String module) {
         return Stub(Module) {
             _ * getImplementationClasspath() >> {
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.classpath.Module
+import org.gradle.api.internal.classpath.ModuleRegistry
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
+import org.gradle.internal.classloader.ClasspathUtil
+import org.gradle.internal.classpath.ClassPath
+import org.gradle.internal.service.ServiceRegistry
+import org.gradle.internal.time.Clock
+import org.gradle.internal.work.WorkerLeaseRegistry
+import org.gradle.process.JavaForkOptions
+import org.gradle.test.fixtures.file.TestFile
+import spock.lang.Specification
+
+import static org.gradle.api.internal.tasks.testing.worker.InProcessTestClassProcessor.BUILD_PROCESS_TEST_EXECUTION
+
+class InProcessTestClassProcessorTest extends Specification {
+    static final String PROPERTY = "org.gradle.in-process-test"
+    static final String TEST_CLASS_RESOURCE = TestFile.name.replace('.', '/') + ".class"
+
+    WorkerLeaseRegistry.WorkerLease workerLease = Mock(WorkerLeaseRegistry.WorkerLease)
+    WorkerLeaseRegistry.WorkerLeaseCompletion completion = Mock(WorkerLeaseRegistry.WorkerLeaseCompletion)
+    ModuleRegistry moduleRegistry = Stub(ModuleRegistry)
+    JavaForkOptions options = Stub(JavaForkOptions)
+    TestResultProcessor resultProcessor = Stub(TestResultProcessor)
+
+    def setup() {
+        def module = Stub(Module) {
+            getImplementationClasspath() >> ClassPath.EMPTY
+        }
+        moduleRegistry.getModule(_) >> module
+        moduleRegistry.getExternalModule(_) >> module
+        options.getSystemProperties() >> [:]
+        RecordingProcessor.testClassLoader = null
+        RecordingProcessor.testClass = null
+    }
+
+    def cleanup() {
+        System.clearProperty(PROPERTY)
+    }
+
+    def "runs test classes in a ClassLoader of their own and releases it, the system properties, the worker lease and the build process once done"() {
+        def processor = createProcessor(new RecordingProcessorFactory(false))
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(new DefaultTestClassRunInfo(TestFile.name))
+
+        then:
+        1 * workerLease.startChild() >> completion
+        0 * completion.leaseFinish()
+        BUILD_PROCESS_TEST_EXECUTION.availablePermits() == 0
+        System.getProperty(PROPERTY) == "set by the test"
+        RecordingProcessor.testClassLoader.getResource(TEST_CLASS_RESOURCE) != null
+
+        and:
+        // A test class below org.gradle comes from the test runtime classpath, the classes of the test framework integration from the build process
+        RecordingProcessor.testClass.name == TestFile.name
+        RecordingProcessor.testClass.classLoader.is(RecordingProcessor.testClassLoader)
+        RecordingProcessor.testClassLoader.loadClass(TestClassProcessor.name).is(TestClassProcessor)
+
+        when:
+        processor.stop()
+
+        then:
+        1 * completion.leaseFinish()
+        BUILD_PROCESS_TEST_EXECUTION.availablePermits() == 1
+        System.getProperty(PROPERTY) == null
+        RecordingProcessor.testClassLoader.getResource(TEST_CLASS_RESOURCE) == null
+    }
+
+    def "releases the system properties, the worker lease and the build process when the tests fail to start"() {
+        def processor = createProcessor(new RecordingProcessorFactory(true))
+
+        when:
+        processor.startProcessing(resultProcessor)
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message == "could not create processor"
+        1 * workerLease.startChild() >> completion
+        1 * completion.leaseFinish()
+        BUILD_PROCESS_TEST_EXECUTION.availablePermits() == 1
+        System.getProperty(PROPERTY) == null
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo(TestFile.name))
+        processor.stop()
+
+        then:
+        0 * completion._
+        BUILD_PROCESS_TEST_EXECUTION.availablePermits() == 1
+        RecordingProcessor.testClass == null
+    }
+
+    def "releases the build process when no worker lease can be started"() {
+        def processor = createProcessor(new RecordingProcessorFactory(false))
+        def failure = new RuntimeException("no lease")
+
+        when:
+        processor.startProcessing(resultProcessor)
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+        1 * workerLease.startChild() >> { throw failure }
+        BUILD_PROCESS_TEST_EXECUTION.availablePermits() == 1
+
+        when:
+        processor.stop()
+
+        then:
+        BUILD_PROCESS_TEST_EXECUTION.availablePermits() == 1
+    }
+
+    def "stops waiting for the tests of another task when stopped"() {
+        def processor = createProcessor(new RecordingProcessorFactory(false))
+        BUILD_PROCESS_TEST_EXECUTION.acquire()
+        def thread = new Thread({ processor.startProcessing(resultProcessor) })
+
+        when:
+        thread.start()
+        processor.stopNow()
+        thread.join(10000)
+
+        then:
+        !thread.alive
+        0 * workerLease._
+
+        when:
+        BUILD_PROCESS_TEST_EXECUTION.release()
+        processor.processTestClass(new DefaultTestClassRunInfo(TestFile.name))
+        processor.stop()
+
+        then:
+        BUILD_PROCESS_TEST_EXECUTION.availablePermits() == 1
+        RecordingProcessor.testClass == null
+    }
+
+    private InProcessTestClassProcessor createProcessor(WorkerTestClassProcessorFactory processorFactory) {
+        return new InProcessTestClassProcessor(workerLease, processorFactory, [ClasspathUtil.getClasspathForClass(TestFile)], options, moduleRegistry, Stub(Clock))
+    }
+
+    static class RecordingProcessorFactory implements WorkerTestClassProcessorFactory, Serializable {
+        private final boolean failToCreate
+
+        RecordingProcessorFactory(boolean failToCreate) {
+            this.failToCreate = failToCreate
+        }
+
+        @Override
+        TestClassProcessor create(ServiceRegistry serviceRegistry) {
+            System.setProperty(PROPERTY, "set by the test")
+            if (failToCreate) {
+                throw new IllegalStateException("could not create processor")
+            }
+            return new RecordingProcessor()
+        }
+    }
+
+    static class RecordingProcessor implements TestClassProcessor {
+        static ClassLoader testClassLoader
+        static Class<?> testClass
+
+        @Override
+        void startProcessing(TestResultProcessor resultProcessor) {
+        }
+
+        @Override
+        void processTestClass(TestClassRunInfo testClassInfo) {
+            testClassLoader = Thread.currentThread().contextClassLoader
+            testClass = testClassLoader.loadClass(testClassInfo.testClassName)
+        }
+
+        @Override
+        void stop() {
+        }
+
+        @Override
+        void stopNow() {
+        }
+    }
+}
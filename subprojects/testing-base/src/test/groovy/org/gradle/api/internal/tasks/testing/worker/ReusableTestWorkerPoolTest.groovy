@@ -0,0 +1,157 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.Factory
+import org.gradle.internal.logging.LoggingManagerInternal
+import org.gradle.internal.remote.ObjectConnection
+import org.gradle.process.internal.health.memory.MemoryManager
+import org.gradle.process.internal.worker.WorkerProcess
+import spock.lang.Specification
+
+class ReusableTestWorkerPoolTest extends Specification {
+    def loggingManager = Stub(LoggingManagerInternal) {
+        getLevel() >> LogLevel.LIFECYCLE
+    }
+    def factory = Mock(Factory)
+    def memoryManager = Mock(MemoryManager)
+    def pool = new ReusableTestWorkerPool(loggingManager, memoryManager, 2, -1)
+
+    def "starts worker when there is no idle worker with the same key"() {
+        when:
+        def first = pool.reserve("a", "100m", factory)
+        pool.release(first, 1)
+        def second = pool.reserve("b", "100m", factory)
+
+        then:
+        2 * factory.create() >> { workerProcess() }
+        second != first
+        second.key == "b"
+    }
+
+    def "reuses idle worker with the same key"() {
+        when:
+        def first = pool.reserve("a", "100m", factory)
+        pool.release(first, 1)
+        def second = pool.reserve("a", "100m", factory)
+
+        then:
+        1 * factory.create() >> { workerProcess() }
+        second.is(first)
+    }
+
+    def "stops worker once it has been reused the given number of times"() {
+        def process = workerProcess()
+        factory.create() >> process
+
+        when:
+        def worker = pool.reserve("a", "100m", factory)
+        startRun(worker)
+        pool.release(worker, 0)
+
+        then:
+        1 * process.waitForStop()
+
+        when:
+        def next = pool.reserve("a", "100m", factory)
+
+        then:
+        !next.is(worker)
+    }
+
+    def "stops idle workers when stopped"() {
+        def process = workerProcess()
+        factory.create() >> process
+
+        when:
+        pool.release(pool.reserve("a", "100m", factory), 1)
+        pool.stop()
+
+        then:
+        1 * process.waitForStop()
+    }
+
+    def "stops the longest idle worker when too many workers are idle"() {
+        def first = workerProcess()
+        factory.create() >>> [first, workerProcess(), workerProcess()]
+
+        when:
+        def workers = [pool.reserve("a", "100m", factory), pool.reserve("b", "100m", factory), pool.reserve("c", "100m", factory)]
+        workers.each { pool.release(it, 1) }
+
+        then:
+        1 * first.waitForStop()
+    }
+
+    def "stops the longest idle workers to release memory"() {
+        def first = workerProcess()
+        def second = workerProcess()
+        factory.create() >>> [first, second]
+
+        when:
+        def workers = [pool.reserve("a", "100m", factory), pool.reserve("b", "100m", factory)]
+        workers.each { pool.release(it, 1) }
+        def released = pool.attemptToRelease(50 * 1024 * 1024)
+
+        then:
+        released == 100 * 1024 * 1024
+        1 * first.waitForStop()
+        0 * second.waitForStop()
+
+        when:
+        released = pool.attemptToRelease(500 * 1024 * 1024)
+
+        then:
+        released == 100 * 1024 * 1024
+        1 * second.waitForStop()
+
+        when:
+        released = pool.attemptToRelease(500 * 1024 * 1024)
+
+        then:
+        released == 0
+    }
+
+    def "registers with the memory manager until stopped"() {
+        when:
+        def otherPool = new ReusableTestWorkerPool(loggingManager, memoryManager, 2, -1)
+
+        then:
+        1 * memoryManager.addMemoryHolder({ it instanceof ReusableTestWorkerPool })
+
+        when:
+        otherPool.stop()
+
+        then:
+        1 * memoryManager.removeMemoryHolder(otherPool)
+    }
+
+    private WorkerProcess workerProcess() {
+        def connection = Stub(ObjectConnection) {
+            addOutgoing(RemoteTestClassProcessor) >> Stub(RemoteTestClassProcessor)
+        }
+        return Mock(WorkerProcess) {
+            getConnection() >> connection
+        }
+    }
+
+    private static void startRun(ReusableTestWorker worker) {
+        worker.startRun(null, [], null, null)
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.DefaultTestSuiteDescriptor
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.remote.ObjectConnection
+import org.gradle.process.internal.worker.WorkerProcess
+import spock.lang.Specification
+
+class ReusableTestWorkerTest extends Specification {
+    def connection = Mock(ObjectConnection)
+    def workerProcess = Stub(WorkerProcess) {
+        getConnection() >> connection
+    }
+    def remoteProcessor = Mock(RemoteTestClassProcessor)
+    def factory = Mock(WorkerTestClassProcessorFactory)
+    TestEventBatchDispatcher events
+    TestClassCompletionListener completions
+    ReusableTestWorker worker
+
+    def setup() {
+        _ * connection.addIncoming(TestEventBatchProcessor, _) >> { type, instance -> events = instance }
+        _ * connection.addIncoming(TestClassCompletionListener, _) >> { type, instance -> completions = instance }
+        _ * connection.addOutgoing(RemoteTestClassProcessor) >> remoteProcessor
+        worker = new ReusableTestWorker("key", LogLevel.LIFECYCLE, null, workerProcess)
+    }
+
+    def "routes the events of each run to the result processor of that run"() {
+        def first = Mock(TestResultProcessor)
+        def second = Mock(TestResultProcessor)
+        def suite1 = new DefaultTestSuiteDescriptor(1, "worker")
+        def suite2 = new DefaultTestSuiteDescriptor(2, "worker")
+
+        when:
+        worker.startRun(factory, [new File("classes")], first, new PendingTestClasses())
+        send {
+            it.started(suite1, new TestStartEvent(0))
+            it.completed(1, new TestCompleteEvent(0))
+        }
+
+        then:
+        1 * remoteProcessor.startRun(factory, [new File("classes")])
+        1 * first.started(suite1, _)
+        1 * first.completed(1, _)
+        worker.awaitRunCompletion()
+
+        when:
+        worker.startRun(factory, [], second, new PendingTestClasses())
+        send {
+            it.started(suite2, new TestStartEvent(0))
+            it.completed(2, new TestCompleteEvent(0))
+        }
+
+        then:
+        1 * second.started(suite2, _)
+        1 * second.completed(2, _)
+        0 * first._
+        worker.awaitRunCompletion()
+        worker.runs == 2
+    }
+
+    def "run does not complete when the worker disconnects"() {
+        def pendingTestClasses = new PendingTestClasses()
+
+        when:
+        worker.startRun(factory, [], Mock(TestResultProcessor), pendingTestClasses)
+        pendingTestClasses.added()
+        events.endStream()
+        completions.endStream()
+
+        then:
+        !worker.awaitRunCompletion()
+
+        when:
+        pendingTestClasses.awaitCompletion()
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "stops worker process"() {
+        when:
+        worker.stop()
+
+        then:
+        1 * remoteProcessor.stopWorker()
+    }
+
+    def send(Closure<?> action) {
+        def batch = new TestEventBatch()
+        action.call(batch)
+        events.process(batch)
+    }
+}
@@ -175,6 +175,40 @@ class TestEventSerializerTest extends SerializerSpec {
         result.cause.message == "cause"
     }
 
+    def "serializes TestEventBatch"() {
+        def suiteId = new CompositeIdGenerator.CompositeId(1L, 2L)
+        def testId = new CompositeIdGenerator.CompositeId(1L, 3L)
+        def batch = new TestEventBatch()
+        batch.started(new DefaultTestSuiteDescriptor(suiteId, "suite"), new TestStartEvent(1000L))
+        batch.started(new DefaultTestDescriptor(testId, "Class", "method"), new TestStartEvent(1005L, suiteId))
+        batch.output(testId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "hi"))
+        batch.failure(testId, new GradleException("broken"))
+        batch.completed(testId, new TestCompleteEvent(1003L, TestResult.ResultType.FAILURE))
+        batch.completed(suiteId, new TestCompleteEvent(1010L))
+        def processor = Mock(TestResultProcessor)
+
+        when:
+        def result = serialize(batch)
+        result.dispatch(processor)
+
+        then:
+        result.size() == 6
+
+        then:
+        1 * processor.started({ it instanceof DefaultTestSuiteDescriptor && it.id == suiteId }, { it.startTime == 1000L && it.parentId == null })
+        then:
+        1 * processor.started({ it instanceof DefaultTestDescriptor && it.id == testId && it.name == "method" }, { it.startTime == 1005L && it.parentId == suiteId })
+        then:
+        1 * processor.output(testId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "hi"))
+        then:
+        1 * processor.failure(testId, { it instanceof GradleException && it.message == "broken" })
+        then:
+        1 * processor.completed(testId, { it.endTime == 1003L && it.resultType == TestResult.ResultType.FAILURE })
+        then:
+        1 * processor.completed(suiteId, { it.endTime == 1010L && it.resultType == null })
+        0 * processor._
+    }
+
     def Object serialize(Object source, Class type = source.getClass()) {
         return super.serialize(source, serializer.build(type))
     }
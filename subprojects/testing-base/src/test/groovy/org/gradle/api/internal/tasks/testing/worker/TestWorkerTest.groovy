@@ -19,7 +19,6 @@ package org.gradle.api.internal.tasks.testing.worker
 
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
-import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
 import org.gradle.internal.remote.ObjectConnection
 import org.gradle.internal.service.DefaultServiceRegistry
@@ -37,7 +36,8 @@ public class TestWorkerTest extends ConcurrentSpec {
     def factory = Mock(WorkerTestClassProcessorFactory)
     def processor = Mock(TestClassProcessor)
     def test = Mock(TestClassRunInfo)
-    def resultProcessor = Mock(TestResultProcessor)
+    def resultProcessor = Mock(TestEventBatchProcessor)
+    def completionListener = Mock(TestClassCompletionListener)
     def worker = new TestWorker(factory)
     def serviceRegistry = new DefaultServiceRegistry().add(Clock, Time.clock())
 
@@ -60,7 +60,8 @@ public class TestWorkerTest extends ConcurrentSpec {
 
         and:
         1 * factory.create(_) >> processor
-        1 * connection.addOutgoing(TestResultProcessor) >> resultProcessor
+        1 * connection.addOutgoing(TestEventBatchProcessor) >> resultProcessor
+        1 * connection.addOutgoing(TestClassCompletionListener) >> completionListener
         1 * connection.addIncoming(RemoteTestClassProcessor, worker)
         1 * connection.useParameterSerializers(_)
         1 * connection.connect() >> {
@@ -74,6 +75,47 @@ public class TestWorkerTest extends ConcurrentSpec {
         }
         1 * processor.startProcessing(_)
         1 * processor.processTestClass(test)
+        1 * completionListener.testClassCompleted()
         1 * processor.stop()
     }
+
+    def reusedWorkerCreatesTestProcessorForEachRunAndBlocksUntilStopped() {
+        def reusedWorker = new TestWorker()
+        def otherProcessor = Mock(TestClassProcessor)
+
+        when:
+        async {
+            reusedWorker.execute(workerContext)
+            instant.completed
+        }
+
+        then:
+        instant.completed > instant.stopped
+        System.properties['org.gradle.test.run'] == null
+
+        and:
+        1 * connection.addOutgoing(TestEventBatchProcessor) >> resultProcessor
+        1 * connection.addOutgoing(TestClassCompletionListener) >> completionListener
+        1 * connection.connect() >> {
+            start {
+                reusedWorker.startRun(factory, [])
+                reusedWorker.processTestClass(test)
+                reusedWorker.stop()
+                reusedWorker.startRun(factory, [])
+                reusedWorker.processTestClass(test)
+                reusedWorker.stop()
+                thread.block()
+                instant.stopped
+                reusedWorker.stopWorker()
+            }
+        }
+        2 * factory.create(_) >>> [processor, otherProcessor]
+        1 * processor.startProcessing(_)
+        1 * processor.processTestClass(test) >> { System.setProperty('org.gradle.test.run', 'first') }
+        1 * processor.stop()
+        1 * otherProcessor.startProcessing(_)
+        1 * otherProcessor.processTestClass(test)
+        1 * otherProcessor.stop()
+        2 * completionListener.testClassCompleted()
+    }
 }
@@ -40,6 +40,7 @@ import org.junit.platform.launcher.core.LauncherFactory;
 
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -51,13 +52,25 @@ import static org.junit.platform.launcher.EngineFilter.includeEngines;
 import static org.junit.platform.launcher.TagFilter.excludeTags;
 import static org.junit.platform.launcher.TagFilter.includeTags;
 
+/**
+ * Executes the test classes with the JUnit platform launcher once all of them have been received.
+ *
+ * <p>When more than one test may execute at a time, enables the parallel execution of JUnit Jupiter with a fixed number of threads, and launches the
+ * test classes one at a time. The tests of a class then execute concurrently, while their events can still be attributed to the class.</p>
+ */
 public class JUnitPlatformTestClassProcessor extends AbstractJUnitTestClassProcessor<JUnitPlatformSpec> {
+    private static final String PARALLEL_EXECUTION_ENABLED = "junit.jupiter.execution.parallel.enabled";
+    private static final String PARALLEL_EXECUTION_STRATEGY = "junit.jupiter.execution.parallel.config.strategy";
+    private static final String PARALLEL_EXECUTION_PARALLELISM = "junit.jupiter.execution.parallel.config.fixed.parallelism";
+
+    private final int maxParallelTests;
     private TestResultProcessor resultProcessor;
     private TestClassExecutionListener executionListener;
     private CollectAllTestClassesExecutor testClassExecutor;
 
-    public JUnitPlatformTestClassProcessor(JUnitPlatformSpec spec, IdGenerator<?> idGenerator, ActorFactory actorFactory, Clock clock) {
+    public JUnitPlatformTestClassProcessor(JUnitPlatformSpec spec, int maxParallelTests, IdGenerator<?> idGenerator, ActorFactory actorFactory, Clock clock) {
         super(spec, idGenerator, actorFactory, clock);
+        this.maxParallelTests = maxParallelTests;
     }
 
     @Override
@@ -89,6 +102,16 @@ public class JUnitPlatformTestClassProcessor extends AbstractJUnitTestClassProce
         private void processAllTestClasses() {
             Launcher launcher = LauncherFactory.create();
             launcher.registerTestExecutionListeners(new JUnitPlatformTestExecutionListener(resultProcessor, clock, idGenerator, executionListener));
+            execute(launcher, testClasses);
+        }
+    }
+
+    void execute(Launcher launcher, List<Class<?>> testClasses) {
+        if (maxParallelTests > 1) {
+            for (Class<?> testClass : testClasses) {
+                launcher.execute(createLauncherDiscoveryRequest(Collections.<Class<?>>singletonList(testClass)));
+            }
+        } else {
             launcher.execute(createLauncherDiscoveryRequest(testClasses));
         }
     }
@@ -106,7 +129,7 @@ public class JUnitPlatformTestClassProcessor extends AbstractJUnitTestClassProce
         }
     }
 
-    private LauncherDiscoveryRequest createLauncherDiscoveryRequest(List<Class<?>> testClasses) {
+    LauncherDiscoveryRequest createLauncherDiscoveryRequest(List<Class<?>> testClasses) {
         List<DiscoverySelector> classSelectors = testClasses.stream()
             .map(DiscoverySelectors::selectClass)
             .collect(Collectors.toList());
@@ -116,10 +139,19 @@ public class JUnitPlatformTestClassProcessor extends AbstractJUnitTestClassProce
         addTestNameFilters(requestBuilder);
         addEnginesFilter(requestBuilder);
         addTagsFilter(requestBuilder);
+        addParallelExecutionConfiguration(requestBuilder);
 
         return requestBuilder.build();
     }
 
+    private void addParallelExecutionConfiguration(LauncherDiscoveryRequestBuilder requestBuilder) {
+        if (maxParallelTests > 1) {
+            requestBuilder.configurationParameter(PARALLEL_EXECUTION_ENABLED, "true");
+            requestBuilder.configurationParameter(PARALLEL_EXECUTION_STRATEGY, "fixed");
+            requestBuilder.configurationParameter(PARALLEL_EXECUTION_PARALLELISM, String.valueOf(maxParallelTests));
+        }
+    }
+
     private void addEnginesFilter(LauncherDiscoveryRequestBuilder requestBuilder) {
         if (!spec.getIncludeEngines().isEmpty()) {
             requestBuilder.filters(includeEngines(spec.getIncludeEngines()));
@@ -116,7 +116,7 @@ public class JUnitPlatformTestExecutionListener implements TestExecutionListener
     }
 
     private boolean testFailedBeforeTestClassStart(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
-        return isFailedContainer(testIdentifier, testExecutionResult) && currentRunningTestClass.count == 0;
+        return isFailedContainer(testIdentifier, testExecutionResult) && currentRunningTestClass.isIdle();
     }
 
     private void testFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
@@ -211,11 +211,14 @@ public class JUnitPlatformTestExecutionListener implements TestExecutionListener
         }
     }
 
+    /**
+     * Tracks the class whose tests are executing. Tests that execute concurrently start and finish their nested classes from several threads.
+     */
     private class CurrentRunningTestClass {
         private String name;
         private int count;
 
-        private void start(String className, String displayName) {
+        private synchronized void start(String className, String displayName) {
             if (name == null) {
                 name = className;
                 executionListener.testClassStarted(className, displayName);
@@ -225,7 +228,7 @@ public class JUnitPlatformTestExecutionListener implements TestExecutionListener
             }
         }
 
-        private void end(String className, Throwable failure) {
+        private synchronized void end(String className, Throwable failure) {
             if (className.equals(name)) {
                 count--;
                 if (count == 0) {
@@ -234,5 +237,9 @@ public class JUnitPlatformTestExecutionListener implements TestExecutionListener
                 }
             }
         }
+
+        private synchronized boolean isIdle() {
+            return count == 0;
+        }
     }
 }
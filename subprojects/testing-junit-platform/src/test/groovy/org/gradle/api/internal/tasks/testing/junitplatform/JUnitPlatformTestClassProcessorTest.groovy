@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.junitplatform
+
+import org.gradle.api.tasks.testing.junitplatform.JUnitPlatformOptions
+import org.gradle.internal.actor.ActorFactory
+import org.gradle.internal.id.IdGenerator
+import org.gradle.internal.time.Clock
+import org.junit.platform.engine.discovery.ClassSelector
+import org.junit.platform.launcher.Launcher
+import org.junit.platform.launcher.LauncherDiscoveryRequest
+import spock.lang.Specification
+
+class JUnitPlatformTestClassProcessorTest extends Specification {
+    def launcher = Mock(Launcher)
+
+    def "enables parallel execution with a fixed number of threads when more than one test may execute at a time"() {
+        when:
+        def request = processor(4).createLauncherDiscoveryRequest([FirstTest])
+
+        then:
+        request.configurationParameters.get("junit.jupiter.execution.parallel.enabled") == Optional.of("true")
+        request.configurationParameters.get("junit.jupiter.execution.parallel.config.strategy") == Optional.of("fixed")
+        request.configurationParameters.get("junit.jupiter.execution.parallel.config.fixed.parallelism") == Optional.of("4")
+    }
+
+    def "leaves parallel execution to the configuration of the tests when one test executes at a time"() {
+        when:
+        def request = processor(1).createLauncherDiscoveryRequest([FirstTest])
+
+        then:
+        !request.configurationParameters.get("junit.jupiter.execution.parallel.enabled").present
+        !request.configurationParameters.get("junit.jupiter.execution.parallel.config.strategy").present
+        !request.configurationParameters.get("junit.jupiter.execution.parallel.config.fixed.parallelism").present
+    }
+
+    def "launches the test classes one at a time when more than one test may execute at a time"() {
+        when:
+        processor(2).execute(launcher, [FirstTest, SecondTest])
+
+        then:
+        1 * launcher.execute({ selectedClasses(it) == [FirstTest] })
+
+        then:
+        1 * launcher.execute({ selectedClasses(it) == [SecondTest] })
+        0 * launcher._
+    }
+
+    def "launches all test classes at once when one test executes at a time"() {
+        when:
+        processor(1).execute(launcher, [FirstTest, SecondTest])
+
+        then:
+        1 * launcher.execute({ selectedClasses(it) == [FirstTest, SecondTest] })
+        0 * launcher._
+    }
+
+    private JUnitPlatformTestClassProcessor processor(int maxParallelTests) {
+        def spec = new JUnitPlatformSpec(new JUnitPlatformOptions(), [] as Set, [] as Set)
+        return new JUnitPlatformTestClassProcessor(spec, maxParallelTests, Stub(IdGenerator), Stub(ActorFactory), Stub(Clock))
+    }
+
+    private static List<Class<?>> selectedClasses(LauncherDiscoveryRequest request) {
+        return request.getSelectorsByType(ClassSelector)*.javaClass
+    }
+
+    static class FirstTest {
+    }
+
+    static class SecondTest {
+    }
+}
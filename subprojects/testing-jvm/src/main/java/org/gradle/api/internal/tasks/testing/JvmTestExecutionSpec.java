@@ -18,10 +18,14 @@ package org.gradle.api.internal.tasks.testing;
 
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
+import org.gradle.api.internal.tasks.testing.processors.SelectedTestClasses;
 import org.gradle.process.JavaForkOptions;
 import org.gradle.util.Path;
+import org.gradle.workers.IsolationMode;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.util.Map;
 import java.util.Set;
 
 public class JvmTestExecutionSpec implements TestExecutionSpec {
@@ -36,8 +40,14 @@ public class JvmTestExecutionSpec implements TestExecutionSpec {
     private final JavaForkOptions javaForkOptions;
     private final int maxParallelForks;
     private final Set<String> previousFailedTestClasses;
-
-    public JvmTestExecutionSpec(TestFramework testFramework, Iterable<? extends File> classpath, FileTree candidateClassFiles, boolean scanForTestClasses, FileCollection testClassesDirs, String path, Path identityPath, long forkEvery, JavaForkOptions javaForkOptions, int maxParallelForks, Set<String> previousFailedTestClasses) {
+    private final Map<String, Long> previousTestClassDurations;
+    private final TestShard shard;
+    private final Map<String, Long> shardTestClassDurations;
+    private final SelectedTestClasses affectedTestClasses;
+    private final int maxForkReuses;
+    private final IsolationMode isolationMode;
+
+    public JvmTestExecutionSpec(TestFramework testFramework, Iterable<? extends File> classpath, FileTree candidateClassFiles, boolean scanForTestClasses, FileCollection testClassesDirs, String path, Path identityPath, long forkEvery, JavaForkOptions javaForkOptions, int maxParallelForks, Set<String> previousFailedTestClasses, Map<String, Long> previousTestClassDurations, @Nullable TestShard shard, Map<String, Long> shardTestClassDurations, @Nullable SelectedTestClasses affectedTestClasses, int maxForkReuses, IsolationMode isolationMode) {
         this.testFramework = testFramework;
         this.classpath = classpath;
         this.candidateClassFiles = candidateClassFiles;
@@ -49,6 +59,12 @@ public class JvmTestExecutionSpec implements TestExecutionSpec {
         this.javaForkOptions = javaForkOptions;
         this.maxParallelForks = maxParallelForks;
         this.previousFailedTestClasses = previousFailedTestClasses;
+        this.previousTestClassDurations = previousTestClassDurations;
+        this.shard = shard;
+        this.shardTestClassDurations = shardTestClassDurations;
+        this.affectedTestClasses = affectedTestClasses;
+        this.maxForkReuses = maxForkReuses;
+        this.isolationMode = isolationMode;
     }
 
     public TestFramework getTestFramework() {
@@ -94,4 +110,39 @@ public class JvmTestExecutionSpec implements TestExecutionSpec {
     public Set<String> getPreviousFailedTestClasses() {
         return previousFailedTestClasses;
     }
+
+    public Map<String, Long> getPreviousTestClassDurations() {
+        return previousTestClassDurations;
+    }
+
+    @Nullable
+    public TestShard getShard() {
+        return shard;
+    }
+
+    /**
+     * Returns the test class durations to balance the shards by, or an empty map to split the test classes by name.
+     */
+    public Map<String, Long> getShardTestClassDurations() {
+        return shardTestClassDurations;
+    }
+
+    /**
+     * Returns the test classes that may be affected by changes since the last successful run, or null to execute all test classes.
+     */
+    @Nullable
+    public SelectedTestClasses getAffectedTestClasses() {
+        return affectedTestClasses;
+    }
+
+    public int getMaxForkReuses() {
+        return maxForkReuses;
+    }
+
+    /**
+     * Returns {@link IsolationMode#CLASSLOADER} to run the tests inside the build process, or {@link IsolationMode#PROCESS} to run them in forked test processes.
+     */
+    public IsolationMode getIsolationMode() {
+        return isolationMode;
+    }
 }
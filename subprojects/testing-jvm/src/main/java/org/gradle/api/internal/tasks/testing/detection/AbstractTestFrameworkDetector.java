@@ -21,49 +21,56 @@ import org.apache.commons.lang.StringUtils;
 import org.gradle.api.GradleException;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.internal.hash.FileHasher;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Type;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import static org.gradle.internal.FileUtils.hasExtension;
 
+/**
+ * Detects test classes by reading their class files, and the class files of their super classes when the class itself is not a test.
+ * Super classes in library jars are read straight from the jars, and their headers are kept in a {@link JarTestClassHeaderCache}.
+ *
+ * <p>Test classes may be processed concurrently by several threads.</p>
+ */
 public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor> implements TestFrameworkDetector {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractTestFrameworkDetector.class);
     private static final String JAVA_LANG_OBJECT = "java/lang/Object";
 
+    private final JarTestClassHeaderCache jarHeaderCache;
+    private final FileHasher fileHasher;
+    private final ConcurrentMap<String, Boolean> superClasses = new ConcurrentHashMap<String, Boolean>();
     private List<File> testClassDirectories;
-    private final ClassFileExtractionManager classFileExtractionManager;
-    private final Map<File, Boolean> superClasses;
+    private List<LibraryJar> libraryJars;
     private TestClassProcessor testClassProcessor;
 
     private Set<File> testClassesDirectories;
     private Set<File> testClasspath;
 
-    protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager) {
-        assert classFileExtractionManager != null;
-        this.classFileExtractionManager = classFileExtractionManager;
-        this.superClasses = new HashMap<File, Boolean>();
+    protected AbstractTestFrameworkDetector(JarTestClassHeaderCache jarHeaderCache, FileHasher fileHasher) {
+        this.jarHeaderCache = jarHeaderCache;
+        this.fileHasher = fileHasher;
     }
 
     protected abstract T createClassVisitor();
 
-    private File getSuperTestClassFile(String superClassName) {
-        prepareClasspath();
-        if (StringUtils.isEmpty(superClassName)) {
-            throw new IllegalArgumentException("superClassName is empty!");
-        }
-
+    @Nullable
+    private TestClassHeader getSuperClassHeader(String superClassName) {
         File superTestClassFile = null;
         for (File testClassDirectory : testClassDirectories) {
             File candidate = new File(testClassDirectory, superClassName + ".class");
@@ -73,22 +80,36 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         }
 
         if (superTestClassFile != null) {
-            return superTestClassFile;
+            return readHeader(superTestClassFile);
         } else if (JAVA_LANG_OBJECT.equals(superClassName)) {
             // java.lang.Object found, which is not a test class
             return null;
         } else {
             // super test class file not in test class directories
-            return classFileExtractionManager.getLibraryClassFile(superClassName);
+            return getLibraryClassHeader(superClassName);
         }
     }
 
-    private void prepareClasspath() {
-        if (testClassDirectories != null) {
-            return;
+    @Nullable
+    private TestClassHeader getLibraryClassHeader(String className) {
+        for (LibraryJar libraryJar : libraryJars) {
+            JarTestClassHeaderCache.Headers headers = libraryJar.getHeaders();
+            if (headers.containsClass(className)) {
+                TestClassHeader header = headers.getHeader(className);
+                if (header == null) {
+                    header = readHeader(libraryJar.file, className);
+                    headers.putHeader(header);
+                }
+                return header;
+            }
         }
+        // super class not on the classpath - unable to scan parent class
+        return null;
+    }
 
+    private void prepareClasspath() {
         testClassDirectories = new ArrayList<File>();
+        libraryJars = new ArrayList<LibraryJar>();
 
         if (testClassesDirectories != null) {
             testClassDirectories.addAll(testClassesDirectories);
@@ -98,7 +119,7 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
                 if (file.isDirectory()) {
                     testClassDirectories.add(file);
                 } else if (file.isFile() && hasExtension(file, ".jar")) {
-                    classFileExtractionManager.addLibraryJar(file);
+                    libraryJars.add(new LibraryJar(file));
                 }
             }
         }
@@ -114,26 +135,46 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         this.testClasspath = testClasspath;
     }
 
-    protected TestClassVisitor classVisitor(final File testClassFile) {
-        final TestClassVisitor classVisitor = createClassVisitor();
-
+    private TestClassHeader readHeader(final File testClassFile) {
         InputStream classStream = null;
         try {
             classStream = new BufferedInputStream(new FileInputStream(testClassFile));
-            final ClassReader classReader = new ClassReader(IOUtils.toByteArray(classStream));
-            classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+            return readHeader(classStream);
         } catch (Throwable e) {
             throw new GradleException("failed to read class file " + testClassFile.getAbsolutePath(), e);
         } finally {
             IOUtils.closeQuietly(classStream);
         }
+    }
 
-        return classVisitor;
+    private TestClassHeader readHeader(File jarFile, String className) {
+        String entryName = className + ".class";
+        try {
+            ZipFile zipFile = new ZipFile(jarFile);
+            try {
+                ZipEntry entry = zipFile.getEntry(entryName);
+                if (entry == null) {
+                    throw new GradleException("class file " + entryName + " not found");
+                }
+                InputStream classStream = zipFile.getInputStream(entry);
+                try {
+                    return readHeader(classStream);
+                } finally {
+                    classStream.close();
+                }
+            } finally {
+                zipFile.close();
+            }
+        } catch (Throwable e) {
+            throw new GradleException("failed to read class file " + entryName + " from jar (" + jarFile + ")", e);
+        }
     }
 
-    @Override
-    public boolean processTestClass(File testClassFile) {
-        return processTestClass(testClassFile, false);
+    private TestClassHeader readHeader(InputStream classStream) throws Exception {
+        final TestClassVisitor classVisitor = createClassVisitor();
+        final ClassReader classReader = new ClassReader(IOUtils.toByteArray(classStream));
+        classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+        return TestClassHeader.of(classVisitor);
     }
 
     /**
@@ -141,64 +182,75 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
      * class is a test class. First the package of the parent class is checked, if it is a java.lang or groovy.lang the class can't be a test class, otherwise the parent class is scanned. <p/> When a
      * parent class is a test class all the extending classes are marked as test classes.
      */
-    private boolean processTestClass(final File testClassFile, boolean superClass) {
-        final TestClassVisitor classVisitor = classVisitor(testClassFile);
-
-        boolean isTest = classVisitor.isTest();
+    @Override
+    public boolean processTestClass(File testClassFile) {
+        TestClassHeader header = readHeader(testClassFile);
+        boolean isTest = isTest(header);
+        publishTestClass(isTest, header);
+        return isTest;
+    }
 
-        if (!isTest) { // scan parent class
-            final String superClassName = classVisitor.getSuperClassName();
+    private boolean isTest(TestClassHeader header) {
+        if (header.isTest()) {
+            return true;
+        }
+        // scan parent class
+        final String superClassName = header.getSuperClassName();
+        if (StringUtils.isEmpty(superClassName)) {
+            return false;
+        }
+        if (isKnownTestCaseClassName(superClassName)) {
+            return true;
+        }
 
-            if (isKnownTestCaseClassName(superClassName)) {
-                isTest = true;
+        Boolean isSuperTest = superClasses.get(superClassName);
+        if (isSuperTest == null) {
+            TestClassHeader superClassHeader = getSuperClassHeader(superClassName);
+            if (superClassHeader != null) {
+                isSuperTest = isTest(superClassHeader);
             } else {
-                final File superClassFile = getSuperTestClassFile(superClassName);
-
-                if (superClassFile != null) {
-                    isTest = processSuperClass(superClassFile);
-                } else {
-                    LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file",
-                        superClassName);
-                }
+                LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file", superClassName);
+                isSuperTest = false;
             }
+            superClasses.put(superClassName, isSuperTest);
         }
-
-        publishTestClass(isTest, classVisitor, superClass);
-
-        return isTest;
+        return isSuperTest;
     }
 
     protected abstract boolean isKnownTestCaseClassName(String testCaseClassName);
 
-    private boolean processSuperClass(File testClassFile) {
-        boolean isTest;
-
-        Boolean isSuperTest = superClasses.get(testClassFile);
-
-        if (isSuperTest == null) {
-            isTest = processTestClass(testClassFile, true);
-
-            superClasses.put(testClassFile, isTest);
-        } else {
-            isTest = isSuperTest;
-        }
-
-        return isTest;
-    }
-
     /**
-     * In none super class mode a test class is published when the class is a test and it is not abstract. In super class mode it must not publish the class otherwise it will get published multiple
-     * times (for each extending class).
+     * A test class is published when the class is a test and it is not abstract. Super classes are never published themselves, otherwise they would
+     * get published for each extending class.
      */
-    private void publishTestClass(boolean isTest, TestClassVisitor classVisitor, boolean superClass) {
-        if (isTest && !classVisitor.isAbstract() && !superClass) {
-            String className = Type.getObjectType(classVisitor.getClassName()).getClassName();
-            testClassProcessor.processTestClass(new DefaultTestClassRunInfo(className));
+    private void publishTestClass(boolean isTest, TestClassHeader header) {
+        if (isTest && !header.isAbstract()) {
+            String className = Type.getObjectType(header.getClassName()).getClassName();
+            synchronized (testClassProcessor) {
+                testClassProcessor.processTestClass(new DefaultTestClassRunInfo(className));
+            }
         }
     }
 
     @Override
     public void startDetection(TestClassProcessor testClassProcessor) {
         this.testClassProcessor = testClassProcessor;
+        prepareClasspath();
+    }
+
+    private class LibraryJar {
+        private final File file;
+        private JarTestClassHeaderCache.Headers headers;
+
+        LibraryJar(File file) {
+            this.file = file;
+        }
+
+        synchronized JarTestClassHeaderCache.Headers getHeaders() {
+            if (headers == null) {
+                headers = jarHeaderCache.get(file, fileHasher.hash(file), AbstractTestFrameworkDetector.this.getClass().getName());
+            }
+            return headers;
+        }
     }
 }
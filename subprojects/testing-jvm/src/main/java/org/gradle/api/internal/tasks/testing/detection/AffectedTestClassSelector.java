@@ -0,0 +1,255 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.CompilationResultAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysis;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Selects the test classes that may be affected by the changes to the test runtime classpath since the last successful run of a test task,
+ * using the same class dependency analysis as incremental Java compilation.
+ *
+ * <p>Only changes to class files in directories are analyzed. Any other change, such as to a resource, to a jar or to the configuration of the
+ * test task, selects all test classes, as its effect on the tests cannot be known.</p>
+ */
+public class AffectedTestClassSelector {
+    private static final Logger LOGGER = Logging.getLogger(AffectedTestClassSelector.class);
+    private static final int STATE_VERSION = 1;
+    private static final String CLASS_FILE_EXTENSION = ".class";
+
+    private final File stateFile;
+    private final FileHasher fileHasher;
+    private final ClassDependenciesAnalyzer analyzer;
+    private final DirectoryFileTreeFactory directoryFileTreeFactory;
+    private ClasspathState currentState;
+
+    public AffectedTestClassSelector(File stateFile, FileHasher fileHasher, ClassDependenciesAnalyzer analyzer, DirectoryFileTreeFactory directoryFileTreeFactory) {
+        this.stateFile = stateFile;
+        this.fileHasher = fileHasher;
+        this.analyzer = analyzer;
+        this.directoryFileTreeFactory = directoryFileTreeFactory;
+    }
+
+    /**
+     * Returns the names of the classes that changed since the last successful run, along with the classes that depend on them, or null when all
+     * test classes need to run.
+     *
+     * @param configuration a description of everything other than the classpath that affects the outcome of the tests.
+     */
+    @Nullable
+    public Set<String> selectAffectedClasses(Iterable<File> classpath, String configuration) {
+        currentState = snapshot(classpath, configuration);
+        ClasspathState previousState = readState();
+        if (previousState == null) {
+            LOGGER.info("Running all tests, as there is no record of a previous successful run.");
+            return null;
+        }
+        if (!previousState.fingerprint.equals(currentState.fingerprint)) {
+            LOGGER.info("Running all tests, as resources, jars or the test configuration changed since the previous successful run.");
+            return null;
+        }
+
+        Set<String> changedClasses = new HashSet<String>();
+        for (Map.Entry<String, HashCode> entry : currentState.classes.entrySet()) {
+            if (!entry.getValue().equals(previousState.classes.get(entry.getKey()))) {
+                changedClasses.add(entry.getKey());
+            }
+        }
+        for (String className : previousState.classes.keySet()) {
+            if (!currentState.classes.containsKey(className)) {
+                changedClasses.add(className);
+            }
+        }
+        if (changedClasses.isEmpty()) {
+            return changedClasses;
+        }
+
+        ClassSetAnalysis analysis = analyze(classpath);
+        // Constants are inlined by the compiler, so their users cannot be found from the class files
+        IntSet changedConstants = new IntOpenHashSet();
+        for (String className : changedClasses) {
+            changedConstants.addAll(analysis.getData().getConstants(className));
+        }
+        DependentsSet dependents = analysis.getRelevantDependents(changedClasses, changedConstants);
+        if (dependents.isDependencyToAll()) {
+            String reason = dependents.getDescription();
+            LOGGER.info("Running all tests, as {}.", reason != null ? reason : "a changed class may affect all classes");
+            return null;
+        }
+        Set<String> affectedClasses = new HashSet<String>(changedClasses);
+        affectedClasses.addAll(dependents.getDependentClasses());
+        LOGGER.info("Running the tests affected by {} changed classes.", changedClasses.size());
+        return affectedClasses;
+    }
+
+    /**
+     * Records the classpath seen by the most recent selection as the baseline for the next selection. Should only be called once all the selected
+     * tests have passed.
+     */
+    public void recordSuccessfulRun() {
+        if (currentState == null) {
+            throw new IllegalStateException("No test classes have been selected.");
+        }
+        writeState(currentState);
+    }
+
+    private ClasspathState snapshot(Iterable<File> classpath, String configuration) {
+        Hasher fingerprint = Hashing.md5().newHasher();
+        fingerprint.putString(configuration);
+        final Map<String, HashCode> classes = new HashMap<String, HashCode>();
+        for (File entry : classpath) {
+            fingerprint.putString(entry.getAbsolutePath());
+            if (entry.isDirectory()) {
+                final SortedMap<String, HashCode> resources = new TreeMap<String, HashCode>();
+                directoryFileTreeFactory.create(entry).visit(new FileVisitor() {
+                    @Override
+                    public void visitDir(FileVisitDetails dirDetails) {
+                    }
+
+                    @Override
+                    public void visitFile(FileVisitDetails fileDetails) {
+                        String path = fileDetails.getRelativePath().getPathString();
+                        HashCode hash = fileHasher.hash(fileDetails);
+                        if (path.endsWith(CLASS_FILE_EXTENSION)) {
+                            String className = path.substring(0, path.length() - CLASS_FILE_EXTENSION.length()).replace('/', '.');
+                            // The first class on the classpath wins, as it does when the tests run
+                            if (!classes.containsKey(className)) {
+                                classes.put(className, hash);
+                            }
+                        } else {
+                            resources.put(path, hash);
+                        }
+                    }
+                });
+                for (Map.Entry<String, HashCode> resource : resources.entrySet()) {
+                    fingerprint.putString(resource.getKey());
+                    fingerprint.putHash(resource.getValue());
+                }
+            } else if (entry.isFile()) {
+                fingerprint.putHash(fileHasher.hash(entry));
+            } else {
+                fingerprint.putBoolean(false);
+            }
+        }
+        return new ClasspathState(fingerprint.hash(), classes);
+    }
+
+    private ClassSetAnalysis analyze(Iterable<File> classpath) {
+        CompilationResultAnalyzer resultAnalyzer = new CompilationResultAnalyzer(analyzer, fileHasher);
+        for (File entry : classpath) {
+            if (entry.isDirectory()) {
+                directoryFileTreeFactory.create(entry).visit(resultAnalyzer);
+            }
+        }
+        return new ClassSetAnalysis(resultAnalyzer.getAnalysis());
+    }
+
+    @Nullable
+    private ClasspathState readState() {
+        if (!stateFile.isFile()) {
+            return null;
+        }
+        try {
+            InputStream inputStream = new FileInputStream(stateFile);
+            try {
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                if (decoder.readSmallInt() != STATE_VERSION) {
+                    return null;
+                }
+                HashCode fingerprint = HashCode.fromString(decoder.readString());
+                int count = decoder.readSmallInt();
+                Map<String, HashCode> classes = new HashMap<String, HashCode>(count);
+                for (int i = 0; i < count; i++) {
+                    String className = decoder.readString();
+                    classes.put(className, HashCode.fromString(decoder.readString()));
+                }
+                return new ClasspathState(fingerprint, classes);
+            } finally {
+                inputStream.close();
+            }
+        } catch (Exception e) {
+            // Running all tests is always correct, so start again rather than failing the build
+            LOGGER.debug("Could not read the previous test classpath from {}.", stateFile, e);
+            return null;
+        }
+    }
+
+    private void writeState(ClasspathState state) {
+        try {
+            stateFile.getParentFile().mkdirs();
+            OutputStream outputStream = new FileOutputStream(stateFile);
+            try {
+                FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
+                encoder.writeSmallInt(STATE_VERSION);
+                encoder.writeString(state.fingerprint.toString());
+                encoder.writeSmallInt(state.classes.size());
+                for (Map.Entry<String, HashCode> entry : state.classes.entrySet()) {
+                    encoder.writeString(entry.getKey());
+                    encoder.writeString(entry.getValue().toString());
+                }
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class ClasspathState {
+        private final HashCode fingerprint;
+        private final Map<String, HashCode> classes;
+
+        ClasspathState(HashCode fingerprint, Map<String, HashCode> classes) {
+            this.fingerprint = fingerprint;
+            this.classes = classes;
+        }
+    }
+}
@@ -22,24 +22,48 @@ import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 /**
  * The default test class scanner. Depending on the availability of a test framework detector,
  * a detection or filename scan is performed to find test classes.
+ *
+ * <p>A detection scan reads the candidate class files on several threads when an executor factory is given. Test classes are passed on in the
+ * order the class files are visited, as soon as the detection of each class file and of all class files before it has finished, so that they
+ * can start executing before the scan finishes.</p>
  */
 public class DefaultTestClassScanner implements Runnable {
     private static final Pattern ANONYMOUS_CLASS_NAME = Pattern.compile(".*\\$\\d+");
     private final FileTree candidateClassFiles;
     private final TestFrameworkDetector testFrameworkDetector;
     private final TestClassProcessor testClassProcessor;
+    private final ExecutorFactory executorFactory;
+    private final int maxThreads;
 
     public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
                                    TestClassProcessor testClassProcessor) {
+        this(candidateClassFiles, testFrameworkDetector, testClassProcessor, null, 1);
+    }
+
+    public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
+                                   TestClassProcessor testClassProcessor, @Nullable ExecutorFactory executorFactory, int maxThreads) {
         this.candidateClassFiles = candidateClassFiles;
         this.testFrameworkDetector = testFrameworkDetector;
         this.testClassProcessor = testClassProcessor;
+        this.executorFactory = executorFactory;
+        this.maxThreads = maxThreads;
     }
 
     @Override
@@ -52,12 +76,44 @@ public class DefaultTestClassScanner implements Runnable {
     }
 
     private void detectionScan() {
-        testFrameworkDetector.startDetection(testClassProcessor);
-        candidateClassFiles.visit(new ClassFileVisitor() {
-            public void visitClassFile(FileVisitDetails fileDetails) {
-                testFrameworkDetector.processTestClass(fileDetails.getFile());
+        if (executorFactory == null || maxThreads < 2) {
+            testFrameworkDetector.startDetection(testClassProcessor);
+            candidateClassFiles.visit(new ClassFileVisitor() {
+                public void visitClassFile(FileVisitDetails fileDetails) {
+                    testFrameworkDetector.processTestClass(fileDetails.getFile());
+                }
+            });
+            return;
+        }
+
+        final DetectedTestClasses detectedTestClasses = new DetectedTestClasses();
+        testFrameworkDetector.startDetection(detectedTestClasses);
+        final ManagedExecutor executor = executorFactory.create("Test class detection", maxThreads);
+        try {
+            final List<Future<List<TestClassRunInfo>>> detections = new ArrayList<Future<List<TestClassRunInfo>>>();
+            candidateClassFiles.visit(new ClassFileVisitor() {
+                public void visitClassFile(FileVisitDetails fileDetails) {
+                    final File classFile = fileDetails.getFile();
+                    detections.add(executor.submit(new Callable<List<TestClassRunInfo>>() {
+                        @Override
+                        public List<TestClassRunInfo> call() {
+                            return detectedTestClasses.detect(classFile);
+                        }
+                    }));
+                }
+            });
+            for (Future<List<TestClassRunInfo>> detection : detections) {
+                for (TestClassRunInfo testClass : detection.get()) {
+                    testClassProcessor.processTestClass(testClass);
+                }
             }
-        });
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            executor.stop();
+        }
     }
 
     private void filenameScan() {
@@ -69,6 +125,44 @@ public class DefaultTestClassScanner implements Runnable {
         });
     }
 
+    /**
+     * Collects the test classes that the detector publishes while it processes a class file, on the thread that processes the class file.
+     */
+    private class DetectedTestClasses implements TestClassProcessor {
+        private final ThreadLocal<List<TestClassRunInfo>> detected = new ThreadLocal<List<TestClassRunInfo>>();
+
+        List<TestClassRunInfo> detect(File classFile) {
+            List<TestClassRunInfo> testClasses = new ArrayList<TestClassRunInfo>();
+            detected.set(testClasses);
+            try {
+                testFrameworkDetector.processTestClass(classFile);
+            } finally {
+                detected.remove();
+            }
+            return testClasses;
+        }
+
+        @Override
+        public void processTestClass(TestClassRunInfo testClass) {
+            detected.get().add(testClass);
+        }
+
+        @Override
+        public void startProcessing(TestResultProcessor resultProcessor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void stop() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void stopNow() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     private abstract class ClassFileVisitor extends EmptyFileVisitor {
         @Override
         public void visitFile(FileVisitDetails fileDetails) {
@@ -21,6 +21,7 @@ import org.gradle.api.file.FileTree;
 import org.gradle.api.internal.DocumentationRegistry;
 import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.tasks.testing.JvmTestExecutionSpec;
+import org.gradle.api.internal.tasks.testing.ParallelWorkerTestClassProcessorFactory;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestExecuter;
 import org.gradle.api.internal.tasks.testing.TestFramework;
@@ -30,17 +31,24 @@ import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
 import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.PatternMatchTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.RunLongestFirstTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RunPreviousFailedFirstTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.SelectedTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.ShardingTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.worker.InProcessTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.worker.ReusableTestWorkerPool;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.Factory;
 import org.gradle.internal.actor.ActorFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.time.Clock;
 import org.gradle.internal.work.WorkerLeaseRegistry;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
+import org.gradle.workers.IsolationMode;
 
 import java.io.File;
 import java.util.Set;
@@ -61,11 +69,14 @@ public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
     private final Clock clock;
     private final DocumentationRegistry documentationRegistry;
     private final DefaultTestFilter testFilter;
+    private final ExecutorFactory executorFactory;
+    private final ReusableTestWorkerPool workerPool;
     private TestClassProcessor processor;
 
     public DefaultTestExecuter(WorkerProcessFactory workerFactory, ActorFactory actorFactory, ModuleRegistry moduleRegistry,
                                WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor, int maxWorkerCount,
-                               Clock clock, DocumentationRegistry documentationRegistry, DefaultTestFilter testFilter) {
+                               Clock clock, DocumentationRegistry documentationRegistry, DefaultTestFilter testFilter, ExecutorFactory executorFactory,
+                               ReusableTestWorkerPool workerPool) {
         this.workerFactory = workerFactory;
         this.actorFactory = actorFactory;
         this.moduleRegistry = moduleRegistry;
@@ -75,18 +86,29 @@ public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
         this.clock = clock;
         this.documentationRegistry = documentationRegistry;
         this.testFilter = testFilter;
+        this.executorFactory = executorFactory;
+        this.workerPool = workerPool;
     }
 
     @Override
     public void execute(final JvmTestExecutionSpec testExecutionSpec, TestResultProcessor testResultProcessor) {
         final TestFramework testFramework = testExecutionSpec.getTestFramework();
-        final WorkerTestClassProcessorFactory testInstanceFactory = testFramework.getProcessorFactory();
+        final int maxParallelForks = getMaxParallelForks(testExecutionSpec);
+        WorkerTestClassProcessorFactory workerProcessorFactory = testFramework.getProcessorFactory();
+        int maxParallelTests = 1;
+        if (workerProcessorFactory instanceof ParallelWorkerTestClassProcessorFactory) {
+            ParallelWorkerTestClassProcessorFactory parallelProcessorFactory = (ParallelWorkerTestClassProcessorFactory) workerProcessorFactory;
+            maxParallelTests = getMaxParallelTests(testExecutionSpec, parallelProcessorFactory.getMaxParallelTests(), maxParallelForks);
+            workerProcessorFactory = parallelProcessorFactory.withMaxParallelTests(maxParallelTests);
+        }
+        final WorkerTestClassProcessorFactory testInstanceFactory = workerProcessorFactory;
+        final int workerLeasesPerFork = maxParallelTests;
         final WorkerLeaseRegistry.WorkerLease currentWorkerLease = workerLeaseRegistry.getCurrentWorkerLease();
         final Set<File> classpath = ImmutableSet.copyOf(testExecutionSpec.getClasspath());
         final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
             public TestClassProcessor create() {
                 return new ForkingTestClassProcessor(currentWorkerLease, workerFactory, testInstanceFactory, testExecutionSpec.getJavaForkOptions(),
-                    classpath, testFramework.getWorkerConfigurationAction(), moduleRegistry, documentationRegistry);
+                    classpath, testFramework.getWorkerConfigurationAction(), moduleRegistry, documentationRegistry, workerPool, testExecutionSpec.getMaxForkReuses(), workerLeasesPerFork);
             }
         };
         final Factory<TestClassProcessor> reforkingProcessorFactory = new Factory<TestClassProcessor>() {
@@ -94,10 +116,24 @@ public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
                 return new RestartEveryNTestClassProcessor(forkingProcessorFactory, testExecutionSpec.getForkEvery());
             }
         };
-        processor =
-            new PatternMatchTestClassProcessor(testFilter,
+        final Factory<TestClassProcessor> inProcessProcessorFactory = new Factory<TestClassProcessor>() {
+            public TestClassProcessor create() {
+                return new InProcessTestClassProcessor(currentWorkerLease, testInstanceFactory, classpath, testExecutionSpec.getJavaForkOptions(), moduleRegistry, clock);
+            }
+        };
+        Factory<TestClassProcessor> processorFactory = testExecutionSpec.getIsolationMode() == IsolationMode.CLASSLOADER ? inProcessProcessorFactory : reforkingProcessorFactory;
+        TestClassProcessor orderingProcessor =
+            new RunLongestFirstTestClassProcessor(testExecutionSpec.getPreviousTestClassDurations(),
                 new RunPreviousFailedFirstTestClassProcessor(testExecutionSpec.getPreviousFailedTestClasses(),
-                    new MaxNParallelTestClassProcessor(getMaxParallelForks(testExecutionSpec), reforkingProcessorFactory, actorFactory)));
+                    new MaxNParallelTestClassProcessor(maxParallelForks, processorFactory, actorFactory)));
+        if (testExecutionSpec.getAffectedTestClasses() != null) {
+            orderingProcessor = new SelectedTestClassProcessor(testExecutionSpec.getAffectedTestClasses(), orderingProcessor);
+        }
+        // Shard all test classes before selecting the affected ones, so that each shard is the same partition whichever classes are affected
+        if (testExecutionSpec.getShard() != null) {
+            orderingProcessor = new ShardingTestClassProcessor(testExecutionSpec.getShard(), testExecutionSpec.getShardTestClassDurations(), orderingProcessor);
+        }
+        processor = new PatternMatchTestClassProcessor(testFilter, orderingProcessor);
 
         final FileTree testClassFiles = testExecutionSpec.getCandidateClassFiles();
 
@@ -106,7 +142,7 @@ public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
             TestFrameworkDetector testFrameworkDetector = testFramework.getDetector();
             testFrameworkDetector.setTestClasses(testExecutionSpec.getTestClassesDirs().getFiles());
             testFrameworkDetector.setTestClasspath(classpath);
-            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor);
+            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor, executorFactory, maxWorkerCount);
         } else {
             detector = new DefaultTestClassScanner(testClassFiles, null, processor);
         }
@@ -123,12 +159,29 @@ public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
         }
     }
 
-    private int getMaxParallelForks(JvmTestExecutionSpec testExecutionSpec) {
+    int getMaxParallelForks(JvmTestExecutionSpec testExecutionSpec) {
         int maxParallelForks = testExecutionSpec.getMaxParallelForks();
+        if (testExecutionSpec.getIsolationMode() == IsolationMode.CLASSLOADER && maxParallelForks > 1) {
+            // The tests share the standard output and the system properties of the build process
+            LOGGER.info("{}.maxParallelForks ({}) does not apply to tests that run in the build process, forcing it to 1", testExecutionSpec.getPath(), maxParallelForks);
+            return 1;
+        }
         if (maxParallelForks > maxWorkerCount) {
             LOGGER.info("{}.maxParallelForks ({}) is larger than max-workers ({}), forcing it to {}", testExecutionSpec.getPath(), maxParallelForks, maxWorkerCount, maxWorkerCount);
             maxParallelForks = maxWorkerCount;
         }
         return maxParallelForks;
     }
+
+    /**
+     * Limits the tests executed concurrently in each test process, so that the test processes together use no more than max-workers threads.
+     */
+    int getMaxParallelTests(JvmTestExecutionSpec testExecutionSpec, int maxParallelTests, int maxParallelForks) {
+        int maxParallelTestsPerFork = Math.max(1, maxWorkerCount / maxParallelForks);
+        if (maxParallelTests > maxParallelTestsPerFork) {
+            LOGGER.info("{} executes {} tests in parallel in each of {} test processes, which is more than max-workers ({}) allows, forcing it to {}", testExecutionSpec.getPath(), maxParallelTests, maxParallelForks, maxWorkerCount, maxParallelTestsPerFork);
+            return maxParallelTestsPerFork;
+        }
+        return Math.max(1, maxParallelTests);
+    }
 }
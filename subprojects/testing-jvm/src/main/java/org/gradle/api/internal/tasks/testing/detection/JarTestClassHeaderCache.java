@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.Transformer;
+import org.gradle.cache.internal.CrossBuildInMemoryCache;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.internal.hash.HashCode;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Keeps the class names and the test class headers of library jars across builds, keyed by the hash of the jar, so that test detection
+ * does not need to open unchanged jars again to find the super classes of test classes.
+ */
+public class JarTestClassHeaderCache {
+    private final CrossBuildInMemoryCache<String, Headers> cache;
+
+    public JarTestClassHeaderCache(CrossBuildInMemoryCacheFactory cacheFactory) {
+        this.cache = cacheFactory.newCache();
+    }
+
+    /**
+     * Returns the headers of the given jar, as seen by the given kind of detector.
+     */
+    public Headers get(final File jar, HashCode jarHash, String detectorType) {
+        return cache.get(detectorType + ":" + jarHash, new Transformer<Headers, String>() {
+            @Override
+            public Headers transform(String key) {
+                return new Headers(listClasses(jar));
+            }
+        });
+    }
+
+    private static Set<String> listClasses(File jar) {
+        Set<String> classNames = new HashSet<String>();
+        try {
+            ZipFile zipFile = new ZipFile(jar);
+            try {
+                Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    if (name.endsWith(".class")) {
+                        classNames.add(name.substring(0, name.length() - ".class".length()));
+                    }
+                }
+            } finally {
+                zipFile.close();
+            }
+        } catch (IOException e) {
+            throw new GradleException("failed to scan jar file for classes (" + jar.getAbsolutePath() + ")", e);
+        }
+        return classNames;
+    }
+
+    /**
+     * The class names of a jar, along with the headers of the classes read from it so far.
+     */
+    public static class Headers {
+        private final Set<String> classNames;
+        private final ConcurrentMap<String, TestClassHeader> headers = new ConcurrentHashMap<String, TestClassHeader>();
+
+        Headers(Set<String> classNames) {
+            this.classNames = classNames;
+        }
+
+        public boolean containsClass(String className) {
+            return classNames.contains(className);
+        }
+
+        @Nullable
+        public TestClassHeader getHeader(String className) {
+            return headers.get(className);
+        }
+
+        public void putHeader(TestClassHeader header) {
+            headers.put(header.getClassName(), header);
+        }
+    }
+}
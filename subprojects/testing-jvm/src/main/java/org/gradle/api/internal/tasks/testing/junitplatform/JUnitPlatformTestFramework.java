@@ -18,6 +18,7 @@ package org.gradle.api.internal.tasks.testing.junitplatform;
 
 import org.gradle.api.Action;
 import org.gradle.api.JavaVersion;
+import org.gradle.api.internal.tasks.testing.ParallelWorkerTestClassProcessorFactory;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
@@ -49,7 +50,7 @@ public class JUnitPlatformTestFramework implements TestFramework {
         if (!JavaVersion.current().isJava8Compatible()) {
             throw new UnsupportedJavaRuntimeException("Running JUnit platform requires Java 8+, please configure your test java executable with Java 8 or higher.");
         }
-        return new JUnitPlatformTestClassProcessorFactory(new JUnitPlatformSpec(options, filter.getIncludePatterns(), filter.getCommandLineIncludePatterns()));
+        return new JUnitPlatformTestClassProcessorFactory(new JUnitPlatformSpec(options, filter.getIncludePatterns(), filter.getCommandLineIncludePatterns()), options.getMaxParallelTests());
     }
 
     @Override
@@ -71,11 +72,23 @@ public class JUnitPlatformTestFramework implements TestFramework {
         return null;
     }
 
-    public static class JUnitPlatformTestClassProcessorFactory implements WorkerTestClassProcessorFactory, Serializable {
+    public static class JUnitPlatformTestClassProcessorFactory implements ParallelWorkerTestClassProcessorFactory, Serializable {
         private final JUnitPlatformSpec spec;
+        private final int maxParallelTests;
 
-        public JUnitPlatformTestClassProcessorFactory(JUnitPlatformSpec spec) {
+        public JUnitPlatformTestClassProcessorFactory(JUnitPlatformSpec spec, int maxParallelTests) {
             this.spec = spec;
+            this.maxParallelTests = maxParallelTests;
+        }
+
+        @Override
+        public int getMaxParallelTests() {
+            return maxParallelTests;
+        }
+
+        @Override
+        public ParallelWorkerTestClassProcessorFactory withMaxParallelTests(int maxParallelTests) {
+            return new JUnitPlatformTestClassProcessorFactory(spec, maxParallelTests);
         }
 
         @Override
@@ -85,8 +98,8 @@ public class JUnitPlatformTestFramework implements TestFramework {
                 Clock clock = serviceRegistry.get(Clock.class);
                 ActorFactory actorFactory = serviceRegistry.get(ActorFactory.class);
                 Class clazz = getClass().getClassLoader().loadClass("org.gradle.api.internal.tasks.testing.junitplatform.JUnitPlatformTestClassProcessor");
-                Constructor constructor = clazz.getConstructor(JUnitPlatformSpec.class, IdGenerator.class, ActorFactory.class, Clock.class);
-                return (TestClassProcessor) constructor.newInstance(spec, idGenerator, actorFactory, clock);
+                Constructor constructor = clazz.getConstructor(JUnitPlatformSpec.class, int.class, IdGenerator.class, ActorFactory.class, Clock.class);
+                return (TestClassProcessor) constructor.newInstance(spec, maxParallelTests, idGenerator, actorFactory, clock);
             } catch (Exception e) {
                 throw UncheckedException.throwAsUncheckedException(e);
             }
@@ -16,11 +16,12 @@
 package org.gradle.api.internal.tasks.testing.testng;
 
 import org.gradle.api.internal.tasks.testing.detection.AbstractTestFrameworkDetector;
-import org.gradle.api.internal.tasks.testing.detection.ClassFileExtractionManager;
+import org.gradle.api.internal.tasks.testing.detection.JarTestClassHeaderCache;
+import org.gradle.internal.hash.FileHasher;
 
 class TestNGDetector extends AbstractTestFrameworkDetector<TestNGTestClassDetector> {
-    TestNGDetector(ClassFileExtractionManager classFileExtractionManager) {
-        super(classFileExtractionManager);
+    TestNGDetector(JarTestClassHeaderCache jarHeaderCache, FileHasher fileHasher) {
+        super(jarHeaderCache, fileHasher);
     }
 
     @Override
@@ -21,43 +21,63 @@ import groovy.lang.Closure;
 import org.gradle.StartParameter;
 import org.gradle.api.Action;
 import org.gradle.api.Incubating;
+import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.NonNullApi;
+import org.gradle.api.Task;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.internal.DocumentationRegistry;
 import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.file.FileResolver;
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.CachingClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
 import org.gradle.api.internal.tasks.testing.JvmTestExecutionSpec;
 import org.gradle.api.internal.tasks.testing.NoMatchingTestsReporter;
 import org.gradle.api.internal.tasks.testing.TestExecuter;
 import org.gradle.api.internal.tasks.testing.TestFramework;
+import org.gradle.api.internal.tasks.testing.TestShard;
+import org.gradle.api.internal.tasks.testing.detection.AffectedTestClassSelector;
 import org.gradle.api.internal.tasks.testing.detection.DefaultTestExecuter;
+import org.gradle.api.internal.tasks.testing.detection.JarTestClassHeaderCache;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
 import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework;
 import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultSerializer;
 import org.gradle.api.internal.tasks.testing.junitplatform.JUnitPlatformTestFramework;
+import org.gradle.api.internal.tasks.testing.processors.SelectedTestClasses;
+import org.gradle.api.internal.tasks.testing.processors.TruncatingTestOutputTestResultProcessor;
 import org.gradle.api.internal.tasks.testing.testng.TestNGTestFramework;
+import org.gradle.api.internal.tasks.testing.worker.ReusableTestWorkerPool;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Classpath;
 import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
 import org.gradle.api.tasks.InputFiles;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.options.Option;
 import org.gradle.api.tasks.testing.junit.JUnitOptions;
 import org.gradle.api.tasks.testing.junitplatform.JUnitPlatformOptions;
+import org.gradle.api.tasks.testing.testng.TestNGOptions;
 import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.internal.Actions;
 import org.gradle.internal.Cast;
+import org.gradle.internal.FileUtils;
+import org.gradle.internal.SystemProperties;
 import org.gradle.internal.actor.ActorFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.jvm.Jvm;
 import org.gradle.internal.jvm.UnsupportedJavaRuntimeException;
 import org.gradle.internal.jvm.inspection.JvmVersionDetector;
 import org.gradle.internal.operations.BuildOperationExecutor;
@@ -70,16 +90,22 @@ import org.gradle.process.internal.DefaultJavaForkOptions;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 import org.gradle.util.CollectionUtils;
 import org.gradle.util.ConfigureUtil;
+import org.gradle.util.GUtil;
 import org.gradle.util.SingleMessageLogger;
+import org.gradle.workers.IsolationMode;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.Callable;
 
 import static org.gradle.util.ConfigureUtil.configureUsing;
@@ -148,6 +174,14 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
     private boolean scanForTestClasses = true;
     private long forkEvery;
     private int maxParallelForks = 1;
+    private int maxForkReuses;
+    private long maxOutputPerTest;
+    private IsolationMode isolationMode = IsolationMode.PROCESS;
+    private String shard;
+    private File shardDurations;
+    private boolean runOnlyAffectedTests;
+    private AffectedTestClassSelector affectedTestClassSelector;
+    private SelectedTestClasses affectedTestClasses;
     private TestExecuter<JvmTestExecutionSpec> testExecuter;
 
     public Test() {
@@ -167,6 +201,12 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
         } else {
             addTestListener(new NoMatchingTestsReporter("Could not find matching test for pattern: " + singleTest));
         }
+        getOutputs().doNotCacheIf("Only the tests affected by changes are executed", new Spec<Task>() {
+            @Override
+            public boolean isSatisfiedBy(Task task) {
+                return runOnlyAffectedTests;
+            }
+        });
     }
 
     @Inject
@@ -567,24 +607,87 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
     protected JvmTestExecutionSpec createTestExecutionSpec() {
         DefaultJavaForkOptions javaForkOptions = new DefaultJavaForkOptions(getFileResolver());
         copyTo(javaForkOptions);
-        return new JvmTestExecutionSpec(getTestFramework(), getClasspath(), getCandidateClassFiles(), isScanForTestClasses(), getTestClassesDirs(), getPath(), getIdentityPath(), getForkEvery(), javaForkOptions, getMaxParallelForks(), getPreviousFailedTestClasses());
+        if (maxOutputPerTest > 0) {
+            javaForkOptions.systemProperty(TruncatingTestOutputTestResultProcessor.MAX_OUTPUT_PER_TEST_PROPERTY, maxOutputPerTest);
+        }
+        Set<String> previousFailedTestClasses = new HashSet<String>();
+        Map<String, Long> previousTestClassDurations = new HashMap<String, Long>();
+        previousTestClassDurations.putAll(getTestClassDurationStore().read());
+        readPreviousResults(previousFailedTestClasses, previousTestClassDurations);
+        TestShard testShard = shard == null ? null : TestShard.parse(shard);
+        Map<String, Long> shardTestClassDurations = testShard == null || shardDurations == null ? Collections.<String, Long>emptyMap() : readShardDurations(shardDurations);
+        Set<String> affectedTestClassNames = runOnlyAffectedTests ? selectAffectedTestClasses() : null;
+        affectedTestClasses = affectedTestClassNames == null ? null : new SelectedTestClasses(affectedTestClassNames);
+        return new JvmTestExecutionSpec(getTestFramework(), getClasspath(), getCandidateClassFiles(), isScanForTestClasses(), getTestClassesDirs(), getPath(), getIdentityPath(), getForkEvery(), javaForkOptions, getMaxParallelForks(), previousFailedTestClasses, previousTestClassDurations, testShard, shardTestClassDurations, affectedTestClasses, getMaxForkReuses(), getIsolationMode());
+    }
+
+    private static Map<String, Long> readShardDurations(File shardDurations) {
+        Map<String, Long> durations = new HashMap<String, Long>();
+        for (Map.Entry<Object, Object> entry : GUtil.loadProperties(shardDurations).entrySet()) {
+            try {
+                durations.put(entry.getKey().toString(), Long.parseLong(entry.getValue().toString().trim()));
+            } catch (NumberFormatException e) {
+                throw new InvalidUserDataException(String.format("Cannot parse the duration '%s' of test class '%s' in %s.", entry.getValue(), entry.getKey(), shardDurations), e);
+            }
+        }
+        return durations;
+    }
+
+    @Nullable
+    private Set<String> selectAffectedTestClasses() {
+        TestFrameworkOptions options = getOptions();
+        if (options instanceof TestNGOptions && !((TestNGOptions) options).getSuiteXmlFiles().isEmpty()) {
+            getLogger().info("Running all tests, as TestNG suites select their own test classes.");
+            return null;
+        }
+        FileHasher fileHasher = getServices().get(FileHasher.class);
+        GeneralCompileCaches compileCaches = getServices().get(GeneralCompileCaches.class);
+        affectedTestClassSelector = new AffectedTestClassSelector(new File(getTemporaryDir(), "affected-tests.bin"), fileHasher,
+            new CachingClassDependenciesAnalyzer(new DefaultClassDependenciesAnalyzer(), compileCaches.getClassAnalysisCache()),
+            getServices().get(DirectoryFileTreeFactory.class));
+        return affectedTestClassSelector.selectAffectedClasses(getClasspath(), describeTestConfiguration());
     }
 
-    private Set<String> getPreviousFailedTestClasses() {
+    /**
+     * Describes everything other than the classpath that affects which tests pass, so that any change to it causes all tests to run.
+     */
+    private String describeTestConfiguration() {
+        StringBuilder description = new StringBuilder();
+        description.append(getExecutable()).append('\n');
+        description.append(getAllJvmArgs()).append('\n');
+        description.append(new TreeMap<String, Object>(getEnvironment())).append('\n');
+        description.append(getWorkingDir()).append('\n');
+        description.append(getTestFramework().getClass().getName()).append('\n');
+        TestFrameworkOptions options = getOptions();
+        if (options instanceof JUnitOptions) {
+            JUnitOptions junitOptions = (JUnitOptions) options;
+            description.append(new TreeSet<String>(junitOptions.getIncludeCategories())).append(new TreeSet<String>(junitOptions.getExcludeCategories()));
+        } else if (options instanceof JUnitPlatformOptions) {
+            JUnitPlatformOptions junitPlatformOptions = (JUnitPlatformOptions) options;
+            description.append(new TreeSet<String>(junitPlatformOptions.getIncludeEngines())).append(new TreeSet<String>(junitPlatformOptions.getExcludeEngines()));
+            description.append(new TreeSet<String>(junitPlatformOptions.getIncludeTags())).append(new TreeSet<String>(junitPlatformOptions.getExcludeTags()));
+        } else if (options instanceof TestNGOptions) {
+            TestNGOptions testNGOptions = (TestNGOptions) options;
+            description.append(new TreeSet<String>(testNGOptions.getIncludeGroups())).append(new TreeSet<String>(testNGOptions.getExcludeGroups()));
+        }
+        description.append('\n');
+        description.append(new TreeSet<String>(getIncludes())).append(new TreeSet<String>(getExcludes())).append('\n');
+        description.append(new TreeSet<String>(getFilter().getIncludePatterns()));
+        return description.toString();
+    }
+
+    private void readPreviousResults(final Set<String> previousFailedTestClasses, final Map<String, Long> previousTestClassDurations) {
         TestResultSerializer serializer = new TestResultSerializer(getBinResultsDir());
         if (serializer.isHasResults()) {
-            final Set<String> previousFailedTestClasses = new HashSet<String>();
             serializer.read(new Action<TestClassResult>() {
                 @Override
                 public void execute(TestClassResult testClassResult) {
                     if (testClassResult.getFailuresCount() > 0) {
                         previousFailedTestClasses.add(testClassResult.getClassName());
                     }
+                    previousTestClassDurations.put(testClassResult.getClassName(), testClassResult.getDuration());
                 }
             });
-            return previousFailedTestClasses;
-        } else {
-            return Collections.emptySet();
         }
     }
 
@@ -598,14 +701,74 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
         if (getDebug()) {
             getLogger().info("Running tests for remote debugging.");
         }
+        if (getIsolationMode() == IsolationMode.CLASSLOADER) {
+            checkCanRunInBuildProcess();
+        }
 
         try {
             super.executeTests();
+            if (affectedTestClassSelector != null && isCompleteSuccessfulRun()) {
+                affectedTestClassSelector.recordSuccessfulRun();
+            }
         } finally {
             testFramework = null;
+            affectedTestClassSelector = null;
+            affectedTestClasses = null;
+        }
+    }
+
+    /**
+     * Refuses to run tests in the build process when they are configured to need a JVM of their own.
+     */
+    private void checkCanRunInBuildProcess() {
+        List<String> jvmArgs = new ArrayList<String>(getAllJvmArgs());
+        // Only the JVM arguments set for the tests count, not the file encoding and locale of the build process that test processes get by default
+        jvmArgs.removeAll(new DefaultJavaForkOptions(getFileResolver()).getAllJvmArgs());
+        // Assertions are enabled for the ClassLoader of the tests instead
+        jvmArgs.remove("-ea");
+        String reason = null;
+        if (!(getTestFramework() instanceof JUnitTestFramework) && !(getTestFramework() instanceof JUnitPlatformTestFramework)) {
+            reason = "only JUnit and JUnit Platform tests can run in the build process";
+        } else if (getForkEvery() > 0) {
+            reason = "forkEvery is set";
+        } else if (getExecutable() != null && !new File(getExecutable()).equals(Jvm.current().getJavaExecutable())) {
+            reason = String.format("they use the Java executable '%s'", getExecutable());
+        } else if (!jvmArgs.isEmpty()) {
+            reason = String.format("they use the JVM arguments %s", jvmArgs);
+        } else if (!getEnvironment().equals(Jvm.current().getInheritableEnvironmentVariables(System.getenv()))) {
+            reason = "they use environment variables other than those of the build";
+        } else if (!FileUtils.canonicalize(getWorkingDir()).equals(FileUtils.canonicalize(SystemProperties.getInstance().getCurrentDir()))) {
+            reason = String.format("they use the working directory '%s', which is not that of the build process", getWorkingDir());
+        }
+        if (reason != null) {
+            throw new InvalidUserDataException(String.format("Cannot run the tests of %s in the build process, as %s. Set isolationMode to PROCESS to run them in a forked test process.", this, reason));
         }
     }
 
+    @Override
+    boolean mayExecuteNoTests() {
+        return affectedTestClasses != null && affectedTestClasses.isEveryTestClassSkipped();
+    }
+
+    /**
+     * Returns true when all the selected tests ran and passed, so that the classpath of this run can serve as the baseline for the next run.
+     */
+    private boolean isCompleteSuccessfulRun() {
+        if (shard != null || !((DefaultTestFilter) getFilter()).getCommandLineIncludePatterns().isEmpty()) {
+            return false;
+        }
+        final boolean[] failed = new boolean[1];
+        new TestResultSerializer(getBinResultsDir()).read(new Action<TestClassResult>() {
+            @Override
+            public void execute(TestClassResult testClassResult) {
+                if (testClassResult.getFailuresCount() > 0) {
+                    failed[0] = true;
+                }
+            }
+        });
+        return !failed[0];
+    }
+
     @Override
     protected TestExecuter<JvmTestExecutionSpec> createTestExecuter() {
         if (testExecuter == null) {
@@ -615,7 +778,9 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
                 getServices().get(StartParameter.class).getMaxWorkerCount(),
                 getServices().get(Clock.class),
                 getServices().get(DocumentationRegistry.class),
-                (DefaultTestFilter) getFilter());
+                (DefaultTestFilter) getFilter(),
+                getServices().get(ExecutorFactory.class),
+                getServices().get(ReusableTestWorkerPool.class));
         } else {
             return testExecuter;
         }
@@ -924,7 +1089,7 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
      * @since 3.5
      */
     public void useJUnit(Action<? super JUnitOptions> testFrameworkConfigure) {
-        useTestFramework(new JUnitTestFramework(this, (DefaultTestFilter) getFilter()), testFrameworkConfigure);
+        useTestFramework(new JUnitTestFramework((DefaultTestFilter) getFilter(), getServices().get(JarTestClassHeaderCache.class), getServices().get(FileHasher.class)), testFrameworkConfigure);
     }
 
     /**
@@ -974,7 +1139,7 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
      * @since 3.5
      */
     public void useTestNG(Action<? super TestFrameworkOptions> testFrameworkConfigure) {
-        useTestFramework(new TestNGTestFramework(this, (DefaultTestFilter) getFilter(), getInstantiator(), getClassLoaderCache()), testFrameworkConfigure);
+        useTestFramework(new TestNGTestFramework(this, (DefaultTestFilter) getFilter(), getInstantiator(), getClassLoaderCache(), getServices().get(JarTestClassHeaderCache.class), getServices().get(FileHasher.class)), testFrameworkConfigure);
     }
 
     /**
@@ -1047,6 +1212,185 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
         this.maxParallelForks = maxParallelForks;
     }
 
+    /**
+     * Returns the maximum number of times a forked test process is reused once it has completed the tests it was started for. The default value is 0 (forked test processes are not reused).
+     *
+     * <p>Forked test processes that can be reused are kept alive in the Gradle daemon, and are only reused by test executions with the same JVM options and classpath.
+     * Each test execution loads the classes of the class directories on the classpath in a new ClassLoader, and system properties are reset at the end of each test execution.
+     * Classes loaded from jars, and any state they hold, are shared by the test executions of a reused process.</p>
+     *
+     * @return The maximum number of reuses of a forked test process.
+     * @since 4.9
+     */
+    @Incubating
+    @Internal
+    public int getMaxForkReuses() {
+        return getDebug() ? 0 : maxForkReuses;
+    }
+
+    /**
+     * Sets the maximum number of times a forked test process is reused once it has completed the tests it was started for. Set to 0 to disable the reuse of forked test processes.
+     *
+     * @param maxForkReuses The maximum number of reuses of a forked test process.
+     * @since 4.9
+     */
+    @Incubating
+    public void setMaxForkReuses(int maxForkReuses) {
+        if (maxForkReuses < 0) {
+            throw new IllegalArgumentException("Cannot set maxForkReuses to a value less than 0.");
+        }
+        this.maxForkReuses = maxForkReuses;
+    }
+
+    /**
+     * Returns where the tests are executed. The default value is {@link IsolationMode#PROCESS}, which executes the tests in forked test processes.
+     *
+     * <p>{@link IsolationMode#CLASSLOADER} executes the tests inside the build process, each test execution in a ClassLoader of its own, which saves
+     * starting a JVM. This is experimental and only supports JUnit and JUnit Platform tests that need no JVM configuration of their own: the task fails
+     * when JVM arguments, system properties, a different Java executable or environment variables are set. The tests share the JVM and the working
+     * directory of the build, so tests that exit the JVM, install a security manager or capture the standard output of other threads must run in
+     * a forked test process.</p>
+     *
+     * @return The isolation mode of the tests.
+     * @since 4.9
+     */
+    @Incubating
+    @Internal
+    public IsolationMode getIsolationMode() {
+        return getDebug() ? IsolationMode.PROCESS : isolationMode;
+    }
+
+    /**
+     * Sets where the tests are executed. Accepts {@link IsolationMode#PROCESS} and {@link IsolationMode#CLASSLOADER}. {@link IsolationMode#AUTO} is the same as {@link IsolationMode#PROCESS}.
+     *
+     * @param isolationMode The isolation mode of the tests.
+     * @since 4.9
+     */
+    @Incubating
+    public void setIsolationMode(IsolationMode isolationMode) {
+        if (isolationMode == IsolationMode.NONE) {
+            throw new IllegalArgumentException("Cannot set isolationMode to NONE, as tests must be isolated from the classes of the build.");
+        }
+        this.isolationMode = isolationMode == IsolationMode.AUTO ? IsolationMode.PROCESS : isolationMode;
+    }
+
+    /**
+     * Returns the maximum number of characters of standard output and standard error to keep for each test. Output beyond this is discarded in the test process,
+     * and replaced by a marker in the test reports and test output. The default value is 0 (no maximum).
+     *
+     * @return The maximum number of characters of output per test. Returns 0 when there is no maximum.
+     * @since 4.9
+     */
+    @Incubating
+    @Input
+    public long getMaxOutputPerTest() {
+        return maxOutputPerTest;
+    }
+
+    /**
+     * Sets the maximum number of characters of standard output and standard error to keep for each test. Set to 0 to keep all output.
+     *
+     * @param maxOutputPerTest The maximum number of characters of output per test.
+     * @since 4.9
+     */
+    @Incubating
+    public void setMaxOutputPerTest(long maxOutputPerTest) {
+        if (maxOutputPerTest < 0) {
+            throw new IllegalArgumentException("Cannot set maxOutputPerTest to a value less than 0.");
+        }
+        this.maxOutputPerTest = maxOutputPerTest;
+    }
+
+    /**
+     * Returns the shard of the test classes to execute, given as {@code <index>/<count>}, or null to execute all test classes.
+     *
+     * <p>The test classes are split into the given number of shards, and only the test classes of the shard with the given index are executed.
+     * The index starts at 1. This way, the tests can be split between several builds, for example on different CI agents. The test classes
+     * are split by name, so that every build splits them the same way. To split them such that the shards take about the same time, provide
+     * their durations using {@link #setShardDurations(File)}.</p>
+     *
+     * @return The shard, or null.
+     * @since 4.9
+     */
+    @Incubating
+    @Nullable
+    @Optional
+    @Input
+    public String getShard() {
+        return shard;
+    }
+
+    /**
+     * Sets the shard of the test classes to execute, given as {@code <index>/<count>}. Use null to execute all test classes.
+     *
+     * @param shard The shard, or null.
+     * @since 4.9
+     */
+    @Incubating
+    @Option(option = "shard", description = "Executes only one shard of the test classes, given as <index>/<count>, for example 1/4.")
+    public void setShard(@Nullable String shard) {
+        this.shard = shard;
+    }
+
+    /**
+     * Returns a properties file that gives the duration in milliseconds of each test class, keyed by class name, or null to split the test classes
+     * of a {@link #getShard() shard} by name.
+     *
+     * <p>The test classes are split such that the shards take about the same time with these durations. Test classes without a duration count as
+     * the average duration. The durations of previous runs on the local machine are not used, as every build must use the same durations to split
+     * the test classes consistently.</p>
+     *
+     * @return The durations file, or null.
+     * @since 4.9
+     */
+    @Incubating
+    @Nullable
+    @Optional
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public File getShardDurations() {
+        return shardDurations;
+    }
+
+    /**
+     * Sets a properties file that gives the duration in milliseconds of each test class, keyed by class name. Use null to split the test classes by name.
+     *
+     * @param shardDurations The durations file, or null.
+     * @since 4.9
+     */
+    @Incubating
+    public void setShardDurations(@Nullable File shardDurations) {
+        this.shardDurations = shardDurations;
+    }
+
+    /**
+     * Returns whether only the test classes affected by the changes since the last successful run of this task are executed. Defaults to false.
+     *
+     * <p>The class files in the directories of the test runtime classpath are compared with those of the last run in which all executed tests passed.
+     * Only the test classes that changed, or that depend directly or transitively on a changed class, are executed. Any other change, such as to a
+     * resource, a jar, the JVM arguments or the test framework options, executes all test classes. The test reports only contain the executed test
+     * classes, and the outputs of this task are not cached while this is enabled.</p>
+     *
+     * @return Whether only affected test classes are executed.
+     * @since 4.9
+     */
+    @Incubating
+    @Input
+    public boolean isRunOnlyAffectedTests() {
+        return runOnlyAffectedTests;
+    }
+
+    /**
+     * Sets whether only the test classes affected by the changes since the last successful run of this task are executed.
+     *
+     * @param runOnlyAffectedTests Whether only affected test classes are executed.
+     * @since 4.9
+     */
+    @Incubating
+    public void setRunOnlyAffectedTests(boolean runOnlyAffectedTests) {
+        this.runOnlyAffectedTests = runOnlyAffectedTests;
+    }
+
     /**
      * Returns the classes files to scan for test classes.
      *
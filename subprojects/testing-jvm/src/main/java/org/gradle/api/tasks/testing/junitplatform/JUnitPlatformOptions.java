@@ -18,6 +18,7 @@ package org.gradle.api.tasks.testing.junitplatform;
 
 import org.gradle.api.Incubating;
 import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.testing.TestFrameworkOptions;
 
 import java.util.Arrays;
@@ -40,6 +41,8 @@ public class JUnitPlatformOptions extends TestFrameworkOptions {
 
     private Set<String> excludeTags = new LinkedHashSet<String>();
 
+    private int maxParallelTests = 1;
+
     /**
      * The set of engines to run with. Equivalent to invoking <a href="https://junit.org/junit5/docs/current/api/org/junit/platform/launcher/EngineFilter.html#includeEngines-java.lang.String...-">EngineFilter.includeEngines</a>.
      *
@@ -115,4 +118,31 @@ public class JUnitPlatformOptions extends TestFrameworkOptions {
     public void setExcludeTags(Set<String> excludeTags) {
         this.excludeTags = excludeTags;
     }
+
+    /**
+     * Returns the maximum number of tests to execute concurrently in each test process, using the <a href="https://junit.org/junit5/docs/current/user-guide/#writing-tests-parallel-execution">parallel execution</a>
+     * of JUnit Jupiter. The default value is 1, which executes the tests sequentially.
+     *
+     * <p>Each test process holds a worker lease per concurrent test, so the number of test processes and the tests each one executes concurrently are limited
+     * by max-workers together. The tests opt in to concurrent execution with the {@code @Execution} annotation or the {@code junit.jupiter.execution.parallel.mode.default}
+     * configuration parameter. The output of tests that execute concurrently may be attributed to the wrong test.</p>
+     *
+     * @since 4.9
+     */
+    @Internal
+    public int getMaxParallelTests() {
+        return maxParallelTests;
+    }
+
+    /**
+     * Sets the maximum number of tests to execute concurrently in each test process.
+     *
+     * @since 4.9
+     */
+    public void setMaxParallelTests(int maxParallelTests) {
+        if (maxParallelTests < 1) {
+            throw new IllegalArgumentException("Cannot set maxParallelTests to a value less than 1.");
+        }
+        this.maxParallelTests = maxParallelTests;
+    }
 }
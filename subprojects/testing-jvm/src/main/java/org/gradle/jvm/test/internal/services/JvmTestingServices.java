@@ -16,13 +16,29 @@
 
 package org.gradle.jvm.test.internal.services;
 
+import org.gradle.api.internal.tasks.testing.detection.JarTestClassHeaderCache;
+import org.gradle.api.internal.tasks.testing.worker.ReusableTestWorkerPool;
+import org.gradle.internal.logging.LoggingManagerInternal;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
 import org.gradle.jvm.test.internal.JUnitTestSuiteBinaryRenderer;
+import org.gradle.process.internal.health.memory.MemoryManager;
 
 public class JvmTestingServices extends AbstractPluginServiceRegistry {
     @Override
     public void registerGlobalServices(ServiceRegistration registration) {
         registration.add(JUnitTestSuiteBinaryRenderer.class);
+        registration.add(JarTestClassHeaderCache.class);
+    }
+
+    @Override
+    public void registerGradleUserHomeServices(ServiceRegistration registration) {
+        registration.addProvider(new GradleUserHomeServices());
+    }
+
+    private static class GradleUserHomeServices {
+        ReusableTestWorkerPool createReusableTestWorkerPool(LoggingManagerInternal loggingManager, MemoryManager memoryManager) {
+            return new ReusableTestWorkerPool(loggingManager, memoryManager);
+        }
     }
 }
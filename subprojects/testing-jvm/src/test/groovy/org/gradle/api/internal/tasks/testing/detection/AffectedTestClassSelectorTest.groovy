@@ -0,0 +1,134 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.detection
+
+import it.unimi.dsi.fastutil.ints.IntSets
+import org.gradle.api.file.FileTreeElement
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis
+import org.gradle.internal.hash.HashCode
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class AffectedTestClassSelectorTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    final Map<String, Set<String>> dependencies = [:]
+    final ClassDependenciesAnalyzer analyzer = Stub(ClassDependenciesAnalyzer) {
+        getClassAnalysis(_ as HashCode, _ as FileTreeElement) >> { HashCode hash, FileTreeElement classFile ->
+            def path = classFile.relativePath.pathString
+            def className = path.substring(0, path.length() - '.class'.length()).replace('/', '.')
+            new ClassAnalysis(className, dependencies[className] ?: [] as Set, false, IntSets.EMPTY_SET, [] as Set)
+        }
+    }
+    final TestFile mainClasses = tmpDir.file("main")
+    final TestFile testClasses = tmpDir.file("test")
+    final List<File> classpath = [testClasses, mainClasses]
+
+    def setup() {
+        classFile(mainClasses, "org.Service", "service")
+        classFile(mainClasses, "org.Util", "util")
+        classFile(testClasses, "org.ServiceTest", "service test")
+        classFile(testClasses, "org.UtilTest", "util test")
+        classFile(testClasses, "org.OtherTest", "other test")
+        dependencies["org.Service"] = ["org.Util"] as Set
+        dependencies["org.ServiceTest"] = ["org.Service"] as Set
+        dependencies["org.UtilTest"] = ["org.Util"] as Set
+    }
+
+    def "selects all test classes when there is no previous successful run"() {
+        expect:
+        selector().selectAffectedClasses(classpath, "config") == null
+    }
+
+    def "selects no test classes when nothing changed"() {
+        given:
+        recordRun()
+
+        expect:
+        selector().selectAffectedClasses(classpath, "config").empty
+    }
+
+    def "selects changed classes and their transitive dependents"() {
+        given:
+        recordRun()
+        classFile(mainClasses, "org.Util", "changed util")
+
+        expect:
+        selector().selectAffectedClasses(classpath, "config") == ["org.Util", "org.Service", "org.ServiceTest", "org.UtilTest"] as Set
+    }
+
+    def "selects added and removed classes"() {
+        given:
+        recordRun()
+        classFile(testClasses, "org.NewTest", "new test")
+        testClasses.file("org/OtherTest.class").delete()
+
+        expect:
+        selector().selectAffectedClasses(classpath, "config") == ["org.NewTest", "org.OtherTest"] as Set
+    }
+
+    def "selects all test classes when a resource or the configuration changed"() {
+        given:
+        mainClasses.file("org/service.properties").text = "a=1"
+        recordRun()
+
+        expect:
+        selector().selectAffectedClasses(classpath, "other config") == null
+
+        when:
+        mainClasses.file("org/service.properties").text = "a=2"
+
+        then:
+        selector().selectAffectedClasses(classpath, "config") == null
+    }
+
+    def "compares with the last recorded run only"() {
+        given:
+        recordRun()
+        classFile(mainClasses, "org.Util", "changed util")
+        selector().selectAffectedClasses(classpath, "config")
+
+        expect:
+        selector().selectAffectedClasses(classpath, "config") == ["org.Util", "org.Service", "org.ServiceTest", "org.UtilTest"] as Set
+
+        when:
+        recordRun()
+
+        then:
+        selector().selectAffectedClasses(classpath, "config").empty
+    }
+
+    private void recordRun() {
+        def selector = selector()
+        selector.selectAffectedClasses(classpath, "config")
+        selector.recordSuccessfulRun()
+    }
+
+    private AffectedTestClassSelector selector() {
+        new AffectedTestClassSelector(tmpDir.file("state.bin"), TestFiles.fileHasher(), analyzer, TestFiles.directoryFileTreeFactory())
+    }
+
+    private static void classFile(TestFile dir, String className, String content) {
+        dir.file(className.replace('.', '/') + ".class").text = content
+    }
+}
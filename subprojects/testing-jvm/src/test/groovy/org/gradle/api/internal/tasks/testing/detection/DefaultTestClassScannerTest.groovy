@@ -22,7 +22,9 @@ import org.gradle.api.file.FileVisitDetails
 import org.gradle.api.file.FileVisitor
 import org.gradle.api.file.RelativePath
 import org.gradle.api.internal.file.DefaultFileVisitDetails
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.junit.Test
 import spock.lang.Specification
 
@@ -75,6 +77,90 @@ class DefaultTestClassScannerTest extends Specification {
         0 * _._
     }
 
+    def "detects test classes on several threads"() {
+        def executorFactory = new DefaultExecutorFactory()
+        DefaultTestClassScanner scanner = new DefaultTestClassScanner(files, detector, processor, executorFactory, 4)
+
+        when:
+        scanner.run()
+
+        then:
+        1 * detector.startDetection(_)
+        1 * files.visit(_) >> { FileVisitor visitor ->
+            (1..10).each { visitor.visitFile(mockFileVisitDetails("class$it")) }
+        }
+        10 * detector.processTestClass(_ as File)
+        0 * _._
+
+        cleanup:
+        executorFactory.stop()
+    }
+
+    def "passes detected test classes on in the order the class files are visited"() {
+        def executorFactory = new DefaultExecutorFactory()
+        DefaultTestClassScanner scanner = new DefaultTestClassScanner(files, detector, processor, executorFactory, 4)
+        TestClassProcessor detected = null
+
+        given:
+        detector.startDetection(_) >> { TestClassProcessor p -> detected = p }
+        files.visit(_) >> { FileVisitor visitor ->
+            (1..8).each { visitor.visitFile(mockFileVisitDetails("class$it")) }
+        }
+        detector.processTestClass(_ as File) >> { File file ->
+            def index = file.name.replaceAll(/\D/, '') as int
+            // Later class files are detected first
+            Thread.sleep(10 * (8 - index))
+            detected.processTestClass(new DefaultTestClassRunInfo(file.name - '.class'))
+            true
+        }
+
+        when:
+        scanner.run()
+
+        then:
+        1 * processor.processTestClass({ it.testClassName == 'class1' })
+        then:
+        1 * processor.processTestClass({ it.testClassName == 'class2' })
+        then:
+        1 * processor.processTestClass({ it.testClassName == 'class3' })
+        then:
+        1 * processor.processTestClass({ it.testClassName == 'class4' })
+        then:
+        1 * processor.processTestClass({ it.testClassName == 'class5' })
+        then:
+        1 * processor.processTestClass({ it.testClassName == 'class6' })
+        then:
+        1 * processor.processTestClass({ it.testClassName == 'class7' })
+        then:
+        1 * processor.processTestClass({ it.testClassName == 'class8' })
+
+        cleanup:
+        executorFactory.stop()
+    }
+
+    def "rethrows failure to detect a test class"() {
+        def executorFactory = new DefaultExecutorFactory()
+        def failure = new RuntimeException("broken")
+        DefaultTestClassScanner scanner = new DefaultTestClassScanner(files, detector, processor, executorFactory, 4)
+
+        given:
+        files.visit(_) >> { FileVisitor visitor ->
+            visitor.visitFile(mockFileVisitDetails('class1'))
+            visitor.visitFile(mockFileVisitDetails('class2'))
+        }
+        detector.processTestClass(new File("class2.class")) >> { throw failure }
+
+        when:
+        scanner.run()
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+
+        cleanup:
+        executorFactory.stop()
+    }
+
     FileVisitDetails mockFileVisitDetails(String className) {
         return new DefaultFileVisitDetails(new File("${className}.class"), new RelativePath(false, "${className}.class"), null, null, null)
     }
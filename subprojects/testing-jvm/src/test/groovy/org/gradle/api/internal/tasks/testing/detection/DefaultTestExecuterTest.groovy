@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection
+
+import org.gradle.api.internal.tasks.testing.JvmTestExecutionSpec
+import org.gradle.workers.IsolationMode
+import spock.lang.Specification
+
+class DefaultTestExecuterTest extends Specification {
+    def executer = new DefaultTestExecuter(null, null, null, null, null, 4, null, null, null, null, null)
+
+    def "limits parallel forks to max-workers"() {
+        expect:
+        executer.getMaxParallelForks(spec(IsolationMode.PROCESS, 2)) == 2
+        executer.getMaxParallelForks(spec(IsolationMode.PROCESS, 8)) == 4
+    }
+
+    def "runs a single test execution at a time when tests run in the build process"() {
+        expect:
+        executer.getMaxParallelForks(spec(IsolationMode.CLASSLOADER, 3)) == 1
+    }
+
+    def "limits parallel tests per fork so that all forks together use no more than max-workers"() {
+        def spec = spec(IsolationMode.PROCESS, maxParallelForks)
+
+        expect:
+        executer.getMaxParallelTests(spec, maxParallelTests, maxParallelForks) == effectiveMaxParallelTests
+
+        where:
+        maxParallelForks | maxParallelTests | effectiveMaxParallelTests
+        1                | 2                | 2
+        1                | 4                | 4
+        1                | 8                | 4
+        2                | 2                | 2
+        2                | 4                | 2
+        3                | 4                | 1
+        4                | 4                | 1
+        1                | 0                | 1
+    }
+
+    private JvmTestExecutionSpec spec(IsolationMode isolationMode, int maxParallelForks) {
+        return Stub(JvmTestExecutionSpec) {
+            getIsolationMode() >> isolationMode
+            getMaxParallelForks() >> maxParallelForks
+            getPath() >> ":test"
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.junit
+
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.detection.JarTestClassHeaderCache
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory
+import org.gradle.internal.event.DefaultListenerManager
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import spock.lang.Specification
+
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+class JUnitDetectorTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    final TestClassProcessor processor = Mock()
+    final JarTestClassHeaderCache headerCache = new JarTestClassHeaderCache(new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()))
+    final TestFile classesDir = tmpDir.file("classes")
+    final TestFile libraryJar = tmpDir.file("lib.jar")
+
+    def setup() {
+        classFile("org/app/SomeTest", "org/lib/BaseTest", false)
+        classFile("org/app/AnnotatedTest", "java/lang/Object", true)
+        classFile("org/app/NotATest", "org/lib/Base", false)
+        jar(libraryJar, ["org/lib/BaseTest": classBytes("org/lib/BaseTest", "java/lang/Object", true), "org/lib/Base": classBytes("org/lib/Base", "java/lang/Object", false)])
+    }
+
+    def "detects test classes that extend a test class in a library jar"() {
+        def detector = detector()
+
+        when:
+        ["SomeTest", "AnnotatedTest", "NotATest"].each { detector.processTestClass(classesDir.file("org/app/${it}.class")) }
+
+        then:
+        1 * processor.processTestClass(new DefaultTestClassRunInfo("org.app.SomeTest"))
+        1 * processor.processTestClass(new DefaultTestClassRunInfo("org.app.AnnotatedTest"))
+        0 * processor._
+    }
+
+    def "keeps the headers of library classes for the next detection"() {
+        given:
+        detector().processTestClass(classesDir.file("org/app/SomeTest.class"))
+
+        when:
+        def headers = headerCache.get(libraryJar, TestFiles.fileHasher().hash(libraryJar), JUnitDetector.name)
+
+        then:
+        headers.containsClass("org/lib/BaseTest")
+        headers.getHeader("org/lib/BaseTest").test
+        headers.getHeader("org/lib/Base") == null
+    }
+
+    private JUnitDetector detector() {
+        def detector = new JUnitDetector(headerCache, TestFiles.fileHasher())
+        detector.setTestClasses([classesDir] as Set)
+        detector.setTestClasspath([classesDir, libraryJar] as Set)
+        detector.startDetection(processor)
+        detector
+    }
+
+    private void classFile(String className, String superClassName, boolean runWith) {
+        classesDir.file("${className}.class").createFile().bytes = classBytes(className, superClassName, runWith)
+    }
+
+    private static byte[] classBytes(String className, String superClassName, boolean runWith) {
+        def writer = new ClassWriter(0)
+        writer.visit(Opcodes.V1_7, Opcodes.ACC_PUBLIC, className, null, superClassName, null)
+        if (runWith) {
+            writer.visitAnnotation("Lorg/junit/runner/RunWith;", true).visitEnd()
+        }
+        writer.visitEnd()
+        writer.toByteArray()
+    }
+
+    private static void jar(File jarFile, Map<String, byte[]> classes) {
+        def outputStream = new ZipOutputStream(new FileOutputStream(jarFile))
+        try {
+            classes.each { name, bytes ->
+                outputStream.putNextEntry(new ZipEntry("${name}.class"))
+                outputStream.write(bytes)
+                outputStream.closeEntry()
+            }
+        } finally {
+            outputStream.close()
+        }
+    }
+}